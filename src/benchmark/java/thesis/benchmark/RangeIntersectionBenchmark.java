@@ -0,0 +1,102 @@
+package thesis.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import thesis.RedisContainerTestBase;
+import thesis.config.SearchProperties;
+import thesis.data.enums.RangeIntersectionMode;
+import thesis.data.repository.custom.CustomResultRepositoryImpl;
+import thesis.utils.RedisKeyBuilder;
+
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares client side and server side intersection of the min and max index range scans on a Redis container.
+ * <p>
+ * Runs with the other benchmarks on {@code mvn test -Pbenchmark}, alone with
+ * {@code mvn test -Pbenchmark -Dbenchmark=RangeIntersection}.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class RangeIntersectionBenchmark extends RedisContainerTestBase {
+    private static final String MARKER_NAME = "benchmark";
+    private static final int RESULT_COUNT = 50_000;
+
+    // min from, min to, max from, max to; a wide minimum range with a narrow maximum range is typical for broad
+    // soil marker queries
+    @Param({"0,600,400,500", "0,1000,0,1000", "100,200,900,1000"})
+    public String query;
+
+    @Param({"CLIENT", "SERVER"})
+    public RangeIntersectionMode mode;
+
+    private CustomResultRepositoryImpl repository;
+    private double[] bounds;
+
+    @Setup(Level.Trial)
+    public void seedIndexes() {
+        setUpContainer();
+        repository = new CustomResultRepositoryImpl(redisTemplate, null, new SearchProperties());
+        bounds = new double[4];
+        var parts = query.split(",");
+        for (int i = 0; i < bounds.length; i++) {
+            bounds[i] = Double.parseDouble(parts[i]);
+        }
+
+        var random = new Random(42);
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            var stringConnection = (StringRedisConnection) connection;
+            for (int i = 0; i < RESULT_COUNT; i++) {
+                var recordId = UUID.randomUUID().toString();
+                var min = random.nextDouble() * 1000;
+                var max = min + random.nextDouble() * (1000 - min);
+                stringConnection.zAdd(RedisKeyBuilder.resultMinKey(MARKER_NAME), min, recordId);
+                stringConnection.zAdd(RedisKeyBuilder.resultMaxKey(MARKER_NAME), max, recordId);
+            }
+            return null;
+        });
+
+        var otherMode = mode == RangeIntersectionMode.CLIENT
+                ? RangeIntersectionMode.SERVER
+                : RangeIntersectionMode.CLIENT;
+        if (!intersect().equals(search(otherMode))) {
+            throw new IllegalStateException("Client and server side intersection disagree for " + query);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stopContainer() {
+        tearDownContainer();
+    }
+
+    @Benchmark
+    public Set<String> intersect() {
+        return search(mode);
+    }
+
+    private Set<String> search(RangeIntersectionMode intersectionMode) {
+        return repository.searchForRangeMatches(MARKER_NAME, bounds[0], bounds[1], bounds[2], bounds[3], false,
+                intersectionMode);
+    }
+}
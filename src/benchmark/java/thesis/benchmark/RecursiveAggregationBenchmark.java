@@ -0,0 +1,118 @@
+package thesis.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import thesis.data.enums.AggregationType;
+import thesis.domain.search.dto.NumericSearchConfiguration;
+import thesis.domain.search.dto.RecursiveResult;
+import thesis.domain.search.dto.enums.NumericSearchType;
+import thesis.domain.search.service.helpers.RecursiveNumericSearchUtil;
+import thesis.domain.search.service.helpers.RecursiveRangeAggregator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Compares the aggregation of the results of several child markers over boxed results grouped by record ID
+ * with the aggregation over primitive arrays addressed by record ordinal.
+ * <p>
+ * Runs with the other benchmarks on {@code mvn test -Pbenchmark}, alone with
+ * {@code mvn test -Pbenchmark -Dbenchmark=RecursiveAggregation}.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class RecursiveAggregationBenchmark {
+    private static final int RECORD_COUNT = 100_000;
+    private static final int CHILD_MARKER_COUNT = 4;
+
+    @Param({"AVERAGE", "SUM"})
+    public AggregationType aggregationType;
+
+    private List<String> recordIds;
+    private int[] ordinals;
+    // the minimum and maximum of record i of child marker c are at values[c][2i] and values[c][2i + 1]
+    private double[][] values;
+    private NumericSearchConfiguration config;
+
+    @Setup(Level.Trial)
+    public void seedValues() {
+        recordIds = new ArrayList<>(RECORD_COUNT);
+        ordinals = new int[RECORD_COUNT];
+        for (int i = 0; i < RECORD_COUNT; i++) {
+            recordIds.add(String.valueOf(i));
+            ordinals[i] = i;
+        }
+
+        var random = new Random(42);
+        values = new double[CHILD_MARKER_COUNT][RECORD_COUNT * 2];
+        for (var childValues : values) {
+            for (int i = 0; i < RECORD_COUNT; i++) {
+                childValues[2 * i] = random.nextDouble() * 100;
+                childValues[2 * i + 1] = childValues[2 * i] + random.nextDouble() * 10;
+            }
+        }
+
+        // the same share of records matches for both aggregation types
+        var scale = aggregationType == AggregationType.AVERAGE ? 1 : CHILD_MARKER_COUNT;
+        config = new NumericSearchConfiguration("benchmark", null, 25.0 * scale, 75.0 * scale, null, null,
+                NumericSearchType.EXACT_MATCH, false);
+        config.setWithTolerance(false);
+
+        if (boxed() != primitive()) {
+            throw new IllegalStateException("Boxed and primitive aggregation disagree for " + aggregationType);
+        }
+    }
+
+    @Benchmark
+    public long boxed() {
+        List<RecursiveResult> results = new ArrayList<>();
+        for (int c = 0; c < CHILD_MARKER_COUNT; c++) {
+            for (int i = 0; i < RECORD_COUNT; i++) {
+                var result = new RecursiveResult(recordIds.get(i), values[c][2 * i], values[c][2 * i + 1]);
+                result.setMarkerName("child" + c);
+                results.add(result);
+            }
+        }
+
+        return results.stream()
+                .collect(Collectors.groupingBy(RecursiveResult::getRecordId))
+                .entrySet().stream()
+                .map(entry -> RecursiveNumericSearchUtil.aggregateResults(entry.getKey(), entry.getValue(), aggregationType))
+                .filter(result -> RecursiveNumericSearchUtil.filterByNumericSearchType(config, result.getMin(), result.getMax()))
+                .count();
+    }
+
+    @Benchmark
+    public long primitive() {
+        var aggregator = new RecursiveRangeAggregator(RECORD_COUNT, aggregationType);
+        for (var childValues : values) {
+            aggregator.add(ordinals, childValues, RECORD_COUNT);
+        }
+
+        long matches = 0;
+        for (int i = 0; i < RECORD_COUNT; i++) {
+            if (RecursiveNumericSearchUtil.filterByNumericSearchType(config, aggregator.getMin(i), aggregator.getMax(i))) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+}
@@ -0,0 +1,26 @@
+package thesis.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * Configuration class providing the container for Redis pub/sub and keyspace notification listeners.
+ */
+@Configuration
+public class RedisListenerConfig {
+
+    /**
+     * Provides a message listener container, listeners subscribe lazily when they are registered.
+     *
+     * @param connectionFactory the Redis connection factory
+     * @return the message listener container
+     */
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory) {
+        var container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        return container;
+    }
+}
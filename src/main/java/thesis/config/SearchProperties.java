@@ -0,0 +1,173 @@
+package thesis.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration properties for the search layer, bound from the {@code search.*} keys.
+ */
+@Component
+@ConfigurationProperties(prefix = "search")
+public class SearchProperties {
+    // whether numeric range intersections are computed inside Redis instead of in the application
+    private boolean serverSideIntersection = true;
+    // number of entity hashes fetched from Redis in a single pipelined round trip
+    private int hydrationChunkSize = 500;
+    // whether numeric range searches are answered from an in-memory mirror of the min and max indexes
+    private boolean indexMirrorEnabled = false;
+    // number of sub-queries of a single advanced search that are executed at the same time
+    private int subQueryConcurrency = 4;
+    // number of threads shared by the sub-queries of all advanced searches
+    private int subQueryThreads = 16;
+    // whether boolean and string searches read the bitmap indexes instead of the Spring Data index sets
+    private boolean bitmapIndexEnabled = false;
+    // whether ordered comparisons of string values read the category ordinal indexes instead of the value index sets
+    private boolean categoryOrdinalIndexEnabled = false;
+    // maximum number of search results kept in the result cache, 0 disables the cache
+    private int resultCacheSize = 1000;
+    // whether markers, units, technologies and string categories are cached in memory
+    private boolean metadataCacheEnabled = true;
+    // time after which a cached marker, unit, technology or string category is loaded again
+    private int metadataCacheTtlSeconds = 300;
+    // whether numeric searches of markers with children read the materialized indexes of the aggregated values
+    private boolean aggregatedIndexEnabled = false;
+    // whether sample and timestamp search filters are answered from indexes instead of the loaded results
+    private boolean filterIndexEnabled = false;
+    // whether numeric searches with technology filters read the min and max indexes partitioned by technology
+    private boolean technologyPartitionEnabled = false;
+    // number of threads that load the columns of the numeric column snapshot from Redis
+    private int columnSnapshotThreads = 4;
+    // whether numeric searches skip ranges outside the envelope of the marker statistics without reading the indexes,
+    // every pruned index read first checks the search version of its marker
+    private boolean statisticsCatalogEnabled = false;
+    // number of buckets of the histograms of the marker statistics
+    private int statisticsHistogramBuckets = 16;
+
+    public boolean isServerSideIntersection() {
+        return serverSideIntersection;
+    }
+
+    public void setServerSideIntersection(boolean serverSideIntersection) {
+        this.serverSideIntersection = serverSideIntersection;
+    }
+
+    public int getHydrationChunkSize() {
+        return hydrationChunkSize;
+    }
+
+    public void setHydrationChunkSize(int hydrationChunkSize) {
+        this.hydrationChunkSize = hydrationChunkSize;
+    }
+
+    public boolean isIndexMirrorEnabled() {
+        return indexMirrorEnabled;
+    }
+
+    public void setIndexMirrorEnabled(boolean indexMirrorEnabled) {
+        this.indexMirrorEnabled = indexMirrorEnabled;
+    }
+
+    public int getSubQueryConcurrency() {
+        return subQueryConcurrency;
+    }
+
+    public void setSubQueryConcurrency(int subQueryConcurrency) {
+        this.subQueryConcurrency = subQueryConcurrency;
+    }
+
+    public int getSubQueryThreads() {
+        return subQueryThreads;
+    }
+
+    public void setSubQueryThreads(int subQueryThreads) {
+        this.subQueryThreads = subQueryThreads;
+    }
+
+    public boolean isBitmapIndexEnabled() {
+        return bitmapIndexEnabled;
+    }
+
+    public void setBitmapIndexEnabled(boolean bitmapIndexEnabled) {
+        this.bitmapIndexEnabled = bitmapIndexEnabled;
+    }
+
+    public boolean isCategoryOrdinalIndexEnabled() {
+        return categoryOrdinalIndexEnabled;
+    }
+
+    public void setCategoryOrdinalIndexEnabled(boolean categoryOrdinalIndexEnabled) {
+        this.categoryOrdinalIndexEnabled = categoryOrdinalIndexEnabled;
+    }
+
+    public int getResultCacheSize() {
+        return resultCacheSize;
+    }
+
+    public void setResultCacheSize(int resultCacheSize) {
+        this.resultCacheSize = resultCacheSize;
+    }
+
+    public boolean isMetadataCacheEnabled() {
+        return metadataCacheEnabled;
+    }
+
+    public void setMetadataCacheEnabled(boolean metadataCacheEnabled) {
+        this.metadataCacheEnabled = metadataCacheEnabled;
+    }
+
+    public int getMetadataCacheTtlSeconds() {
+        return metadataCacheTtlSeconds;
+    }
+
+    public void setMetadataCacheTtlSeconds(int metadataCacheTtlSeconds) {
+        this.metadataCacheTtlSeconds = metadataCacheTtlSeconds;
+    }
+
+    public boolean isAggregatedIndexEnabled() {
+        return aggregatedIndexEnabled;
+    }
+
+    public void setAggregatedIndexEnabled(boolean aggregatedIndexEnabled) {
+        this.aggregatedIndexEnabled = aggregatedIndexEnabled;
+    }
+
+    public boolean isFilterIndexEnabled() {
+        return filterIndexEnabled;
+    }
+
+    public void setFilterIndexEnabled(boolean filterIndexEnabled) {
+        this.filterIndexEnabled = filterIndexEnabled;
+    }
+
+    public boolean isTechnologyPartitionEnabled() {
+        return technologyPartitionEnabled;
+    }
+
+    public void setTechnologyPartitionEnabled(boolean technologyPartitionEnabled) {
+        this.technologyPartitionEnabled = technologyPartitionEnabled;
+    }
+
+    public int getColumnSnapshotThreads() {
+        return columnSnapshotThreads;
+    }
+
+    public void setColumnSnapshotThreads(int columnSnapshotThreads) {
+        this.columnSnapshotThreads = columnSnapshotThreads;
+    }
+
+    public boolean isStatisticsCatalogEnabled() {
+        return statisticsCatalogEnabled;
+    }
+
+    public void setStatisticsCatalogEnabled(boolean statisticsCatalogEnabled) {
+        this.statisticsCatalogEnabled = statisticsCatalogEnabled;
+    }
+
+    public int getStatisticsHistogramBuckets() {
+        return statisticsHistogramBuckets;
+    }
+
+    public void setStatisticsHistogramBuckets(int statisticsHistogramBuckets) {
+        this.statisticsHistogramBuckets = statisticsHistogramBuckets;
+    }
+}
@@ -0,0 +1,10 @@
+package thesis.data.enums;
+
+/**
+ * Enum representing where the intersection of the min and max index range scans is computed.
+ * CLIENT transfers both range scans and intersects them in the application,
+ * SERVER executes the range scans and the intersection inside Redis.
+ */
+public enum RangeIntersectionMode {
+    CLIENT, SERVER
+}
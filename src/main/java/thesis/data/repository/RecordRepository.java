@@ -2,6 +2,7 @@ package thesis.data.repository;
 
 import org.springframework.data.repository.CrudRepository;
 import thesis.data.model.Record;
+import thesis.data.repository.custom.CustomRecordRepository;
 
-public interface RecordRepository extends CrudRepository<Record, String> {
+public interface RecordRepository extends CrudRepository<Record, String>, CustomRecordRepository {
 }
@@ -0,0 +1,52 @@
+package thesis.data.repository.custom;
+
+import thesis.data.model.Record;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Custom repository interface for Record entity.
+ * This interface defines methods for reading records from a Redis database in chunks
+ * and for maintaining the dense ordinals of the record IDs.
+ */
+public interface CustomRecordRepository {
+
+    /**
+     * Reads all records in pipelined chunks and passes each chunk to the consumer.
+     *
+     * @param chunkConsumer the consumer receiving the records of each chunk
+     */
+    void streamAllRecords(Consumer<List<Record>> chunkConsumer);
+
+    /**
+     * Reads the IDs of all records in chunks without loading the records.
+     *
+     * @param idChunkConsumer the consumer receiving the IDs of each chunk
+     */
+    void streamAllRecordIds(Consumer<List<String>> idChunkConsumer);
+
+    /**
+     * Returns the ordinals of the given record IDs, allocating the next values of the ordinal sequence
+     * for record IDs that do not have one yet. Allocation is atomic, concurrent callers get the same ordinal.
+     *
+     * @param recordIds the record IDs
+     * @return the ordinals in the order of the record IDs
+     */
+    List<Integer> allocateOrdinals(List<String> recordIds);
+
+    /**
+     * Reads the record IDs of the given ordinals.
+     *
+     * @param ordinals the ordinals
+     * @return the record IDs in the order of the ordinals, null for ordinals that were never allocated
+     */
+    List<String> findRecordIdsByOrdinals(List<Integer> ordinals);
+
+    /**
+     * Removes the ordinal of the given record ID. The ordinal is not reused.
+     *
+     * @param recordId the record ID
+     */
+    void deleteOrdinal(String recordId);
+}
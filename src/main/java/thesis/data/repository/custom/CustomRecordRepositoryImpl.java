@@ -0,0 +1,123 @@
+package thesis.data.repository.custom;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Repository;
+import thesis.data.model.Record;
+import thesis.utils.RedisKeyBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+@Repository
+public class CustomRecordRepositoryImpl implements CustomRecordRepository {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CustomRecordRepositoryImpl.class);
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> ALLOCATE_ORDINALS_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/record-ordinal-allocate.lua"), List.class);
+    // number of record IDs sent to the allocation script at once, bounds the time the script blocks the server
+    private static final int ORDINAL_BATCH_SIZE = 1000;
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisHashBatchReader batchReader;
+
+    @Autowired
+    public CustomRecordRepositoryImpl(StringRedisTemplate redisTemplate, RedisHashBatchReader batchReader) {
+        this.redisTemplate = redisTemplate;
+        this.batchReader = batchReader;
+    }
+
+    @Override
+    public void streamAllRecords(Consumer<List<Record>> chunkConsumer) {
+        batchReader.scanKeyspace(Record.class, RedisKeyBuilder.RECORD_KEYSPACE, chunkConsumer);
+    }
+
+    @Override
+    public void streamAllRecordIds(Consumer<List<String>> idChunkConsumer) {
+        batchReader.scanKeyspaceIds(RedisKeyBuilder.RECORD_KEYSPACE, idChunkConsumer);
+    }
+
+    @Override
+    public List<Integer> allocateOrdinals(List<String> recordIds) {
+        List<Integer> ordinals = new ArrayList<>(recordIds.size());
+        for (int from = 0; from < recordIds.size(); from += ORDINAL_BATCH_SIZE) {
+            var batch = recordIds.subList(from, Math.min(recordIds.size(), from + ORDINAL_BATCH_SIZE));
+            ordinals.addAll(allocateOrdinalBatch(batch));
+        }
+        return ordinals;
+    }
+
+    @Override
+    public List<String> findRecordIdsByOrdinals(List<Integer> ordinals) {
+        if (ordinals.isEmpty()) {
+            return List.of();
+        }
+
+        List<Object> fields = ordinals.stream().map(ordinal -> (Object) String.valueOf(ordinal)).toList();
+        return redisTemplate.opsForHash().multiGet(RedisKeyBuilder.RECORD_IDS_BY_ORDINAL_KEY, fields).stream()
+                .map(recordId -> (String) recordId)
+                .toList();
+    }
+
+    @Override
+    public void deleteOrdinal(String recordId) {
+        var ordinal = redisTemplate.opsForHash().get(RedisKeyBuilder.RECORD_ORDINALS_KEY, recordId);
+        redisTemplate.opsForHash().delete(RedisKeyBuilder.RECORD_ORDINALS_KEY, recordId);
+        if (ordinal != null) {
+            redisTemplate.opsForHash().delete(RedisKeyBuilder.RECORD_IDS_BY_ORDINAL_KEY, ordinal);
+        }
+    }
+
+    private List<Integer> allocateOrdinalBatch(List<String> recordIds) {
+        try {
+            List<?> ordinals = redisTemplate.execute(ALLOCATE_ORDINALS_SCRIPT,
+                    List.of(RedisKeyBuilder.RECORD_ORDINALS_KEY, RedisKeyBuilder.RECORD_IDS_BY_ORDINAL_KEY,
+                            RedisKeyBuilder.RECORD_ORDINAL_SEQUENCE_KEY),
+                    recordIds.toArray());
+            if (ordinals != null) {
+                return ordinals.stream().map(ordinal -> toOrdinal(((Number) ordinal).longValue())).toList();
+            }
+        } catch (DataAccessException e) {
+            // scripting may be disabled on the server, HSETNX keeps the client side allocation consistent
+            LOGGER.warn("Server side ordinal allocation failed, falling back to client side allocation", e);
+        }
+        return allocateOrdinalBatchOnClient(recordIds);
+    }
+
+    private List<Integer> allocateOrdinalBatchOnClient(List<String> recordIds) {
+        var hashOperations = redisTemplate.opsForHash();
+        var existing = hashOperations.multiGet(RedisKeyBuilder.RECORD_ORDINALS_KEY, new ArrayList<>(recordIds));
+        List<Integer> ordinals = new ArrayList<>(recordIds.size());
+
+        for (int i = 0; i < recordIds.size(); i++) {
+            var ordinal = existing.get(i);
+            if (ordinal == null) {
+                var recordId = recordIds.get(i);
+                var next = String.valueOf(redisTemplate.opsForValue().increment(RedisKeyBuilder.RECORD_ORDINAL_SEQUENCE_KEY));
+                if (hashOperations.putIfAbsent(RedisKeyBuilder.RECORD_ORDINALS_KEY, recordId, next)) {
+                    hashOperations.put(RedisKeyBuilder.RECORD_IDS_BY_ORDINAL_KEY, next, recordId);
+                    ordinal = next;
+                } else {
+                    // another instance allocated an ordinal in the meantime, the sequence value is left unused
+                    ordinal = hashOperations.get(RedisKeyBuilder.RECORD_ORDINALS_KEY, recordId);
+                }
+            }
+            ordinals.add(toOrdinal(Long.parseLong((String) ordinal)));
+        }
+        return ordinals;
+    }
+
+    private static int toOrdinal(long value) {
+        if (value > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Record ordinal sequence exceeded the range of int");
+        }
+        return (int) value;
+    }
+}
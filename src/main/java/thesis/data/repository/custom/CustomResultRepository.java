@@ -1,18 +1,26 @@
 package thesis.data.repository.custom;
 
 import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
+import thesis.data.enums.RangeIntersectionMode;
 import thesis.data.model.Result;
 
+import java.time.LocalDateTime;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Map;
+import java.util.List;
 import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Custom repository interface for Result entity.
  * This interface defines methods for saving, deleting, and searching results in a Redis database.
  */
-public interface CustomResultRepository {
+public interface CustomResultRepository extends NumericRangeIndex {
 
     /**
      * Saves min and max of the result to indexes for search.
+     * A result with a technology is also saved to the technology partition of its marker.
      *
      * @param result the result to save
      */
@@ -28,26 +36,20 @@ public interface CustomResultRepository {
     void saveResultSearchIndexWithTechDeviations(Result result, Double min, Double max);
 
     /**
-     * Searches for results with minimum matches for a given marker name and range.
+     * Searches for results whose minimum and maximum both fall into the given ranges,
+     * using the given range intersection mode.
      *
      * @param markerName            the name of the marker
-     * @param min                   the minimum value
-     * @param max                   the maximum value
+     * @param minFrom               the lower bound for the minimum value
+     * @param minTo                 the upper bound for the minimum value
+     * @param maxFrom               the lower bound for the maximum value
+     * @param maxTo                 the upper bound for the maximum value
      * @param withTechDeviations    whether to include technology deviations
-     * @return a set of record IDs that match the criteria
+     * @param mode                  where the intersection of the two range scans is computed
+     * @return a set of record IDs that match both ranges
      */
-    Set<String> searchForMinimumMatches(String markerName, Double min, Double max, Boolean withTechDeviations);
-
-    /**
-     * Searches for results with maximum matches for a given marker name and range.
-     *
-     * @param markerName            the name of the marker
-     * @param min                   the minimum value
-     * @param max                   the maximum value
-     * @param withTechDeviations    whether to include technology deviations
-     * @return a set of record IDs that match the criteria
-     */
-    Set<String> searchForMaximumMatches(String markerName, Double min, Double max, Boolean withTechDeviations);
+    Set<String> searchForRangeMatches(String markerName, Double minFrom, Double minTo, Double maxFrom, Double maxTo,
+                                      Boolean withTechDeviations, RangeIntersectionMode mode);
 
     /**
      * Retrieves all minimum results for a given marker name.
@@ -67,6 +69,62 @@ public interface CustomResultRepository {
      */
     Set<TypedTuple<String>> getAllMaxResultsForMarker(String markerName, Boolean withTechDeviations);
 
+    /**
+     * Retrieves results for the given result IDs using pipelined batches of HGETALL commands.
+     *
+     * @param resultIds the IDs of the results to retrieve
+     * @return a map of result ID to result, IDs of results that do not exist are not contained
+     */
+    Map<String, Result> findAllResultsByIds(Collection<String> resultIds);
+
+    /**
+     * Reads the results with the given IDs in pipelined chunks and passes each chunk to the consumer.
+     *
+     * @param resultIds     the IDs of the results to read
+     * @param chunkConsumer the consumer receiving the results of each chunk, IDs of results that do not exist are skipped
+     */
+    void streamResultsByIds(Collection<String> resultIds, Consumer<List<Result>> chunkConsumer);
+
+    /**
+     * Reads all results in pipelined chunks and passes each chunk to the consumer.
+     *
+     * @param chunkConsumer the consumer receiving the results of each chunk
+     */
+    void streamAllResults(Consumer<List<Result>> chunkConsumer);
+
+    /**
+     * Retrieves the IDs of the results matching all given indexed property values without loading the results.
+     *
+     * @param indexedValues the indexed property names and their values, e.g. markerName and stringValue
+     * @return a set of result IDs
+     */
+    Set<String> findResultIdsByIndexedValues(Map<String, String> indexedValues);
+
+    /**
+     * Counts the results matching all given indexed property values without transferring their IDs.
+     *
+     * @param indexedValues the indexed property names and their values, e.g. markerName and stringValue
+     * @return the number of matching results
+     */
+    long countResultIdsByIndexedValues(Map<String, String> indexedValues);
+
+    /**
+     * Checks which of the given results match all given indexed property values without loading the results.
+     *
+     * @param resultIds     the candidate result IDs
+     * @param indexedValues the indexed property names and their values, e.g. stringValue and technologyName
+     * @return the subset of the candidate result IDs that are contained in every index set
+     */
+    Set<String> filterResultIdsByIndexedValues(Collection<String> resultIds, Map<String, String> indexedValues);
+
+    /**
+     * Retrieves the IDs of all results of a given record without loading the results.
+     *
+     * @param recordId the ID of the record
+     * @return a set of result IDs
+     */
+    Set<String> getResultIdsByRecordId(String recordId);
+
     /**
      * Retrieves the technology name for a given record ID and marker name.
      *
@@ -77,7 +135,7 @@ public interface CustomResultRepository {
     String getTechnologyName(String recordId, String markerName);
 
     /**
-     * Deletes the search index for a given result.
+     * Deletes the search index for a given result, including its technology partition.
      *
      * @param result the result to delete
      */
@@ -89,4 +147,235 @@ public interface CustomResultRepository {
      * @param result the result to delete
      */
     void deleteResultSearchIndexWithTechDeviations(Result result);
+
+    /**
+     * Sets or clears the bits of record ordinals in the given result bitmap indexes.
+     *
+     * @param ordinalsByKey the record ordinals to update per bitmap key
+     * @param value         true to set the bits, false to clear them
+     */
+    void updateResultBitmaps(Map<String, ? extends Collection<Integer>> ordinalsByKey, boolean value);
+
+    /**
+     * Reads the given result bitmap indexes in one round trip and combines them:
+     * the bitmaps of a group are united and the groups are intersected.
+     *
+     * @param keyGroups the groups of bitmap keys, a missing key is an empty bitmap
+     * @return the record ordinals set in the combined bitmap, empty if there are no groups
+     */
+    BitSet findOrdinalsByResultBitmaps(List<? extends Collection<String>> keyGroups);
+
+    /**
+     * Deletes the result bitmap indexes of all markers.
+     *
+     * @return the number of deleted bitmaps
+     */
+    long deleteAllResultBitmaps();
+
+    /**
+     * Scores the given results in the category ordinal indexes of their markers
+     * with the position of their string value in the category.
+     *
+     * @param categoryName        the name of the string category of the results
+     * @param ordinalsByResultId the position of the string value per result ID
+     */
+    void saveResultCategoryOrdinals(String categoryName, Map<String, Integer> ordinalsByResultId);
+
+    /**
+     * Removes the given results from the category ordinal indexes of their markers.
+     *
+     * @param categoryName the name of the string category of the results
+     * @param resultIds    the IDs of the results to remove
+     */
+    void deleteResultCategoryOrdinals(String categoryName, Collection<String> resultIds);
+
+    /**
+     * Searches for the records of a marker whose string value has a position in the category between the bounds.
+     *
+     * @param markerName   the name of the marker
+     * @param categoryName the name of the string category
+     * @param from         the lowest position, inclusive
+     * @param to           the highest position, inclusive
+     * @return the matching record IDs
+     */
+    Set<String> searchForCategoryOrdinalMatches(String markerName, String categoryName, int from, int to);
+
+    /**
+     * Counts the records of a marker whose string value has a position in the category between the bounds.
+     *
+     * @param markerName   the name of the marker
+     * @param categoryName the name of the string category
+     * @param from         the lowest position, inclusive
+     * @param to           the highest position, inclusive
+     * @return the number of matching records
+     */
+    long countCategoryOrdinalMatches(String markerName, String categoryName, int from, int to);
+
+    /**
+     * Checks which of the given records have a string value with a position in the category between the bounds,
+     * by reading their scores in batches.
+     *
+     * @param markerName   the name of the marker
+     * @param categoryName the name of the string category
+     * @param from         the lowest position, inclusive
+     * @param to           the highest position, inclusive
+     * @param recordIds    the candidate record IDs
+     * @return the subset of the candidate record IDs that match
+     */
+    Set<String> probeCategoryOrdinalMatches(String markerName, String categoryName, int from, int to,
+                                            Collection<String> recordIds);
+
+    /**
+     * Deletes the category ordinal indexes of all markers.
+     *
+     * @return the number of deleted indexes
+     */
+    long deleteAllCategoryOrdinals();
+
+    /**
+     * Adds the records of the given results to the sample and timestamp filter indexes of their markers
+     * in one pipelined round trip. A result without sample or timestamp is not added to the respective index.
+     *
+     * @param results the saved results
+     */
+    void saveResultFilterIndexes(Collection<Result> results);
+
+    /**
+     * Removes the record of the given result from the sample and timestamp filter indexes of its marker.
+     *
+     * @param result the result to remove, with the values it was indexed with
+     */
+    void deleteResultFilterIndexes(Result result);
+
+    /**
+     * Searches for the records of a marker with the given sample and a timestamp between the bounds.
+     * At least one of the filters has to be set.
+     *
+     * @param markerName    the name of the marker
+     * @param sample        the sample, not filtered by if null
+     * @param fromTimestamp the earliest timestamp, inclusive, not bounded if null
+     * @param toTimestamp   the latest timestamp, inclusive, not bounded if null
+     * @return the matching record IDs
+     */
+    Set<String> searchForFilterMatches(String markerName, String sample, LocalDateTime fromTimestamp,
+                                       LocalDateTime toTimestamp);
+
+    /**
+     * Checks which of the given records of a marker have the given sample and a timestamp between the bounds.
+     * The filter indexes are read in one pipelined round trip per batch of records.
+     *
+     * @param markerName    the name of the marker
+     * @param sample        the sample, not filtered by if null
+     * @param fromTimestamp the earliest timestamp, inclusive, not bounded if null
+     * @param toTimestamp   the latest timestamp, inclusive, not bounded if null
+     * @param recordIds     the candidate record IDs
+     * @return the subset of the candidate record IDs that match
+     */
+    Set<String> probeFilterMatches(String markerName, String sample, LocalDateTime fromTimestamp,
+                                   LocalDateTime toTimestamp, Collection<String> recordIds);
+
+    /**
+     * Deletes the sample and timestamp filter indexes of all markers.
+     *
+     * @return the number of deleted indexes
+     */
+    long deleteAllResultFilterIndexes();
+
+    /**
+     * Reads the scores of the given records in the min and max indexes of several markers.
+     * The indexes of all markers are read in one pipelined round trip per batch of records.
+     *
+     * @param markerNames        the names of the markers
+     * @param withTechDeviations whether the indexes with applied technology deviations are read
+     * @param recordIds          the IDs of the records
+     * @return the scores per marker name and record ID, records missing in the indexes of a marker are not contained
+     */
+    Map<String, Map<String, ScoredRange>> getSearchIndexRanges(Collection<String> markerNames, Boolean withTechDeviations,
+                                                               Collection<String> recordIds);
+
+    /**
+     * Writes the scores of records to the min and max indexes of a marker in one pipelined round trip,
+     * e.g. of an aggregated marker whose scores are computed from the results of its child markers.
+     *
+     * @param markerName         the name of the marker
+     * @param withTechDeviations whether the indexes with applied technology deviations are written
+     * @param ranges             the scores to save per record ID
+     * @param removedRecordIds   the IDs of the records to remove from the indexes
+     */
+    void saveSearchIndexRanges(String markerName, Boolean withTechDeviations, Map<String, ScoredRange> ranges,
+                               Collection<String> removedRecordIds);
+
+    /**
+     * Deletes the min and max indexes of a marker, with and without applied technology deviations.
+     *
+     * @param markerName the name of the marker
+     */
+    void deleteSearchIndexes(String markerName);
+
+    /**
+     * Computes the statistics of the min and max indexes of a marker from the indexes in one server side script,
+     * replacing the previous statistics. The histogram bounds are read at evenly spaced ranks of the indexes.
+     *
+     * @param markerName         the name of the marker
+     * @param withTechDeviations whether the statistics of the indexes with applied technology deviations are built
+     * @param histogramBuckets   the number of buckets of the histograms
+     */
+    void buildMarkerStatistics(String markerName, Boolean withTechDeviations, int histogramBuckets);
+
+    /**
+     * Updates the statistics of the markers of results that are about to be written to the indexes, in one pipeline.
+     * The scores the results were indexed with before are read from the indexes by the script, so it must run before
+     * the new scores are written. Statistics that were not built yet are not created.
+     *
+     * @param updates the scores the results are indexed with from now on
+     */
+    void updateMarkerStatistics(List<MarkerStatisticsUpdate> updates);
+
+    /**
+     * Reads the statistics of the min and max indexes of a marker.
+     *
+     * @param markerName         the name of the marker
+     * @param withTechDeviations whether the statistics of the indexes with applied technology deviations are read
+     * @return the statistics, null if they were not built
+     */
+    MarkerStatistics getMarkerStatistics(String markerName, Boolean withTechDeviations);
+
+    /**
+     * Returns the min and max indexes of the results measured with one technology as a range index.
+     * The partitions are maintained together with the indexes of all results of a marker while
+     * {@code search.technology-partition-enabled} is set, see {@link #saveResultSearchIndex(Result)}.
+     *
+     * @param technologyName the name of the technology
+     * @return the range index over the partitions of the technology
+     */
+    NumericRangeIndex getTechnologyPartition(String technologyName);
+
+    /**
+     * Writes the scores of records to the technology partition of a marker in one pipelined round trip,
+     * e.g. when the partitions are built from the indexes of all results.
+     *
+     * @param markerName         the name of the marker
+     * @param technologyName     the name of the technology of the records
+     * @param withTechDeviations whether the partition with applied technology deviations is written
+     * @param ranges             the scores to save per record ID
+     */
+    void saveTechnologyPartitionRanges(String markerName, String technologyName, Boolean withTechDeviations,
+                                       Map<String, ScoredRange> ranges);
+
+    /**
+     * Deletes the technology partitions of all markers.
+     *
+     * @return the number of deleted indexes
+     */
+    long deleteAllTechnologyPartitions();
+
+    /**
+     * Scans the record IDs in the min index of a marker with ZSCAN and passes them to the consumer chunk by chunk,
+     * so the index is never loaded at once. A record may be passed more than once if the index changes during the scan.
+     *
+     * @param markerName            the name of the marker
+     * @param withTechDeviations    whether the index with applied technology deviations is scanned
+     * @param recordIdChunkConsumer the consumer receiving the record IDs of each chunk
+     */
+    void scanSearchIndexRecordIds(String markerName, Boolean withTechDeviations, Consumer<List<String>> recordIdChunkConsumer);
 }
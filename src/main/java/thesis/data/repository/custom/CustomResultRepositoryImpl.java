@@ -1,50 +1,331 @@
 package thesis.data.repository.custom;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.ScanOptions;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.stereotype.Repository;
+import thesis.config.SearchProperties;
+import thesis.data.enums.RangeIntersectionMode;
 import thesis.data.model.Result;
 import thesis.utils.EntityUtils;
 import thesis.utils.RedisKeyBuilder;
+import thesis.utils.SetUtils;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Repository
 public class CustomResultRepositoryImpl implements CustomResultRepository {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CustomResultRepositoryImpl.class);
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> RANGE_INTERSECTION_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/range-intersection.lua"), List.class);
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> RANGE_PAGE_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/range-page.lua"), List.class);
+    private static final RedisScript<Long> RANGE_COUNT_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/range-count.lua"), Long.class);
+    private static final RedisScript<Long> SET_INTERSECTION_COUNT_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/set-intersection-count.lua"), Long.class);
+    private static final RedisScript<Long> MARKER_STATISTICS_BUILD_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/marker-statistics-build.lua"), Long.class);
+    private static final RedisScript<Long> MARKER_STATISTICS_UPDATE_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/marker-statistics-update.lua"), Long.class);
+
     private final StringRedisTemplate redisTemplate;
+    private final RedisHashBatchReader batchReader;
+    private final SearchProperties searchProperties;
 
     @Autowired
-    public CustomResultRepositoryImpl(StringRedisTemplate redisTemplate) {
+    public CustomResultRepositoryImpl(StringRedisTemplate redisTemplate, RedisHashBatchReader batchReader,
+                                      SearchProperties searchProperties) {
         this.redisTemplate = redisTemplate;
+        this.batchReader = batchReader;
+        this.searchProperties = searchProperties;
     }
 
     @Override
     public void saveResultSearchIndex(Result result) {
-        redisTemplate.opsForZSet().add(RedisKeyBuilder.resultMinKey(result.getMarkerName()), result.getRecordId(), result.getMin());
-        redisTemplate.opsForZSet().add(RedisKeyBuilder.resultMaxKey(result.getMarkerName()), result.getRecordId(), result.getMax());
+        saveResultSearchIndex(result, false, result.getMin(), result.getMax());
     }
 
     @Override
     public void saveResultSearchIndexWithTechDeviations(Result result, Double min, Double max) {
-        redisTemplate.opsForZSet().add(RedisKeyBuilder.techResultMinKey(result.getMarkerName()), result.getRecordId(), min);
-        redisTemplate.opsForZSet().add(RedisKeyBuilder.techResultMaxKey(result.getMarkerName()), result.getRecordId(), max);
+        saveResultSearchIndex(result, true, min, max);
+    }
+
+    // the technology partition is written in the same round trip as the index of all results
+    private void saveResultSearchIndex(Result result, boolean withTechDeviations, Double min, Double max) {
+        var member = result.getRecordId().getBytes(StandardCharsets.UTF_8);
+        var keys = getResultIndexKeys(result, withTechDeviations);
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (int i = 0; i < keys.size(); i += 2) {
+                connection.zSetCommands().zAdd(rawKey(keys.get(i)), min, member);
+                connection.zSetCommands().zAdd(rawKey(keys.get(i + 1)), max, member);
+            }
+            return null;
+        });
     }
 
     @Override
     public Set<String> searchForMinimumMatches(String markerName, Double min, Double max, Boolean withTechDeviations) {
-        var indexKey = withTechDeviations
-                ? RedisKeyBuilder.techResultMinKey(markerName)
-                : RedisKeyBuilder.resultMinKey(markerName);
-        return redisTemplate.opsForZSet().rangeByScore(indexKey, min, max);
+        return searchForScoreMatches(minIndexKey(markerName, withTechDeviations), min, max);
     }
 
     @Override
     public Set<String> searchForMaximumMatches(String markerName, Double min, Double max, Boolean withTechDeviations) {
-        var indexKey = withTechDeviations
-                ? RedisKeyBuilder.techResultMaxKey(markerName)
-                : RedisKeyBuilder.resultMaxKey(markerName);
-        return redisTemplate.opsForZSet().rangeByScore(indexKey, min, max);
+        return searchForScoreMatches(maxIndexKey(markerName, withTechDeviations), min, max);
+    }
+
+    Set<String> searchForScoreMatches(String key, Double min, Double max) {
+        return redisTemplate.opsForZSet().rangeByScore(key, min, max);
+    }
+
+    @Override
+    public Set<String> searchForRangeMatches(String markerName, Double minFrom, Double minTo, Double maxFrom, Double maxTo,
+                                             Boolean withTechDeviations) {
+        return searchForRangeMatches(markerName, minFrom, minTo, maxFrom, maxTo, withTechDeviations,
+                getIntersectionMode());
+    }
+
+    RangeIntersectionMode getIntersectionMode() {
+        return searchProperties.isServerSideIntersection()
+                ? RangeIntersectionMode.SERVER
+                : RangeIntersectionMode.CLIENT;
+    }
+
+    @Override
+    public Set<String> searchForRangeMatches(String markerName, Double minFrom, Double minTo, Double maxFrom, Double maxTo,
+                                             Boolean withTechDeviations, RangeIntersectionMode mode) {
+        return searchForRangeMatchesInIndexes(minIndexKey(markerName, withTechDeviations),
+                maxIndexKey(markerName, withTechDeviations), minFrom, minTo, maxFrom, maxTo, mode);
+    }
+
+    Set<String> searchForRangeMatchesInIndexes(String minKey, String maxKey, Double minFrom, Double minTo, Double maxFrom,
+                                               Double maxTo, RangeIntersectionMode mode) {
+        if (mode == RangeIntersectionMode.SERVER) {
+            try {
+                return searchForRangeMatchesOnServer(minKey, maxKey, minFrom, minTo, maxFrom, maxTo);
+            } catch (DataAccessException e) {
+                // scripting may be disabled on the server, the client side intersection gives the same result
+                LOGGER.warn("Server side range intersection failed, falling back to client side intersection", e);
+            }
+        }
+
+        var minMatches = searchForScoreMatches(minKey, minFrom, minTo);
+        var maxMatches = searchForScoreMatches(maxKey, maxFrom, maxTo);
+
+        return SetUtils.getIntersection(minMatches, maxMatches);
+    }
+
+    @Override
+    public long countRangeMatches(String markerName, Double minFrom, Double minTo, Double maxFrom, Double maxTo,
+                                  Boolean withTechDeviations) {
+        return countRangeMatchesInIndexes(minIndexKey(markerName, withTechDeviations),
+                maxIndexKey(markerName, withTechDeviations), minFrom, minTo, maxFrom, maxTo);
+    }
+
+    long countRangeMatchesInIndexes(String minKey, String maxKey, Double minFrom, Double minTo, Double maxFrom,
+                                    Double maxTo) {
+        // a range open on both sides does not restrict the other index, a single ZCOUNT answers the query
+        if (maxFrom == Double.NEGATIVE_INFINITY && maxTo == Double.POSITIVE_INFINITY) {
+            return zCount(minKey, minFrom, minTo);
+        }
+        if (minFrom == Double.NEGATIVE_INFINITY && minTo == Double.POSITIVE_INFINITY) {
+            return zCount(maxKey, maxFrom, maxTo);
+        }
+
+        if (searchProperties.isServerSideIntersection()) {
+            try {
+                Long count = redisTemplate.execute(RANGE_COUNT_SCRIPT, List.of(minKey, maxKey),
+                        toScoreArgument(minFrom), toScoreArgument(minTo), toScoreArgument(maxFrom), toScoreArgument(maxTo));
+                return count == null ? 0 : count;
+            } catch (DataAccessException e) {
+                LOGGER.warn("Server side range count failed, falling back to client side intersection", e);
+            }
+        }
+
+        return searchForRangeMatchesInIndexes(minKey, maxKey, minFrom, minTo, maxFrom, maxTo,
+                RangeIntersectionMode.CLIENT).size();
+    }
+
+    @Override
+    public long estimateRangeMatches(String markerName, RangeBounds bounds, Boolean withTechDeviations) {
+        return estimateRangeMatchesInIndexes(minIndexKey(markerName, withTechDeviations),
+                maxIndexKey(markerName, withTechDeviations), bounds);
+    }
+
+    long estimateRangeMatchesInIndexes(String minKey, String maxKey, RangeBounds bounds) {
+        // every match is counted by both range scans, the smaller count is the tighter bound
+        var minCount = zCount(minKey, bounds.minFrom(), bounds.minTo());
+        if (minCount == 0) {
+            return 0;
+        }
+        return Math.min(minCount, zCount(maxKey, bounds.maxFrom(), bounds.maxTo()));
+    }
+
+    @Override
+    public Set<String> probeRangeMatches(String markerName, RangeBounds bounds, Boolean withTechDeviations,
+                                         Collection<String> recordIds) {
+        return probeRangeMatchesInIndexes(minIndexKey(markerName, withTechDeviations),
+                maxIndexKey(markerName, withTechDeviations), bounds, recordIds);
+    }
+
+    Set<String> probeRangeMatchesInIndexes(String minKey, String maxKey, RangeBounds bounds, Collection<String> recordIds) {
+        Set<String> matches = new HashSet<>();
+
+        forEachBatch(recordIds, batch -> {
+            var members = batch.toArray();
+            var minScores = redisTemplate.opsForZSet().score(minKey, members);
+            var maxScores = redisTemplate.opsForZSet().score(maxKey, members);
+            if (minScores == null || maxScores == null) {
+                return;
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                if (bounds.contains(minScores.get(i), maxScores.get(i))) {
+                    matches.add(batch.get(i));
+                }
+            }
+        });
+        return matches;
+    }
+
+    @Override
+    public List<ScoredRecordId> searchForRangePage(String markerName, Double minFrom, Double minTo, Double maxFrom,
+                                                   Double maxTo, Boolean withTechDeviations, RangePageRequest page) {
+        return searchForRangePageInIndexes(minIndexKey(markerName, withTechDeviations),
+                maxIndexKey(markerName, withTechDeviations), minFrom, minTo, maxFrom, maxTo, page);
+    }
+
+    List<ScoredRecordId> searchForRangePageInIndexes(String minKey, String maxKey, Double minFrom, Double minTo,
+                                                     Double maxFrom, Double maxTo, RangePageRequest page) {
+        var scanKey = page.sortByMax() ? maxKey : minKey;
+        var probeKey = page.sortByMax() ? minKey : maxKey;
+        double scanFrom = page.sortByMax() ? maxFrom : minFrom;
+        double scanTo = page.sortByMax() ? maxTo : minTo;
+        double probeFrom = page.sortByMax() ? minFrom : maxFrom;
+        double probeTo = page.sortByMax() ? minTo : maxTo;
+
+        // entries before the cursor score can be skipped by the range scan itself
+        if (page.after() != null) {
+            if (page.descending()) {
+                scanTo = Math.min(scanTo, page.after().score());
+            } else {
+                scanFrom = Math.max(scanFrom, page.after().score());
+            }
+        }
+
+        if (searchProperties.isServerSideIntersection()) {
+            try {
+                return searchForRangePageOnServer(scanKey, scanFrom, scanTo, probeKey, probeFrom, probeTo, page);
+            } catch (DataAccessException e) {
+                LOGGER.warn("Server side range page failed, falling back to client side paging", e);
+            }
+        }
+
+        return searchForRangePageOnClient(scanKey, scanFrom, scanTo, probeKey, probeFrom, probeTo, page);
+    }
+
+    @Override
+    public Map<String, Result> findAllResultsByIds(Collection<String> resultIds) {
+        return batchReader.readAll(Result.class, RedisKeyBuilder.RESULT_KEYSPACE, resultIds);
+    }
+
+    @Override
+    public void streamResultsByIds(Collection<String> resultIds, Consumer<List<Result>> chunkConsumer) {
+        batchReader.readInChunks(Result.class, RedisKeyBuilder.RESULT_KEYSPACE, resultIds, chunkConsumer);
+    }
+
+    @Override
+    public void streamAllResults(Consumer<List<Result>> chunkConsumer) {
+        batchReader.scanKeyspace(Result.class, RedisKeyBuilder.RESULT_KEYSPACE, chunkConsumer);
+    }
+
+    @Override
+    public Set<String> findResultIdsByIndexedValues(Map<String, String> indexedValues) {
+        var keys = indexedValues.entrySet().stream()
+                .map(entry -> RedisKeyBuilder.resultIndexKey(entry.getKey(), entry.getValue()))
+                .toList();
+        if (keys.isEmpty()) {
+            return new HashSet<>();
+        }
+
+        var resultIds = keys.size() == 1
+                ? redisTemplate.opsForSet().members(keys.get(0))
+                : redisTemplate.opsForSet().intersect(keys.get(0), keys.subList(1, keys.size()));
+        return resultIds == null ? new HashSet<>() : resultIds;
+    }
+
+    @Override
+    public long countResultIdsByIndexedValues(Map<String, String> indexedValues) {
+        var keys = indexedValues.entrySet().stream()
+                .map(entry -> RedisKeyBuilder.resultIndexKey(entry.getKey(), entry.getValue()))
+                .toList();
+        if (keys.isEmpty()) {
+            return 0;
+        }
+        if (keys.size() == 1) {
+            Long size = redisTemplate.opsForSet().size(keys.get(0));
+            return size == null ? 0 : size;
+        }
+
+        try {
+            Long count = redisTemplate.execute(SET_INTERSECTION_COUNT_SCRIPT, keys);
+            return count == null ? 0 : count;
+        } catch (DataAccessException e) {
+            // SINTERCARD requires Redis 7, older servers transfer the intersection instead
+            LOGGER.warn("Server side intersection count failed, falling back to SINTER", e);
+        }
+        var resultIds = redisTemplate.opsForSet().intersect(keys.get(0), keys.subList(1, keys.size()));
+        return resultIds == null ? 0 : resultIds.size();
+    }
+
+    @Override
+    public Set<String> filterResultIdsByIndexedValues(Collection<String> resultIds, Map<String, String> indexedValues) {
+        Set<String> matches = new HashSet<>(resultIds);
+        for (var entry : indexedValues.entrySet()) {
+            if (matches.isEmpty()) {
+                break;
+            }
+            var key = RedisKeyBuilder.resultIndexKey(entry.getKey(), entry.getValue());
+            Set<String> members = new HashSet<>();
+            forEachBatch(matches, batch -> {
+                var membership = redisTemplate.opsForSet().isMember(key, batch.toArray());
+                if (membership != null) {
+                    batch.stream().filter(id -> Boolean.TRUE.equals(membership.get(id))).forEach(members::add);
+                }
+            });
+            matches = members;
+        }
+        return matches;
+    }
+
+    @Override
+    public Set<String> getResultIdsByRecordId(String recordId) {
+        return redisTemplate.opsForSet().members(RedisKeyBuilder.resultIndexKey("recordId", recordId));
     }
 
     @Override
@@ -55,29 +336,606 @@ public class CustomResultRepositoryImpl implements CustomResultRepository {
 
     @Override
     public Set<TypedTuple<String>> getAllMinResultsForMarker(String markerName, Boolean withTechDeviations) {
-        var indexKey = withTechDeviations
-                ? RedisKeyBuilder.techResultMinKey(markerName)
-                : RedisKeyBuilder.resultMinKey(markerName);
-        return redisTemplate.opsForZSet().rangeWithScores(indexKey, 0, -1);
+        return redisTemplate.opsForZSet().rangeWithScores(minIndexKey(markerName, withTechDeviations), 0, -1);
     }
 
     @Override
     public Set<TypedTuple<String>> getAllMaxResultsForMarker(String markerName, Boolean withTechDeviations) {
-        var indexKey = withTechDeviations
-                ? RedisKeyBuilder.techResultMaxKey(markerName)
-                : RedisKeyBuilder.resultMaxKey(markerName);
-        return redisTemplate.opsForZSet().rangeWithScores(indexKey, 0, -1);
+        return redisTemplate.opsForZSet().rangeWithScores(maxIndexKey(markerName, withTechDeviations), 0, -1);
     }
 
     @Override
     public void deleteResultSearchIndex(Result result) {
-        redisTemplate.opsForZSet().remove(RedisKeyBuilder.resultMinKey(result.getMarkerName()), result.getRecordId());
-        redisTemplate.opsForZSet().remove(RedisKeyBuilder.resultMaxKey(result.getMarkerName()), result.getRecordId());
+        deleteResultSearchIndex(result, false);
     }
 
     @Override
     public void deleteResultSearchIndexWithTechDeviations(Result result) {
-        redisTemplate.opsForZSet().remove(RedisKeyBuilder.techResultMinKey(result.getMarkerName()), result.getRecordId());
-        redisTemplate.opsForZSet().remove(RedisKeyBuilder.techResultMaxKey(result.getMarkerName()), result.getRecordId());
+        deleteResultSearchIndex(result, true);
+    }
+
+    private void deleteResultSearchIndex(Result result, boolean withTechDeviations) {
+        var member = result.getRecordId().getBytes(StandardCharsets.UTF_8);
+        var keys = getResultIndexKeys(result, withTechDeviations);
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            keys.forEach(key -> connection.zSetCommands().zRem(rawKey(key), member));
+            return null;
+        });
+    }
+
+    // the min and max index keys of a result, followed by those of its technology partition while partitions are enabled
+    private List<String> getResultIndexKeys(Result result, boolean withTechDeviations) {
+        var markerName = result.getMarkerName();
+        var technologyName = result.getTechnologyName();
+        if (technologyName == null || !searchProperties.isTechnologyPartitionEnabled()) {
+            return List.of(minIndexKey(markerName, withTechDeviations), maxIndexKey(markerName, withTechDeviations));
+        }
+        return List.of(minIndexKey(markerName, withTechDeviations), maxIndexKey(markerName, withTechDeviations),
+                TechnologyPartitionRangeIndex.minKey(markerName, technologyName, withTechDeviations),
+                TechnologyPartitionRangeIndex.maxKey(markerName, technologyName, withTechDeviations));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Set<String> searchForRangeMatchesOnServer(String minKey, String maxKey, Double minFrom, Double minTo,
+                                                      Double maxFrom, Double maxTo) {
+        List<String> matches = redisTemplate.execute(RANGE_INTERSECTION_SCRIPT, List.of(minKey, maxKey),
+                toScoreArgument(minFrom), toScoreArgument(minTo), toScoreArgument(maxFrom), toScoreArgument(maxTo));
+
+        return matches == null ? new HashSet<>() : new HashSet<>(matches);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<ScoredRecordId> searchForRangePageOnServer(String scanKey, double scanFrom, double scanTo, String probeKey,
+                                                            double probeFrom, double probeTo, RangePageRequest page) {
+        var after = page.after();
+        List<String> entries = redisTemplate.execute(RANGE_PAGE_SCRIPT, List.of(scanKey, probeKey),
+                toScoreArgument(scanFrom), toScoreArgument(scanTo), toScoreArgument(probeFrom), toScoreArgument(probeTo),
+                page.descending() ? "1" : "0", Integer.toString(page.limit()),
+                after == null ? "" : toScoreArgument(after.score()), after == null ? "" : after.recordId());
+
+        List<ScoredRecordId> result = new ArrayList<>();
+        if (entries != null) {
+            for (int i = 0; i + 1 < entries.size(); i += 2) {
+                result.add(new ScoredRecordId(entries.get(i), parseScore(entries.get(i + 1))));
+            }
+        }
+        return result;
+    }
+
+    private List<ScoredRecordId> searchForRangePageOnClient(String scanKey, double scanFrom, double scanTo, String probeKey,
+                                                            double probeFrom, double probeTo, RangePageRequest page) {
+        var zSetOperations = redisTemplate.opsForZSet();
+        var scanned = page.descending()
+                ? zSetOperations.reverseRangeByScoreWithScores(scanKey, scanFrom, scanTo)
+                : zSetOperations.rangeByScoreWithScores(scanKey, scanFrom, scanTo);
+        var probed = zSetOperations.rangeByScore(probeKey, probeFrom, probeTo);
+
+        List<ScoredRecordId> result = new ArrayList<>();
+        if (scanned == null || probed == null) {
+            return result;
+        }
+
+        for (var tuple : scanned) {
+            if (result.size() == page.limit()) {
+                break;
+            }
+            if (page.isAfterStart(tuple.getValue(), tuple.getScore()) && probed.contains(tuple.getValue())) {
+                result.add(new ScoredRecordId(tuple.getValue(), tuple.getScore()));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void updateResultBitmaps(Map<String, ? extends Collection<Integer>> ordinalsByKey, boolean value) {
+        if (ordinalsByKey.isEmpty()) {
+            return;
+        }
+
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            ordinalsByKey.forEach((key, ordinals) -> {
+                var rawKey = key.getBytes(StandardCharsets.UTF_8);
+                ordinals.forEach(ordinal -> connection.stringCommands().setBit(rawKey, ordinal, value));
+            });
+            return null;
+        });
+    }
+
+    @Override
+    public BitSet findOrdinalsByResultBitmaps(List<? extends Collection<String>> keyGroups) {
+        if (keyGroups.isEmpty()) {
+            return new BitSet();
+        }
+
+        List<String> keys = new ArrayList<>(new LinkedHashSet<>(keyGroups.stream().flatMap(Collection::stream).toList()));
+        // the bitmaps are binary values, they must not be deserialized as strings
+        var values = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            keys.forEach(key -> connection.stringCommands().get(key.getBytes(StandardCharsets.UTF_8)));
+            return null;
+        }, RedisSerializer.byteArray());
+
+        Map<String, BitSet> bitmaps = new HashMap<>();
+        for (int i = 0; i < keys.size(); i++) {
+            bitmaps.put(keys.get(i), toBitSet((byte[]) values.get(i)));
+        }
+
+        BitSet result = null;
+        for (var group : keyGroups) {
+            var union = new BitSet();
+            group.forEach(key -> union.or(bitmaps.get(key)));
+            if (result == null) {
+                result = union;
+            } else {
+                result.and(union);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public long deleteAllResultBitmaps() {
+        return deleteKeysMatching(RedisKeyBuilder.resultBitmapKeyPattern());
+    }
+
+    @Override
+    public void saveResultCategoryOrdinals(String categoryName, Map<String, Integer> ordinalsByResultId) {
+        if (ordinalsByResultId.isEmpty()) {
+            return;
+        }
+
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            ordinalsByResultId.forEach((resultId, ordinal) -> {
+                var key = categoryOrdinalKey(resultId, categoryName);
+                connection.zSetCommands().zAdd(key, ordinal, recordIdOf(resultId));
+            });
+            return null;
+        });
+    }
+
+    @Override
+    public void deleteResultCategoryOrdinals(String categoryName, Collection<String> resultIds) {
+        if (resultIds.isEmpty()) {
+            return;
+        }
+
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            resultIds.forEach(resultId ->
+                    connection.zSetCommands().zRem(categoryOrdinalKey(resultId, categoryName), recordIdOf(resultId)));
+            return null;
+        });
+    }
+
+    @Override
+    public Set<String> searchForCategoryOrdinalMatches(String markerName, String categoryName, int from, int to) {
+        var recordIds = redisTemplate.opsForZSet()
+                .rangeByScore(RedisKeyBuilder.resultCategoryOrdinalKey(markerName, categoryName), from, to);
+        return recordIds == null ? new HashSet<>() : recordIds;
+    }
+
+    @Override
+    public long countCategoryOrdinalMatches(String markerName, String categoryName, int from, int to) {
+        return zCount(RedisKeyBuilder.resultCategoryOrdinalKey(markerName, categoryName), (double) from, (double) to);
+    }
+
+    @Override
+    public Set<String> probeCategoryOrdinalMatches(String markerName, String categoryName, int from, int to,
+                                                   Collection<String> recordIds) {
+        var key = RedisKeyBuilder.resultCategoryOrdinalKey(markerName, categoryName);
+        Set<String> matches = new HashSet<>();
+
+        forEachBatch(recordIds, batch -> {
+            var scores = redisTemplate.opsForZSet().score(key, batch.toArray());
+            if (scores == null) {
+                return;
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                var score = scores.get(i);
+                if (score != null && score >= from && score <= to) {
+                    matches.add(batch.get(i));
+                }
+            }
+        });
+        return matches;
+    }
+
+    @Override
+    public long deleteAllCategoryOrdinals() {
+        return deleteKeysMatching(RedisKeyBuilder.resultCategoryOrdinalKeyPattern());
+    }
+
+    @Override
+    public void saveResultFilterIndexes(Collection<Result> results) {
+        if (results.isEmpty()) {
+            return;
+        }
+
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            results.forEach(result -> {
+                var member = result.getRecordId().getBytes(StandardCharsets.UTF_8);
+                if (result.getSample() != null) {
+                    connection.setCommands().sAdd(
+                            rawKey(RedisKeyBuilder.resultSampleKey(result.getMarkerName(), result.getSample())), member);
+                }
+                if (result.getTimestamp() != null) {
+                    connection.zSetCommands().zAdd(rawKey(RedisKeyBuilder.resultTimestampKey(result.getMarkerName())),
+                            timestampScore(result.getTimestamp()), member);
+                }
+            });
+            return null;
+        });
+    }
+
+    @Override
+    public void deleteResultFilterIndexes(Result result) {
+        if (result.getSample() != null) {
+            redisTemplate.opsForSet().remove(RedisKeyBuilder.resultSampleKey(result.getMarkerName(), result.getSample()),
+                    result.getRecordId());
+        }
+        if (result.getTimestamp() != null) {
+            redisTemplate.opsForZSet().remove(RedisKeyBuilder.resultTimestampKey(result.getMarkerName()), result.getRecordId());
+        }
+    }
+
+    @Override
+    public Set<String> searchForFilterMatches(String markerName, String sample, LocalDateTime fromTimestamp,
+                                              LocalDateTime toTimestamp) {
+        if (sample == null) {
+            var recordIds = redisTemplate.opsForZSet().rangeByScore(RedisKeyBuilder.resultTimestampKey(markerName),
+                    timestampScore(fromTimestamp, Double.NEGATIVE_INFINITY),
+                    timestampScore(toTimestamp, Double.POSITIVE_INFINITY));
+            return recordIds == null ? new HashSet<>() : recordIds;
+        }
+
+        var recordIds = redisTemplate.opsForSet().members(RedisKeyBuilder.resultSampleKey(markerName, sample));
+        if (recordIds == null) {
+            return new HashSet<>();
+        }
+        if (fromTimestamp == null && toTimestamp == null) {
+            return recordIds;
+        }
+        return probeFilterMatches(markerName, null, fromTimestamp, toTimestamp, recordIds);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Set<String> probeFilterMatches(String markerName, String sample, LocalDateTime fromTimestamp,
+                                          LocalDateTime toTimestamp, Collection<String> recordIds) {
+        var sampleKey = sample == null ? null : rawKey(RedisKeyBuilder.resultSampleKey(markerName, sample));
+        var timestampKey = fromTimestamp == null && toTimestamp == null
+                ? null
+                : rawKey(RedisKeyBuilder.resultTimestampKey(markerName));
+        if (sampleKey == null && timestampKey == null) {
+            return new HashSet<>(recordIds);
+        }
+
+        var from = timestampScore(fromTimestamp, Double.NEGATIVE_INFINITY);
+        var to = timestampScore(toTimestamp, Double.POSITIVE_INFINITY);
+        Set<String> matches = new HashSet<>();
+        forEachBatch(recordIds, batch -> {
+            var members = batch.stream().map(recordId -> recordId.getBytes(StandardCharsets.UTF_8)).toArray(byte[][]::new);
+            var replies = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                if (sampleKey != null) {
+                    connection.setCommands().sMIsMember(sampleKey, members);
+                }
+                if (timestampKey != null) {
+                    connection.zSetCommands().zMScore(timestampKey, members);
+                }
+                return null;
+            });
+
+            var membership = sampleKey == null ? null : (List<Boolean>) replies.get(0);
+            var scores = timestampKey == null ? null : (List<Double>) replies.get(replies.size() - 1);
+            for (int i = 0; i < batch.size(); i++) {
+                if (membership != null && !Boolean.TRUE.equals(membership.get(i))) {
+                    continue;
+                }
+                if (scores != null && (scores.get(i) == null || scores.get(i) < from || scores.get(i) > to)) {
+                    continue;
+                }
+                matches.add(batch.get(i));
+            }
+        });
+        return matches;
+    }
+
+    @Override
+    public long deleteAllResultFilterIndexes() {
+        return deleteKeysMatching(RedisKeyBuilder.resultFilterKeyPattern());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Map<String, Map<String, ScoredRange>> getSearchIndexRanges(Collection<String> markerNames,
+                                                                      Boolean withTechDeviations,
+                                                                      Collection<String> recordIds) {
+        List<String> distinctMarkerNames = new ArrayList<>(new LinkedHashSet<>(markerNames));
+        Map<String, Map<String, ScoredRange>> ranges = new HashMap<>();
+        distinctMarkerNames.forEach(markerName -> ranges.put(markerName, new HashMap<>()));
+        if (distinctMarkerNames.isEmpty()) {
+            return ranges;
+        }
+
+        forEachBatch(recordIds, batch -> {
+            var members = batch.stream().map(recordId -> recordId.getBytes(StandardCharsets.UTF_8)).toArray(byte[][]::new);
+            // the min and max scores of the i-th marker are at 2i and 2i + 1
+            var scores = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                distinctMarkerNames.forEach(markerName -> {
+                    connection.zSetCommands().zMScore(rawKey(minIndexKey(markerName, withTechDeviations)), members);
+                    connection.zSetCommands().zMScore(rawKey(maxIndexKey(markerName, withTechDeviations)), members);
+                });
+                return null;
+            });
+
+            for (int i = 0; i < distinctMarkerNames.size(); i++) {
+                var minScores = (List<Double>) scores.get(2 * i);
+                var maxScores = (List<Double>) scores.get(2 * i + 1);
+                var markerRanges = ranges.get(distinctMarkerNames.get(i));
+                for (int j = 0; j < batch.size(); j++) {
+                    var min = minScores.get(j);
+                    var max = maxScores.get(j);
+                    if (min != null && max != null) {
+                        markerRanges.put(batch.get(j), new ScoredRange(min, max));
+                    }
+                }
+            }
+        });
+        return ranges;
+    }
+
+    @Override
+    public void saveSearchIndexRanges(String markerName, Boolean withTechDeviations, Map<String, ScoredRange> ranges,
+                                      Collection<String> removedRecordIds) {
+        saveRangesInIndexes(minIndexKey(markerName, withTechDeviations), maxIndexKey(markerName, withTechDeviations),
+                ranges, removedRecordIds);
+    }
+
+    private void saveRangesInIndexes(String minIndexKey, String maxIndexKey, Map<String, ScoredRange> ranges,
+                                     Collection<String> removedRecordIds) {
+        if (ranges.isEmpty() && removedRecordIds.isEmpty()) {
+            return;
+        }
+
+        var minKey = rawKey(minIndexKey);
+        var maxKey = rawKey(maxIndexKey);
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            ranges.forEach((recordId, range) -> {
+                var member = recordId.getBytes(StandardCharsets.UTF_8);
+                connection.zSetCommands().zAdd(minKey, range.min(), member);
+                connection.zSetCommands().zAdd(maxKey, range.max(), member);
+            });
+            removedRecordIds.forEach(recordId -> {
+                var member = recordId.getBytes(StandardCharsets.UTF_8);
+                connection.zSetCommands().zRem(minKey, member);
+                connection.zSetCommands().zRem(maxKey, member);
+            });
+            return null;
+        });
+    }
+
+    @Override
+    public void deleteSearchIndexes(String markerName) {
+        redisTemplate.delete(List.of(
+                RedisKeyBuilder.resultMinKey(markerName), RedisKeyBuilder.resultMaxKey(markerName),
+                RedisKeyBuilder.techResultMinKey(markerName), RedisKeyBuilder.techResultMaxKey(markerName)));
+    }
+
+    @Override
+    public void buildMarkerStatistics(String markerName, Boolean withTechDeviations, int histogramBuckets) {
+        redisTemplate.execute(MARKER_STATISTICS_BUILD_SCRIPT, List.of(statisticsKey(markerName, withTechDeviations),
+                        minIndexKey(markerName, withTechDeviations), maxIndexKey(markerName, withTechDeviations)),
+                String.valueOf(histogramBuckets));
+    }
+
+    @Override
+    public void updateMarkerStatistics(List<MarkerStatisticsUpdate> updates) {
+        if (updates.isEmpty()) {
+            return;
+        }
+
+        var sha = MARKER_STATISTICS_UPDATE_SCRIPT.getSha1();
+        var script = MARKER_STATISTICS_UPDATE_SCRIPT.getScriptAsString().getBytes(StandardCharsets.UTF_8);
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            // loaded in the same pipeline, so the calls below never miss the script
+            connection.scriptingCommands().scriptLoad(script);
+            updates.forEach(update -> {
+                var range = update.range();
+                var keysAndArgs = Stream.of(statisticsKey(update.markerName(), update.withTechDeviations()),
+                                minIndexKey(update.markerName(), update.withTechDeviations()),
+                                maxIndexKey(update.markerName(), update.withTechDeviations()), update.recordId(), range == null ? "" : toScoreArgument(range.min()),
+                                range == null ? "" : toScoreArgument(range.max()))
+                        .map(value -> value.getBytes(StandardCharsets.UTF_8))
+                        .toArray(byte[][]::new);
+                connection.scriptingCommands().evalSha(sha, ReturnType.INTEGER, 3, keysAndArgs);
+            });
+            return null;
+        });
+    }
+
+    @Override
+    public MarkerStatistics getMarkerStatistics(String markerName, Boolean withTechDeviations) {
+        Map<Object, Object> fields = redisTemplate.opsForHash().entries(statisticsKey(markerName, withTechDeviations));
+        if (fields.isEmpty()) {
+            return null;
+        }
+
+        return new MarkerStatistics(
+                parseCount(fields.get("count")),
+                parseCount(fields.get("min:unbounded")),
+                parseCount(fields.get("max:unbounded")),
+                parseBound(fields.get("min:lowest"), Double.POSITIVE_INFINITY),
+                parseBound(fields.get("min:highest"), Double.NEGATIVE_INFINITY),
+                parseBound(fields.get("max:lowest"), Double.POSITIVE_INFINITY),
+                parseBound(fields.get("max:highest"), Double.NEGATIVE_INFINITY),
+                parseHistogram(fields, "min"),
+                parseHistogram(fields, "max"));
+    }
+
+    @Override
+    public NumericRangeIndex getTechnologyPartition(String technologyName) {
+        return new TechnologyPartitionRangeIndex(this, technologyName);
+    }
+
+    @Override
+    public void saveTechnologyPartitionRanges(String markerName, String technologyName, Boolean withTechDeviations,
+                                              Map<String, ScoredRange> ranges) {
+        saveRangesInIndexes(TechnologyPartitionRangeIndex.minKey(markerName, technologyName, withTechDeviations),
+                TechnologyPartitionRangeIndex.maxKey(markerName, technologyName, withTechDeviations), ranges, List.of());
+    }
+
+    @Override
+    public long deleteAllTechnologyPartitions() {
+        return deleteKeysMatching(RedisKeyBuilder.partitionKeyPattern());
+    }
+
+    @Override
+    public void scanSearchIndexRecordIds(String markerName, Boolean withTechDeviations,
+                                         Consumer<List<String>> recordIdChunkConsumer) {
+        var chunkSize = Math.max(1, searchProperties.getHydrationChunkSize());
+        var options = ScanOptions.scanOptions().count(chunkSize).build();
+
+        try (var cursor = redisTemplate.opsForZSet().scan(minIndexKey(markerName, withTechDeviations), options)) {
+            List<String> chunk = new ArrayList<>(chunkSize);
+            while (cursor.hasNext()) {
+                chunk.add(cursor.next().getValue());
+                if (chunk.size() == chunkSize) {
+                    recordIdChunkConsumer.accept(chunk);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                recordIdChunkConsumer.accept(chunk);
+            }
+        }
+    }
+
+    private long deleteKeysMatching(String pattern) {
+        var options = ScanOptions.scanOptions()
+                .match(pattern)
+                .count(Math.max(1, searchProperties.getHydrationChunkSize()))
+                .build();
+        List<String> keys = new ArrayList<>();
+        try (var cursor = redisTemplate.scan(options)) {
+            cursor.forEachRemaining(keys::add);
+        }
+
+        long[] deleted = {0};
+        forEachBatch(keys, batch -> {
+            Long count = redisTemplate.delete(batch);
+            deleted[0] += count == null ? 0 : count;
+        });
+        return deleted[0];
+    }
+
+    private static byte[] categoryOrdinalKey(String resultId, String categoryName) {
+        var markerName = EntityUtils.extractMarkerName(resultId);
+        return RedisKeyBuilder.resultCategoryOrdinalKey(markerName, categoryName).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] recordIdOf(String resultId) {
+        var markerName = EntityUtils.extractMarkerName(resultId);
+        return EntityUtils.extractRecordId(resultId, markerName).getBytes(StandardCharsets.UTF_8);
+    }
+
+    // epoch microseconds in UTC, exactly representable as a double for the timestamps of the next centuries
+    private static double timestampScore(LocalDateTime timestamp) {
+        return timestamp.toEpochSecond(ZoneOffset.UTC) * 1_000_000d + timestamp.getNano() / 1_000;
+    }
+
+    private static double timestampScore(LocalDateTime timestamp, double unbounded) {
+        return timestamp == null ? unbounded : timestampScore(timestamp);
+    }
+
+    private static byte[] rawKey(String key) {
+        return key.getBytes(StandardCharsets.UTF_8);
+    }
+
+    // Redis numbers the bits of a bitmap from the most significant bit of the first byte, BitSet from the least
+    private static BitSet toBitSet(byte[] bitmap) {
+        if (bitmap == null) {
+            return new BitSet();
+        }
+        var bytes = new byte[bitmap.length];
+        for (int i = 0; i < bitmap.length; i++) {
+            bytes[i] = (byte) (Integer.reverse(bitmap[i] & 0xFF) >>> 24);
+        }
+        return BitSet.valueOf(bytes);
+    }
+
+    private void forEachBatch(Collection<String> ids, Consumer<List<String>> batchConsumer) {
+        var batchSize = Math.max(1, searchProperties.getHydrationChunkSize());
+        List<String> batch = new ArrayList<>(Math.min(batchSize, ids.size()));
+        for (var id : ids) {
+            batch.add(id);
+            if (batch.size() == batchSize) {
+                batchConsumer.accept(batch);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            batchConsumer.accept(batch);
+        }
+    }
+
+    private long zCount(String key, Double from, Double to) {
+        Long count = redisTemplate.opsForZSet().count(key, from, to);
+        return count == null ? 0 : count;
+    }
+
+    private static String minIndexKey(String markerName, Boolean withTechDeviations) {
+        return withTechDeviations
+                ? RedisKeyBuilder.techResultMinKey(markerName)
+                : RedisKeyBuilder.resultMinKey(markerName);
+    }
+
+    private static String maxIndexKey(String markerName, Boolean withTechDeviations) {
+        return withTechDeviations
+                ? RedisKeyBuilder.techResultMaxKey(markerName)
+                : RedisKeyBuilder.resultMaxKey(markerName);
+    }
+
+    private static String statisticsKey(String markerName, Boolean withTechDeviations) {
+        return withTechDeviations
+                ? RedisKeyBuilder.techMarkerStatisticsKey(markerName)
+                : RedisKeyBuilder.markerStatisticsKey(markerName);
+    }
+
+    private static long parseCount(Object value) {
+        return value == null ? 0 : Long.parseLong((String) value);
+    }
+
+    private static double parseBound(Object value, double missing) {
+        return value == null ? missing : parseScore((String) value);
+    }
+
+    private static ValueHistogram parseHistogram(Map<Object, Object> fields, String prefix) {
+        var bounds = (String) fields.get(prefix + ":bounds");
+        if (bounds == null) {
+            return ValueHistogram.EMPTY;
+        }
+
+        var parsedBounds = Arrays.stream(bounds.split(",")).mapToDouble(CustomResultRepositoryImpl::parseScore).toArray();
+        var counts = new long[parsedBounds.length - 1];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = parseCount(fields.get(prefix + ":" + i));
+        }
+        return new ValueHistogram(parsedBounds, counts);
+    }
+
+    private static double parseScore(String score) {
+        return switch (score) {
+            case "inf", "+inf" -> Double.POSITIVE_INFINITY;
+            case "-inf" -> Double.NEGATIVE_INFINITY;
+            default -> Double.parseDouble(score);
+        };
+    }
+
+    private static String toScoreArgument(Double score) {
+        if (score == Double.NEGATIVE_INFINITY) {
+            return "-inf";
+        }
+        if (score == Double.POSITIVE_INFINITY) {
+            return "+inf";
+        }
+        return score.toString();
     }
 }
@@ -0,0 +1,62 @@
+package thesis.data.repository.custom;
+
+/**
+ * Statistics of the min and max indexes of a marker, maintained on every result write.
+ * <p>
+ * The lowest and highest scores form the envelope of each index. They include infinite scores and only grow
+ * on writes until the statistics are rebuilt, so every indexed score lies inside the envelope and a range
+ * outside of it has no matches. The counts and histograms are exact after a rebuild and approximate afterwards.
+ * </p>
+ *
+ * @param count             the number of indexed results
+ * @param unboundedMinCount the number of results without a minimum, indexed as negative infinity
+ * @param unboundedMaxCount the number of results without a maximum, indexed as positive infinity
+ * @param lowestMin         the lowest score of the min index, positive infinity if it is empty
+ * @param highestMin        the highest score of the min index, negative infinity if it is empty
+ * @param lowestMax         the lowest score of the max index, positive infinity if it is empty
+ * @param highestMax        the highest score of the max index, negative infinity if it is empty
+ * @param minHistogram      the histogram over the finite scores of the min index
+ * @param maxHistogram      the histogram over the finite scores of the max index
+ */
+public record MarkerStatistics(long count, long unboundedMinCount, long unboundedMaxCount,
+                               double lowestMin, double highestMin, double lowestMax, double highestMax,
+                               ValueHistogram minHistogram, ValueHistogram maxHistogram) {
+
+    /**
+     * Checks whether no result can match the given bounds, because one of their ranges lies outside the envelope.
+     *
+     * @param bounds the bounds of a numeric search
+     * @return true if the search has no matches
+     */
+    public boolean excludes(RangeBounds bounds) {
+        return excludesMinimum(bounds.minFrom(), bounds.minTo()) || excludesMaximum(bounds.maxFrom(), bounds.maxTo());
+    }
+
+    public boolean excludesMinimum(double from, double to) {
+        return to < lowestMin || from > highestMin;
+    }
+
+    public boolean excludesMaximum(double from, double to) {
+        return to < lowestMax || from > highestMax;
+    }
+
+    /**
+     * Estimates the number of results matching the given bounds from the histograms.
+     * Like {@link NumericRangeIndex#estimateRangeMatches}, the smaller estimate of the two ranges is taken,
+     * but the estimate may undercount.
+     *
+     * @param bounds the bounds of a numeric search
+     * @return the estimated number of matches
+     */
+    public long estimate(RangeBounds bounds) {
+        if (excludes(bounds)) {
+            return 0;
+        }
+
+        var mins = minHistogram.estimate(bounds.minFrom(), bounds.minTo())
+                + (bounds.minFrom() == Double.NEGATIVE_INFINITY ? unboundedMinCount : 0);
+        var maxs = maxHistogram.estimate(bounds.maxFrom(), bounds.maxTo())
+                + (bounds.maxTo() == Double.POSITIVE_INFINITY ? unboundedMaxCount : 0);
+        return Math.max(0, Math.min(count, Math.round(Math.min(mins, maxs))));
+    }
+}
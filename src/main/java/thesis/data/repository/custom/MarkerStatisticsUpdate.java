@@ -0,0 +1,14 @@
+package thesis.data.repository.custom;
+
+/**
+ * The scores a result is about to be indexed with, for updating the statistics of its marker, see
+ * {@link MarkerStatistics}.
+ *
+ * @param markerName         the name of the marker
+ * @param recordId           the ID of the record of the result
+ * @param withTechDeviations whether the scores have technology deviations applied
+ * @param range              the scores the result is indexed with, null if it is removed from the indexes
+ */
+public record MarkerStatisticsUpdate(String markerName, String recordId, boolean withTechDeviations,
+                                     ScoredRange range) {
+}
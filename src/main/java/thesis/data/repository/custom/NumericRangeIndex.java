@@ -0,0 +1,103 @@
+package thesis.data.repository.custom;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Index answering range queries over the min and max values of numeric results.
+ * Implemented by the Redis backed result repository and by the in-memory index mirror.
+ */
+public interface NumericRangeIndex {
+
+    /**
+     * Searches for results with minimum matches for a given marker name and range.
+     *
+     * @param markerName            the name of the marker
+     * @param min                   the minimum value
+     * @param max                   the maximum value
+     * @param withTechDeviations    whether to include technology deviations
+     * @return a set of record IDs that match the criteria
+     */
+    Set<String> searchForMinimumMatches(String markerName, Double min, Double max, Boolean withTechDeviations);
+
+    /**
+     * Searches for results with maximum matches for a given marker name and range.
+     *
+     * @param markerName            the name of the marker
+     * @param min                   the minimum value
+     * @param max                   the maximum value
+     * @param withTechDeviations    whether to include technology deviations
+     * @return a set of record IDs that match the criteria
+     */
+    Set<String> searchForMaximumMatches(String markerName, Double min, Double max, Boolean withTechDeviations);
+
+    /**
+     * Searches for results whose minimum and maximum both fall into the given ranges.
+     *
+     * @param markerName            the name of the marker
+     * @param minFrom               the lower bound for the minimum value
+     * @param minTo                 the upper bound for the minimum value
+     * @param maxFrom               the lower bound for the maximum value
+     * @param maxTo                 the upper bound for the maximum value
+     * @param withTechDeviations    whether to include technology deviations
+     * @return a set of record IDs that match both ranges
+     */
+    Set<String> searchForRangeMatches(String markerName, Double minFrom, Double minTo, Double maxFrom, Double maxTo,
+                                      Boolean withTechDeviations);
+
+    /**
+     * Counts results whose minimum and maximum both fall into the given ranges without transferring their IDs.
+     *
+     * @param markerName            the name of the marker
+     * @param minFrom               the lower bound for the minimum value
+     * @param minTo                 the upper bound for the minimum value
+     * @param maxFrom               the lower bound for the maximum value
+     * @param maxTo                 the upper bound for the maximum value
+     * @param withTechDeviations    whether to include technology deviations
+     * @return the number of record IDs that match both ranges
+     */
+    long countRangeMatches(String markerName, Double minFrom, Double minTo, Double maxFrom, Double maxTo,
+                           Boolean withTechDeviations);
+
+    /**
+     * Estimates the number of results whose minimum and maximum both fall into the given ranges.
+     * The estimate never undercounts and is cheaper to compute than {@link #countRangeMatches}.
+     *
+     * @param markerName            the name of the marker
+     * @param bounds                the ranges for the minimum and maximum value
+     * @param withTechDeviations    whether to include technology deviations
+     * @return an upper bound of the number of matching record IDs
+     */
+    long estimateRangeMatches(String markerName, RangeBounds bounds, Boolean withTechDeviations);
+
+    /**
+     * Checks which of the given records have a result whose minimum and maximum both fall into the given ranges.
+     * Only the scores of the given records are read, so the cost depends on the number of candidates
+     * and not on the number of matches in the index.
+     *
+     * @param markerName            the name of the marker
+     * @param bounds                the ranges for the minimum and maximum value
+     * @param withTechDeviations    whether to include technology deviations
+     * @param recordIds             the candidate record IDs
+     * @return the subset of the candidate record IDs that match both ranges
+     */
+    Set<String> probeRangeMatches(String markerName, RangeBounds bounds, Boolean withTechDeviations,
+                                  Collection<String> recordIds);
+
+    /**
+     * Searches for one page of results whose minimum and maximum both fall into the given ranges.
+     * The page is read in index order and stops after the limit, so its cost does not depend on the total hit count.
+     *
+     * @param markerName            the name of the marker
+     * @param minFrom               the lower bound for the minimum value
+     * @param minTo                 the upper bound for the minimum value
+     * @param maxFrom               the lower bound for the maximum value
+     * @param maxTo                 the upper bound for the maximum value
+     * @param withTechDeviations    whether to include technology deviations
+     * @param page                  the order, start position and size of the page
+     * @return at most limit record IDs with their score in the sorted index, in page order
+     */
+    List<ScoredRecordId> searchForRangePage(String markerName, Double minFrom, Double minTo, Double maxFrom, Double maxTo,
+                                            Boolean withTechDeviations, RangePageRequest page);
+}
@@ -0,0 +1,36 @@
+package thesis.data.repository.custom;
+
+/**
+ * The ranges the minimum and the maximum of a result have to fall into to match a numeric search.
+ *
+ * @param minFrom the lower bound for the minimum value
+ * @param minTo   the upper bound for the minimum value
+ * @param maxFrom the lower bound for the maximum value
+ * @param maxTo   the upper bound for the maximum value
+ */
+public record RangeBounds(double minFrom, double minTo, double maxFrom, double maxTo) {
+
+    /**
+     * Checks whether a result with the given minimum and maximum falls into the ranges.
+     *
+     * @param min the minimum of the result, null if it is not indexed
+     * @param max the maximum of the result, null if it is not indexed
+     * @return true if both values are present and inside their range
+     */
+    public boolean contains(Double min, Double max) {
+        return min != null && max != null
+                && min >= minFrom && min <= minTo
+                && max >= maxFrom && max <= maxTo;
+    }
+
+    /**
+     * Returns the ranges a result has to fall into to match both these and the given ranges.
+     *
+     * @param other the other ranges
+     * @return the intersection of both ranges for the minimum and for the maximum
+     */
+    public RangeBounds intersect(RangeBounds other) {
+        return new RangeBounds(Math.max(minFrom, other.minFrom), Math.min(minTo, other.minTo),
+                Math.max(maxFrom, other.maxFrom), Math.min(maxTo, other.maxTo));
+    }
+}
@@ -0,0 +1,62 @@
+package thesis.data.repository.custom;
+
+/**
+ * Describes one page of a numeric range search.
+ * <p>
+ * Pages are ordered by the score in the min or the max index, ties are ordered by record ID.
+ * The page starts right after the given position, so it stays stable while results are added or removed.
+ * </p>
+ *
+ * @param sortByMax  whether the page is ordered by the max index instead of the min index
+ * @param descending whether the page is ordered by descending score
+ * @param after      the last entry of the previous page, or null for the first page
+ * @param limit      the maximum number of entries of the page
+ */
+public record RangePageRequest(boolean sortByMax, boolean descending, ScoredRecordId after, int limit) {
+
+    /**
+     * Checks whether the given entry lies behind the start position of the page.
+     *
+     * @param recordId the ID of the record
+     * @param score    the score of the record in the sorted index
+     * @return true if the entry belongs to this or a later page
+     */
+    public boolean isAfterStart(String recordId, double score) {
+        return isAfterStart(recordId, score, 0);
+    }
+
+    /**
+     * Checks whether the given entry of a tiered order lies behind the start position of the page,
+     * see {@link ScoredRecordId#tier()}.
+     *
+     * @param recordId the ID of the record
+     * @param score    the score of the record within its tier
+     * @param tier     the tier of the record
+     * @return true if the entry belongs to this or a later page
+     */
+    public boolean isAfterStart(String recordId, double score, int tier) {
+        if (after == null) {
+            return true;
+        }
+
+        var comparison = Integer.compare(tier, after.tier());
+        if (comparison == 0) {
+            comparison = Double.compare(score, after.score());
+        }
+        if (comparison == 0) {
+            comparison = recordId.compareTo(after.recordId());
+        }
+        return descending ? comparison < 0 : comparison > 0;
+    }
+
+    /**
+     * Creates the request for the entries following the given entry in the same order.
+     *
+     * @param last  the last entry that was read
+     * @param limit the maximum number of entries to read
+     * @return the request for the following entries
+     */
+    public RangePageRequest continueAfter(ScoredRecordId last, int limit) {
+        return new RangePageRequest(sortByMax, descending, last, limit);
+    }
+}
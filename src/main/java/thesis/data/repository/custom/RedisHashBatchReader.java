@@ -0,0 +1,157 @@
+package thesis.data.repository.custom;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.convert.Bucket;
+import org.springframework.data.redis.core.convert.RedisConverter;
+import org.springframework.data.redis.core.convert.RedisData;
+import org.springframework.stereotype.Component;
+import thesis.config.SearchProperties;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Reads entities stored as Redis hashes by Spring Data repositories in pipelined batches.
+ * Each chunk of IDs costs a single round trip instead of one round trip per entity.
+ * Chunked reads hand every chunk to a consumer, so at most one chunk of entities is held at a time.
+ */
+@Component
+public class RedisHashBatchReader {
+    private final StringRedisTemplate redisTemplate;
+    private final RedisConverter redisConverter;
+    private final SearchProperties searchProperties;
+
+    @Autowired
+    public RedisHashBatchReader(StringRedisTemplate redisTemplate, RedisConverter redisConverter,
+                                SearchProperties searchProperties) {
+        this.redisTemplate = redisTemplate;
+        this.redisConverter = redisConverter;
+        this.searchProperties = searchProperties;
+    }
+
+    /**
+     * Reads the entities with the given IDs from the given keyspace.
+     *
+     * @param type     the entity class
+     * @param keyspace the keyspace of the entity, e.g. "result"
+     * @param ids      the IDs of the entities to read
+     * @param <T>      the type of the entity
+     * @return a map of ID to entity in the order of the given IDs, IDs that do not exist are not contained
+     */
+    public <T> Map<String, T> readAll(Class<T> type, String keyspace, Collection<String> ids) {
+        Map<String, T> entities = new LinkedHashMap<>();
+        forEachIdChunk(ids, chunk -> readChunk(type, keyspace, chunk, entities));
+        return entities;
+    }
+
+    /**
+     * Reads the entities with the given IDs from the given keyspace and passes them to the consumer chunk by chunk.
+     *
+     * @param type          the entity class
+     * @param keyspace      the keyspace of the entity, e.g. "result"
+     * @param ids           the IDs of the entities to read
+     * @param chunkConsumer the consumer receiving the entities of each chunk, IDs that do not exist are skipped
+     * @param <T>           the type of the entity
+     */
+    public <T> void readInChunks(Class<T> type, String keyspace, Collection<String> ids, Consumer<List<T>> chunkConsumer) {
+        forEachIdChunk(ids, chunk -> emitChunk(type, keyspace, chunk, chunkConsumer));
+    }
+
+    /**
+     * Reads all entities of the given keyspace and passes them to the consumer chunk by chunk.
+     * The IDs are iterated with SSCAN over the keyspace set maintained by Spring Data,
+     * so neither the IDs nor the entities of the whole keyspace are loaded at once.
+     *
+     * @param type          the entity class
+     * @param keyspace      the keyspace of the entity, e.g. "result"
+     * @param chunkConsumer the consumer receiving the entities of each chunk
+     * @param <T>           the type of the entity
+     */
+    public <T> void scanKeyspace(Class<T> type, String keyspace, Consumer<List<T>> chunkConsumer) {
+        scanKeyspaceIds(keyspace, ids -> emitChunk(type, keyspace, ids, chunkConsumer));
+    }
+
+    /**
+     * Reads the IDs of all entities of the given keyspace without loading the entities
+     * and passes them to the consumer chunk by chunk.
+     *
+     * @param keyspace        the keyspace of the entity, e.g. "record"
+     * @param idChunkConsumer the consumer receiving the IDs of each chunk, the list is reused after the call
+     */
+    public void scanKeyspaceIds(String keyspace, Consumer<List<String>> idChunkConsumer) {
+        var chunkSize = getChunkSize();
+        var options = ScanOptions.scanOptions().count(chunkSize).build();
+
+        try (var cursor = redisTemplate.opsForSet().scan(keyspace, options)) {
+            List<String> chunk = new ArrayList<>(chunkSize);
+            while (cursor.hasNext()) {
+                chunk.add(cursor.next());
+                if (chunk.size() == chunkSize) {
+                    idChunkConsumer.accept(chunk);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                idChunkConsumer.accept(chunk);
+            }
+        }
+    }
+
+    private void forEachIdChunk(Collection<String> ids, Consumer<List<String>> idChunkConsumer) {
+        var chunkSize = getChunkSize();
+
+        List<String> chunk = new ArrayList<>(Math.min(chunkSize, ids.size()));
+        for (var id : ids) {
+            chunk.add(id);
+            if (chunk.size() == chunkSize) {
+                idChunkConsumer.accept(chunk);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            idChunkConsumer.accept(chunk);
+        }
+    }
+
+    private <T> void emitChunk(Class<T> type, String keyspace, List<String> ids, Consumer<List<T>> chunkConsumer) {
+        Map<String, T> entities = new LinkedHashMap<>();
+        readChunk(type, keyspace, ids, entities);
+        if (!entities.isEmpty()) {
+            chunkConsumer.accept(new ArrayList<>(entities.values()));
+        }
+    }
+
+    private int getChunkSize() {
+        return Math.max(1, searchProperties.getHydrationChunkSize());
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> void readChunk(Class<T> type, String keyspace, List<String> ids, Map<String, T> entities) {
+        var hashes = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            var stringConnection = (StringRedisConnection) connection;
+            ids.forEach(id -> stringConnection.hGetAll(keyspace + ":" + id));
+            return null;
+        });
+
+        for (int i = 0; i < ids.size(); i++) {
+            var hash = (Map<String, String>) hashes.get(i);
+            // HGETALL returns an empty hash for keys that do not exist
+            if (hash == null || hash.isEmpty()) {
+                continue;
+            }
+
+            var data = new RedisData(Bucket.newBucketFromStringMap(hash));
+            data.setId(ids.get(i));
+            data.setKeyspace(keyspace);
+            entities.put(ids.get(i), redisConverter.read(type, data));
+        }
+    }
+}
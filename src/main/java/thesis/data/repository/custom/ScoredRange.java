@@ -0,0 +1,10 @@
+package thesis.data.repository.custom;
+
+/**
+ * The scores of a record in the min and max indexes of a marker.
+ *
+ * @param min the score of the record in the min index
+ * @param max the score of the record in the max index
+ */
+public record ScoredRange(double min, double max) {
+}
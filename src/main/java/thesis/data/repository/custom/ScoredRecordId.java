@@ -0,0 +1,19 @@
+package thesis.data.repository.custom;
+
+/**
+ * A record ID together with its score in a result index.
+ * <p>
+ * Searches that rank several bounds one after another, e.g. the exact matches before the matches only within
+ * tolerance, order by the tier of the record first. All other positions are in tier 0.
+ * </p>
+ *
+ * @param recordId the ID of the record
+ * @param score    the score of the record in the index
+ * @param tier     the tier the record is ranked in
+ */
+public record ScoredRecordId(String recordId, double score, int tier) {
+
+    public ScoredRecordId(String recordId, double score) {
+        this(recordId, score, 0);
+    }
+}
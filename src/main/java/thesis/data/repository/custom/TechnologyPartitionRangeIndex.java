@@ -0,0 +1,78 @@
+package thesis.data.repository.custom;
+
+import thesis.utils.RedisKeyBuilder;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The min and max indexes of the results of one technology as a range index.
+ * The queries run like those on the indexes of all results, only on the keys of the partition.
+ */
+final class TechnologyPartitionRangeIndex implements NumericRangeIndex {
+    private final CustomResultRepositoryImpl repository;
+    private final String technologyName;
+
+    TechnologyPartitionRangeIndex(CustomResultRepositoryImpl repository, String technologyName) {
+        this.repository = repository;
+        this.technologyName = technologyName;
+    }
+
+    static String minKey(String markerName, String technologyName, Boolean withTechDeviations) {
+        return withTechDeviations
+                ? RedisKeyBuilder.techPartitionMinKey(markerName, technologyName)
+                : RedisKeyBuilder.partitionMinKey(markerName, technologyName);
+    }
+
+    static String maxKey(String markerName, String technologyName, Boolean withTechDeviations) {
+        return withTechDeviations
+                ? RedisKeyBuilder.techPartitionMaxKey(markerName, technologyName)
+                : RedisKeyBuilder.partitionMaxKey(markerName, technologyName);
+    }
+
+    @Override
+    public Set<String> searchForMinimumMatches(String markerName, Double min, Double max, Boolean withTechDeviations) {
+        return repository.searchForScoreMatches(minKey(markerName, technologyName, withTechDeviations), min, max);
+    }
+
+    @Override
+    public Set<String> searchForMaximumMatches(String markerName, Double min, Double max, Boolean withTechDeviations) {
+        return repository.searchForScoreMatches(maxKey(markerName, technologyName, withTechDeviations), min, max);
+    }
+
+    @Override
+    public Set<String> searchForRangeMatches(String markerName, Double minFrom, Double minTo, Double maxFrom, Double maxTo,
+                                             Boolean withTechDeviations) {
+        return repository.searchForRangeMatchesInIndexes(minKey(markerName, technologyName, withTechDeviations),
+                maxKey(markerName, technologyName, withTechDeviations), minFrom, minTo, maxFrom, maxTo,
+                repository.getIntersectionMode());
+    }
+
+    @Override
+    public long countRangeMatches(String markerName, Double minFrom, Double minTo, Double maxFrom, Double maxTo,
+                                  Boolean withTechDeviations) {
+        return repository.countRangeMatchesInIndexes(minKey(markerName, technologyName, withTechDeviations),
+                maxKey(markerName, technologyName, withTechDeviations), minFrom, minTo, maxFrom, maxTo);
+    }
+
+    @Override
+    public long estimateRangeMatches(String markerName, RangeBounds bounds, Boolean withTechDeviations) {
+        return repository.estimateRangeMatchesInIndexes(minKey(markerName, technologyName, withTechDeviations),
+                maxKey(markerName, technologyName, withTechDeviations), bounds);
+    }
+
+    @Override
+    public Set<String> probeRangeMatches(String markerName, RangeBounds bounds, Boolean withTechDeviations,
+                                         Collection<String> recordIds) {
+        return repository.probeRangeMatchesInIndexes(minKey(markerName, technologyName, withTechDeviations),
+                maxKey(markerName, technologyName, withTechDeviations), bounds, recordIds);
+    }
+
+    @Override
+    public List<ScoredRecordId> searchForRangePage(String markerName, Double minFrom, Double minTo, Double maxFrom,
+                                                   Double maxTo, Boolean withTechDeviations, RangePageRequest page) {
+        return repository.searchForRangePageInIndexes(minKey(markerName, technologyName, withTechDeviations),
+                maxKey(markerName, technologyName, withTechDeviations), minFrom, minTo, maxFrom, maxTo, page);
+    }
+}
@@ -0,0 +1,40 @@
+package thesis.data.repository.custom;
+
+/**
+ * Equi-depth histogram over the finite scores of a min or max index.
+ * Bucket i holds the scores from {@code bounds[i]} inclusive to {@code bounds[i + 1]} exclusive, the last bucket
+ * includes its upper bound. Scores written after the histogram was built are counted in the bucket they fall
+ * into, or in the first or last bucket if they lie outside the bounds.
+ *
+ * @param bounds the bounds of the buckets, one more than there are buckets
+ * @param counts the number of scores per bucket
+ */
+public record ValueHistogram(double[] bounds, long[] counts) {
+    public static final ValueHistogram EMPTY = new ValueHistogram(new double[0], new long[0]);
+
+    /**
+     * Estimates the number of scores in the given range, assuming the scores of a bucket are spread evenly.
+     *
+     * @param from the lower bound of the range
+     * @param to   the upper bound of the range
+     * @return the estimated number of scores
+     */
+    public double estimate(double from, double to) {
+        double estimate = 0;
+        for (int i = 0; i < counts.length; i++) {
+            var lower = bounds[i];
+            var upper = bounds[i + 1];
+            var count = Math.max(0, counts[i]);
+            if (upper <= lower) {
+                // all scores of the bucket are equal
+                estimate += from <= lower && lower <= to ? count : 0;
+                continue;
+            }
+            var overlap = Math.min(upper, to) - Math.max(lower, from);
+            if (overlap > 0) {
+                estimate += count * Math.min(1.0, overlap / (upper - lower));
+            }
+        }
+        return estimate;
+    }
+}
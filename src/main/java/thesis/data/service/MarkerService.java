@@ -7,6 +7,7 @@ import thesis.data.repository.MarkerRepository;
 import thesis.data.repository.ResultRepository;
 import thesis.data.repository.TechnologyRepository;
 import thesis.data.repository.UnitRepository;
+import thesis.data.service.query.index.AggregatedMarkerIndex;
 import thesis.exceptions.EntityInUseException;
 import thesis.exceptions.EntityNotFoundException;
 
@@ -16,19 +17,41 @@ public class MarkerService extends BaseEntityService<Marker> {
     private final ResultRepository resultRepository;
     private final UnitRepository unitRepository;
     private final TechnologyRepository technologyRepository;
+    private final MetadataCache metadataCache;
+    private final AggregatedMarkerIndex aggregatedIndex;
 
     @Autowired
     public MarkerService(MarkerRepository markerRepository, ResultRepository resultRepository,
-                         UnitRepository unitRepository, TechnologyRepository technologyRepository) {
+                         UnitRepository unitRepository, TechnologyRepository technologyRepository,
+                         MetadataCache metadataCache, AggregatedMarkerIndex aggregatedIndex) {
         super(markerRepository);
         this.markerRepository = markerRepository;
         this.resultRepository = resultRepository;
         this.unitRepository = unitRepository;
         this.technologyRepository = technologyRepository;
+        this.metadataCache = metadataCache;
+        this.aggregatedIndex = aggregatedIndex;
+    }
+
+    @Override
+    public Marker save(Marker marker) {
+        if (!existsById(marker.getName())) {
+            var savedMarker = markerRepository.save(marker);
+            // a marker with the same name may be cached from before the data was flushed
+            metadataCache.evict(Marker.class, marker.getName());
+            aggregatedIndex.addMarker(marker);
+            return savedMarker;
+        }
+
+        return getEntity(marker.getName());
     }
 
     @Override
     public Marker getEntity(String name) {
+        return metadataCache.get(Marker.class, name, () -> loadEntity(name));
+    }
+
+    private Marker loadEntity(String name) {
         return markerRepository.findById(name)
                 .orElseThrow(() -> new EntityNotFoundException("Marker with name '" + name + "' not found"));
     }
@@ -56,6 +79,8 @@ public class MarkerService extends BaseEntityService<Marker> {
         }
 
         markerRepository.deleteById(name);
+        metadataCache.evict(Marker.class, name);
+        aggregatedIndex.removeMarker(name);
     }
 
     private Boolean isMarkerUsedInChildMarkers(String markerName) {
@@ -0,0 +1,192 @@
+package thesis.data.service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+import thesis.config.SearchProperties;
+import thesis.utils.RedisKeyBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * In-memory cache of the reference data that every search reads, i.e. markers, units, technologies
+ * and string categories.
+ * <p>
+ * The entity services read through the cache and evict an entity whenever they write it. Evictions are
+ * published on a Redis channel, so the caches of other application instances drop the entity as well.
+ * Pub/sub delivers at most once, entries therefore also expire after a configurable time, which bounds
+ * how long a missed eviction can be observed.
+ * </p>
+ * <p>
+ * Cached entities are shared between callers and must not be modified, write paths load the entity
+ * from the repository instead.
+ * </p>
+ */
+@Service
+public class MetadataCache implements MessageListener {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MetadataCache.class);
+
+    // evicts the entities of all types
+    private static final String ALL_TYPES = "*";
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final boolean enabled;
+    private final long ttlMillis;
+    // identifies the messages of this instance, its evictions are already applied when they are received
+    private final String instanceId = UUID.randomUUID().toString();
+
+    private final Map<String, Map<String, Entry>> entries = new ConcurrentHashMap<>();
+    // bumped on every eviction, an entity loaded while an eviction happened is not cached
+    private final AtomicLong generation = new AtomicLong();
+    private final List<EvictionListener> evictionListeners = new CopyOnWriteArrayList<>();
+
+    @Autowired
+    public MetadataCache(StringRedisTemplate redisTemplate, RedisMessageListenerContainer listenerContainer,
+                         SearchProperties searchProperties) {
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.enabled = searchProperties.isMetadataCacheEnabled();
+        this.ttlMillis = searchProperties.getMetadataCacheTtlSeconds() * 1000L;
+    }
+
+    @PostConstruct
+    void subscribeToEvictions() {
+        if (enabled) {
+            listenerContainer.addMessageListener(this, new ChannelTopic(RedisKeyBuilder.METADATA_EVICTION_CHANNEL));
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the cached entity or loads and caches it. Entities that are not found are not cached,
+     * the exception of the loader is propagated.
+     *
+     * @param type   the type of the entity
+     * @param id     the ID of the entity
+     * @param loader loads the entity from the repository
+     * @param <T>    the type of the entity
+     * @return the entity
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(Class<T> type, String id, Supplier<T> loader) {
+        if (!enabled || id == null) {
+            return loader.get();
+        }
+
+        var typeEntries = entries.computeIfAbsent(type.getSimpleName(), k -> new ConcurrentHashMap<>());
+        var entry = typeEntries.get(id);
+        var now = System.currentTimeMillis();
+        if (entry != null && entry.expiresAt() > now) {
+            return (T) entry.value();
+        }
+
+        var loadedGeneration = generation.get();
+        var value = loader.get();
+        if (value != null && generation.get() == loadedGeneration) {
+            typeEntries.put(id, new Entry(value, now + ttlMillis));
+        }
+        return value;
+    }
+
+    /**
+     * Evicts an entity from the caches of all application instances.
+     *
+     * @param type the type of the entity
+     * @param id   the ID of the entity
+     */
+    public void evict(Class<?> type, String id) {
+        if (!enabled || id == null) {
+            return;
+        }
+
+        evictLocally(type.getSimpleName(), id);
+        publish(type.getSimpleName(), id);
+    }
+
+    /**
+     * Evicts all entities from the caches of all application instances, e.g. after the database was flushed.
+     */
+    public void evictAll() {
+        if (!enabled) {
+            return;
+        }
+
+        evictLocally(ALL_TYPES, "");
+        notifyListeners(ALL_TYPES);
+        publish(ALL_TYPES, "");
+    }
+
+    /**
+     * Registers a listener that is notified when entities of the given type are evicted by another
+     * application instance or all entities are evicted. Local data derived from the entities,
+     * which the local write paths update directly, can be rebuilt by the listener.
+     *
+     * @param type     the type of the entities
+     * @param listener the listener to notify
+     */
+    public void addEvictionListener(Class<?> type, Runnable listener) {
+        evictionListeners.add(new EvictionListener(type.getSimpleName(), listener));
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        // message format: <instanceId>:<type>:<id>, the ID is empty when all entities are evicted
+        var parts = new String(message.getBody(), StandardCharsets.UTF_8).split(":", 3);
+        if (parts.length == 3 && !parts[0].equals(instanceId)) {
+            evictLocally(parts[1], parts[2]);
+            notifyListeners(parts[1]);
+        }
+    }
+
+    private void notifyListeners(String type) {
+        evictionListeners.stream()
+                .filter(listener -> ALL_TYPES.equals(type) || listener.type().equals(type))
+                .forEach(listener -> listener.listener().run());
+    }
+
+    private void evictLocally(String type, String id) {
+        generation.incrementAndGet();
+        if (ALL_TYPES.equals(type)) {
+            entries.clear();
+            return;
+        }
+
+        var typeEntries = entries.get(type);
+        if (typeEntries != null) {
+            typeEntries.remove(id);
+        }
+    }
+
+    private void publish(String type, String id) {
+        try {
+            redisTemplate.convertAndSend(RedisKeyBuilder.METADATA_EVICTION_CHANNEL, instanceId + ":" + type + ":" + id);
+        } catch (DataAccessException e) {
+            LOGGER.warn("Could not publish eviction of {} '{}', other instances see it after the cache expires", type, id, e);
+        }
+    }
+
+    private record Entry(Object value, long expiresAt) {
+    }
+
+    private record EvictionListener(String type, Runnable listener) {
+    }
+}
@@ -0,0 +1,200 @@
+package thesis.data.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import thesis.data.repository.RecordRepository;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of the dense int ordinals of the record IDs.
+ * <p>
+ * Record IDs are random UUIDs, so sets of them are expensive to hash and compare. Every record gets an ordinal
+ * from a sequence in Redis when it is saved, and search keeps intermediate results as bitmaps over the ordinals.
+ * The mapping is cached in both directions, once allocated an ordinal never changes, so cached entries stay valid
+ * until the Redis data is flushed. Record IDs without an ordinal, e.g. of records created before ordinals
+ * were introduced, get one when they are first converted, {@link #migrate()} assigns them all at once.
+ * </p>
+ */
+@Service
+public class RecordOrdinalRegistry {
+    private final RecordRepository recordRepository;
+
+    private final Map<String, Integer> ordinals = new ConcurrentHashMap<>();
+    private final Map<Integer, String> recordIds = new ConcurrentHashMap<>();
+
+    @Autowired
+    public RecordOrdinalRegistry(RecordRepository recordRepository) {
+        this.recordRepository = recordRepository;
+    }
+
+    /**
+     * Returns the ordinal of the given record ID, allocating one if the record does not have one yet.
+     *
+     * @param recordId the record ID
+     * @return the ordinal
+     */
+    public int getOrdinal(String recordId) {
+        var ordinal = ordinals.get(recordId);
+        if (ordinal != null) {
+            return ordinal;
+        }
+        return allocate(List.of(recordId)).get(0);
+    }
+
+    /**
+     * Returns the ordinals of the given record IDs in the same order, allocating the missing ones in one round trip.
+     *
+     * @param ids the record IDs
+     * @return the ordinals
+     */
+    public int[] getOrdinals(List<String> ids) {
+        int[] result = new int[ids.size()];
+        List<String> missing = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            var ordinal = ordinals.get(ids.get(i));
+            if (ordinal == null) {
+                missing.add(ids.get(i));
+            } else {
+                result[i] = ordinal;
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            allocate(missing);
+            for (int i = 0; i < ids.size(); i++) {
+                result[i] = ordinals.get(ids.get(i));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the record ID of the given ordinal.
+     *
+     * @param ordinal the ordinal
+     * @return the record ID, or null if no record has the ordinal
+     */
+    public String getRecordId(int ordinal) {
+        var id = recordIds.get(ordinal);
+        if (id != null) {
+            return id;
+        }
+
+        id = recordRepository.findRecordIdsByOrdinals(List.of(ordinal)).get(0);
+        if (id != null) {
+            cache(id, ordinal);
+        }
+        return id;
+    }
+
+    /**
+     * Converts the given record IDs into a bitmap of their ordinals.
+     *
+     * @param ids the record IDs
+     * @return a bitmap with the bits of the ordinals set
+     */
+    public BitSet toBitSet(Collection<String> ids) {
+        var bits = new BitSet();
+        List<String> missing = new ArrayList<>();
+        for (var id : ids) {
+            var ordinal = ordinals.get(id);
+            if (ordinal == null) {
+                missing.add(id);
+            } else {
+                bits.set(ordinal);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            allocate(missing).forEach(bits::set);
+        }
+        return bits;
+    }
+
+    /**
+     * Converts a bitmap of ordinals back into record IDs.
+     *
+     * @param bits the bitmap of ordinals
+     * @return the record IDs, ordinals without a record ID are skipped
+     */
+    public Set<String> toRecordIds(BitSet bits) {
+        Set<String> ids = new HashSet<>(bits.cardinality() * 4 / 3 + 1);
+        List<Integer> missing = new ArrayList<>();
+        bits.stream().forEach(ordinal -> {
+            var id = recordIds.get(ordinal);
+            if (id == null) {
+                missing.add(ordinal);
+            } else {
+                ids.add(id);
+            }
+        });
+
+        if (!missing.isEmpty()) {
+            var loaded = recordRepository.findRecordIdsByOrdinals(missing);
+            for (int i = 0; i < missing.size(); i++) {
+                var id = loaded.get(i);
+                if (id != null) {
+                    cache(id, missing.get(i));
+                    ids.add(id);
+                }
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Removes the ordinal of a deleted record.
+     *
+     * @param recordId the ID of the deleted record
+     */
+    public void release(String recordId) {
+        recordRepository.deleteOrdinal(recordId);
+        var ordinal = ordinals.remove(recordId);
+        if (ordinal != null) {
+            recordIds.remove(ordinal);
+        }
+    }
+
+    /**
+     * Allocates ordinals for all existing records that do not have one yet.
+     *
+     * @return the number of records that were checked
+     */
+    public long migrate() {
+        long[] count = {0};
+        recordRepository.streamAllRecordIds(chunk -> {
+            toBitSet(chunk);
+            count[0] += chunk.size();
+        });
+        return count[0];
+    }
+
+    /**
+     * Drops the cached ordinals, e.g. after the Redis data has been flushed.
+     */
+    public void invalidateAll() {
+        ordinals.clear();
+        recordIds.clear();
+    }
+
+    private List<Integer> allocate(List<String> ids) {
+        var allocated = recordRepository.allocateOrdinals(ids);
+        for (int i = 0; i < ids.size(); i++) {
+            cache(ids.get(i), allocated.get(i));
+        }
+        return allocated;
+    }
+
+    private void cache(String recordId, int ordinal) {
+        ordinals.put(recordId, ordinal);
+        recordIds.put(ordinal, recordId);
+    }
+}
@@ -7,22 +7,31 @@ import thesis.data.repository.RecordRepository;
 import thesis.data.repository.ResultRepository;
 import thesis.exceptions.EntityInUseException;
 import thesis.exceptions.EntityNotFoundException;
+import thesis.utils.ChunkProducer;
 
 @Service
 public class RecordService extends BaseEntityService<Record> {
     private final RecordRepository recordRepository;
     private final ResultRepository resultRepository;
+    private final RecordOrdinalRegistry ordinalRegistry;
+    private final SearchVersionRegistry versionRegistry;
 
     @Autowired
-    public RecordService(RecordRepository recordRepository, ResultRepository resultRepository) {
+    public RecordService(RecordRepository recordRepository, ResultRepository resultRepository,
+                         RecordOrdinalRegistry ordinalRegistry, SearchVersionRegistry versionRegistry) {
         super(recordRepository);
         this.recordRepository = recordRepository;
         this.resultRepository = resultRepository;
+        this.ordinalRegistry = ordinalRegistry;
+        this.versionRegistry = versionRegistry;
     }
 
     @Override
     public Record save(Record record) {
-        return recordRepository.save(record);
+        var savedRecord = recordRepository.save(record);
+        ordinalRegistry.getOrdinal(savedRecord.getId());
+        versionRegistry.bumpRecords();
+        return savedRecord;
     }
 
     @Override
@@ -50,6 +59,35 @@ public class RecordService extends BaseEntityService<Record> {
         }
 
         recordRepository.deleteById(id);
+        ordinalRegistry.release(id);
+        versionRegistry.bumpRecords();
+    }
+
+    /**
+     * Returns all records as chunks that are read from Redis only while they are consumed.
+     *
+     * @return a producer of all records
+     */
+    public ChunkProducer<Record> streamAll() {
+        return recordRepository::streamAllRecords;
+    }
+
+    /**
+     * Returns the IDs of all records as chunks that are read from Redis only while they are consumed.
+     *
+     * @return a producer of all record IDs
+     */
+    public ChunkProducer<String> streamAllIds() {
+        return recordRepository::streamAllRecordIds;
+    }
+
+    /**
+     * Counts all records without loading them.
+     *
+     * @return the number of records
+     */
+    public long count() {
+        return recordRepository.count();
     }
 
     private Boolean isRecordUsedInResults(String recordId) {
@@ -5,30 +5,74 @@ import org.springframework.stereotype.Service;
 import thesis.data.model.Result;
 import thesis.data.repository.ResultRepository;
 import thesis.data.repository.TechnologyRepository;
+import thesis.data.repository.custom.MarkerStatisticsUpdate;
+import thesis.data.repository.custom.ScoredRange;
+import thesis.data.service.query.index.AggregatedMarkerIndex;
+import thesis.data.service.query.index.MarkerStatisticsCatalog;
+import thesis.data.service.query.index.NumericColumnSnapshot;
+import thesis.data.service.query.index.ResultBitmapIndex;
+import thesis.data.service.query.index.ResultFilterIndex;
+import thesis.data.service.query.index.ResultIndexMirror;
+import thesis.data.service.query.index.StringCategoryOrdinalIndex;
 import thesis.exceptions.EntityNotFoundException;
+import thesis.utils.ChunkProducer;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
 @Service
 public class ResultService extends BaseEntityService<Result> {
     private final ResultRepository resultRepository;
     private final TechnologyRepository technologyRepository;
+    private final ResultIndexMirror indexMirror;
+    private final ResultBitmapIndex bitmapIndex;
+    private final StringCategoryOrdinalIndex categoryOrdinalIndex;
+    private final SearchVersionRegistry versionRegistry;
+    private final AggregatedMarkerIndex aggregatedIndex;
+    private final ResultFilterIndex filterIndex;
+    private final NumericColumnSnapshot columnSnapshot;
+    private final MarkerStatisticsCatalog statisticsCatalog;
 
     @Autowired
-    public ResultService(ResultRepository resultRepository, TechnologyRepository technologyRepository) {
+    public ResultService(ResultRepository resultRepository, TechnologyRepository technologyRepository,
+                         ResultIndexMirror indexMirror, ResultBitmapIndex bitmapIndex,
+                         StringCategoryOrdinalIndex categoryOrdinalIndex, SearchVersionRegistry versionRegistry,
+                         AggregatedMarkerIndex aggregatedIndex, ResultFilterIndex filterIndex,
+                         NumericColumnSnapshot columnSnapshot, MarkerStatisticsCatalog statisticsCatalog) {
         super(resultRepository);
         this.resultRepository = resultRepository;
         this.technologyRepository = technologyRepository;
+        this.indexMirror = indexMirror;
+        this.bitmapIndex = bitmapIndex;
+        this.categoryOrdinalIndex = categoryOrdinalIndex;
+        this.versionRegistry = versionRegistry;
+        this.aggregatedIndex = aggregatedIndex;
+        this.filterIndex = filterIndex;
+        this.columnSnapshot = columnSnapshot;
+        this.statisticsCatalog = statisticsCatalog;
     }
 
     @Override
     public Result save(Result result) {
-        if (result.getTechnologyName() != null) {
-            saveResultWithTechnologyDeviations(result);
-        }
-        saveResultSearchIndex(result);
+        var savedResult = saveWithIndexes(result);
+        aggregatedIndex.update(List.of(result));
+        versionRegistry.bumpMarker(result.getMarkerName());
+        return savedResult;
+    }
 
-        return resultRepository.save(result);
+    /**
+     * Saves the given results, e.g. of an import, and bumps the search version of each of their markers once
+     * after all results were saved instead of once per result. The aggregated values of each record are
+     * likewise recomputed once.
+     *
+     * @param results the results to save
+     */
+    public void saveAll(List<Result> results) {
+        saveAllWithIndexes(results);
+        aggregatedIndex.update(results);
+        versionRegistry.bumpMarkers(results.stream().map(Result::getMarkerName).toList());
     }
 
     @Override
@@ -39,7 +83,7 @@ public class ResultService extends BaseEntityService<Result> {
 
     public Result update(String id, Result result) {
         var dbResult = getEntity(id);
-        deleteSearchIndexes(dbResult);
+        deleteAllSearchIndexes(List.of(dbResult));
 
         dbResult.setMin(result.getMin());
         dbResult.setMax(result.getMax());
@@ -53,39 +97,157 @@ public class ResultService extends BaseEntityService<Result> {
         dbResult.setUnitRawName(result.getUnitRawName());
         dbResult.setTimestamp(result.getTimestamp());
 
-        if (dbResult.getTechnologyName() != null) {
-            saveResultWithTechnologyDeviations(dbResult);
-        }
-        saveResultSearchIndex(dbResult);
-
-        return resultRepository.save(dbResult);
+        var savedResult = saveWithIndexes(dbResult);
+        aggregatedIndex.update(List.of(dbResult));
+        versionRegistry.bumpMarker(dbResult.getMarkerName());
+        return savedResult;
     }
 
     @Override
     public void delete(String id) {
         var result = getEntity(id);
 
-        deleteSearchIndexes(result);
+        deleteAllSearchIndexes(List.of(result));
 
         resultRepository.deleteById(id);
+        aggregatedIndex.update(List.of(result));
+        versionRegistry.bumpMarker(result.getMarkerName());
+    }
+
+    /**
+     * Deletes the results with the given IDs, loading them in batches instead of one by one.
+     *
+     * @param ids the IDs of the results to delete
+     * @throws EntityNotFoundException if a result with one of the given IDs does not exist
+     */
+    public void deleteAll(Collection<String> ids) {
+        var results = resultRepository.findAllResultsByIds(ids);
+        for (var id : ids) {
+            if (!results.containsKey(id)) {
+                throw new EntityNotFoundException("Result with id '" + id + "' not found");
+            }
+        }
+
+        deleteAllSearchIndexes(results.values());
+
+        resultRepository.deleteAllById(ids);
+        aggregatedIndex.update(results.values());
+        versionRegistry.bumpMarkers(results.values().stream().map(Result::getMarkerName).toList());
     }
 
     public List<Result> getResultsByRecordId(String recordId) {
         return resultRepository.getAllByRecordId(recordId);
     }
 
+    public Set<String> getResultIdsByRecordId(String recordId) {
+        return resultRepository.getResultIdsByRecordId(recordId);
+    }
+
+    /**
+     * Returns all results as chunks that are read from Redis only while they are consumed.
+     *
+     * @return a producer of all results
+     */
+    public ChunkProducer<Result> streamAll() {
+        return resultRepository::streamAllResults;
+    }
+
+    private Result saveWithIndexes(Result result) {
+        return saveAllWithIndexes(List.of(result)).get(0);
+    }
+
+    // the statistics read the scores the results were indexed with before, so they are updated before the indexes
+    private List<Result> saveAllWithIndexes(List<Result> results) {
+        var ranges = results.stream().map(this::getIndexedRanges).toList();
+        List<MarkerStatisticsUpdate> statisticsUpdates = new ArrayList<>();
+        for (int i = 0; i < results.size(); i++) {
+            var result = results.get(i);
+            if (ranges.get(i).range() != null) {
+                statisticsUpdates.add(new MarkerStatisticsUpdate(result.getMarkerName(), result.getRecordId(), false,
+                        ranges.get(i).range()));
+            }
+            if (ranges.get(i).rangeWithDeviations() != null) {
+                statisticsUpdates.add(new MarkerStatisticsUpdate(result.getMarkerName(), result.getRecordId(), true,
+                        ranges.get(i).rangeWithDeviations()));
+            }
+        }
+        statisticsCatalog.update(statisticsUpdates);
+        columnSnapshot.invalidate(results.stream().map(Result::getMarkerName).distinct().toList());
+
+        List<Result> savedResults = new ArrayList<>(results.size());
+        List<String> indexedMarkerNames = new ArrayList<>();
+        for (int i = 0; i < results.size(); i++) {
+            savedResults.add(saveWithIndexes(results.get(i), ranges.get(i)));
+            if (ranges.get(i).range() != null) {
+                indexedMarkerNames.add(results.get(i).getMarkerName());
+            }
+        }
+        // once per written batch, not once per result
+        indexMirror.invalidate(indexedMarkerNames);
+        return savedResults;
+    }
+
+    private Result saveWithIndexes(Result result, IndexedRanges ranges) {
+        var rangeWithDeviations = ranges.rangeWithDeviations();
+        if (rangeWithDeviations != null) {
+            resultRepository.saveResultSearchIndexWithTechDeviations(result, rangeWithDeviations.min(),
+                    rangeWithDeviations.max());
+        }
+        if (ranges.range() != null) {
+            resultRepository.saveResultSearchIndex(result);
+        }
+
+        var savedResult = resultRepository.save(result);
+        bitmapIndex.add(savedResult);
+        categoryOrdinalIndex.add(savedResult);
+        filterIndex.add(savedResult);
+        return savedResult;
+    }
+
+    private void deleteAllSearchIndexes(Collection<Result> results) {
+        List<MarkerStatisticsUpdate> statisticsUpdates = new ArrayList<>();
+        results.stream().filter(ResultService::isIndexed).forEach(result -> {
+            statisticsUpdates.add(new MarkerStatisticsUpdate(result.getMarkerName(), result.getRecordId(), false, null));
+            statisticsUpdates.add(new MarkerStatisticsUpdate(result.getMarkerName(), result.getRecordId(), true, null));
+        });
+        statisticsCatalog.update(statisticsUpdates);
+        columnSnapshot.invalidate(results.stream().map(Result::getMarkerName).distinct().toList());
+
+        results.forEach(this::deleteSearchIndexes);
+        indexMirror.invalidate(results.stream().filter(ResultService::isIndexed).map(Result::getMarkerName).toList());
+    }
+
     private void deleteSearchIndexes(Result result) {
-        if (result.getMin() != null || result.getMax() != null) {
+        if (isIndexed(result)) {
             resultRepository.deleteResultSearchIndex(result);
             resultRepository.deleteResultSearchIndexWithTechDeviations(result);
         }
+        bitmapIndex.remove(result);
+        categoryOrdinalIndex.remove(result);
+        filterIndex.remove(result);
     }
 
-    private void saveResultWithTechnologyDeviations(Result result) {
+    private static boolean isIndexed(Result result) {
+        return result.getMin() != null || result.getMax() != null;
+    }
+
+    // the scores a result is written to the min and max indexes with, unbounded values are stored as infinity
+    private IndexedRanges getIndexedRanges(Result result) {
         if (result.getStringValue() != null || result.getBooleanValue() != null) {
-            return;
+            return new IndexedRanges(null, null);
+        }
+
+        var rangeWithDeviations = result.getTechnologyName() == null ? null : getRangeWithTechnologyDeviations(result);
+        if (result.getMin() == null) {
+            result.setMin(Double.NEGATIVE_INFINITY);
+        }
+        if (result.getMax() == null) {
+            result.setMax(Double.POSITIVE_INFINITY);
         }
+        return new IndexedRanges(new ScoredRange(result.getMin(), result.getMax()), rangeWithDeviations);
+    }
 
+    private ScoredRange getRangeWithTechnologyDeviations(Result result) {
         var newMin = result.getMin();
         var newMax = result.getMax();
 
@@ -109,8 +271,7 @@ public class ResultService extends BaseEntityService<Result> {
         if (newMax == null) {
             newMax = Double.POSITIVE_INFINITY;
         }
-
-        resultRepository.saveResultSearchIndexWithTechDeviations(result, newMin, newMax);
+        return new ScoredRange(newMin, newMax);
     }
 
     private Double applyDeviation(Double value, Double deviation, boolean isPercentage, boolean isMax) {
@@ -141,17 +302,7 @@ public class ResultService extends BaseEntityService<Result> {
         return Double.parseDouble(fromDeviation.split("::")[2]);
     }
 
-    private void saveResultSearchIndex(Result result) {
-        if (result.getStringValue() != null || result.getBooleanValue() != null) {
-            return;
-        }
-
-        if (result.getMin() == null) {
-            result.setMin(Double.NEGATIVE_INFINITY);
-        }
-        if (result.getMax() == null) {
-            result.setMax(Double.POSITIVE_INFINITY);
-        }
-        resultRepository.saveResultSearchIndex(result);
+    // null ranges are not written, e.g. for string results or results without a technology
+    private record IndexedRanges(ScoredRange range, ScoredRange rangeWithDeviations) {
     }
 }
@@ -0,0 +1,135 @@
+package thesis.data.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+import thesis.utils.RedisKeyBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Version counters of the data that search results are computed from.
+ * <p>
+ * Every marker has a counter that is bumped by writes of its results and technology properties,
+ * the set of records and the technologies have one counter each. A cached search result is valid
+ * as long as the counters it was computed with are unchanged. The counters are kept in Redis,
+ * so writes of other application instances are observed as well.
+ * </p>
+ * <p>
+ * Flushing the database resets the counters, so the versions also contain a random epoch that is
+ * recreated when it is missing. Versions read before and after a flush never compare equal.
+ * </p>
+ */
+@Service
+public class SearchVersionRegistry {
+    private final StringRedisTemplate redisTemplate;
+
+    @Autowired
+    public SearchVersionRegistry(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    /**
+     * Bumps the version of the given marker.
+     *
+     * @param markerName the name of the marker
+     * @return the new version of the marker, 0 if no marker is given
+     */
+    public long bumpMarker(String markerName) {
+        if (markerName == null) {
+            return 0L;
+        }
+
+        var version = redisTemplate.opsForValue().increment(RedisKeyBuilder.markerVersionKey(markerName));
+        return version == null ? 0L : version;
+    }
+
+    /**
+     * Bumps the versions of the given markers in one round trip.
+     *
+     * @param markerNames the names of the markers
+     * @return the new version of each marker
+     */
+    public Map<String, Long> bumpMarkers(Collection<String> markerNames) {
+        var distinctNames = markerNames.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+        if (distinctNames.isEmpty()) {
+            return Map.of();
+        }
+
+        var replies = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            distinctNames.forEach(markerName -> connection.stringCommands()
+                    .incr(RedisKeyBuilder.markerVersionKey(markerName).getBytes(StandardCharsets.UTF_8)));
+            return null;
+        });
+
+        Map<String, Long> versions = new HashMap<>();
+        for (int i = 0; i < distinctNames.size(); i++) {
+            var reply = i < replies.size() ? replies.get(i) : null;
+            versions.put(distinctNames.get(i), reply instanceof Long version ? version : 0L);
+        }
+        return versions;
+    }
+
+    /**
+     * Bumps the version of the set of records.
+     */
+    public void bumpRecords() {
+        redisTemplate.opsForValue().increment(RedisKeyBuilder.RECORD_VERSION_KEY);
+    }
+
+    /**
+     * Bumps the version of the technologies, e.g. after technologies were added that others are comparable with.
+     */
+    public void bumpTechnologies() {
+        redisTemplate.opsForValue().increment(RedisKeyBuilder.TECHNOLOGY_VERSION_KEY);
+    }
+
+    /**
+     * Reads the current versions of the given markers, of the technologies and optionally of the set of records
+     * in one round trip. A counter that was never bumped has version 0.
+     *
+     * @param markerNames the names of the markers
+     * @param withRecords whether the version of the set of records is included
+     * @return the versions, the epoch followed by the markers in the given order, the technologies and the records
+     */
+    public List<Long> getVersions(Collection<String> markerNames, boolean withRecords) {
+        List<String> keys = new ArrayList<>();
+        keys.add(RedisKeyBuilder.VERSION_EPOCH_KEY);
+        new LinkedHashSet<>(markerNames).forEach(markerName -> keys.add(RedisKeyBuilder.markerVersionKey(markerName)));
+        keys.add(RedisKeyBuilder.TECHNOLOGY_VERSION_KEY);
+        if (withRecords) {
+            keys.add(RedisKeyBuilder.RECORD_VERSION_KEY);
+        }
+
+        var values = redisTemplate.opsForValue().multiGet(keys);
+        List<Long> versions = new ArrayList<>(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            var value = values == null ? null : values.get(i);
+            versions.add(value == null ? 0L : Long.parseLong(value));
+        }
+        if (versions.get(0) == 0L) {
+            versions.set(0, createEpoch());
+        }
+        return versions;
+    }
+
+    private long createEpoch() {
+        var epoch = String.valueOf(ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE));
+        redisTemplate.opsForValue().setIfAbsent(RedisKeyBuilder.VERSION_EPOCH_KEY, epoch);
+        // another instance may have created the epoch first
+        var current = redisTemplate.opsForValue().get(RedisKeyBuilder.VERSION_EPOCH_KEY);
+        return Long.parseLong(current == null ? epoch : current);
+    }
+}
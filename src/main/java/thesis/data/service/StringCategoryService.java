@@ -5,24 +5,48 @@ import org.springframework.stereotype.Service;
 import thesis.data.model.StringCategory;
 import thesis.data.repository.ResultRepository;
 import thesis.data.repository.StringCategoryRepository;
+import thesis.data.service.query.index.StringCategoryOrdinalIndex;
 import thesis.exceptions.BadRequestException;
 import thesis.exceptions.EntityInUseException;
 import thesis.exceptions.EntityNotFoundException;
 
+import java.util.ArrayList;
+
 @Service
 public class StringCategoryService extends BaseEntityService<StringCategory> {
     private final StringCategoryRepository stringCategoryRepository;
     private final ResultRepository resultRepository;
+    private final StringCategoryOrdinalIndex ordinalIndex;
+    private final MetadataCache metadataCache;
 
     @Autowired
-    public StringCategoryService(StringCategoryRepository stringCategoryRepository, ResultRepository resultRepository) {
+    public StringCategoryService(StringCategoryRepository stringCategoryRepository, ResultRepository resultRepository,
+                                 StringCategoryOrdinalIndex ordinalIndex, MetadataCache metadataCache) {
         super(stringCategoryRepository);
         this.stringCategoryRepository = stringCategoryRepository;
         this.resultRepository = resultRepository;
+        this.ordinalIndex = ordinalIndex;
+        this.metadataCache = metadataCache;
+    }
+
+    @Override
+    public StringCategory save(StringCategory category) {
+        if (!existsById(category.getName())) {
+            var savedCategory = stringCategoryRepository.save(category);
+            // a category with the same name may be cached from before the data was flushed
+            metadataCache.evict(StringCategory.class, category.getName());
+            return savedCategory;
+        }
+
+        return getEntity(category.getName());
     }
 
     @Override
     public StringCategory getEntity(String categoryName) {
+        return metadataCache.get(StringCategory.class, categoryName, () -> loadEntity(categoryName));
+    }
+
+    private StringCategory loadEntity(String categoryName) {
         return stringCategoryRepository.findById(categoryName)
                 .orElseThrow(() -> new EntityNotFoundException("String category with name '" + categoryName + "' not found"));
     }
@@ -38,10 +62,11 @@ public class StringCategoryService extends BaseEntityService<StringCategory> {
         }
 
         stringCategoryRepository.deleteById(categoryName);
+        metadataCache.evict(StringCategory.class, categoryName);
     }
 
     public StringCategory addValue(String categoryName, String value) {
-        var category = getEntity(categoryName);
+        var category = loadEntity(categoryName);
         if (category.getIsComparable()) {
             throw new BadRequestException("Cannot add value to comparable category '" + categoryName + "'");
         }
@@ -50,8 +75,12 @@ public class StringCategoryService extends BaseEntityService<StringCategory> {
             throw new BadRequestException("Value '" + value + "' already exists in category '" + categoryName + "'");
         }
 
+        var previousValues = new ArrayList<>(category.getValues());
         category.getValues().add(value);
-        return stringCategoryRepository.save(category);
+        var savedCategory = stringCategoryRepository.save(category);
+        metadataCache.evict(StringCategory.class, categoryName);
+        ordinalIndex.rescore(savedCategory, previousValues);
+        return savedCategory;
     }
 
     private Boolean isStringCategoryUsedInResults(String categoryName) {
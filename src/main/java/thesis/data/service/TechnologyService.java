@@ -17,19 +17,29 @@ import java.util.Set;
 public class TechnologyService extends BaseEntityService<Technology> {
     private final TechnologyRepository technologyRepository;
     private final ResultRepository resultRepository;
+    private final SearchVersionRegistry versionRegistry;
+    private final MetadataCache metadataCache;
 
     @Autowired
-    public TechnologyService(TechnologyRepository technologyRepository, ResultRepository resultRepository) {
+    public TechnologyService(TechnologyRepository technologyRepository, ResultRepository resultRepository,
+                             SearchVersionRegistry versionRegistry, MetadataCache metadataCache) {
         super(technologyRepository);
         this.technologyRepository = technologyRepository;
         this.resultRepository = resultRepository;
+        this.versionRegistry = versionRegistry;
+        this.metadataCache = metadataCache;
     }
 
     @Override
     public Technology save(Technology technology) {
         if (!existsById(technology.getName())) {
             savePropertiesList(technology);
-            return technologyRepository.save(technology);
+            var savedTechnology = technologyRepository.save(technology);
+            // a technology with the same name may be cached from before the data was flushed
+            metadataCache.evict(Technology.class, technology.getName());
+            // a new technology can be comparable with existing ones, which changes the resolved technology filters
+            versionRegistry.bumpTechnologies();
+            return savedTechnology;
         }
 
         return getEntity(technology.getName());
@@ -37,6 +47,10 @@ public class TechnologyService extends BaseEntityService<Technology> {
 
     @Override
     public Technology getEntity(String name) {
+        return metadataCache.get(Technology.class, name, () -> loadEntity(name));
+    }
+
+    private Technology loadEntity(String name) {
         return technologyRepository.findById(name)
                 .orElseThrow(() -> new EntityNotFoundException("Technology with name " + name + " not found"));
     }
@@ -51,7 +65,7 @@ public class TechnologyService extends BaseEntityService<Technology> {
 
     @Override
     public void delete(String name) {
-        var technology = getEntity(name);
+        var technology = loadEntity(name);
 
         if (isTechnologyUsedInResults(name)) {
             throw new EntityInUseException("Cannot delete technology with name " + name + " because it is used in results");
@@ -64,10 +78,12 @@ public class TechnologyService extends BaseEntityService<Technology> {
         deletePropertiesForTechnology(technology);
 
         technologyRepository.deleteById(name);
+        metadataCache.evict(Technology.class, name);
+        versionRegistry.bumpTechnologies();
     }
 
     public Technology addProperties(String technologyName, TechnologyProperties technologyProperties) {
-        var technology = getEntity(technologyName);
+        var technology = loadEntity(technologyName);
         if (technology.getProperties() != null && technology.getProperties().stream().anyMatch(d -> d.getMarkerName().equals(technologyProperties.getMarkerName()))) {
             throw new BadRequestException("Properties for marker name " + technologyProperties.getMarkerName() + " already exist");
         }
@@ -79,7 +95,9 @@ public class TechnologyService extends BaseEntityService<Technology> {
         }
         technology.getProperties().add(technologyProperties);
 
-        return technologyRepository.save(technology);
+        var savedTechnology = technologyRepository.save(technology);
+        metadataCache.evict(Technology.class, technologyName);
+        return savedTechnology;
     }
 
     private void savePropertiesList(Technology technology) {
@@ -104,6 +122,7 @@ public class TechnologyService extends BaseEntityService<Technology> {
         if (properties.getSpecificity() != null) {
             technologyRepository.saveSpecificity(technologyName, properties.getMarkerName(), properties.getSpecificity());
         }
+        versionRegistry.bumpMarker(properties.getMarkerName());
     }
 
     private void deletePropertiesForTechnology(Technology technology) {
@@ -121,6 +140,7 @@ public class TechnologyService extends BaseEntityService<Technology> {
         if (technologyProperties.getDeviationRanges() != null) {
             technologyRepository.deleteDeviationRange(technologyProperties.getDeviationRanges(), technologyProperties.getMarkerName(), technologyName);
         }
+        versionRegistry.bumpMarker(technologyProperties.getMarkerName());
     }
 
     private Boolean isTechnologyUsedInResults(String technologyName) {
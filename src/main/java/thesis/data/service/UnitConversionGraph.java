@@ -0,0 +1,259 @@
+package thesis.data.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import thesis.config.SearchProperties;
+import thesis.data.model.Conversion;
+import thesis.data.model.Unit;
+import thesis.data.repository.UnitRepository;
+import thesis.utils.CompiledFormula;
+import thesis.utils.FormulaEvaluator;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Graph of the unit conversions of all markers with the precomputed conversions between every pair of units.
+ * <p>
+ * Every conversion of a unit is an edge from the unit to its target unit, valid for one marker. For each marker
+ * the shortest chain of conversions between two units is composed into one compiled formula, so units without
+ * a direct conversion are converted through intermediate units, e.g. mg/kg to g/kg to %.
+ * A conversion is then resolved with a map lookup.
+ * </p>
+ * <p>
+ * The graph is loaded lazily. Local writes of units update the edges and recompute the conversions of the
+ * affected markers only, writes of other instances are observed through the evictions of the {@link MetadataCache}
+ * and rebuild the whole graph. Like the cached entities, the graph is also rebuilt after the cache expiry time.
+ * </p>
+ */
+@Service
+public class UnitConversionGraph {
+    private final UnitRepository unitRepository;
+    private final MetadataCache metadataCache;
+    private final long ttlMillis;
+
+    private volatile Snapshot snapshot;
+
+    @Autowired
+    public UnitConversionGraph(UnitRepository unitRepository, MetadataCache metadataCache,
+                               SearchProperties searchProperties) {
+        this.unitRepository = unitRepository;
+        this.metadataCache = metadataCache;
+        this.ttlMillis = searchProperties.getMetadataCacheTtlSeconds() * 1000L;
+    }
+
+    @PostConstruct
+    void subscribeToUnitEvictions() {
+        metadataCache.addEvictionListener(Unit.class, this::invalidate);
+    }
+
+    /**
+     * Resolves the conversion of the values of a marker from one unit to another.
+     *
+     * @param markerName     the name of the marker
+     * @param sourceUnitName the unit of the values
+     * @param targetUnitName the unit to convert the values to
+     * @return the conversion, empty if the units are not connected by conversions of the marker
+     */
+    public Optional<ResolvedConversion> resolve(String markerName, String sourceUnitName, String targetUnitName) {
+        var conversions = getSnapshot().conversions().getOrDefault(markerName, Map.of()).get(sourceUnitName);
+        return Optional.ofNullable(conversions == null ? null : conversions.get(targetUnitName));
+    }
+
+    /**
+     * Checks whether the given unit has conversions to other units, for any marker.
+     *
+     * @param unitName the name of the unit
+     * @return true if the unit has at least one conversion
+     */
+    public boolean hasConversions(String unitName) {
+        return getSnapshot().edges().values().stream().anyMatch(edges -> edges.containsKey(unitName));
+    }
+
+    /**
+     * Adds the conversions of a saved unit to the graph.
+     *
+     * @param unit the saved unit
+     */
+    public synchronized void addUnit(Unit unit) {
+        if (snapshot == null || unit.getConversions() == null) {
+            return;
+        }
+
+        var edges = copyEdges(snapshot.edges());
+        unit.getConversions().forEach(conversion -> putEdge(edges, unit.getName(), conversion));
+        update(edges, unit.getConversions().stream().map(Conversion::getMarkerName).toList());
+    }
+
+    /**
+     * Adds a conversion that was added to a unit to the graph.
+     *
+     * @param sourceUnitName the name of the unit the conversion was added to
+     * @param conversion     the added conversion
+     */
+    public synchronized void addConversion(String sourceUnitName, Conversion conversion) {
+        if (snapshot == null) {
+            return;
+        }
+
+        var edges = copyEdges(snapshot.edges());
+        putEdge(edges, sourceUnitName, conversion);
+        update(edges, List.of(conversion.getMarkerName()));
+    }
+
+    /**
+     * Removes the conversions of a deleted unit from the graph.
+     *
+     * @param unitName the name of the deleted unit
+     */
+    public synchronized void removeUnit(String unitName) {
+        if (snapshot == null) {
+            return;
+        }
+
+        var edges = copyEdges(snapshot.edges());
+        List<String> markerNames = new ArrayList<>();
+        edges.forEach((markerName, markerEdges) -> {
+            if (markerEdges.remove(unitName) != null) {
+                markerNames.add(markerName);
+            }
+        });
+        update(edges, markerNames);
+    }
+
+    /**
+     * Drops the graph, it is loaded again on the next resolution.
+     */
+    public synchronized void invalidate() {
+        snapshot = null;
+    }
+
+    private Snapshot getSnapshot() {
+        var current = snapshot;
+        if (current != null && current.expiresAt() > System.currentTimeMillis()) {
+            return current;
+        }
+
+        synchronized (this) {
+            if (snapshot == null || snapshot.expiresAt() <= System.currentTimeMillis()) {
+                snapshot = load();
+            }
+            return snapshot;
+        }
+    }
+
+    private Snapshot load() {
+        Map<String, Map<String, Map<String, ResolvedConversion>>> edges = new HashMap<>();
+        for (var unit : unitRepository.findAll()) {
+            if (unit.getConversions() != null) {
+                unit.getConversions().forEach(conversion -> putEdge(edges, unit.getName(), conversion));
+            }
+        }
+
+        Map<String, Map<String, Map<String, ResolvedConversion>>> conversions = new HashMap<>();
+        edges.forEach((markerName, markerEdges) -> conversions.put(markerName, compose(markerEdges)));
+        // with a disabled metadata cache the graph expires immediately, every resolution reads the units
+        var expiresAt = metadataCache.isEnabled() ? System.currentTimeMillis() + ttlMillis : 0;
+        return new Snapshot(edges, conversions, expiresAt);
+    }
+
+    // replaces the edges and recomputes the conversions of the given markers only
+    private void update(Map<String, Map<String, Map<String, ResolvedConversion>>> edges, Collection<String> markerNames) {
+        var conversions = new HashMap<>(snapshot.conversions());
+        for (var markerName : new HashSet<>(markerNames)) {
+            var markerEdges = edges.get(markerName);
+            if (markerEdges == null || markerEdges.isEmpty()) {
+                conversions.remove(markerName);
+            } else {
+                conversions.put(markerName, compose(markerEdges));
+            }
+        }
+        snapshot = new Snapshot(edges, conversions, snapshot.expiresAt());
+    }
+
+    private static void putEdge(Map<String, Map<String, Map<String, ResolvedConversion>>> edges,
+                                String sourceUnitName, Conversion conversion) {
+        edges.computeIfAbsent(conversion.getMarkerName(), k -> new LinkedHashMap<>())
+                .computeIfAbsent(sourceUnitName, k -> new LinkedHashMap<>())
+                .put(conversion.getTargetUnitName(),
+                        new ResolvedConversion(conversion.getFormula(), compile(conversion.getFormula())));
+    }
+
+    // composes the shortest chain of conversions from every unit to every reachable unit of one marker
+    private static Map<String, Map<String, ResolvedConversion>> compose(Map<String, Map<String, ResolvedConversion>> edges) {
+        Map<String, Map<String, ResolvedConversion>> conversions = new HashMap<>();
+        for (var sourceUnitName : edges.keySet()) {
+            Map<String, ResolvedConversion> reachable = new HashMap<>();
+            Set<String> visited = new HashSet<>(Set.of(sourceUnitName));
+            var queue = new ArrayDeque<String>();
+            queue.add(sourceUnitName);
+
+            while (!queue.isEmpty()) {
+                var unitName = queue.poll();
+                var previous = reachable.get(unitName);
+                edges.getOrDefault(unitName, Map.of()).forEach((targetUnitName, edge) -> {
+                    if (visited.add(targetUnitName)) {
+                        reachable.put(targetUnitName, previous == null ? edge : previous.andThen(edge));
+                        queue.add(targetUnitName);
+                    }
+                });
+            }
+            conversions.put(sourceUnitName, reachable);
+        }
+        return conversions;
+    }
+
+    // an invalid formula fails when it is evaluated, like it did before formulas were compiled up front
+    private static CompiledFormula compile(String formula) {
+        try {
+            return FormulaEvaluator.compile(formula);
+        } catch (IllegalArgumentException | UnsupportedOperationException e) {
+            return x -> {
+                throw e;
+            };
+        }
+    }
+
+    private static Map<String, Map<String, Map<String, ResolvedConversion>>> copyEdges(
+            Map<String, Map<String, Map<String, ResolvedConversion>>> edges) {
+        Map<String, Map<String, Map<String, ResolvedConversion>>> copy = new HashMap<>();
+        edges.forEach((markerName, markerEdges) -> {
+            Map<String, Map<String, ResolvedConversion>> markerCopy = new LinkedHashMap<>();
+            markerEdges.forEach((unitName, targets) -> markerCopy.put(unitName, new LinkedHashMap<>(targets)));
+            copy.put(markerName, markerCopy);
+        });
+        return copy;
+    }
+
+    /**
+     * A conversion between two units, composed of one or more conversions of the marker.
+     *
+     * @param formula  the formulas of the chain of conversions, for error messages
+     * @param function the compiled composition of the formulas
+     */
+    public record ResolvedConversion(String formula, CompiledFormula function) {
+
+        ResolvedConversion andThen(ResolvedConversion next) {
+            return new ResolvedConversion(formula + " -> " + next.formula(), function.andThen(next.function()));
+        }
+    }
+
+    /**
+     * Immutable state of the graph, replaced as a whole on every change. The edges are the conversions
+     * of the units, the conversions additionally contain the composed chains. Both are keyed by marker,
+     * source unit and target unit.
+     */
+    private record Snapshot(Map<String, Map<String, Map<String, ResolvedConversion>>> edges,
+                            Map<String, Map<String, Map<String, ResolvedConversion>>> conversions,
+                            long expiresAt) {
+    }
+}
@@ -6,26 +6,55 @@ import thesis.data.model.Conversion;
 import thesis.data.model.Unit;
 import thesis.data.repository.MarkerRepository;
 import thesis.data.repository.UnitRepository;
+import thesis.data.service.query.index.AggregatedMarkerIndex;
 import thesis.exceptions.BadRequestException;
 import thesis.exceptions.EntityInUseException;
 import thesis.exceptions.EntityNotFoundException;
 
 import java.util.ArrayList;
+import java.util.List;
 
 @Service
 public class UnitService extends BaseEntityService<Unit> {
     private final UnitRepository unitRepository;
     private final MarkerRepository markerRepository;
+    private final MetadataCache metadataCache;
+    private final UnitConversionGraph conversionGraph;
+    private final AggregatedMarkerIndex aggregatedIndex;
 
     @Autowired
-    public UnitService(UnitRepository unitRepository, MarkerRepository markerRepository) {
+    public UnitService(UnitRepository unitRepository, MarkerRepository markerRepository, MetadataCache metadataCache,
+                       UnitConversionGraph conversionGraph, AggregatedMarkerIndex aggregatedIndex) {
         super(unitRepository);
         this.unitRepository = unitRepository;
         this.markerRepository = markerRepository;
+        this.metadataCache = metadataCache;
+        this.conversionGraph = conversionGraph;
+        this.aggregatedIndex = aggregatedIndex;
+    }
+
+    @Override
+    public Unit save(Unit unit) {
+        if (!existsById(unit.getName())) {
+            var savedUnit = unitRepository.save(unit);
+            // a unit with the same name may be cached from before the data was flushed
+            metadataCache.evict(Unit.class, unit.getName());
+            conversionGraph.addUnit(savedUnit);
+            if (unit.getConversions() != null) {
+                aggregatedIndex.refresh(unit.getConversions().stream().map(Conversion::getMarkerName).toList());
+            }
+            return savedUnit;
+        }
+
+        return getEntity(unit.getName());
     }
 
     @Override
     public Unit getEntity(String name) {
+        return metadataCache.get(Unit.class, name, () -> loadEntity(name));
+    }
+
+    private Unit loadEntity(String name) {
         return unitRepository.findById(name)
                 .orElseThrow(() -> new EntityNotFoundException("Unit with name '" + name + "' not found"));
     }
@@ -45,6 +74,8 @@ public class UnitService extends BaseEntityService<Unit> {
         }
 
         unitRepository.deleteById(name);
+        metadataCache.evict(Unit.class, name);
+        conversionGraph.removeUnit(name);
     }
 
     public Unit addConversion(String unitName, Conversion conversion) {
@@ -52,7 +83,7 @@ public class UnitService extends BaseEntityService<Unit> {
             throw new BadRequestException("Source and target unit names must be different");
         }
 
-        var unit = getEntity(unitName);
+        var unit = loadEntity(unitName);
         if (unit.getConversions() == null) {
             unit.setConversions(new ArrayList<>());
         }
@@ -62,7 +93,11 @@ public class UnitService extends BaseEntityService<Unit> {
         }
 
         unit.getConversions().add(conversion);
-        return unitRepository.save(unit);
+        var savedUnit = unitRepository.save(unit);
+        metadataCache.evict(Unit.class, unitName);
+        conversionGraph.addConversion(unitName, conversion);
+        aggregatedIndex.refresh(List.of(conversion.getMarkerName()));
+        return savedUnit;
     }
 
     private Boolean isUnitUsedInMarkers(String unitName) {
@@ -0,0 +1,34 @@
+package thesis.data.service.query;
+
+import thesis.data.model.Result;
+import thesis.data.repository.ResultRepository;
+import thesis.utils.ChunkProducer;
+import thesis.utils.EntityUtils;
+
+import java.util.Set;
+
+/**
+ * Base class of the services querying the results of one value type.
+ */
+public abstract class BaseResultQueryService {
+    protected final ResultRepository resultRepository;
+
+    public BaseResultQueryService(ResultRepository resultRepository) {
+        this.resultRepository = resultRepository;
+    }
+
+    /**
+     * Returns the results for the provided record IDs and marker name as chunks that are read from Redis
+     * only while they are consumed. Results that no longer exist are skipped.
+     *
+     * @param recordIds  A set of record IDs to read the results for.
+     * @param markerName The name of the marker associated with the results.
+     * @return A producer of the results.
+     */
+    public ChunkProducer<Result> streamResultsByIds(Set<String> recordIds, String markerName) {
+        var resultIds = recordIds.stream()
+                .map(id -> EntityUtils.generateResultId(id, markerName))
+                .toList();
+        return chunkConsumer -> resultRepository.streamResultsByIds(resultIds, chunkConsumer);
+    }
+}
@@ -0,0 +1,105 @@
+package thesis.data.service.query;
+
+import thesis.data.repository.custom.NumericRangeIndex;
+import thesis.data.repository.custom.RangeBounds;
+import thesis.data.repository.custom.RangePageRequest;
+import thesis.data.repository.custom.ScoredRecordId;
+import thesis.data.service.query.index.MarkerStatisticsCatalog;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Range index that answers searches outside the envelope of the marker statistics without reading the wrapped index,
+ * see {@link MarkerStatisticsCatalog}.
+ * <p>
+ * Every read checks the search version of the marker before it is pruned, and reads the statistics again after the
+ * marker was written. A search that reads the index once per marker pays one round trip more, a search that pages
+ * through the index pays it on every page. That is why the catalog is off by default.
+ * </p>
+ */
+final class EnvelopePrunedRangeIndex implements NumericRangeIndex {
+    private final NumericRangeIndex index;
+    private final MarkerStatisticsCatalog statisticsCatalog;
+
+    EnvelopePrunedRangeIndex(NumericRangeIndex index, MarkerStatisticsCatalog statisticsCatalog) {
+        this.index = index;
+        this.statisticsCatalog = statisticsCatalog;
+    }
+
+    @Override
+    public Set<String> searchForMinimumMatches(String markerName, Double min, Double max, Boolean withTechDeviations) {
+        if (statisticsCatalog.excludesMinimum(markerName, withTechDeviations, lower(min), upper(max))) {
+            return new HashSet<>();
+        }
+        return index.searchForMinimumMatches(markerName, min, max, withTechDeviations);
+    }
+
+    @Override
+    public Set<String> searchForMaximumMatches(String markerName, Double min, Double max, Boolean withTechDeviations) {
+        if (statisticsCatalog.excludesMaximum(markerName, withTechDeviations, lower(min), upper(max))) {
+            return new HashSet<>();
+        }
+        return index.searchForMaximumMatches(markerName, min, max, withTechDeviations);
+    }
+
+    @Override
+    public Set<String> searchForRangeMatches(String markerName, Double minFrom, Double minTo, Double maxFrom, Double maxTo,
+                                             Boolean withTechDeviations) {
+        if (statisticsCatalog.excludes(markerName, withTechDeviations, toBounds(minFrom, minTo, maxFrom, maxTo))) {
+            return new HashSet<>();
+        }
+        return index.searchForRangeMatches(markerName, minFrom, minTo, maxFrom, maxTo, withTechDeviations);
+    }
+
+    @Override
+    public long countRangeMatches(String markerName, Double minFrom, Double minTo, Double maxFrom, Double maxTo,
+                                  Boolean withTechDeviations) {
+        if (statisticsCatalog.excludes(markerName, withTechDeviations, toBounds(minFrom, minTo, maxFrom, maxTo))) {
+            return 0;
+        }
+        return index.countRangeMatches(markerName, minFrom, minTo, maxFrom, maxTo, withTechDeviations);
+    }
+
+    @Override
+    public long estimateRangeMatches(String markerName, RangeBounds bounds, Boolean withTechDeviations) {
+        if (statisticsCatalog.excludes(markerName, withTechDeviations, bounds)) {
+            return 0;
+        }
+        return index.estimateRangeMatches(markerName, bounds, withTechDeviations);
+    }
+
+    @Override
+    public Set<String> probeRangeMatches(String markerName, RangeBounds bounds, Boolean withTechDeviations,
+                                         Collection<String> recordIds) {
+        if (statisticsCatalog.excludes(markerName, withTechDeviations, bounds)) {
+            return new HashSet<>();
+        }
+        return index.probeRangeMatches(markerName, bounds, withTechDeviations, recordIds);
+    }
+
+    @Override
+    public List<ScoredRecordId> searchForRangePage(String markerName, Double minFrom, Double minTo, Double maxFrom,
+                                                   Double maxTo, Boolean withTechDeviations, RangePageRequest page) {
+        if (statisticsCatalog.excludes(markerName, withTechDeviations, toBounds(minFrom, minTo, maxFrom, maxTo))) {
+            return new ArrayList<>();
+        }
+        return index.searchForRangePage(markerName, minFrom, minTo, maxFrom, maxTo, withTechDeviations, page);
+    }
+
+    // a missing bound leaves its side of the range open
+    private static RangeBounds toBounds(Double minFrom, Double minTo, Double maxFrom, Double maxTo) {
+        return new RangeBounds(lower(minFrom), upper(minTo), lower(maxFrom), upper(maxTo));
+    }
+
+    private static double lower(Double bound) {
+        return bound == null ? Double.NEGATIVE_INFINITY : bound;
+    }
+
+    private static double upper(Double bound) {
+        return bound == null ? Double.POSITIVE_INFINITY : bound;
+    }
+}
@@ -0,0 +1,184 @@
+package thesis.data.service.query;
+
+import thesis.data.repository.ResultRepository;
+import thesis.data.repository.custom.NumericRangeIndex;
+import thesis.data.repository.custom.RangeBounds;
+import thesis.data.repository.custom.RangePageRequest;
+import thesis.data.repository.custom.ScoredRange;
+import thesis.data.repository.custom.ScoredRecordId;
+import thesis.exceptions.BadRequestException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Ranks the matches of a numeric search by the distance of their range to a query point, read from the index
+ * from the query point outwards.
+ * <p>
+ * The matches are ranked in tiers, e.g. the exact matches before the matches only within tolerance, each match
+ * belongs to the first tier whose bounds it falls into. Within a tier the matches are ordered by distance
+ * and record ID. The position of a match holds its tier and its exact distance as score, so the next page
+ * starts reading at the distance the previous page ended at.
+ * </p>
+ * <p>
+ * The k nearest matches of a tier are read on both sides of the query point: the matches right of it in
+ * ascending order of the minimum, and the matches left of it in descending order of the maximum. Each side is
+ * read in index pages of k entries until it holds k matches and the next entry is further away than the k-th,
+ * so a page costs about k entries per side however deep it is. Matches that contain the query point are at
+ * distance 0 and read as a whole while the page starts at distance 0, when there are at least k of them the
+ * sides are not read.
+ * </p>
+ */
+final class NearestRangeSearch {
+    private static final Comparator<ScoredRecordId> ORDER = Comparator.comparingInt(ScoredRecordId::tier)
+            .thenComparingDouble(ScoredRecordId::score)
+            .thenComparing(ScoredRecordId::recordId);
+
+    private final NumericRangeIndex index;
+    private final ResultRepository resultRepository;
+    private final String markerName;
+    private final Boolean withTechDeviations;
+    private final double queryPoint;
+
+    NearestRangeSearch(NumericRangeIndex index, ResultRepository resultRepository, String markerName,
+                       Boolean withTechDeviations, double queryPoint) {
+        this.index = index;
+        this.resultRepository = resultRepository;
+        this.markerName = markerName;
+        this.withTechDeviations = withTechDeviations;
+        this.queryPoint = queryPoint;
+    }
+
+    /**
+     * Reads one page of the ranked matches.
+     *
+     * @param tiers the bounds of the tiers in rank order
+     * @param page  the start position and size of the page, the order is always by ascending tier and distance
+     * @return the record IDs of the page scored with their distance and tier
+     * @throws BadRequestException if the page starts after a tier that does not exist
+     */
+    List<ScoredRecordId> searchPage(List<RangeBounds> tiers, RangePageRequest page) {
+        int firstTier = page.after() == null ? 0 : page.after().tier();
+        if (firstTier >= tiers.size()) {
+            throw new BadRequestException("Invalid cursor");
+        }
+        List<ScoredRecordId> entries = new ArrayList<>();
+        for (int tier = firstTier; tier < tiers.size() && entries.size() < page.limit(); tier++) {
+            var distance = tier == firstTier && page.after() != null ? page.after().score() : 0.0;
+            entries.addAll(searchTier(tiers, tier, distance, page, page.limit() - entries.size()));
+        }
+        return entries;
+    }
+
+    private List<ScoredRecordId> searchTier(List<RangeBounds> tiers, int tier, double distance, RangePageRequest page,
+                                            int limit) {
+        Map<String, ScoredRecordId> entries = new HashMap<>();
+        if (distance == 0.0) {
+            searchContaining(tiers, tier, page).forEach(entry -> entries.put(entry.recordId(), entry));
+        }
+
+        // the matches containing the query point come first, the sides only add the missing ones
+        int missing = limit - entries.size();
+        if (missing > 0) {
+            var bounds = tiers.get(tier);
+            var right = new RangeBounds(Math.max(bounds.minFrom(), below(queryPoint + distance, distance)),
+                    bounds.minTo(), bounds.maxFrom(), bounds.maxTo());
+            var left = new RangeBounds(bounds.minFrom(), bounds.minTo(), bounds.maxFrom(),
+                    Math.min(bounds.maxTo(), above(queryPoint - distance, distance)));
+            searchSide(tiers, tier, right, false, page, missing).forEach(entry -> entries.put(entry.recordId(), entry));
+            searchSide(tiers, tier, left, true, page, missing).forEach(entry -> entries.put(entry.recordId(), entry));
+        }
+        return entries.values().stream().sorted(ORDER).limit(limit).toList();
+    }
+
+    // the matches that contain the query point, all at distance 0
+    private List<ScoredRecordId> searchContaining(List<RangeBounds> tiers, int tier, RangePageRequest page) {
+        var bounds = tiers.get(tier);
+        var window = new RangeBounds(bounds.minFrom(), Math.min(bounds.minTo(), queryPoint),
+                Math.max(bounds.maxFrom(), queryPoint), bounds.maxTo());
+        if (isEmpty(window)) {
+            return List.of();
+        }
+
+        var recordIds = index.searchForRangeMatches(markerName, window.minFrom(), window.minTo(), window.maxFrom(),
+                window.maxTo(), withTechDeviations);
+        var inEarlierTiers = getInEarlierTiers(tiers, tier, recordIds);
+        return recordIds.stream()
+                .filter(recordId -> !inEarlierTiers.contains(recordId) && page.isAfterStart(recordId, 0.0, tier))
+                .map(recordId -> new ScoredRecordId(recordId, 0.0, tier))
+                .toList();
+    }
+
+    // reads one side of the query point outwards until it holds the nearest matches behind the start position
+    private List<ScoredRecordId> searchSide(List<RangeBounds> tiers, int tier, RangeBounds window, boolean left,
+                                            RangePageRequest page, int limit) {
+        List<ScoredRecordId> entries = new ArrayList<>();
+        if (isEmpty(window)) {
+            return entries;
+        }
+
+        var indexPage = new RangePageRequest(left, left, null, limit);
+        while (true) {
+            var indexEntries = index.searchForRangePage(markerName, window.minFrom(), window.minTo(), window.maxFrom(),
+                    window.maxTo(), withTechDeviations, indexPage);
+            var inEarlierTiers = getInEarlierTiers(tiers, tier, indexEntries.stream().map(ScoredRecordId::recordId).toList());
+            for (var indexEntry : indexEntries) {
+                var distance = Math.max(0.0, left ? queryPoint - indexEntry.score() : indexEntry.score() - queryPoint);
+                // the entries are read in order of distance, ties with the last wanted match are still read
+                if (entries.size() >= limit && distance > entries.get(limit - 1).score()) {
+                    return entries;
+                }
+                if (!inEarlierTiers.contains(indexEntry.recordId())
+                        && page.isAfterStart(indexEntry.recordId(), distance, tier)) {
+                    entries.add(new ScoredRecordId(indexEntry.recordId(), distance, tier));
+                }
+            }
+
+            if (indexEntries.size() < indexPage.limit()) {
+                return entries;
+            }
+            indexPage = indexPage.continueAfter(indexEntries.get(indexEntries.size() - 1), limit);
+        }
+    }
+
+    private Set<String> getInEarlierTiers(List<RangeBounds> tiers, int tier, Collection<String> recordIds) {
+        if (tier == 0 || recordIds.isEmpty()) {
+            return Set.of();
+        }
+
+        Map<String, ScoredRange> ranges = resultRepository.getSearchIndexRanges(List.of(markerName), withTechDeviations,
+                recordIds).getOrDefault(markerName, Map.of());
+        return ranges.entrySet().stream()
+                .filter(entry -> isInEarlierTier(tiers, tier, entry.getValue()))
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toSet());
+    }
+
+    private static boolean isEmpty(RangeBounds window) {
+        return window.minFrom() > window.minTo() || window.maxFrom() > window.maxTo();
+    }
+
+    private static boolean isInEarlierTier(List<RangeBounds> tiers, int tier, ScoredRange range) {
+        for (int i = 0; i < tier; i++) {
+            if (tiers.get(i).contains(range.min(), range.max())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // the distance of a value is rounded, so the window around the query point is widened by its rounding error
+    private static double below(double value, double distance) {
+        return distance == 0.0 || Double.isInfinite(value) ? value : value - Math.ulp(value) - Math.ulp(distance);
+    }
+
+    private static double above(double value, double distance) {
+        return distance == 0.0 || Double.isInfinite(value) ? value : value + Math.ulp(value) + Math.ulp(distance);
+    }
+}
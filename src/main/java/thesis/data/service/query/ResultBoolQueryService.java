@@ -4,21 +4,31 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import thesis.data.model.Result;
 import thesis.data.repository.ResultRepository;
+import thesis.data.service.query.index.ResultBitmapIndex;
+import thesis.utils.ChunkProducer;
+import thesis.utils.EntityUtils;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
  * Service class for querying results based on boolean values.
+ * When the ResultBitmapIndex is enabled, the value and technology conditions are answered from its bitmaps
+ * in one round trip, otherwise from the index sets of Spring Data.
  */
 @Service
-public class ResultBoolQueryService {
-    private final ResultRepository resultRepository;
+public class ResultBoolQueryService extends BaseResultQueryService {
+    private final ResultBitmapIndex bitmapIndex;
 
     @Autowired
-    public ResultBoolQueryService(ResultRepository resultRepository) {
-        this.resultRepository = resultRepository;
+    public ResultBoolQueryService(ResultRepository resultRepository, ResultBitmapIndex bitmapIndex) {
+        super(resultRepository);
+        this.bitmapIndex = bitmapIndex;
     }
 
     /**
@@ -30,6 +40,12 @@ public class ResultBoolQueryService {
      * @return A list of results matching the criteria.
      */
     public List<Result> getAllBoolResults(String markerName, Boolean value, Set<String> technologyNames) {
+        if (bitmapIndex.isEnabled()) {
+            List<Result> results = new ArrayList<>();
+            streamBoolResults(markerName, value, technologyNames).forEachChunk(results::addAll);
+            return results;
+        }
+
         if (technologyNames.isEmpty()) {
             return resultRepository.getAllByMarkerNameAndBooleanValue(markerName, value);
         }
@@ -41,4 +57,139 @@ public class ResultBoolQueryService {
 
         return results;
     }
+
+    /**
+     * Returns the results for a given marker name and boolean value
+     * as chunks that are read from Redis only while they are consumed.
+     *
+     * @param markerName       The name of the marker.
+     * @param value            The boolean value to search for.
+     * @param technologyNames  A set of technology names to filter the results.
+     * @return A producer of the results matching the criteria.
+     */
+    public ChunkProducer<Result> streamBoolResults(String markerName, Boolean value, Set<String> technologyNames) {
+        var resultIds = getResultIds(markerName, value, technologyNames);
+
+        return chunkConsumer -> resultRepository.streamResultsByIds(resultIds, chunkConsumer);
+    }
+
+    /**
+     * Retrieves the record IDs of the results for a given marker name and boolean value without loading the results.
+     *
+     * @param markerName       The name of the marker.
+     * @param value            The boolean value to search for.
+     * @param technologyNames  A set of technology names to filter the results.
+     * @return A set of record IDs matching the criteria.
+     */
+    public Set<String> getBoolRecordIds(String markerName, Boolean value, Set<String> technologyNames) {
+        if (bitmapIndex.isEnabled()) {
+            return bitmapIndex.findRecordIds(markerName, getBitmapConditions(value, technologyNames));
+        }
+
+        Set<String> recordIds = new HashSet<>();
+        getResultIds(markerName, value, technologyNames)
+                .forEach(resultId -> recordIds.add(EntityUtils.extractRecordId(resultId, markerName)));
+        return recordIds;
+    }
+
+    /**
+     * Counts the results for a given marker name and boolean value using the cardinality of the index sets.
+     *
+     * @param markerName       The name of the marker.
+     * @param value            The boolean value to search for.
+     * @param technologyNames  A set of technology names to filter the results.
+     * @return The number of results matching the criteria.
+     */
+    public long countBoolResults(String markerName, Boolean value, Set<String> technologyNames) {
+        if (bitmapIndex.isEnabled()) {
+            return bitmapIndex.count(markerName, getBitmapConditions(value, technologyNames));
+        }
+
+        if (technologyNames.isEmpty()) {
+            return resultRepository.countResultIdsByIndexedValues(getIndexedValues(markerName, value, null));
+        }
+
+        // a result has a single technology, so the index sets of different technologies are disjoint
+        long count = 0;
+        for (String technologyName : technologyNames) {
+            count += resultRepository.countResultIdsByIndexedValues(getIndexedValues(markerName, value, technologyName));
+        }
+        return count;
+    }
+
+    /**
+     * Checks which of the given records have a result for the marker name and boolean value
+     * by reading only the index sets.
+     *
+     * @param markerName       The name of the marker.
+     * @param value            The boolean value to search for.
+     * @param technologyNames  A set of technology names to filter the results.
+     * @param recordIds        The candidate record IDs.
+     * @return The subset of the candidate record IDs matching the criteria.
+     */
+    public Set<String> probeBoolRecordIds(String markerName, Boolean value, Set<String> technologyNames, Set<String> recordIds) {
+        if (bitmapIndex.isEnabled()) {
+            return bitmapIndex.probeRecordIds(markerName, getBitmapConditions(value, technologyNames), recordIds);
+        }
+
+        Set<String> remaining = new HashSet<>();
+        recordIds.forEach(id -> remaining.add(EntityUtils.generateResultId(id, markerName)));
+
+        // the marker is part of the result ID, so only the value and technology sets have to be checked
+        List<Map<String, String>> alternatives = new ArrayList<>();
+        if (technologyNames.isEmpty()) {
+            alternatives.add(getIndexedValues(markerName, value, null));
+        }
+        for (String technologyName : technologyNames) {
+            alternatives.add(getIndexedValues(markerName, value, technologyName));
+        }
+
+        Set<String> matches = new HashSet<>();
+        for (var indexedValues : alternatives) {
+            indexedValues.remove("markerName");
+            var resultIds = resultRepository.filterResultIdsByIndexedValues(remaining, indexedValues);
+            remaining.removeAll(resultIds);
+            resultIds.forEach(resultId -> matches.add(EntityUtils.extractRecordId(resultId, markerName)));
+        }
+        return matches;
+    }
+
+    private Set<String> getResultIds(String markerName, Boolean value, Set<String> technologyNames) {
+        if (bitmapIndex.isEnabled()) {
+            Set<String> resultIds = new HashSet<>();
+            getBoolRecordIds(markerName, value, technologyNames)
+                    .forEach(recordId -> resultIds.add(EntityUtils.generateResultId(recordId, markerName)));
+            return resultIds;
+        }
+
+        if (technologyNames.isEmpty()) {
+            return resultRepository.findResultIdsByIndexedValues(getIndexedValues(markerName, value, null));
+        }
+
+        Set<String> resultIds = new HashSet<>();
+        for (String technologyName : technologyNames) {
+            resultIds.addAll(resultRepository.findResultIdsByIndexedValues(getIndexedValues(markerName, value, technologyName)));
+        }
+        return resultIds;
+    }
+
+    private Map<String, Collection<String>> getBitmapConditions(Boolean value, Set<String> technologyNames) {
+        Map<String, Collection<String>> conditions = new LinkedHashMap<>();
+        conditions.put(ResultBitmapIndex.BOOLEAN_VALUE, List.of(ResultBitmapIndex.toIndexValue(value)));
+        if (!technologyNames.isEmpty()) {
+            conditions.put(ResultBitmapIndex.TECHNOLOGY_NAME, technologyNames);
+        }
+        return conditions;
+    }
+
+    private Map<String, String> getIndexedValues(String markerName, Boolean value, String technologyName) {
+        Map<String, String> indexedValues = new LinkedHashMap<>();
+        indexedValues.put("markerName", markerName);
+        // boolean index values are stored as "1" and "0"
+        indexedValues.put("booleanValue", Boolean.TRUE.equals(value) ? "1" : "0");
+        if (technologyName != null) {
+            indexedValues.put("technologyName", technologyName);
+        }
+        return indexedValues;
+    }
 }
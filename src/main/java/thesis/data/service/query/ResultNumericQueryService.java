@@ -4,10 +4,19 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import thesis.data.model.Result;
 import thesis.data.repository.ResultRepository;
+import thesis.data.repository.custom.NumericRangeIndex;
+import thesis.data.repository.custom.RangeBounds;
+import thesis.data.repository.custom.RangePageRequest;
+import thesis.data.repository.custom.ScoredRange;
+import thesis.data.repository.custom.ScoredRecordId;
+import thesis.data.service.query.index.MarkerStatisticsCatalog;
+import thesis.data.service.query.index.ResultIndexMirror;
+import thesis.data.service.query.index.TechnologyPartitionIndex;
 import thesis.data.service.query.strategy.*;
 import thesis.domain.search.dto.RecursiveResult;
 import thesis.domain.search.dto.enums.NumericSearchType;
 import thesis.exceptions.EntityNotFoundException;
+import thesis.utils.ChunkProducer;
 import thesis.utils.EntityUtils;
 
 import java.util.*;
@@ -16,23 +25,27 @@ import java.util.*;
  * Service class for querying results based on numeric values.
  */
 @Service
-public class ResultNumericQueryService {
+public class ResultNumericQueryService extends BaseResultQueryService {
     private final Map<NumericSearchType, NumericSearchStrategy> searchStrategies;
-    private final ResultRepository resultRepository;
+    private final NumericRangeIndex rangeIndex;
+    private final TechnologyPartitionIndex partitionIndex;
+    private final MarkerStatisticsCatalog statisticsCatalog;
 
     @Autowired
-    public ResultNumericQueryService(ResultRepository resultRepository) {
-        this.resultRepository = resultRepository;
-        this.searchStrategies = Map.of(
-                NumericSearchType.MIN_OUT_OF_RANGE, new MinOutOfRangeSearchStrategy(resultRepository),
-                NumericSearchType.MAX_OUT_OF_RANGE, new MaxOutOfRangeSearchStrategy(resultRepository),
-                NumericSearchType.BOTH_OUT_OF_RANGE, new BothOutOfRangeSearchStrategy(resultRepository),
-                NumericSearchType.EXACT_MATCH, new ExactMatchSearchStrategy(resultRepository)
-        );
+    public ResultNumericQueryService(ResultRepository resultRepository, ResultIndexMirror indexMirror,
+                                     TechnologyPartitionIndex partitionIndex, MarkerStatisticsCatalog statisticsCatalog) {
+        super(resultRepository);
+        this.partitionIndex = partitionIndex;
+        this.statisticsCatalog = statisticsCatalog;
+        // range searches are answered from memory when the index mirror is enabled, and without reading the index
+        // when they lie outside the envelope of the marker statistics
+        this.rangeIndex = prune(indexMirror.isEnabled() ? indexMirror : resultRepository, statisticsCatalog);
+        this.searchStrategies = createSearchStrategies(rangeIndex);
     }
 
     /**
      * Retrieves a list of results based on the provided record IDs and marker name.
+     * Results are loaded from Redis in pipelined batches.
      *
      * @param recordIds  A set of record IDs to search for.
      * @param markerName The name of the marker associated with the results.
@@ -40,8 +53,12 @@ public class ResultNumericQueryService {
      * @throws EntityNotFoundException If a result with a specific ID is not found.
      */
     public List<Result> getResultsByIds(Set<String> recordIds, String markerName) {
+        var results = resultRepository.findAllResultsByIds(recordIds.stream()
+                .map(id -> EntityUtils.generateResultId(id, markerName))
+                .toList());
+
         return recordIds.stream()
-                .map(id -> resultRepository.findById(EntityUtils.generateResultId(id, markerName))
+                .map(id -> Optional.ofNullable(results.get(EntityUtils.generateResultId(id, markerName)))
                         .orElseThrow(() -> new EntityNotFoundException("Result with id " + id + " not found")))
                 .toList();
     }
@@ -59,15 +76,33 @@ public class ResultNumericQueryService {
      */
     public Set<String> searchResults(String markerName, Double min, Double max,
                                      NumericSearchType searchType, Boolean useTechnologyDeviations) {
+        return searchResults(markerName, min, max, searchType, useTechnologyDeviations, Set.of());
+    }
+
+    /**
+     * Like {@link #searchResults(String, Double, Double, NumericSearchType, Boolean)}, restricted to the results
+     * measured with one of the given technologies. The ranges are scanned on the technology partitions only.
+     *
+     * @param markerName            The name of the marker.
+     * @param min                   The minimum value.
+     * @param max                   The maximum value.
+     * @param searchType            The type of numeric search to perform.
+     * @param useTechnologyDeviations Whether to include technology deviations in the search.
+     * @param technologyNames       The names of the technologies, all results are searched if empty.
+     * @return A set of record IDs that match the search criteria.
+     */
+    public Set<String> searchResults(String markerName, Double min, Double max, NumericSearchType searchType,
+                                     Boolean useTechnologyDeviations, Set<String> technologyNames) {
+        var index = getRangeIndex(technologyNames);
         if (min == null && searchType == NumericSearchType.EXACT_MATCH) {
-            return resultRepository.searchForMaximumMatches(markerName, Double.NEGATIVE_INFINITY, max, useTechnologyDeviations);
+            return index.searchForMaximumMatches(markerName, Double.NEGATIVE_INFINITY, max, useTechnologyDeviations);
         }
 
         if (max == null && searchType == NumericSearchType.EXACT_MATCH) {
-            return resultRepository.searchForMinimumMatches(markerName, min, Double.POSITIVE_INFINITY, useTechnologyDeviations);
+            return index.searchForMinimumMatches(markerName, min, Double.POSITIVE_INFINITY, useTechnologyDeviations);
         }
 
-        NumericSearchStrategy strategy = searchStrategies.get(searchType);
+        NumericSearchStrategy strategy = getStrategy(index, searchType);
 
         return strategy.search(markerName, min, max, useTechnologyDeviations);
     }
@@ -89,11 +124,507 @@ public class ResultNumericQueryService {
     public Set<String> searchResultsWithTolerance(String markerName, Double min, Double max,
                                                   Double minWithTolerance, Double maxWithTolerance,
                                                   NumericSearchType searchType, Boolean useTechnologyDeviations) {
-        NumericSearchStrategy strategy = searchStrategies.get(searchType);
+        return searchResultsWithTolerance(markerName, min, max, minWithTolerance, maxWithTolerance, searchType,
+                useTechnologyDeviations, Set.of());
+    }
+
+    /**
+     * Like {@link #searchResultsWithTolerance(String, Double, Double, Double, Double, NumericSearchType, Boolean)},
+     * restricted to the results measured with one of the given technologies.
+     *
+     * @param markerName            The name of the marker.
+     * @param min                   The minimum value.
+     * @param max                   The maximum value.
+     * @param minWithTolerance      The minimum value with tolerance applied.
+     * @param maxWithTolerance      The maximum value with tolerance applied.
+     * @param searchType            The type of numeric search to perform.
+     * @param useTechnologyDeviations Whether to include technology deviations in the search.
+     * @param technologyNames       The names of the technologies, all results are searched if empty.
+     * @return A set of record IDs that match the search criteria with tolerance applied.
+     */
+    public Set<String> searchResultsWithTolerance(String markerName, Double min, Double max,
+                                                  Double minWithTolerance, Double maxWithTolerance,
+                                                  NumericSearchType searchType, Boolean useTechnologyDeviations,
+                                                  Set<String> technologyNames) {
+        NumericSearchStrategy strategy = getStrategy(getRangeIndex(technologyNames), searchType);
 
         return strategy.searchWithTolerance(markerName, min, max, minWithTolerance, maxWithTolerance, useTechnologyDeviations);
     }
 
+    /**
+     * Searches for one page of results based on the provided marker name, minimum and maximum values,
+     * search type, and technology deviations. The page is read from the index in sort order,
+     * so only the entries of the page are transferred.
+     *
+     * @param markerName            The name of the marker.
+     * @param min                   The minimum value.
+     * @param max                   The maximum value.
+     * @param searchType            The type of numeric search to perform.
+     * @param useTechnologyDeviations Whether to include technology deviations in the search.
+     * @param page                  The order, start position and size of the page.
+     * @return The record IDs of the page with their score in the sorted index.
+     */
+    public List<ScoredRecordId> searchResultsPage(String markerName, Double min, Double max, NumericSearchType searchType,
+                                                  Boolean useTechnologyDeviations, RangePageRequest page) {
+        return searchResultsPage(markerName, min, max, searchType, useTechnologyDeviations, page, Set.of());
+    }
+
+    /**
+     * Like {@link #searchResultsPage(String, Double, Double, NumericSearchType, Boolean, RangePageRequest)},
+     * restricted to the results measured with one of the given technologies. The pages of the technology partitions
+     * are merged in sort order.
+     *
+     * @param markerName            The name of the marker.
+     * @param min                   The minimum value.
+     * @param max                   The maximum value.
+     * @param searchType            The type of numeric search to perform.
+     * @param useTechnologyDeviations Whether to include technology deviations in the search.
+     * @param page                  The order, start position and size of the page.
+     * @param technologyNames       The names of the technologies, all results are searched if empty.
+     * @return The record IDs of the page with their score in the sorted index.
+     */
+    public List<ScoredRecordId> searchResultsPage(String markerName, Double min, Double max, NumericSearchType searchType,
+                                                  Boolean useTechnologyDeviations, RangePageRequest page,
+                                                  Set<String> technologyNames) {
+        var index = getRangeIndex(technologyNames);
+        if (min == null && searchType == NumericSearchType.EXACT_MATCH) {
+            return index.searchForRangePage(markerName, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY,
+                    Double.NEGATIVE_INFINITY, max, useTechnologyDeviations, page);
+        }
+
+        if (max == null && searchType == NumericSearchType.EXACT_MATCH) {
+            return index.searchForRangePage(markerName, min, Double.POSITIVE_INFINITY,
+                    Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, useTechnologyDeviations, page);
+        }
+
+        NumericSearchStrategy strategy = getStrategy(index, searchType);
+
+        return strategy.searchPage(markerName, min, max, useTechnologyDeviations, page);
+    }
+
+    /**
+     * Searches for one page of results based on the provided marker name, minimum and maximum values,
+     * tolerance values, search type, and technology deviations.
+     *
+     * @param markerName            The name of the marker.
+     * @param min                   The minimum value.
+     * @param max                   The maximum value.
+     * @param minWithTolerance      The minimum value with tolerance applied.
+     * @param maxWithTolerance      The maximum value with tolerance applied.
+     * @param searchType            The type of numeric search to perform.
+     * @param useTechnologyDeviations Whether to include technology deviations in the search.
+     * @param page                  The order, start position and size of the page.
+     * @return The record IDs of the page with their score in the sorted index.
+     */
+    public List<ScoredRecordId> searchResultsPageWithTolerance(String markerName, Double min, Double max,
+                                                               Double minWithTolerance, Double maxWithTolerance,
+                                                               NumericSearchType searchType, Boolean useTechnologyDeviations,
+                                                               RangePageRequest page) {
+        return searchResultsPageWithTolerance(markerName, min, max, minWithTolerance, maxWithTolerance, searchType,
+                useTechnologyDeviations, page, Set.of());
+    }
+
+    /**
+     * Like {@link #searchResultsPageWithTolerance(String, Double, Double, Double, Double, NumericSearchType, Boolean,
+     * RangePageRequest)}, restricted to the results measured with one of the given technologies.
+     *
+     * @param markerName            The name of the marker.
+     * @param min                   The minimum value.
+     * @param max                   The maximum value.
+     * @param minWithTolerance      The minimum value with tolerance applied.
+     * @param maxWithTolerance      The maximum value with tolerance applied.
+     * @param searchType            The type of numeric search to perform.
+     * @param useTechnologyDeviations Whether to include technology deviations in the search.
+     * @param page                  The order, start position and size of the page.
+     * @param technologyNames       The names of the technologies, all results are searched if empty.
+     * @return The record IDs of the page with their score in the sorted index.
+     */
+    public List<ScoredRecordId> searchResultsPageWithTolerance(String markerName, Double min, Double max,
+                                                               Double minWithTolerance, Double maxWithTolerance,
+                                                               NumericSearchType searchType, Boolean useTechnologyDeviations,
+                                                               RangePageRequest page, Set<String> technologyNames) {
+        NumericSearchStrategy strategy = getStrategy(getRangeIndex(technologyNames), searchType);
+
+        return strategy.searchPageWithTolerance(markerName, min, max, minWithTolerance, maxWithTolerance,
+                useTechnologyDeviations, page);
+    }
+
+    /**
+     * Searches for one page of results ordered by the distance of their range to the given query point,
+     * nearest first. The results are read from the index from the query point outwards, so only the scores of
+     * the results near the query point are read, see {@link NearestRangeSearch}.
+     *
+     * @param markerName            The name of the marker.
+     * @param min                   The minimum value.
+     * @param max                   The maximum value.
+     * @param searchType            The type of numeric search to perform.
+     * @param useTechnologyDeviations Whether to include technology deviations in the search.
+     * @param queryPoint            The value the distance is measured from.
+     * @param page                  The start position and size of the page, the sort order is ignored.
+     * @param technologyNames       The names of the technologies, all results are searched if empty.
+     * @return The record IDs of the page scored with their distance and tier.
+     */
+    public List<ScoredRecordId> searchNearestResultsPage(String markerName, Double min, Double max,
+                                                         NumericSearchType searchType, Boolean useTechnologyDeviations,
+                                                         double queryPoint, RangePageRequest page,
+                                                         Set<String> technologyNames) {
+        return new NearestRangeSearch(getRangeIndex(technologyNames), resultRepository, markerName,
+                useTechnologyDeviations, queryPoint).searchPage(List.of(getBounds(min, max, searchType)), page);
+    }
+
+    /**
+     * Like {@link #searchNearestResultsPage(String, Double, Double, NumericSearchType, Boolean, double,
+     * RangePageRequest, Set)} with tolerance applied. Only the matches within tolerance are ranked, those that also
+     * match without tolerance before the others, each in order of their distance to the query point. The tolerance
+     * bounds of the out of range searches are narrower than their bounds without tolerance, all their matches are
+     * then ranked in one tier.
+     *
+     * @param markerName            The name of the marker.
+     * @param min                   The minimum value.
+     * @param max                   The maximum value.
+     * @param minWithTolerance      The minimum value with tolerance applied.
+     * @param maxWithTolerance      The maximum value with tolerance applied.
+     * @param searchType            The type of numeric search to perform.
+     * @param useTechnologyDeviations Whether to include technology deviations in the search.
+     * @param queryPoint            The value the distance is measured from.
+     * @param page                  The start position and size of the page, the sort order is ignored.
+     * @param technologyNames       The names of the technologies, all results are searched if empty.
+     * @return The record IDs of the page scored with their distance and tier.
+     */
+    public List<ScoredRecordId> searchNearestResultsPageWithTolerance(String markerName, Double min, Double max,
+                                                                      Double minWithTolerance, Double maxWithTolerance,
+                                                                      NumericSearchType searchType,
+                                                                      Boolean useTechnologyDeviations, double queryPoint,
+                                                                      RangePageRequest page, Set<String> technologyNames) {
+        var strategy = searchStrategies.get(searchType);
+        var withTolerance = strategy.getBoundsWithTolerance(min, max, minWithTolerance, maxWithTolerance);
+        var exact = strategy.getBounds(min, max).intersect(withTolerance);
+        var tiers = exact.equals(withTolerance) ? List.of(withTolerance) : List.of(exact, withTolerance);
+        return new NearestRangeSearch(getRangeIndex(technologyNames), resultRepository, markerName,
+                useTechnologyDeviations, queryPoint).searchPage(tiers, page);
+    }
+
+    /**
+     * Counts results based on the provided marker name, minimum and maximum values,
+     * search type, and technology deviations without retrieving their record IDs.
+     *
+     * @param markerName            The name of the marker.
+     * @param min                   The minimum value.
+     * @param max                   The maximum value.
+     * @param searchType            The type of numeric search to perform.
+     * @param useTechnologyDeviations Whether to include technology deviations in the search.
+     * @return The number of record IDs that match the search criteria.
+     */
+    public long countResults(String markerName, Double min, Double max,
+                             NumericSearchType searchType, Boolean useTechnologyDeviations) {
+        return countResults(markerName, min, max, searchType, useTechnologyDeviations, Set.of());
+    }
+
+    /**
+     * Like {@link #countResults(String, Double, Double, NumericSearchType, Boolean)}, restricted to the results
+     * measured with one of the given technologies.
+     *
+     * @param markerName            The name of the marker.
+     * @param min                   The minimum value.
+     * @param max                   The maximum value.
+     * @param searchType            The type of numeric search to perform.
+     * @param useTechnologyDeviations Whether to include technology deviations in the search.
+     * @param technologyNames       The names of the technologies, all results are counted if empty.
+     * @return The number of record IDs that match the search criteria.
+     */
+    public long countResults(String markerName, Double min, Double max, NumericSearchType searchType,
+                             Boolean useTechnologyDeviations, Set<String> technologyNames) {
+        var index = getRangeIndex(technologyNames);
+        if (min == null && searchType == NumericSearchType.EXACT_MATCH) {
+            return index.countRangeMatches(markerName, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY,
+                    Double.NEGATIVE_INFINITY, max, useTechnologyDeviations);
+        }
+
+        if (max == null && searchType == NumericSearchType.EXACT_MATCH) {
+            return index.countRangeMatches(markerName, min, Double.POSITIVE_INFINITY,
+                    Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, useTechnologyDeviations);
+        }
+
+        NumericSearchStrategy strategy = getStrategy(index, searchType);
+
+        return strategy.count(markerName, min, max, useTechnologyDeviations);
+    }
+
+    /**
+     * Counts results based on the provided marker name, minimum and maximum values,
+     * tolerance values, search type, and technology deviations without retrieving their record IDs.
+     *
+     * @param markerName            The name of the marker.
+     * @param min                   The minimum value.
+     * @param max                   The maximum value.
+     * @param minWithTolerance      The minimum value with tolerance applied.
+     * @param maxWithTolerance      The maximum value with tolerance applied.
+     * @param searchType            The type of numeric search to perform.
+     * @param useTechnologyDeviations Whether to include technology deviations in the search.
+     * @return The number of record IDs that match the search criteria with tolerance applied.
+     */
+    public long countResultsWithTolerance(String markerName, Double min, Double max,
+                                          Double minWithTolerance, Double maxWithTolerance,
+                                          NumericSearchType searchType, Boolean useTechnologyDeviations) {
+        return countResultsWithTolerance(markerName, min, max, minWithTolerance, maxWithTolerance, searchType,
+                useTechnologyDeviations, Set.of());
+    }
+
+    /**
+     * Like {@link #countResultsWithTolerance(String, Double, Double, Double, Double, NumericSearchType, Boolean)},
+     * restricted to the results measured with one of the given technologies.
+     *
+     * @param markerName            The name of the marker.
+     * @param min                   The minimum value.
+     * @param max                   The maximum value.
+     * @param minWithTolerance      The minimum value with tolerance applied.
+     * @param maxWithTolerance      The maximum value with tolerance applied.
+     * @param searchType            The type of numeric search to perform.
+     * @param useTechnologyDeviations Whether to include technology deviations in the search.
+     * @param technologyNames       The names of the technologies, all results are counted if empty.
+     * @return The number of record IDs that match the search criteria with tolerance applied.
+     */
+    public long countResultsWithTolerance(String markerName, Double min, Double max,
+                                          Double minWithTolerance, Double maxWithTolerance,
+                                          NumericSearchType searchType, Boolean useTechnologyDeviations,
+                                          Set<String> technologyNames) {
+        NumericSearchStrategy strategy = getStrategy(getRangeIndex(technologyNames), searchType);
+
+        return strategy.countWithTolerance(markerName, min, max, minWithTolerance, maxWithTolerance, useTechnologyDeviations);
+    }
+
+    /**
+     * Retrieves the record IDs of all results of a marker that were measured with one of the given technologies.
+     * Only the technology name index is read, the results are not loaded.
+     *
+     * @param markerName      The name of the marker.
+     * @param technologyNames The names of the technologies.
+     * @return A set of record IDs.
+     */
+    public Set<String> getRecordIdsWithTechnologies(String markerName, Set<String> technologyNames) {
+        Set<String> recordIds = new HashSet<>();
+        for (String technologyName : technologyNames) {
+            resultRepository.findResultIdsByIndexedValues(Map.of("markerName", markerName, "technologyName", technologyName))
+                    .forEach(resultId -> recordIds.add(EntityUtils.extractRecordId(resultId, markerName)));
+        }
+        return recordIds;
+    }
+
+    /**
+     * Estimates the number of results based on the provided marker name, minimum and maximum values,
+     * search type, and technology deviations. The estimate is an upper bound read from the index sizes.
+     *
+     * @param markerName            The name of the marker.
+     * @param min                   The minimum value.
+     * @param max                   The maximum value.
+     * @param searchType            The type of numeric search to perform.
+     * @param useTechnologyDeviations Whether to include technology deviations in the search.
+     * @return An upper bound of the number of record IDs that match the search criteria.
+     */
+    public long estimateResults(String markerName, Double min, Double max,
+                                NumericSearchType searchType, Boolean useTechnologyDeviations) {
+        return estimateResults(markerName, min, max, searchType, useTechnologyDeviations, Set.of());
+    }
+
+    /**
+     * Like {@link #estimateResults(String, Double, Double, NumericSearchType, Boolean)}, restricted to the results
+     * measured with one of the given technologies.
+     *
+     * @param markerName            The name of the marker.
+     * @param min                   The minimum value.
+     * @param max                   The maximum value.
+     * @param searchType            The type of numeric search to perform.
+     * @param useTechnologyDeviations Whether to include technology deviations in the search.
+     * @param technologyNames       The names of the technologies, all results are estimated if empty.
+     * @return An upper bound of the number of record IDs that match the search criteria.
+     */
+    public long estimateResults(String markerName, Double min, Double max, NumericSearchType searchType,
+                                Boolean useTechnologyDeviations, Set<String> technologyNames) {
+        return getRangeIndex(technologyNames).estimateRangeMatches(markerName, getBounds(min, max, searchType),
+                useTechnologyDeviations);
+    }
+
+    /**
+     * Estimates the number of results based on the provided marker name, minimum and maximum values,
+     * tolerance values, search type, and technology deviations.
+     *
+     * @param markerName            The name of the marker.
+     * @param min                   The minimum value.
+     * @param max                   The maximum value.
+     * @param minWithTolerance      The minimum value with tolerance applied.
+     * @param maxWithTolerance      The maximum value with tolerance applied.
+     * @param searchType            The type of numeric search to perform.
+     * @param useTechnologyDeviations Whether to include technology deviations in the search.
+     * @return An upper bound of the number of record IDs that match the search criteria with tolerance applied.
+     */
+    public long estimateResultsWithTolerance(String markerName, Double min, Double max,
+                                             Double minWithTolerance, Double maxWithTolerance,
+                                             NumericSearchType searchType, Boolean useTechnologyDeviations) {
+        return estimateResultsWithTolerance(markerName, min, max, minWithTolerance, maxWithTolerance, searchType,
+                useTechnologyDeviations, Set.of());
+    }
+
+    /**
+     * Like {@link #estimateResultsWithTolerance(String, Double, Double, Double, Double, NumericSearchType, Boolean)},
+     * restricted to the results measured with one of the given technologies.
+     *
+     * @param markerName            The name of the marker.
+     * @param min                   The minimum value.
+     * @param max                   The maximum value.
+     * @param minWithTolerance      The minimum value with tolerance applied.
+     * @param maxWithTolerance      The maximum value with tolerance applied.
+     * @param searchType            The type of numeric search to perform.
+     * @param useTechnologyDeviations Whether to include technology deviations in the search.
+     * @param technologyNames       The names of the technologies, all results are estimated if empty.
+     * @return An upper bound of the number of record IDs that match the search criteria with tolerance applied.
+     */
+    public long estimateResultsWithTolerance(String markerName, Double min, Double max,
+                                             Double minWithTolerance, Double maxWithTolerance,
+                                             NumericSearchType searchType, Boolean useTechnologyDeviations,
+                                             Set<String> technologyNames) {
+        var bounds = searchStrategies.get(searchType).getBoundsWithTolerance(min, max, minWithTolerance, maxWithTolerance);
+        return getRangeIndex(technologyNames).estimateRangeMatches(markerName, bounds, useTechnologyDeviations);
+    }
+
+    /**
+     * Approximates the number of results based on the provided marker name, minimum and maximum values,
+     * search type, and technology deviations from the histograms of the marker statistics, without reading
+     * the indexes. Unlike {@link #estimateResults(String, Double, Double, NumericSearchType, Boolean)} the
+     * approximation may undercount, it is meant for previews.
+     *
+     * @param markerName            The name of the marker.
+     * @param min                   The minimum value.
+     * @param max                   The maximum value.
+     * @param searchType            The type of numeric search to perform.
+     * @param useTechnologyDeviations Whether to include technology deviations in the search.
+     * @return The approximate number of matching results, empty if the marker has no statistics.
+     */
+    public OptionalLong approximateResults(String markerName, Double min, Double max, NumericSearchType searchType,
+                                           Boolean useTechnologyDeviations) {
+        return statisticsCatalog.estimate(markerName, useTechnologyDeviations, getBounds(min, max, searchType));
+    }
+
+    /**
+     * Like {@link #approximateResults(String, Double, Double, NumericSearchType, Boolean)} with tolerance applied.
+     *
+     * @param markerName            The name of the marker.
+     * @param min                   The minimum value.
+     * @param max                   The maximum value.
+     * @param minWithTolerance      The minimum value with tolerance applied.
+     * @param maxWithTolerance      The maximum value with tolerance applied.
+     * @param searchType            The type of numeric search to perform.
+     * @param useTechnologyDeviations Whether to include technology deviations in the search.
+     * @return The approximate number of matching results, empty if the marker has no statistics.
+     */
+    public OptionalLong approximateResultsWithTolerance(String markerName, Double min, Double max,
+                                                        Double minWithTolerance, Double maxWithTolerance,
+                                                        NumericSearchType searchType, Boolean useTechnologyDeviations) {
+        var bounds = searchStrategies.get(searchType).getBoundsWithTolerance(min, max, minWithTolerance, maxWithTolerance);
+        return statisticsCatalog.estimate(markerName, useTechnologyDeviations, bounds);
+    }
+
+    /**
+     * Checks which of the given records match the provided marker name, minimum and maximum values,
+     * search type, and technology deviations by reading only their scores.
+     *
+     * @param markerName            The name of the marker.
+     * @param min                   The minimum value.
+     * @param max                   The maximum value.
+     * @param searchType            The type of numeric search to perform.
+     * @param useTechnologyDeviations Whether to include technology deviations in the search.
+     * @param recordIds             The candidate record IDs.
+     * @return The subset of the candidate record IDs that match the search criteria.
+     */
+    public Set<String> probeResults(String markerName, Double min, Double max, NumericSearchType searchType,
+                                    Boolean useTechnologyDeviations, Set<String> recordIds) {
+        return probeResults(markerName, min, max, searchType, useTechnologyDeviations, recordIds, Set.of());
+    }
+
+    /**
+     * Like {@link #probeResults(String, Double, Double, NumericSearchType, Boolean, Set)}, restricted to the results
+     * measured with one of the given technologies.
+     *
+     * @param markerName            The name of the marker.
+     * @param min                   The minimum value.
+     * @param max                   The maximum value.
+     * @param searchType            The type of numeric search to perform.
+     * @param useTechnologyDeviations Whether to include technology deviations in the search.
+     * @param recordIds             The candidate record IDs.
+     * @param technologyNames       The names of the technologies, all results are probed if empty.
+     * @return The subset of the candidate record IDs that match the search criteria.
+     */
+    public Set<String> probeResults(String markerName, Double min, Double max, NumericSearchType searchType,
+                                    Boolean useTechnologyDeviations, Set<String> recordIds, Set<String> technologyNames) {
+        return getRangeIndex(technologyNames).probeRangeMatches(markerName, getBounds(min, max, searchType),
+                useTechnologyDeviations, recordIds);
+    }
+
+    /**
+     * Checks which of the given records match the provided marker name, minimum and maximum values,
+     * tolerance values, search type, and technology deviations by reading only their scores.
+     *
+     * @param markerName            The name of the marker.
+     * @param min                   The minimum value.
+     * @param max                   The maximum value.
+     * @param minWithTolerance      The minimum value with tolerance applied.
+     * @param maxWithTolerance      The maximum value with tolerance applied.
+     * @param searchType            The type of numeric search to perform.
+     * @param useTechnologyDeviations Whether to include technology deviations in the search.
+     * @param recordIds             The candidate record IDs.
+     * @return The subset of the candidate record IDs that match the search criteria with tolerance applied.
+     */
+    public Set<String> probeResultsWithTolerance(String markerName, Double min, Double max,
+                                                 Double minWithTolerance, Double maxWithTolerance,
+                                                 NumericSearchType searchType, Boolean useTechnologyDeviations,
+                                                 Set<String> recordIds) {
+        return probeResultsWithTolerance(markerName, min, max, minWithTolerance, maxWithTolerance, searchType,
+                useTechnologyDeviations, recordIds, Set.of());
+    }
+
+    /**
+     * Like {@link #probeResultsWithTolerance(String, Double, Double, Double, Double, NumericSearchType, Boolean, Set)},
+     * restricted to the results measured with one of the given technologies.
+     *
+     * @param markerName            The name of the marker.
+     * @param min                   The minimum value.
+     * @param max                   The maximum value.
+     * @param minWithTolerance      The minimum value with tolerance applied.
+     * @param maxWithTolerance      The maximum value with tolerance applied.
+     * @param searchType            The type of numeric search to perform.
+     * @param useTechnologyDeviations Whether to include technology deviations in the search.
+     * @param recordIds             The candidate record IDs.
+     * @param technologyNames       The names of the technologies, all results are probed if empty.
+     * @return The subset of the candidate record IDs that match the search criteria with tolerance applied.
+     */
+    public Set<String> probeResultsWithTolerance(String markerName, Double min, Double max,
+                                                 Double minWithTolerance, Double maxWithTolerance,
+                                                 NumericSearchType searchType, Boolean useTechnologyDeviations,
+                                                 Set<String> recordIds, Set<String> technologyNames) {
+        var bounds = searchStrategies.get(searchType).getBoundsWithTolerance(min, max, minWithTolerance, maxWithTolerance);
+        return getRangeIndex(technologyNames).probeRangeMatches(markerName, bounds, useTechnologyDeviations, recordIds);
+    }
+
+    /**
+     * Checks which of the given records have a result of the marker that was measured with one of the given technologies.
+     *
+     * @param markerName      The name of the marker.
+     * @param technologyNames The names of the technologies.
+     * @param recordIds       The candidate record IDs.
+     * @return The subset of the candidate record IDs measured with one of the technologies.
+     */
+    public Set<String> probeRecordIdsWithTechnologies(String markerName, Set<String> technologyNames, Set<String> recordIds) {
+        Set<String> remaining = new HashSet<>();
+        recordIds.forEach(id -> remaining.add(EntityUtils.generateResultId(id, markerName)));
+
+        Set<String> matches = new HashSet<>();
+        for (String technologyName : technologyNames) {
+            var resultIds = resultRepository.filterResultIdsByIndexedValues(remaining, Map.of("technologyName", technologyName));
+            remaining.removeAll(resultIds);
+            resultIds.forEach(resultId -> matches.add(EntityUtils.extractRecordId(resultId, markerName)));
+        }
+        return matches;
+    }
+
     /**
      * Retrieves all results for a specific marker name, including both minimum and maximum values.
      *
@@ -121,4 +652,81 @@ public class ResultNumericQueryService {
         }
         return new ArrayList<>(resultMap.values());
     }
+
+    /**
+     * Returns the record IDs of all results of a marker as chunks that are scanned from the search index
+     * only while they are consumed. A record may be produced more than once if the index changes during the scan.
+     *
+     * @param markerName            The name of the marker.
+     * @param useTechnologyDeviations Whether to scan the index with applied technology deviations.
+     * @return A producer of the record IDs.
+     */
+    public ChunkProducer<String> streamRecordIdsForMarker(String markerName, Boolean useTechnologyDeviations) {
+        return chunkConsumer -> resultRepository.scanSearchIndexRecordIds(markerName, useTechnologyDeviations, chunkConsumer);
+    }
+
+    /**
+     * Retrieves the names of the markers the given record has results of. Only the record ID index is read.
+     *
+     * @param recordId The ID of the record.
+     * @return The names of the markers.
+     */
+    public Set<String> getMarkerNamesOfRecord(String recordId) {
+        Set<String> markerNames = new HashSet<>();
+        resultRepository.getResultIdsByRecordId(recordId)
+                .forEach(resultId -> markerNames.add(EntityUtils.extractMarkerName(resultId, recordId)));
+        return markerNames;
+    }
+
+    /**
+     * Reads the minimum and maximum of the given records in the search indexes of several markers,
+     * in one pipelined round trip per batch of records.
+     *
+     * @param markerNames             The names of the markers.
+     * @param useTechnologyDeviations Whether to read the indexes with applied technology deviations.
+     * @param recordIds               The IDs of the records.
+     * @return The scores per marker name and record ID, records without a result of a marker are not contained.
+     */
+    public Map<String, Map<String, ScoredRange>> getSearchIndexRanges(Collection<String> markerNames,
+                                                                      Boolean useTechnologyDeviations,
+                                                                      Collection<String> recordIds) {
+        return resultRepository.getSearchIndexRanges(markerNames, useTechnologyDeviations, recordIds);
+    }
+
+    // searches restricted to technologies scan the partitions of the technologies instead of the indexes of all results
+    private NumericRangeIndex getRangeIndex(Set<String> technologyNames) {
+        return technologyNames.isEmpty()
+                ? rangeIndex
+                : prune(partitionIndex.getRangeIndex(technologyNames), statisticsCatalog);
+    }
+
+    // the envelope is only checked while the catalog is enabled, see EnvelopePrunedRangeIndex for its cost
+    private static NumericRangeIndex prune(NumericRangeIndex index, MarkerStatisticsCatalog statisticsCatalog) {
+        return statisticsCatalog.isEnabled() ? new EnvelopePrunedRangeIndex(index, statisticsCatalog) : index;
+    }
+
+    private NumericSearchStrategy getStrategy(NumericRangeIndex index, NumericSearchType searchType) {
+        return index == rangeIndex ? searchStrategies.get(searchType) : createSearchStrategies(index).get(searchType);
+    }
+
+    private static Map<NumericSearchType, NumericSearchStrategy> createSearchStrategies(NumericRangeIndex index) {
+        return Map.of(
+                NumericSearchType.MIN_OUT_OF_RANGE, new MinOutOfRangeSearchStrategy(index),
+                NumericSearchType.MAX_OUT_OF_RANGE, new MaxOutOfRangeSearchStrategy(index),
+                NumericSearchType.BOTH_OUT_OF_RANGE, new BothOutOfRangeSearchStrategy(index),
+                NumericSearchType.EXACT_MATCH, new ExactMatchSearchStrategy(index)
+        );
+    }
+
+    private RangeBounds getBounds(Double min, Double max, NumericSearchType searchType) {
+        if (min == null && searchType == NumericSearchType.EXACT_MATCH) {
+            return new RangeBounds(Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, max);
+        }
+
+        if (max == null && searchType == NumericSearchType.EXACT_MATCH) {
+            return new RangeBounds(min, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+        }
+
+        return searchStrategies.get(searchType).getBounds(min, max);
+    }
 }
@@ -5,23 +5,42 @@ import org.springframework.stereotype.Service;
 import thesis.data.model.Result;
 import thesis.data.model.StringCategory;
 import thesis.data.repository.ResultRepository;
+import thesis.data.service.query.index.ResultBitmapIndex;
+import thesis.data.service.query.index.StringCategoryOrdinalIndex;
+import thesis.utils.ChunkProducer;
+import thesis.utils.EntityUtils;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Service class for querying results based on string values.
+ * When the ResultBitmapIndex is enabled, searches for several values, categories and technologies are answered
+ * from its bitmaps in one round trip followed by one batched read of the results.
  */
 @Service
-public class ResultStringQueryService {
-    private final ResultRepository resultRepository;
+public class ResultStringQueryService extends BaseResultQueryService {
+    private final ResultBitmapIndex bitmapIndex;
+    private final StringCategoryOrdinalIndex ordinalIndex;
 
     @Autowired
-    public ResultStringQueryService(ResultRepository resultRepository) {
-        this.resultRepository = resultRepository;
+    public ResultStringQueryService(ResultRepository resultRepository, ResultBitmapIndex bitmapIndex,
+                                    StringCategoryOrdinalIndex ordinalIndex) {
+        super(resultRepository);
+        this.bitmapIndex = bitmapIndex;
+        this.ordinalIndex = ordinalIndex;
     }
 
     public List<Result> getAllStringResultsForSingleValue(String markerName, String value, StringCategory category) {
+        if (bitmapIndex.isEnabled()) {
+            return collect(streamStringResultsForMultipleValues(markerName, List.of(value), category));
+        }
         return getResultsForValue(markerName, value, category);
     }
 
@@ -34,6 +53,10 @@ public class ResultStringQueryService {
      * @return A list of results matching the marker name, values, and category.
      */
     public List<Result> getAllStringResultsForMultipleValues(String markerName, List<String> values, StringCategory category) {
+        if (bitmapIndex.isEnabled()) {
+            return collect(streamStringResultsForMultipleValues(markerName, values, category));
+        }
+
         List<Result> results = new ArrayList<>();
 
         for (String value : values) {
@@ -51,9 +74,344 @@ public class ResultStringQueryService {
      * @return A list of results matching the marker name and string value category.
      */
     public List<Result> getAllStringResultsForCategory(String markerName, StringCategory category) {
+        if (bitmapIndex.isEnabled()) {
+            return collect(streamStringResultsForCategory(markerName, category));
+        }
         return resultRepository.getAllByMarkerNameAndStringValueCategory(markerName, category.getName());
     }
 
+    /**
+     * Returns the results for a given marker name and a list of string values, filtered by category,
+     * as chunks that are read from Redis only while they are consumed.
+     *
+     * @param markerName The name of the marker.
+     * @param values     A list of string values to search for.
+     * @param category   The category to filter the results by. Can be null.
+     * @return A producer of the results matching the marker name, values, and category.
+     */
+    public ChunkProducer<Result> streamStringResultsForMultipleValues(String markerName, List<String> values, StringCategory category) {
+        var resultIds = getResultIdsForMultipleValues(markerName, values, category);
+
+        return chunkConsumer -> resultRepository.streamResultsByIds(resultIds, chunkConsumer);
+    }
+
+    /**
+     * Returns the results for a given marker name and string value category
+     * as chunks that are read from Redis only while they are consumed.
+     *
+     * @param markerName The name of the marker.
+     * @param category   The string value category to filter the results by.
+     * @return A producer of the results matching the marker name and string value category.
+     */
+    public ChunkProducer<Result> streamStringResultsForCategory(String markerName, StringCategory category) {
+        var resultIds = bitmapIndex.isEnabled()
+                ? toResultIds(bitmapIndex.findRecordIds(markerName, getCategoryConditions(category, Set.of())), markerName)
+                : resultRepository.findResultIdsByIndexedValues(getCategoryIndexedValues(markerName, category, null));
+
+        return chunkConsumer -> resultRepository.streamResultsByIds(resultIds, chunkConsumer);
+    }
+
+    /**
+     * Retrieves the results for a given marker name whose string value has a position in the category
+     * between the bounds, with a single range query on the ordinal index of the category.
+     *
+     * @param markerName The name of the marker.
+     * @param category   The category the positions refer to.
+     * @param from       The lowest position, inclusive.
+     * @param to         The highest position, inclusive.
+     * @return A list of results matching the marker name and range of values.
+     */
+    public List<Result> getAllStringResultsForOrdinalRange(String markerName, StringCategory category, int from, int to) {
+        return collect(streamStringResultsForOrdinalRange(markerName, category, from, to));
+    }
+
+    /**
+     * Returns the results for a given marker name whose string value has a position in the category
+     * between the bounds as chunks that are read from Redis only while they are consumed.
+     *
+     * @param markerName The name of the marker.
+     * @param category   The category the positions refer to.
+     * @param from       The lowest position, inclusive.
+     * @param to         The highest position, inclusive.
+     * @return A producer of the results matching the marker name and range of values.
+     */
+    public ChunkProducer<Result> streamStringResultsForOrdinalRange(String markerName, StringCategory category, int from, int to) {
+        return streamResultsByIds(ordinalIndex.findRecordIds(markerName, category, from, to), markerName);
+    }
+
+    /**
+     * Retrieves the record IDs of the results for a given marker name whose string value has a position
+     * in the category between the bounds, without loading the results.
+     *
+     * @param markerName The name of the marker.
+     * @param category   The category the positions refer to.
+     * @param from       The lowest position, inclusive.
+     * @param to         The highest position, inclusive.
+     * @return A set of record IDs matching the marker name and range of values.
+     */
+    public Set<String> getStringRecordIdsForOrdinalRange(String markerName, StringCategory category, int from, int to) {
+        return ordinalIndex.findRecordIds(markerName, category, from, to);
+    }
+
+    /**
+     * Counts the results for a given marker name whose string value has a position in the category
+     * between the bounds, without loading the results.
+     *
+     * @param markerName The name of the marker.
+     * @param category   The category the positions refer to.
+     * @param from       The lowest position, inclusive.
+     * @param to         The highest position, inclusive.
+     * @return The number of results matching the marker name and range of values.
+     */
+    public long countStringResultsForOrdinalRange(String markerName, StringCategory category, int from, int to) {
+        return ordinalIndex.count(markerName, category, from, to);
+    }
+
+    /**
+     * Checks which of the given records have a result for the marker name whose string value has a position
+     * in the category between the bounds.
+     *
+     * @param markerName The name of the marker.
+     * @param category   The category the positions refer to.
+     * @param from       The lowest position, inclusive.
+     * @param to         The highest position, inclusive.
+     * @param recordIds  The candidate record IDs.
+     * @return The subset of the candidate record IDs matching the marker name and range of values.
+     */
+    public Set<String> probeStringRecordIdsForOrdinalRange(String markerName, StringCategory category, int from, int to,
+                                                           Set<String> recordIds) {
+        return ordinalIndex.probeRecordIds(markerName, category, from, to, recordIds);
+    }
+
+    /**
+     * Retrieves the record IDs of the results for a given marker name and a list of string values,
+     * filtered by category, without loading the results.
+     *
+     * @param markerName The name of the marker.
+     * @param values     A list of string values to search for.
+     * @param category   The category to filter the results by. Can be null.
+     * @return A set of record IDs matching the marker name, values, and category.
+     */
+    public Set<String> getStringRecordIdsForMultipleValues(String markerName, List<String> values, StringCategory category) {
+        if (usesValueBitmaps(category)) {
+            return bitmapIndex.findRecordIds(markerName, getValueConditions(values, category));
+        }
+        return toRecordIds(getResultIdsForMultipleValues(markerName, values, category), markerName);
+    }
+
+    /**
+     * Retrieves the record IDs of the results for a given marker name and string value category,
+     * optionally restricted to the given technologies, without loading the results.
+     *
+     * @param markerName      The name of the marker.
+     * @param category        The string value category to filter the results by.
+     * @param technologyNames The technologies to restrict the results to, an empty set does not restrict them.
+     * @return A set of record IDs matching the marker name, category, and technologies.
+     */
+    public Set<String> getStringRecordIdsForCategory(String markerName, StringCategory category, Set<String> technologyNames) {
+        if (bitmapIndex.isEnabled()) {
+            return bitmapIndex.findRecordIds(markerName, getCategoryConditions(category, technologyNames));
+        }
+
+        if (technologyNames.isEmpty()) {
+            return toRecordIds(resultRepository.findResultIdsByIndexedValues(getCategoryIndexedValues(markerName, category, null)), markerName);
+        }
+
+        Set<String> resultIds = new HashSet<>();
+        for (String technologyName : technologyNames) {
+            resultIds.addAll(resultRepository.findResultIdsByIndexedValues(getCategoryIndexedValues(markerName, category, technologyName)));
+        }
+        return toRecordIds(resultIds, markerName);
+    }
+
+    /**
+     * Counts the results for a given marker name and a list of string values, filtered by category,
+     * using the cardinality of the index sets. Values listed more than once are counted once.
+     *
+     * @param markerName The name of the marker.
+     * @param values     A list of string values to search for.
+     * @param category   The category to filter the results by. Can be null.
+     * @return The number of results matching the marker name, values, and category.
+     */
+    public long countStringResultsForMultipleValues(String markerName, List<String> values, StringCategory category) {
+        if (usesValueBitmaps(category)) {
+            return bitmapIndex.count(markerName, getValueConditions(values, category));
+        }
+
+        // a result has a single string value, so the index sets of different values are disjoint
+        long count = 0;
+        for (String value : new LinkedHashSet<>(values)) {
+            count += resultRepository.countResultIdsByIndexedValues(getIndexedValues(markerName, value, category));
+        }
+        return count;
+    }
+
+    /**
+     * Counts the results for a given marker name and string value category, optionally restricted
+     * to the given technologies, using the cardinality of the index sets.
+     *
+     * @param markerName      The name of the marker.
+     * @param category        The string value category to filter the results by.
+     * @param technologyNames The technologies to restrict the results to, an empty set does not restrict them.
+     * @return The number of results matching the marker name, category, and technologies.
+     */
+    public long countStringResultsForCategory(String markerName, StringCategory category, Set<String> technologyNames) {
+        if (bitmapIndex.isEnabled()) {
+            return bitmapIndex.count(markerName, getCategoryConditions(category, technologyNames));
+        }
+
+        if (technologyNames.isEmpty()) {
+            return resultRepository.countResultIdsByIndexedValues(getCategoryIndexedValues(markerName, category, null));
+        }
+
+        long count = 0;
+        for (String technologyName : technologyNames) {
+            count += resultRepository.countResultIdsByIndexedValues(getCategoryIndexedValues(markerName, category, technologyName));
+        }
+        return count;
+    }
+
+    /**
+     * Checks which of the given records have a result for the marker name and one of the string values,
+     * filtered by category, by reading only the index sets.
+     *
+     * @param markerName The name of the marker.
+     * @param values     A list of string values to search for.
+     * @param category   The category to filter the results by. Can be null.
+     * @param recordIds  The candidate record IDs.
+     * @return The subset of the candidate record IDs matching the marker name, values, and category.
+     */
+    public Set<String> probeStringRecordIdsForMultipleValues(String markerName, List<String> values, StringCategory category,
+                                                             Set<String> recordIds) {
+        if (usesValueBitmaps(category)) {
+            return bitmapIndex.probeRecordIds(markerName, getValueConditions(values, category), recordIds);
+        }
+
+        List<Map<String, String>> alternatives = new ArrayList<>();
+        for (String value : new LinkedHashSet<>(values)) {
+            Map<String, String> indexedValues = new LinkedHashMap<>();
+            indexedValues.put("stringValue", value);
+            if (category != null) {
+                indexedValues.put("stringValueCategory", category.getName());
+            }
+            alternatives.add(indexedValues);
+        }
+        return probeRecordIds(markerName, alternatives, recordIds);
+    }
+
+    /**
+     * Checks which of the given records have a result for the marker name and string value category,
+     * optionally restricted to the given technologies, by reading only the index sets.
+     *
+     * @param markerName      The name of the marker.
+     * @param category        The string value category to filter the results by.
+     * @param technologyNames The technologies to restrict the results to, an empty set does not restrict them.
+     * @param recordIds       The candidate record IDs.
+     * @return The subset of the candidate record IDs matching the marker name, category, and technologies.
+     */
+    public Set<String> probeStringRecordIdsForCategory(String markerName, StringCategory category, Set<String> technologyNames,
+                                                       Set<String> recordIds) {
+        if (bitmapIndex.isEnabled()) {
+            return bitmapIndex.probeRecordIds(markerName, getCategoryConditions(category, technologyNames), recordIds);
+        }
+
+        List<Map<String, String>> alternatives = new ArrayList<>();
+        if (technologyNames.isEmpty()) {
+            alternatives.add(Map.of("stringValueCategory", category.getName()));
+        }
+        for (String technologyName : technologyNames) {
+            alternatives.add(Map.of("stringValueCategory", category.getName(), "technologyName", technologyName));
+        }
+        return probeRecordIds(markerName, alternatives, recordIds);
+    }
+
+    // a record matches if its result of the marker is contained in all index sets of one of the alternatives
+    private Set<String> probeRecordIds(String markerName, List<Map<String, String>> alternatives, Set<String> recordIds) {
+        Set<String> remaining = new HashSet<>();
+        recordIds.forEach(id -> remaining.add(EntityUtils.generateResultId(id, markerName)));
+
+        Set<String> matches = new HashSet<>();
+        for (var indexedValues : alternatives) {
+            var resultIds = resultRepository.filterResultIdsByIndexedValues(remaining, indexedValues);
+            remaining.removeAll(resultIds);
+            matches.addAll(toRecordIds(resultIds, markerName));
+        }
+        return matches;
+    }
+
+    private Set<String> getResultIdsForMultipleValues(String markerName, List<String> values, StringCategory category) {
+        if (usesValueBitmaps(category)) {
+            return toResultIds(bitmapIndex.findRecordIds(markerName, getValueConditions(values, category)), markerName);
+        }
+
+        Set<String> resultIds = new HashSet<>();
+        for (String value : values) {
+            resultIds.addAll(resultRepository.findResultIdsByIndexedValues(getIndexedValues(markerName, value, category)));
+        }
+        return resultIds;
+    }
+
+    private Set<String> toRecordIds(Set<String> resultIds, String markerName) {
+        Set<String> recordIds = new HashSet<>();
+        resultIds.forEach(resultId -> recordIds.add(EntityUtils.extractRecordId(resultId, markerName)));
+        return recordIds;
+    }
+
+    private Set<String> toResultIds(Set<String> recordIds, String markerName) {
+        Set<String> resultIds = new HashSet<>();
+        recordIds.forEach(recordId -> resultIds.add(EntityUtils.generateResultId(recordId, markerName)));
+        return resultIds;
+    }
+
+    private static List<Result> collect(ChunkProducer<Result> results) {
+        List<Result> collected = new ArrayList<>();
+        results.forEachChunk(collected::addAll);
+        return collected;
+    }
+
+    // only the values of categorised results have bitmaps, see ResultBitmapIndex
+    private boolean usesValueBitmaps(StringCategory category) {
+        return bitmapIndex.isEnabled() && category != null;
+    }
+
+    private Map<String, Collection<String>> getValueConditions(List<String> values, StringCategory category) {
+        Map<String, Collection<String>> conditions = new LinkedHashMap<>();
+        conditions.put(ResultBitmapIndex.STRING_VALUE, values);
+        if (category != null) {
+            conditions.put(ResultBitmapIndex.STRING_VALUE_CATEGORY, List.of(category.getName()));
+        }
+        return conditions;
+    }
+
+    private Map<String, Collection<String>> getCategoryConditions(StringCategory category, Set<String> technologyNames) {
+        Map<String, Collection<String>> conditions = new LinkedHashMap<>();
+        conditions.put(ResultBitmapIndex.STRING_VALUE_CATEGORY, List.of(category.getName()));
+        if (!technologyNames.isEmpty()) {
+            conditions.put(ResultBitmapIndex.TECHNOLOGY_NAME, technologyNames);
+        }
+        return conditions;
+    }
+
+    private Map<String, String> getCategoryIndexedValues(String markerName, StringCategory category, String technologyName) {
+        Map<String, String> indexedValues = new LinkedHashMap<>();
+        indexedValues.put("markerName", markerName);
+        indexedValues.put("stringValueCategory", category.getName());
+        if (technologyName != null) {
+            indexedValues.put("technologyName", technologyName);
+        }
+        return indexedValues;
+    }
+
+    private Map<String, String> getIndexedValues(String markerName, String value, StringCategory category) {
+        Map<String, String> indexedValues = new LinkedHashMap<>();
+        indexedValues.put("markerName", markerName);
+        indexedValues.put("stringValue", value);
+        if (category != null) {
+            indexedValues.put("stringValueCategory", category.getName());
+        }
+        return indexedValues;
+    }
+
     private List<Result> getResultsForValue(String markerName, String value, StringCategory category) {
         return category == null
                 ? resultRepository.getAllByMarkerNameAndStringValue(markerName, value)
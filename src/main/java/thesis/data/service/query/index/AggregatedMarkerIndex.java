@@ -0,0 +1,367 @@
+package thesis.data.service.query.index;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import thesis.config.SearchProperties;
+import thesis.data.enums.AggregationType;
+import thesis.data.model.Marker;
+import thesis.data.model.Result;
+import thesis.data.repository.MarkerRepository;
+import thesis.data.repository.ResultRepository;
+import thesis.data.repository.custom.ScoredRange;
+import thesis.data.service.MetadataCache;
+import thesis.data.service.SearchVersionRegistry;
+import thesis.data.service.UnitConversionGraph;
+import thesis.utils.CompiledFormula;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Materialized min and max indexes of the markers with child markers.
+ * <p>
+ * The aggregated value of a record is computed from the results of the leaf markers below the marker, converted
+ * into the unit of the marker and summed or averaged like a recursive search does. It is stored in the min and max
+ * indexes of the marker itself, which have the same keys as the indexes of a leaf marker, so an aggregated marker
+ * is searched with the same range queries. Records whose aggregation fails, e.g. because a conversion is missing,
+ * are not indexed.
+ * </p>
+ * <p>
+ * The aggregated values of a record are recomputed whenever one of its leaf results is saved, updated or deleted,
+ * and for all records when an aggregated marker is created or the conversions of one of its leaf markers change.
+ * The search versions of the recomputed markers are bumped after their indexes were written, so cached searches of
+ * them are not served anymore.
+ * </p>
+ * <p>
+ * While {@code search.aggregated-index-enabled} is unset no aggregated value is computed, so leaf writes do not pay
+ * for the ancestors of their marker. Enabling it requires a {@link #rebuild()} of the existing records.
+ * </p>
+ */
+@Component
+public class AggregatedMarkerIndex {
+    private static final List<Boolean> TECH_DEVIATION_VARIANTS = List.of(false, true);
+
+    private final ResultRepository resultRepository;
+    private final MarkerRepository markerRepository;
+    private final UnitConversionGraph conversionGraph;
+    private final ResultIndexMirror indexMirror;
+    private final MetadataCache metadataCache;
+    private final SearchVersionRegistry versionRegistry;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long ttlMillis;
+
+    private volatile Hierarchy hierarchy;
+
+    @Autowired
+    public AggregatedMarkerIndex(ResultRepository resultRepository, MarkerRepository markerRepository,
+                                 UnitConversionGraph conversionGraph, ResultIndexMirror indexMirror,
+                                 MetadataCache metadataCache, SearchVersionRegistry versionRegistry,
+                                 SearchProperties searchProperties) {
+        this.resultRepository = resultRepository;
+        this.markerRepository = markerRepository;
+        this.conversionGraph = conversionGraph;
+        this.indexMirror = indexMirror;
+        this.metadataCache = metadataCache;
+        this.versionRegistry = versionRegistry;
+        this.enabled = searchProperties.isAggregatedIndexEnabled();
+        this.batchSize = Math.max(1, searchProperties.getHydrationChunkSize());
+        this.ttlMillis = searchProperties.getMetadataCacheTtlSeconds() * 1000L;
+    }
+
+    @PostConstruct
+    void subscribeToMarkerEvictions() {
+        metadataCache.addEvictionListener(Marker.class, this::invalidate);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the leaf markers the values of an aggregated marker are computed from. A leaf marker reachable
+     * through several child markers is contained once per path, like its results are aggregated once per path.
+     *
+     * @param markerName the name of the aggregated marker
+     * @return the names of the leaf markers, empty if the marker has no child markers
+     */
+    public List<String> getLeafMarkerNames(String markerName) {
+        return getLeafMarkerNames(getHierarchy(), markerName);
+    }
+
+    /**
+     * Recomputes the aggregated values of the records of the given results in all markers above their markers.
+     * Must be called after the results were written to or removed from the indexes of their markers.
+     *
+     * @param results the saved, updated or deleted results
+     */
+    public void update(Collection<Result> results) {
+        if (!enabled) {
+            return;
+        }
+
+        var current = getHierarchy();
+        Map<String, Set<String>> recordIdsByMarker = new HashMap<>();
+        for (var result : results) {
+            if (result.getRecordId() == null) {
+                continue;
+            }
+            current.ancestorsByLeaf().getOrDefault(result.getMarkerName(), Set.of()).forEach(markerName ->
+                    recordIdsByMarker.computeIfAbsent(markerName, k -> new LinkedHashSet<>()).add(result.getRecordId()));
+        }
+        recordIdsByMarker.forEach((markerName, recordIds) -> reindex(current, markerName, recordIds));
+        versionRegistry.bumpMarkers(recordIdsByMarker.keySet());
+    }
+
+    /**
+     * Indexes a created marker. If it has child markers, the aggregated values of all records with results
+     * of its leaf markers are computed.
+     *
+     * @param marker the created marker
+     */
+    public void addMarker(Marker marker) {
+        invalidate();
+        if (enabled && marker.getChildMarkerNames() != null) {
+            rebuild(getHierarchy(), marker.getName());
+            versionRegistry.bumpMarker(marker.getName());
+        }
+    }
+
+    /**
+     * Deletes the indexes of a deleted marker.
+     *
+     * @param markerName the name of the deleted marker
+     */
+    public void removeMarker(String markerName) {
+        invalidate();
+        resultRepository.deleteSearchIndexes(markerName);
+        indexMirror.invalidate(markerName);
+    }
+
+    /**
+     * Recomputes the aggregated values of all markers above the given markers, e.g. after their conversions changed.
+     *
+     * @param markerNames the names of the leaf markers
+     */
+    public void refresh(Collection<String> markerNames) {
+        if (!enabled) {
+            return;
+        }
+
+        var current = getHierarchy();
+        Set<String> aggregatedMarkerNames = new LinkedHashSet<>();
+        markerNames.forEach(markerName ->
+                aggregatedMarkerNames.addAll(current.ancestorsByLeaf().getOrDefault(markerName, Set.of())));
+        aggregatedMarkerNames.forEach(markerName -> rebuild(current, markerName));
+        versionRegistry.bumpMarkers(aggregatedMarkerNames);
+    }
+
+    /**
+     * Deletes the indexes of all aggregated markers and computes the aggregated values of all records again.
+     * Results written while the rebuild runs may have to be indexed again.
+     *
+     * @return the number of records the values of all aggregated markers were computed for
+     */
+    public long rebuild() {
+        invalidate();
+        var current = getHierarchy();
+        long count = 0;
+        for (var markerName : current.leavesByMarker().keySet()) {
+            count += rebuild(current, markerName);
+        }
+        versionRegistry.bumpMarkers(current.leavesByMarker().keySet());
+        return count;
+    }
+
+    /**
+     * Drops the marker hierarchy, it is loaded again on the next write.
+     */
+    public void invalidate() {
+        hierarchy = null;
+    }
+
+    private long rebuild(Hierarchy current, String markerName) {
+        resultRepository.deleteSearchIndexes(markerName);
+
+        Set<String> recordIds = new LinkedHashSet<>();
+        for (var leafName : new LinkedHashSet<>(getLeafMarkerNames(current, markerName))) {
+            for (var withTechDeviations : TECH_DEVIATION_VARIANTS) {
+                var entries = resultRepository.getAllMinResultsForMarker(leafName, withTechDeviations);
+                if (entries != null) {
+                    entries.forEach(entry -> recordIds.add(entry.getValue()));
+                }
+            }
+        }
+
+        reindex(current, markerName, recordIds);
+        return recordIds.size();
+    }
+
+    private void reindex(Hierarchy current, String markerName, Collection<String> recordIds) {
+        var marker = current.markers().get(markerName);
+        var leaves = current.leavesByMarker().get(markerName);
+        if (marker == null || leaves == null) {
+            return;
+        }
+
+        Map<String, CompiledFormula> conversions = new HashMap<>();
+        leaves.forEach(leaf -> conversions.computeIfAbsent(leaf.getName(), k -> getConversion(leaf, marker)));
+        var leafNames = conversions.keySet();
+
+        for (var batch : partition(recordIds)) {
+            for (var withTechDeviations : TECH_DEVIATION_VARIANTS) {
+                var leafRanges = resultRepository.getSearchIndexRanges(leafNames, withTechDeviations, batch);
+
+                Map<String, ScoredRange> ranges = new HashMap<>();
+                List<String> removedRecordIds = new ArrayList<>();
+                for (var recordId : batch) {
+                    var range = aggregate(marker, leaves, leafRanges, conversions, recordId);
+                    if (range == null) {
+                        removedRecordIds.add(recordId);
+                    } else {
+                        ranges.put(recordId, range);
+                    }
+                }
+                resultRepository.saveSearchIndexRanges(markerName, withTechDeviations, ranges, removedRecordIds);
+            }
+        }
+        indexMirror.invalidate(markerName);
+    }
+
+    // same semantics as the in-memory aggregation of a recursive search, null if the record is not indexed
+    private static ScoredRange aggregate(Marker marker, List<Marker> leaves, Map<String, Map<String, ScoredRange>> leafRanges,
+                                         Map<String, CompiledFormula> conversions, String recordId) {
+        double sumMin = 0;
+        double sumMax = 0;
+        int count = 0;
+        for (var leaf : leaves) {
+            var range = leafRanges.getOrDefault(leaf.getName(), Map.of()).get(recordId);
+            if (range == null) {
+                continue;
+            }
+            var conversion = conversions.get(leaf.getName());
+            sumMin += convert(conversion, range.min());
+            sumMax += convert(conversion, range.max());
+            count++;
+        }
+
+        if (count == 0 || Double.isNaN(sumMin) || Double.isNaN(sumMax)) {
+            return null;
+        }
+        return marker.getAggregationType() == AggregationType.AVERAGE
+                ? new ScoredRange(sumMin / count, sumMax / count)
+                : new ScoredRange(sumMin, sumMax);
+    }
+
+    private static double convert(CompiledFormula conversion, double value) {
+        if (conversion == null) {
+            return value;
+        }
+
+        try {
+            return conversion.evaluate(value);
+        } catch (Exception e) {
+            return Double.NaN;
+        }
+    }
+
+    // null if the values are already in the unit of the marker, values without a conversion become NaN
+    private CompiledFormula getConversion(Marker leaf, Marker marker) {
+        if (Objects.equals(leaf.getUnitName(), marker.getUnitName())) {
+            return null;
+        }
+        if (leaf.getUnitName() == null || marker.getUnitName() == null) {
+            return x -> Double.NaN;
+        }
+
+        return conversionGraph.resolve(leaf.getName(), leaf.getUnitName(), marker.getUnitName())
+                .map(UnitConversionGraph.ResolvedConversion::function)
+                .orElse(x -> Double.NaN);
+    }
+
+    private List<List<String>> partition(Collection<String> recordIds) {
+        List<List<String>> batches = new ArrayList<>();
+        List<String> batch = new ArrayList<>();
+        for (var recordId : recordIds) {
+            batch.add(recordId);
+            if (batch.size() == batchSize) {
+                batches.add(batch);
+                batch = new ArrayList<>();
+            }
+        }
+        if (!batch.isEmpty()) {
+            batches.add(batch);
+        }
+        return batches;
+    }
+
+    private static List<String> getLeafMarkerNames(Hierarchy current, String markerName) {
+        return current.leavesByMarker().getOrDefault(markerName, List.of()).stream().map(Marker::getName).toList();
+    }
+
+    private Hierarchy getHierarchy() {
+        var current = hierarchy;
+        if (current != null && current.expiresAt() > System.currentTimeMillis()) {
+            return current;
+        }
+
+        current = load();
+        hierarchy = current;
+        return current;
+    }
+
+    private Hierarchy load() {
+        Map<String, Marker> markers = new HashMap<>();
+        markerRepository.findAll().forEach(marker -> markers.put(marker.getName(), marker));
+
+        Map<String, List<Marker>> leavesByMarker = new HashMap<>();
+        Map<String, Set<String>> ancestorsByLeaf = new HashMap<>();
+        markers.values().stream()
+                .filter(marker -> marker.getChildMarkerNames() != null)
+                .forEach(marker -> {
+                    List<Marker> leaves = new ArrayList<>();
+                    collectLeaves(marker, markers, new HashSet<>(), leaves);
+                    leavesByMarker.put(marker.getName(), leaves);
+                    leaves.forEach(leaf ->
+                            ancestorsByLeaf.computeIfAbsent(leaf.getName(), k -> new HashSet<>()).add(marker.getName()));
+                });
+
+        // like the conversion graph, the hierarchy expires immediately with a disabled metadata cache
+        var expiresAt = metadataCache.isEnabled() ? System.currentTimeMillis() + ttlMillis : 0;
+        return new Hierarchy(markers, leavesByMarker, ancestorsByLeaf, expiresAt);
+    }
+
+    private static void collectLeaves(Marker marker, Map<String, Marker> markers, Set<String> path, List<Marker> leaves) {
+        if (marker.getChildMarkerNames() == null) {
+            leaves.add(marker);
+            return;
+        }
+        // a marker can not be its own descendant, the path guards against inconsistent data
+        if (!path.add(marker.getName())) {
+            return;
+        }
+
+        for (var childName : marker.getChildMarkerNames()) {
+            var child = markers.get(childName);
+            if (child != null) {
+                collectLeaves(child, markers, path, leaves);
+            }
+        }
+        path.remove(marker.getName());
+    }
+
+    /**
+     * The markers with their leaf markers and, per leaf marker, the aggregated markers above it.
+     */
+    private record Hierarchy(Map<String, Marker> markers, Map<String, List<Marker>> leavesByMarker,
+                             Map<String, Set<String>> ancestorsByLeaf, long expiresAt) {
+    }
+}
@@ -0,0 +1,34 @@
+package thesis.data.service.query.index;
+
+/**
+ * Statistics describing the content and memory footprint of the in-memory index mirror.
+ */
+public class IndexMirrorStatistics {
+    private final boolean enabled;
+    private final int indexCount;
+    private final long entryCount;
+    private final long estimatedBytes;
+
+    public IndexMirrorStatistics(boolean enabled, int indexCount, long entryCount, long estimatedBytes) {
+        this.enabled = enabled;
+        this.indexCount = indexCount;
+        this.entryCount = entryCount;
+        this.estimatedBytes = estimatedBytes;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getIndexCount() {
+        return indexCount;
+    }
+
+    public long getEntryCount() {
+        return entryCount;
+    }
+
+    public long getEstimatedBytes() {
+        return estimatedBytes;
+    }
+}
@@ -0,0 +1,230 @@
+package thesis.data.service.query.index;
+
+import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
+import thesis.data.repository.custom.RangePageRequest;
+import thesis.data.repository.custom.ScoredRecordId;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Immutable in-memory copy of the min and max index of one marker.
+ * <p>
+ * Scores are kept as sorted primitive arrays aligned with arrays of dense record ordinals,
+ * so a range is found with two binary searches and ranges are intersected as bit sets.
+ * </p>
+ */
+final class MarkerIntervalIndex {
+    // rough per entry cost of a record ID string (object header, fields and byte array header)
+    private static final long STRING_OVERHEAD_BYTES = 56;
+
+    private final long generation;
+    private final String[] recordIds;
+    private final double[] minScores;
+    private final int[] minOrdinals;
+    private final double[] maxScores;
+    private final int[] maxOrdinals;
+
+    private MarkerIntervalIndex(long generation, String[] recordIds, double[] minScores, int[] minOrdinals,
+                                double[] maxScores, int[] maxOrdinals) {
+        this.generation = generation;
+        this.recordIds = recordIds;
+        this.minScores = minScores;
+        this.minOrdinals = minOrdinals;
+        this.maxScores = maxScores;
+        this.maxOrdinals = maxOrdinals;
+    }
+
+    /**
+     * Builds the index from the full content of the min and max sorted sets.
+     *
+     * @param generation the generation of the marker the content was read in
+     * @param minResults the members and scores of the min index
+     * @param maxResults the members and scores of the max index
+     * @return the built index
+     */
+    static MarkerIntervalIndex build(long generation, Set<TypedTuple<String>> minResults, Set<TypedTuple<String>> maxResults) {
+        var minSize = minResults == null ? 0 : minResults.size();
+        var maxSize = maxResults == null ? 0 : maxResults.size();
+        Map<String, Integer> ordinals = new HashMap<>(Math.max(minSize, maxSize) * 2);
+
+        var minScores = new double[minSize];
+        var minOrdinals = new int[minSize];
+        fill(minResults, ordinals, minScores, minOrdinals);
+
+        var maxScores = new double[maxSize];
+        var maxOrdinals = new int[maxSize];
+        fill(maxResults, ordinals, maxScores, maxOrdinals);
+
+        var recordIds = new String[ordinals.size()];
+        ordinals.forEach((recordId, ordinal) -> recordIds[ordinal] = recordId);
+
+        return new MarkerIntervalIndex(generation, recordIds, minScores, minOrdinals, maxScores, maxOrdinals);
+    }
+
+    long getGeneration() {
+        return generation;
+    }
+
+    int size() {
+        return recordIds.length;
+    }
+
+    BitSet minRange(double from, double to) {
+        return range(minScores, minOrdinals, from, to);
+    }
+
+    BitSet maxRange(double from, double to) {
+        return range(maxScores, maxOrdinals, from, to);
+    }
+
+    int minRangeSize(double from, double to) {
+        return rangeSize(minScores, from, to);
+    }
+
+    int maxRangeSize(double from, double to) {
+        return rangeSize(maxScores, from, to);
+    }
+
+    /**
+     * Reads one page of the min or max index in score order, restricted to the given records.
+     *
+     * @param page    the order, start position and size of the page
+     * @param from    the lower bound for the score in the sorted index
+     * @param to      the upper bound for the score in the sorted index
+     * @param allowed the ordinals of the records that may appear on the page
+     * @return the entries of the page
+     */
+    List<ScoredRecordId> page(RangePageRequest page, double from, double to, BitSet allowed) {
+        var scores = page.sortByMax() ? maxScores : minScores;
+        var ordinals = page.sortByMax() ? maxOrdinals : minOrdinals;
+        List<ScoredRecordId> result = new ArrayList<>();
+        if (from > to) {
+            return result;
+        }
+
+        var start = lowerBound(scores, from);
+        var end = upperBound(scores, to);
+        if (page.after() != null) {
+            if (page.descending()) {
+                end = Math.min(end, upperBound(scores, page.after().score()));
+            } else {
+                start = Math.max(start, lowerBound(scores, page.after().score()));
+            }
+        }
+
+        var step = page.descending() ? -1 : 1;
+        for (int i = page.descending() ? end - 1 : start; i >= start && i < end && result.size() < page.limit(); i += step) {
+            var ordinal = ordinals[i];
+            if (allowed.get(ordinal) && page.isAfterStart(recordIds[ordinal], scores[i])) {
+                result.add(new ScoredRecordId(recordIds[ordinal], scores[i]));
+            }
+        }
+        return result;
+    }
+
+    Set<String> toRecordIds(BitSet ordinals) {
+        Set<String> result = new HashSet<>(Math.max(16, ordinals.cardinality() * 2));
+        ordinals.stream().forEach(ordinal -> result.add(recordIds[ordinal]));
+        return result;
+    }
+
+    /**
+     * Estimates the heap used by the index, including the record ID strings.
+     *
+     * @return the estimated size in bytes
+     */
+    long estimatedBytes() {
+        long bytes = (long) (minScores.length + maxScores.length) * (Double.BYTES + Integer.BYTES);
+        bytes += (long) recordIds.length * Long.BYTES;
+        for (var recordId : recordIds) {
+            bytes += STRING_OVERHEAD_BYTES + recordId.length();
+        }
+        return bytes;
+    }
+
+    private BitSet range(double[] scores, int[] ordinals, double from, double to) {
+        var bits = new BitSet(recordIds.length);
+        if (from > to) {
+            return bits;
+        }
+
+        var start = lowerBound(scores, from);
+        var end = upperBound(scores, to);
+        for (int i = start; i < end; i++) {
+            bits.set(ordinals[i]);
+        }
+        return bits;
+    }
+
+    private static int rangeSize(double[] scores, double from, double to) {
+        return from > to ? 0 : Math.max(0, upperBound(scores, to) - lowerBound(scores, from));
+    }
+
+    // index of the first score greater than or equal to the value
+    private static int lowerBound(double[] scores, double value) {
+        int low = 0;
+        int high = scores.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (scores[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // index of the first score greater than the value
+    private static int upperBound(double[] scores, double value) {
+        int low = 0;
+        int high = scores.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (scores[mid] <= value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static void fill(Set<TypedTuple<String>> tuples, Map<String, Integer> ordinals, double[] scores, int[] memberOrdinals) {
+        if (tuples == null) {
+            return;
+        }
+
+        int i = 0;
+        boolean sorted = true;
+        for (var tuple : tuples) {
+            scores[i] = tuple.getScore() == null ? Double.NaN : tuple.getScore();
+            memberOrdinals[i] = ordinals.computeIfAbsent(tuple.getValue(), k -> ordinals.size());
+            if (i > 0 && scores[i - 1] > scores[i]) {
+                sorted = false;
+            }
+            i++;
+        }
+
+        // ZRANGE returns members ordered by score, sorting is only a safeguard
+        if (!sorted) {
+            var order = IntStream.range(0, scores.length).boxed()
+                    .sorted(Comparator.comparingDouble(index -> scores[index]))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+            var sortedScores = Arrays.stream(order).mapToDouble(index -> scores[index]).toArray();
+            var sortedOrdinals = Arrays.stream(order).map(index -> memberOrdinals[index]).toArray();
+            System.arraycopy(sortedScores, 0, scores, 0, scores.length);
+            System.arraycopy(sortedOrdinals, 0, memberOrdinals, 0, memberOrdinals.length);
+        }
+    }
+}
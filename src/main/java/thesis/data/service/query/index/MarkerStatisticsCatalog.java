@@ -0,0 +1,229 @@
+package thesis.data.service.query.index;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import thesis.config.SearchProperties;
+import thesis.data.model.Marker;
+import thesis.data.repository.MarkerRepository;
+import thesis.data.repository.ResultRepository;
+import thesis.data.repository.custom.MarkerStatistics;
+import thesis.data.repository.custom.MarkerStatisticsUpdate;
+import thesis.data.repository.custom.RangeBounds;
+import thesis.data.service.SearchVersionRegistry;
+import thesis.exceptions.BadRequestException;
+import thesis.exceptions.EntityNotFoundException;
+
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.StreamSupport;
+
+/**
+ * Catalog of the statistics of the min and max indexes of every marker without child markers, see
+ * {@link MarkerStatistics}.
+ * <p>
+ * The statistics are kept in Redis, built from the indexes on startup and updated by the result writes right before
+ * the indexes, in the same script that reads the previous scores. They are never built on a read: a write racing with
+ * such a build would be missing from them, so a marker without statistics is not pruned until the next
+ * {@link #rebuild()}. A local copy is valid as long as the search versions it was read with are unchanged, see
+ * {@link SearchVersionRegistry}.
+ * </p>
+ * <p>
+ * Nothing is written or read unless {@code search.statistics-catalog-enabled} is set. Statistics built before the
+ * catalog was disabled miss the writes since then, after enabling it again they are built with {@link #rebuild()}.
+ * </p>
+ * <p>
+ * Markers with children are not described, their indexes are written from the aggregated values of the children,
+ * see {@link AggregatedMarkerIndex}.
+ * </p>
+ */
+@Component
+public class MarkerStatisticsCatalog {
+    private final ResultRepository resultRepository;
+    private final MarkerRepository markerRepository;
+    private final SearchVersionRegistry versionRegistry;
+    private final boolean enabled;
+    private final int histogramBuckets;
+
+    private final Map<String, CachedStatistics> statistics = new ConcurrentHashMap<>();
+
+    @Autowired
+    public MarkerStatisticsCatalog(ResultRepository resultRepository, MarkerRepository markerRepository,
+                                   SearchVersionRegistry versionRegistry, SearchProperties searchProperties) {
+        this.resultRepository = resultRepository;
+        this.markerRepository = markerRepository;
+        this.versionRegistry = versionRegistry;
+        this.enabled = searchProperties.isStatisticsCatalogEnabled();
+        this.histogramBuckets = Math.max(1, searchProperties.getStatisticsHistogramBuckets());
+    }
+
+    /**
+     * Builds the statistics of the markers without child markers that have none yet, before any request is served.
+     */
+    @PostConstruct
+    void buildMissingStatistics() {
+        if (!enabled) {
+            return;
+        }
+
+        getDescribedMarkerNames().forEach(markerName -> {
+            for (var withTechDeviations : List.of(false, true)) {
+                if (resultRepository.getMarkerStatistics(markerName, withTechDeviations) == null) {
+                    resultRepository.buildMarkerStatistics(markerName, withTechDeviations, histogramBuckets);
+                }
+            }
+        });
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the current statistics of the given marker.
+     *
+     * @param markerName         the name of the marker
+     * @param withTechDeviations whether to describe the indexes with applied technology deviations
+     * @return the statistics
+     * @throws EntityNotFoundException if the marker does not exist or its statistics are not built
+     * @throws BadRequestException     if the marker has child markers
+     */
+    public MarkerStatistics getStatistics(String markerName, boolean withTechDeviations) {
+        var marker = markerRepository.findById(markerName)
+                .orElseThrow(() -> new EntityNotFoundException("Marker with name '" + markerName + "' not found"));
+        if (marker.getChildMarkerNames() != null) {
+            throw new BadRequestException("Statistics are only kept for markers without child markers");
+        }
+        var markerStatistics = findStatistics(markerName, withTechDeviations);
+        if (markerStatistics == null) {
+            throw new EntityNotFoundException("Statistics of marker with name '" + markerName + "' not built");
+        }
+        return markerStatistics;
+    }
+
+    /**
+     * Checks whether no result of the marker can match the given bounds, without reading the indexes.
+     *
+     * @param markerName         the name of the marker
+     * @param withTechDeviations whether the indexes with applied technology deviations are searched
+     * @param bounds             the bounds of the search
+     * @return true if the search has no matches, false if it may have matches or the catalog is disabled
+     */
+    public boolean excludes(String markerName, Boolean withTechDeviations, RangeBounds bounds) {
+        var markerStatistics = findEnabledStatistics(markerName, withTechDeviations);
+        return markerStatistics != null && markerStatistics.excludes(bounds);
+    }
+
+    /**
+     * Like {@link #excludes(String, Boolean, RangeBounds)} for a search on the minimum only.
+     */
+    public boolean excludesMinimum(String markerName, Boolean withTechDeviations, double from, double to) {
+        var markerStatistics = findEnabledStatistics(markerName, withTechDeviations);
+        return markerStatistics != null && markerStatistics.excludesMinimum(from, to);
+    }
+
+    /**
+     * Like {@link #excludes(String, Boolean, RangeBounds)} for a search on the maximum only.
+     */
+    public boolean excludesMaximum(String markerName, Boolean withTechDeviations, double from, double to) {
+        var markerStatistics = findEnabledStatistics(markerName, withTechDeviations);
+        return markerStatistics != null && markerStatistics.excludesMaximum(from, to);
+    }
+
+    /**
+     * Estimates the number of results of the marker matching the given bounds from the histograms.
+     *
+     * @param markerName         the name of the marker
+     * @param withTechDeviations whether the indexes with applied technology deviations are searched
+     * @param bounds             the bounds of the search
+     * @return the estimate, empty if the marker is not described, its statistics are not built or the catalog is
+     * disabled
+     */
+    public OptionalLong estimate(String markerName, Boolean withTechDeviations, RangeBounds bounds) {
+        var markerStatistics = findEnabledStatistics(markerName, withTechDeviations);
+        return markerStatistics == null ? OptionalLong.empty() : OptionalLong.of(markerStatistics.estimate(bounds));
+    }
+
+    /**
+     * Updates the statistics of the markers of results that are about to be written to the indexes, in one round trip.
+     * Must be called before the scores are written, the previous scores are read from the indexes.
+     *
+     * @param updates the scores the results are indexed with from now on, null ranges for removed results
+     */
+    public void update(List<MarkerStatisticsUpdate> updates) {
+        if (!enabled) {
+            return;
+        }
+
+        var markerUpdates = updates.stream()
+                .filter(update -> update.markerName() != null)
+                .toList();
+        resultRepository.updateMarkerStatistics(markerUpdates);
+    }
+
+    /**
+     * Builds the statistics of all markers without child markers from their indexes, e.g. after the number of
+     * histogram buckets was changed or to make the approximate counts exact again.
+     *
+     * @return the number of built statistics
+     */
+    public long rebuild() {
+        var markerNames = getDescribedMarkerNames();
+        markerNames.forEach(markerName -> {
+            resultRepository.buildMarkerStatistics(markerName, false, histogramBuckets);
+            resultRepository.buildMarkerStatistics(markerName, true, histogramBuckets);
+        });
+        statistics.clear();
+        return markerNames.size() * 2L;
+    }
+
+    /**
+     * Drops all local copies of the statistics, e.g. after the database was flushed.
+     */
+    public void invalidateAll() {
+        statistics.clear();
+    }
+
+    private MarkerStatistics findEnabledStatistics(String markerName, Boolean withTechDeviations) {
+        if (!enabled || markerName == null) {
+            return null;
+        }
+        return findStatistics(markerName, Boolean.TRUE.equals(withTechDeviations));
+    }
+
+    private MarkerStatistics findStatistics(String markerName, boolean withTechDeviations) {
+        // versions are the epoch and the marker, the technologies do not change the indexes
+        var versions = List.copyOf(versionRegistry.getVersions(List.of(markerName), false).subList(0, 2));
+        var key = markerName + (withTechDeviations ? ":technology" : "");
+        var cached = statistics.get(key);
+        if (cached != null && cached.versions().equals(versions)) {
+            return cached.statistics();
+        }
+
+        // never built here, see the class comment
+        var loaded = isDescribed(markerName)
+                ? resultRepository.getMarkerStatistics(markerName, withTechDeviations)
+                : null;
+        statistics.put(key, new CachedStatistics(versions, loaded));
+        return loaded;
+    }
+
+    private boolean isDescribed(String markerName) {
+        return markerRepository.findById(markerName)
+                .map(marker -> marker.getChildMarkerNames() == null)
+                .orElse(false);
+    }
+
+    private List<String> getDescribedMarkerNames() {
+        return StreamSupport.stream(markerRepository.findAll().spliterator(), false)
+                .filter(marker -> marker.getChildMarkerNames() == null)
+                .map(Marker::getName)
+                .toList();
+    }
+
+    // statistics is null for markers that are not described or not built
+    private record CachedStatistics(List<Long> versions, MarkerStatistics statistics) {
+    }
+}
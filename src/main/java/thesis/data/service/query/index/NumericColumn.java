@@ -0,0 +1,150 @@
+package thesis.data.service.query.index;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Minimum and maximum of the results of one marker in dense primitive arrays addressed by record ordinal,
+ * see {@link thesis.data.service.RecordOrdinalRegistry}. Records without a numeric result of the marker
+ * are NaN in both arrays.
+ * <p>
+ * A column is immutable, {@link NumericColumnSnapshot} drops the column of a marker when a result is written and
+ * loads a new one on the next read, so a reader never sees the minimum of one write with the maximum of another.
+ * The loops over all ordinals only compare primitive values, so the JIT compiler can vectorize them.
+ * </p>
+ */
+public final class NumericColumn {
+    private final List<Long> versions;
+    private final double[] mins;
+    private final double[] maxs;
+
+    private NumericColumn(List<Long> versions, double[] mins, double[] maxs) {
+        this.versions = versions;
+        this.mins = mins;
+        this.maxs = maxs;
+    }
+
+    /**
+     * Creates a column from the scores of the min and max indexes.
+     * A record that is only contained in one of them, e.g. because it was written between reading the two
+     * indexes, is treated as missing.
+     *
+     * @param versions     the search versions the scores were read with
+     * @param minOrdinals  the ordinals of the records in the min index
+     * @param minScores    the scores of the min index
+     * @param maxOrdinals  the ordinals of the records in the max index
+     * @param maxScores    the scores of the max index
+     * @return the column
+     */
+    static NumericColumn build(List<Long> versions, int[] minOrdinals, double[] minScores,
+                               int[] maxOrdinals, double[] maxScores) {
+        int size = Math.max(maxOrdinal(minOrdinals), maxOrdinal(maxOrdinals)) + 1;
+        double[] mins = new double[size];
+        double[] maxs = new double[size];
+        Arrays.fill(mins, Double.NaN);
+        Arrays.fill(maxs, Double.NaN);
+        for (int i = 0; i < minOrdinals.length; i++) {
+            mins[minOrdinals[i]] = minScores[i];
+        }
+        for (int i = 0; i < maxOrdinals.length; i++) {
+            maxs[maxOrdinals[i]] = maxScores[i];
+        }
+        for (int i = 0; i < size; i++) {
+            if (Double.isNaN(mins[i]) != Double.isNaN(maxs[i])) {
+                mins[i] = Double.NaN;
+                maxs[i] = Double.NaN;
+            }
+        }
+        return new NumericColumn(versions, mins, maxs);
+    }
+
+    /**
+     * Returns the number of addressable ordinals, all ordinals from this size on are missing.
+     *
+     * @return the size of the column
+     */
+    public int size() {
+        return mins.length;
+    }
+
+    public boolean isPresent(int ordinal) {
+        return ordinal < mins.length && !Double.isNaN(mins[ordinal]);
+    }
+
+    /**
+     * Returns the minimum of the result of the record with the given ordinal.
+     *
+     * @param ordinal the record ordinal
+     * @return the minimum, NaN if the record has no result of the marker
+     */
+    public double getMin(int ordinal) {
+        return ordinal < mins.length ? mins[ordinal] : Double.NaN;
+    }
+
+    /**
+     * Returns the maximum of the result of the record with the given ordinal.
+     *
+     * @param ordinal the record ordinal
+     * @return the maximum, NaN if the record has no result of the marker
+     */
+    public double getMax(int ordinal) {
+        return ordinal < maxs.length ? maxs[ordinal] : Double.NaN;
+    }
+
+    /**
+     * Counts the records with a result of the marker.
+     *
+     * @return the number of present records
+     */
+    public int count() {
+        int count = 0;
+        for (double min : mins) {
+            count += min == min ? 1 : 0;
+        }
+        return count;
+    }
+
+    /**
+     * Returns the lowest finite minimum or maximum of all results, unbounded and missing values are ignored.
+     *
+     * @return the lowest value, positive infinity if there is none
+     */
+    public double lowest() {
+        double lowest = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < mins.length; i++) {
+            lowest = Math.min(lowest, finiteOr(mins[i], Double.POSITIVE_INFINITY));
+            lowest = Math.min(lowest, finiteOr(maxs[i], Double.POSITIVE_INFINITY));
+        }
+        return lowest;
+    }
+
+    /**
+     * Returns the highest finite minimum or maximum of all results, unbounded and missing values are ignored.
+     *
+     * @return the highest value, negative infinity if there is none
+     */
+    public double highest() {
+        double highest = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < mins.length; i++) {
+            highest = Math.max(highest, finiteOr(mins[i], Double.NEGATIVE_INFINITY));
+            highest = Math.max(highest, finiteOr(maxs[i], Double.NEGATIVE_INFINITY));
+        }
+        return highest;
+    }
+
+    List<Long> getVersions() {
+        return versions;
+    }
+
+    private static double finiteOr(double value, double fallback) {
+        return value - value == 0 ? value : fallback;
+    }
+
+    private static int maxOrdinal(int[] ordinals) {
+        int max = -1;
+        for (var ordinal : ordinals) {
+            max = Math.max(max, ordinal);
+        }
+        return max;
+    }
+}
@@ -0,0 +1,190 @@
+package thesis.data.service.query.index;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
+import org.springframework.stereotype.Component;
+import thesis.config.SearchProperties;
+import thesis.data.model.Marker;
+import thesis.data.repository.MarkerRepository;
+import thesis.data.repository.ResultRepository;
+import thesis.data.service.RecordOrdinalRegistry;
+import thesis.data.service.SearchVersionRegistry;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.StreamSupport;
+
+/**
+ * Columnar in-memory snapshot of the min and max indexes of the numeric results, for analyses over many markers.
+ * <p>
+ * Every marker has a {@link NumericColumn} with and one without applied technology deviations. A column is loaded
+ * on its first read, the columns of one read are loaded concurrently on {@code search.column-snapshot-threads}
+ * threads. A column is valid as long as the search versions it was loaded with are unchanged, see
+ * {@link SearchVersionRegistry}.
+ * </p>
+ * <p>
+ * A column is always loaded as a whole. Result writes of this instance drop the loaded columns of their marker,
+ * once per written batch, and the next read loads them again. A write of another instance bumps the version of
+ * the marker, so its columns are reloaded on the next read as well, and a technology change reloads every column
+ * with applied technology deviations. A column loaded while a write is applied carries the version from before
+ * the write and is reloaded after it.
+ * </p>
+ */
+@Component
+public class NumericColumnSnapshot {
+    private final ResultRepository resultRepository;
+    private final MarkerRepository markerRepository;
+    private final RecordOrdinalRegistry ordinalRegistry;
+    private final SearchVersionRegistry versionRegistry;
+    private final ExecutorService executor;
+
+    private final Map<String, NumericColumn> columns = new ConcurrentHashMap<>();
+
+    @Autowired
+    public NumericColumnSnapshot(ResultRepository resultRepository, MarkerRepository markerRepository,
+                                 RecordOrdinalRegistry ordinalRegistry, SearchVersionRegistry versionRegistry,
+                                 SearchProperties searchProperties) {
+        this.resultRepository = resultRepository;
+        this.markerRepository = markerRepository;
+        this.ordinalRegistry = ordinalRegistry;
+        this.versionRegistry = versionRegistry;
+
+        var threads = Math.max(1, searchProperties.getColumnSnapshotThreads());
+        var threadCount = new AtomicInteger();
+        var pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            var thread = new Thread(runnable, "numeric-column-loader-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        pool.allowCoreThreadTimeOut(true);
+        this.executor = pool;
+    }
+
+    /**
+     * Returns the current column of the given marker.
+     *
+     * @param markerName         the name of the marker
+     * @param withTechDeviations whether to read the values with applied technology deviations
+     * @return the column
+     */
+    public NumericColumn getColumn(String markerName, boolean withTechDeviations) {
+        return getColumns(List.of(markerName), withTechDeviations).get(markerName);
+    }
+
+    /**
+     * Returns the current columns of the given markers, the missing and outdated ones are loaded concurrently.
+     *
+     * @param markerNames        the names of the markers
+     * @param withTechDeviations whether to read the values with applied technology deviations
+     * @return the columns by marker name
+     */
+    public Map<String, NumericColumn> getColumns(Collection<String> markerNames, boolean withTechDeviations) {
+        List<String> names = new ArrayList<>(new LinkedHashSet<>(markerNames));
+        var versions = versionRegistry.getVersions(names, false);
+
+        Map<String, NumericColumn> result = new HashMap<>();
+        Map<String, List<Long>> outdated = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            // versions are the epoch, the markers in the given order and the technologies, which only the
+            // columns with applied technology deviations depend on
+            var version = List.of(versions.get(0), versions.get(i + 1),
+                    withTechDeviations ? versions.get(names.size() + 1) : 0L);
+            var column = columns.get(key(names.get(i), withTechDeviations));
+            if (column != null && column.getVersions().equals(version)) {
+                result.put(names.get(i), column);
+            } else {
+                outdated.put(names.get(i), version);
+            }
+        }
+
+        if (outdated.size() == 1) {
+            var entry = outdated.entrySet().iterator().next();
+            result.put(entry.getKey(), load(entry.getKey(), withTechDeviations, entry.getValue()));
+        } else if (!outdated.isEmpty()) {
+            Map<String, CompletableFuture<NumericColumn>> loading = new HashMap<>();
+            outdated.forEach((markerName, version) -> loading.put(markerName,
+                    CompletableFuture.supplyAsync(() -> load(markerName, withTechDeviations, version), executor)));
+            loading.forEach((markerName, future) -> result.put(markerName, future.join()));
+        }
+        return result;
+    }
+
+    /**
+     * Loads the columns of all markers that are not aggregated from child markers, e.g. after a restart.
+     *
+     * @return the number of loaded columns
+     */
+    public long rebuild() {
+        var markerNames = StreamSupport.stream(markerRepository.findAll().spliterator(), false)
+                .filter(marker -> marker.getChildMarkerNames() == null)
+                .map(Marker::getName)
+                .toList();
+        return (long) getColumns(markerNames, false).size() + getColumns(markerNames, true).size();
+    }
+
+    /**
+     * Drops the loaded columns of the given markers when their results are written.
+     *
+     * @param markerNames the names of the markers
+     */
+    public void invalidate(Collection<String> markerNames) {
+        markerNames.forEach(markerName -> {
+            columns.remove(key(markerName, false));
+            columns.remove(key(markerName, true));
+        });
+    }
+
+    /**
+     * Drops all loaded columns, e.g. after the database was flushed.
+     */
+    public void invalidateAll() {
+        columns.clear();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private NumericColumn load(String markerName, boolean withTechDeviations, List<Long> version) {
+        var mins = toEntries(resultRepository.getAllMinResultsForMarker(markerName, withTechDeviations));
+        var maxs = toEntries(resultRepository.getAllMaxResultsForMarker(markerName, withTechDeviations));
+        var column = NumericColumn.build(version, mins.ordinals(), mins.scores(), maxs.ordinals(), maxs.scores());
+        columns.put(key(markerName, withTechDeviations), column);
+        return column;
+    }
+
+    private Entries toEntries(Set<TypedTuple<String>> tuples) {
+        if (tuples == null) {
+            return new Entries(new int[0], new double[0]);
+        }
+
+        List<String> recordIds = new ArrayList<>(tuples.size());
+        double[] scores = new double[tuples.size()];
+        for (var tuple : tuples) {
+            scores[recordIds.size()] = tuple.getScore() == null ? Double.NaN : tuple.getScore();
+            recordIds.add(tuple.getValue());
+        }
+        return new Entries(ordinalRegistry.getOrdinals(recordIds), scores);
+    }
+
+    private static String key(String markerName, boolean withTechDeviations) {
+        return markerName + (withTechDeviations ? ":technology" : "");
+    }
+
+    private record Entries(int[] ordinals, double[] scores) {
+    }
+}
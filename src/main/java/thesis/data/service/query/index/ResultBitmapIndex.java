@@ -0,0 +1,205 @@
+package thesis.data.service.query.index;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import thesis.config.SearchProperties;
+import thesis.data.model.Result;
+import thesis.data.repository.ResultRepository;
+import thesis.data.service.RecordOrdinalRegistry;
+import thesis.utils.RedisKeyBuilder;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bitmap indexes of the string values, string categories, boolean values and technologies of the results.
+ * <p>
+ * For every marker and property value a Redis bitmap has the bits of the record ordinals set whose result
+ * has that value, see {@link RecordOrdinalRegistry}. A search for several values or technologies is answered by
+ * reading the bitmaps in one round trip and combining them, instead of one index set query per value.
+ * </p>
+ * <p>
+ * String values are only indexed for results with a string value category. A free-text value would get a bitmap of
+ * its own spanning all record ordinals, such searches use the index sets instead.
+ * </p>
+ * <p>
+ * Nothing is written or read unless {@code search.bitmap-index-enabled} is set. After enabling it the bitmaps of
+ * the existing results are built with {@link #rebuild()}.
+ * </p>
+ */
+@Component
+public class ResultBitmapIndex {
+    public static final String STRING_VALUE = "stringValue";
+    public static final String STRING_VALUE_CATEGORY = "stringValueCategory";
+    public static final String BOOLEAN_VALUE = "booleanValue";
+    public static final String TECHNOLOGY_NAME = "technologyName";
+
+    private final ResultRepository resultRepository;
+    private final RecordOrdinalRegistry ordinalRegistry;
+    private final boolean enabled;
+
+    @Autowired
+    public ResultBitmapIndex(ResultRepository resultRepository, RecordOrdinalRegistry ordinalRegistry,
+                             SearchProperties searchProperties) {
+        this.resultRepository = resultRepository;
+        this.ordinalRegistry = ordinalRegistry;
+        this.enabled = searchProperties.isBitmapIndexEnabled();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Sets the bits of the given result in the bitmaps of its values.
+     *
+     * @param result the saved result
+     */
+    public void add(Result result) {
+        update(result, true);
+    }
+
+    /**
+     * Clears the bits of the given result in the bitmaps of its values.
+     * Must be called with the values the result was indexed with, i.e. before it is modified.
+     *
+     * @param result the result to remove
+     */
+    public void remove(Result result) {
+        update(result, false);
+    }
+
+    /**
+     * Finds the record ordinals of the results of a marker matching the given conditions.
+     * A result matches if, for every property, its value is one of the given values.
+     *
+     * @param markerName the name of the marker
+     * @param conditions the accepted values per property, e.g. several string values or technologies
+     * @return the bitmap of the matching record ordinals
+     */
+    public BitSet find(String markerName, Map<String, ? extends Collection<String>> conditions) {
+        List<List<String>> keyGroups = new ArrayList<>();
+        conditions.forEach((property, values) -> keyGroups.add(new LinkedHashSet<>(values).stream()
+                .map(value -> RedisKeyBuilder.resultBitmapKey(markerName, property, value))
+                .toList()));
+        return resultRepository.findOrdinalsByResultBitmaps(keyGroups);
+    }
+
+    /**
+     * Finds the record IDs of the results of a marker matching the given conditions.
+     *
+     * @param markerName the name of the marker
+     * @param conditions the accepted values per property
+     * @return the matching record IDs
+     */
+    public Set<String> findRecordIds(String markerName, Map<String, ? extends Collection<String>> conditions) {
+        return ordinalRegistry.toRecordIds(find(markerName, conditions));
+    }
+
+    /**
+     * Counts the results of a marker matching the given conditions.
+     *
+     * @param markerName the name of the marker
+     * @param conditions the accepted values per property
+     * @return the number of matching results
+     */
+    public long count(String markerName, Map<String, ? extends Collection<String>> conditions) {
+        return find(markerName, conditions).cardinality();
+    }
+
+    /**
+     * Checks which of the given records have a result of the marker matching the given conditions.
+     *
+     * @param markerName the name of the marker
+     * @param conditions the accepted values per property
+     * @param recordIds  the candidate record IDs
+     * @return the subset of the candidate record IDs that match
+     */
+    public Set<String> probeRecordIds(String markerName, Map<String, ? extends Collection<String>> conditions,
+                                      Collection<String> recordIds) {
+        var matches = find(markerName, conditions);
+        matches.and(ordinalRegistry.toBitSet(recordIds));
+        return ordinalRegistry.toRecordIds(matches);
+    }
+
+    /**
+     * Deletes all bitmaps and indexes all existing results again.
+     * Results written while the rebuild runs may have to be indexed again.
+     *
+     * @return the number of indexed results
+     */
+    public long rebuild() {
+        resultRepository.deleteAllResultBitmaps();
+
+        long[] count = {0};
+        resultRepository.streamAllResults(chunk -> {
+            var indexable = chunk.stream().filter(ResultBitmapIndex::isIndexable).toList();
+            // allocates the missing ordinals of the chunk at once, the lookups below are answered from the cache
+            ordinalRegistry.toBitSet(indexable.stream().map(Result::getRecordId).toList());
+
+            Map<String, List<Integer>> ordinalsByKey = new HashMap<>();
+            for (var result : indexable) {
+                var ordinal = ordinalRegistry.getOrdinal(result.getRecordId());
+                getKeys(result).forEach(key -> ordinalsByKey.computeIfAbsent(key, k -> new ArrayList<>()).add(ordinal));
+            }
+            resultRepository.updateResultBitmaps(ordinalsByKey, true);
+            count[0] += indexable.size();
+        });
+        return count[0];
+    }
+
+    private void update(Result result, boolean value) {
+        if (!enabled || !isIndexable(result)) {
+            return;
+        }
+
+        var keys = getKeys(result);
+        if (keys.isEmpty()) {
+            return;
+        }
+
+        var ordinal = ordinalRegistry.getOrdinal(result.getRecordId());
+        Map<String, List<Integer>> ordinalsByKey = new HashMap<>();
+        keys.forEach(key -> ordinalsByKey.put(key, List.of(ordinal)));
+        resultRepository.updateResultBitmaps(ordinalsByKey, value);
+    }
+
+    private static boolean isIndexable(Result result) {
+        return result.getRecordId() != null && result.getMarkerName() != null;
+    }
+
+    private static List<String> getKeys(Result result) {
+        var markerName = result.getMarkerName();
+        List<String> keys = new ArrayList<>();
+        if (result.getStringValue() != null && result.getStringValueCategory() != null) {
+            keys.add(RedisKeyBuilder.resultBitmapKey(markerName, STRING_VALUE, result.getStringValue()));
+        }
+        if (result.getStringValueCategory() != null) {
+            keys.add(RedisKeyBuilder.resultBitmapKey(markerName, STRING_VALUE_CATEGORY, result.getStringValueCategory()));
+        }
+        if (result.getBooleanValue() != null) {
+            // stored as "1" and "0" like the boolean index sets of Spring Data
+            keys.add(RedisKeyBuilder.resultBitmapKey(markerName, BOOLEAN_VALUE, toIndexValue(result.getBooleanValue())));
+        }
+        if (result.getTechnologyName() != null) {
+            keys.add(RedisKeyBuilder.resultBitmapKey(markerName, TECHNOLOGY_NAME, result.getTechnologyName()));
+        }
+        return keys;
+    }
+
+    /**
+     * Returns the value a boolean is indexed with.
+     *
+     * @param value the boolean value
+     * @return "1" for true, "0" otherwise
+     */
+    public static String toIndexValue(Boolean value) {
+        return Boolean.TRUE.equals(value) ? "1" : "0";
+    }
+}
@@ -0,0 +1,123 @@
+package thesis.data.service.query.index;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import thesis.config.SearchProperties;
+import thesis.data.model.Result;
+import thesis.data.repository.ResultRepository;
+import thesis.domain.search.dto.SearchFilters;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Indexes of the samples and timestamps of the results, per marker, for the search filters.
+ * <p>
+ * For every marker and sample a Redis set holds the record IDs of the results with that sample, and a sorted set
+ * holds the record IDs of all results of the marker scored with their timestamp in epoch microseconds.
+ * Sample and timestamp filters are thus applied to the record IDs of the candidates, and only the results that
+ * pass them have to be loaded. Technology filters are already answered from the technology name index sets.
+ * </p>
+ * <p>
+ * The indexes are only written and read while {@code search.filter-index-enabled} is set, the results saved before
+ * are added by {@link #rebuild()}. Timestamps are compared with microsecond precision.
+ * </p>
+ */
+@Component
+public class ResultFilterIndex {
+    private final ResultRepository resultRepository;
+    private final boolean enabled;
+
+    @Autowired
+    public ResultFilterIndex(ResultRepository resultRepository, SearchProperties searchProperties) {
+        this.resultRepository = resultRepository;
+        this.enabled = searchProperties.isFilterIndexEnabled();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Checks whether the sample and timestamp filters of a search are answered from the indexes.
+     *
+     * @param filters the search filters, may be null
+     * @return true if the indexes are enabled and a sample or timestamp filter is set
+     */
+    public boolean canFilter(SearchFilters filters) {
+        return enabled && filters != null
+                && (filters.getSample() != null || filters.getFromTimestamp() != null || filters.getToTimestamp() != null);
+    }
+
+    /**
+     * Adds the given result to the indexes of its sample and timestamp.
+     *
+     * @param result the saved result
+     */
+    public void add(Result result) {
+        if (enabled && isIndexable(result)) {
+            resultRepository.saveResultFilterIndexes(List.of(result));
+        }
+    }
+
+    /**
+     * Removes the given result from the indexes of its sample and timestamp.
+     * Must be called with the values the result was indexed with, i.e. before it is modified.
+     *
+     * @param result the result to remove
+     */
+    public void remove(Result result) {
+        if (enabled && isIndexable(result)) {
+            resultRepository.deleteResultFilterIndexes(result);
+        }
+    }
+
+    /**
+     * Finds the records of a marker whose results pass the sample and timestamp filters.
+     *
+     * @param markerName the name of the marker
+     * @param filters    the search filters, see {@link #canFilter(SearchFilters)}
+     * @return the matching record IDs
+     */
+    public Set<String> findRecordIds(String markerName, SearchFilters filters) {
+        return resultRepository.searchForFilterMatches(markerName, filters.getSample(),
+                filters.getFromTimestamp(), filters.getToTimestamp());
+    }
+
+    /**
+     * Checks which of the given records of a marker have results that pass the sample and timestamp filters.
+     *
+     * @param markerName the name of the marker
+     * @param filters    the search filters, see {@link #canFilter(SearchFilters)}
+     * @param recordIds  the candidate record IDs
+     * @return the subset of the candidate record IDs that match
+     */
+    public Set<String> probeRecordIds(String markerName, SearchFilters filters, Collection<String> recordIds) {
+        return resultRepository.probeFilterMatches(markerName, filters.getSample(),
+                filters.getFromTimestamp(), filters.getToTimestamp(), recordIds);
+    }
+
+    /**
+     * Deletes all sample and timestamp indexes and indexes all existing results again.
+     * Results written while the rebuild runs may have to be indexed again.
+     *
+     * @return the number of indexed results
+     */
+    public long rebuild() {
+        resultRepository.deleteAllResultFilterIndexes();
+
+        long[] count = {0};
+        resultRepository.streamAllResults(chunk -> {
+            var indexable = chunk.stream().filter(ResultFilterIndex::isIndexable).toList();
+            resultRepository.saveResultFilterIndexes(indexable);
+            count[0] += indexable.size();
+        });
+        return count[0];
+    }
+
+    private static boolean isIndexable(Result result) {
+        return result.getRecordId() != null && result.getMarkerName() != null
+                && (result.getSample() != null || result.getTimestamp() != null);
+    }
+}
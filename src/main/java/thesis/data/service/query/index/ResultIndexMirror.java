@@ -0,0 +1,269 @@
+package thesis.data.service.query.index;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.PatternTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import thesis.config.SearchProperties;
+import thesis.data.repository.ResultRepository;
+import thesis.data.repository.custom.NumericRangeIndex;
+import thesis.data.repository.custom.RangeBounds;
+import thesis.data.repository.custom.RangePageRequest;
+import thesis.data.repository.custom.ScoredRecordId;
+
+import java.nio.charset.StandardCharsets;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Optional in-memory mirror of the min and max result indexes of all markers.
+ * <p>
+ * The mirror of a marker is loaded lazily on the first search and kept until the marker is invalidated.
+ * Local writes invalidate the marker directly through {@link #invalidate(String)}, writes of other
+ * application instances are observed through Redis keyspace notifications on the index keys.
+ * Invalidation bumps the generation of the marker, an index built from an older generation is never served.
+ * </p>
+ * <p>
+ * The notifications do not name the changed records, so an invalidated index is reloaded as a whole. Invalidations
+ * are coalesced: they only bump the generation, the index is reloaded once on the next search however many writes
+ * happened since, and concurrent searches wait for the same reload. The indexes with and without applied technology
+ * deviations have separate generations, a notification on one of them leaves the other one loaded.
+ * </p>
+ */
+@Component
+public class ResultIndexMirror implements NumericRangeIndex, MessageListener {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ResultIndexMirror.class);
+
+    private static final String KEYSPACE_EVENTS_CONFIG = "notify-keyspace-events";
+    // K = keyspace channel, g = generic commands (DEL), z = sorted set commands
+    private static final String REQUIRED_KEYSPACE_EVENTS = "Kgz";
+    private static final List<String> INDEX_KEYSPACE_PATTERNS = List.of(
+            "__keyspace@*__:marker:*:result:min", "__keyspace@*__:marker:*:result:max");
+    // the technology partitions are written together with the mirrored indexes, see TechnologyPartitionIndex
+    private static final String PARTITION_KEY_PART = ":partition:";
+
+    private final ResultRepository resultRepository;
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final boolean enabled;
+
+    // all maps are keyed by the marker name, suffixed with ":technology" for applied technology deviations
+    private final Map<String, MarkerIntervalIndex> indexes = new ConcurrentHashMap<>();
+    private final Map<String, Long> generations = new ConcurrentHashMap<>();
+    private final Map<String, Object> loadLocks = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ResultIndexMirror(ResultRepository resultRepository, StringRedisTemplate redisTemplate,
+                             RedisMessageListenerContainer listenerContainer, SearchProperties searchProperties) {
+        this.resultRepository = resultRepository;
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.enabled = searchProperties.isIndexMirrorEnabled();
+    }
+
+    @PostConstruct
+    void subscribeToIndexChanges() {
+        if (!enabled) {
+            return;
+        }
+
+        enableKeyspaceNotifications();
+        listenerContainer.addMessageListener(this, INDEX_KEYSPACE_PATTERNS.stream().map(PatternTopic::new).toList());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public Set<String> searchForMinimumMatches(String markerName, Double min, Double max, Boolean withTechDeviations) {
+        var index = getIndex(markerName, withTechDeviations);
+        return index.toRecordIds(index.minRange(min, max));
+    }
+
+    @Override
+    public Set<String> searchForMaximumMatches(String markerName, Double min, Double max, Boolean withTechDeviations) {
+        var index = getIndex(markerName, withTechDeviations);
+        return index.toRecordIds(index.maxRange(min, max));
+    }
+
+    @Override
+    public Set<String> searchForRangeMatches(String markerName, Double minFrom, Double minTo, Double maxFrom, Double maxTo,
+                                             Boolean withTechDeviations) {
+        var index = getIndex(markerName, withTechDeviations);
+        BitSet matches = index.minRange(minFrom, minTo);
+        matches.and(index.maxRange(maxFrom, maxTo));
+        return index.toRecordIds(matches);
+    }
+
+    @Override
+    public long countRangeMatches(String markerName, Double minFrom, Double minTo, Double maxFrom, Double maxTo,
+                                  Boolean withTechDeviations) {
+        var index = getIndex(markerName, withTechDeviations);
+        BitSet matches = index.minRange(minFrom, minTo);
+        matches.and(index.maxRange(maxFrom, maxTo));
+        return matches.cardinality();
+    }
+
+    @Override
+    public long estimateRangeMatches(String markerName, RangeBounds bounds, Boolean withTechDeviations) {
+        var index = getIndex(markerName, withTechDeviations);
+        return Math.min(index.minRangeSize(bounds.minFrom(), bounds.minTo()),
+                index.maxRangeSize(bounds.maxFrom(), bounds.maxTo()));
+    }
+
+    @Override
+    public Set<String> probeRangeMatches(String markerName, RangeBounds bounds, Boolean withTechDeviations,
+                                         Collection<String> recordIds) {
+        var matches = searchForRangeMatches(markerName, bounds.minFrom(), bounds.minTo(), bounds.maxFrom(),
+                bounds.maxTo(), withTechDeviations);
+        Set<String> result = new HashSet<>();
+        recordIds.stream().filter(matches::contains).forEach(result::add);
+        return result;
+    }
+
+    @Override
+    public List<ScoredRecordId> searchForRangePage(String markerName, Double minFrom, Double minTo, Double maxFrom,
+                                                   Double maxTo, Boolean withTechDeviations, RangePageRequest page) {
+        var index = getIndex(markerName, withTechDeviations);
+        if (page.sortByMax()) {
+            return index.page(page, maxFrom, maxTo, index.minRange(minFrom, minTo));
+        }
+        return index.page(page, minFrom, minTo, index.maxRange(maxFrom, maxTo));
+    }
+
+    /**
+     * Invalidates the mirrored indexes of the given marker, they are reloaded on the next search.
+     *
+     * @param markerName the name of the marker
+     */
+    public void invalidate(String markerName) {
+        invalidate(markerName, false);
+        invalidate(markerName, true);
+    }
+
+    /**
+     * Invalidates the mirrored indexes of the given markers once per marker, e.g. after a batch of results was written.
+     *
+     * @param markerNames the names of the markers, may contain duplicates
+     */
+    public void invalidate(Collection<String> markerNames) {
+        markerNames.stream().distinct().forEach(this::invalidate);
+    }
+
+    /**
+     * Drops all mirrored indexes, e.g. after the database was flushed.
+     */
+    public void invalidateAll() {
+        generations.replaceAll((markerName, generation) -> generation + 1);
+        indexes.clear();
+    }
+
+    /**
+     * Reports the number of mirrored indexes and entries and their estimated heap footprint.
+     *
+     * @return the mirror statistics
+     */
+    public IndexMirrorStatistics getStatistics() {
+        long entries = 0;
+        long bytes = 0;
+        for (var index : indexes.values()) {
+            entries += index.size();
+            bytes += index.estimatedBytes();
+        }
+        return new IndexMirrorStatistics(enabled, indexes.size(), entries, bytes);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        // channel format: __keyspace@<db>__:marker:<markerName>[:technology]:result:<min|max>
+        var channel = new String(message.getChannel(), StandardCharsets.UTF_8);
+        var key = channel.substring(channel.indexOf("__:") + 3);
+        if (key.contains(PARTITION_KEY_PART)) {
+            return;
+        }
+
+        var markerName = key.substring("marker:".length(), key.length() - ":result:min".length());
+        var withTechDeviations = markerName.endsWith(":technology");
+        invalidate(withTechDeviations
+                ? markerName.substring(0, markerName.length() - ":technology".length())
+                : markerName, withTechDeviations);
+    }
+
+    private void invalidate(String markerName, boolean withTechDeviations) {
+        if (enabled) {
+            generations.merge(key(markerName, withTechDeviations), 1L, Long::sum);
+        }
+    }
+
+    private MarkerIntervalIndex getIndex(String markerName, Boolean withTechDeviations) {
+        var key = key(markerName, withTechDeviations);
+        var index = findCurrentIndex(key);
+        if (index != null) {
+            return index;
+        }
+
+        synchronized (loadLocks.computeIfAbsent(key, k -> new Object())) {
+            // loaded by a concurrent search in the meantime
+            index = findCurrentIndex(key);
+            if (index != null) {
+                return index;
+            }
+
+            // invalidations during the load bump the generation again, so the next search reloads
+            var generation = generations.getOrDefault(key, 0L);
+            index = MarkerIntervalIndex.build(generation,
+                    resultRepository.getAllMinResultsForMarker(markerName, withTechDeviations),
+                    resultRepository.getAllMaxResultsForMarker(markerName, withTechDeviations));
+            indexes.put(key, index);
+            return index;
+        }
+    }
+
+    private MarkerIntervalIndex findCurrentIndex(String key) {
+        var index = indexes.get(key);
+        return index != null && index.getGeneration() == generations.getOrDefault(key, 0L) ? index : null;
+    }
+
+    private static String key(String markerName, Boolean withTechDeviations) {
+        return markerName + (Boolean.TRUE.equals(withTechDeviations) ? ":technology" : "");
+    }
+
+    private void enableKeyspaceNotifications() {
+        try {
+            redisTemplate.execute((RedisCallback<Void>) connection -> {
+                var config = connection.serverCommands().getConfig(KEYSPACE_EVENTS_CONFIG);
+                var current = config == null ? "" : config.getProperty(KEYSPACE_EVENTS_CONFIG, "");
+
+                var updated = new StringBuilder(current);
+                for (var flag : REQUIRED_KEYSPACE_EVENTS.toCharArray()) {
+                    // 'A' is an alias for all event types, but not for the keyspace channel flag
+                    var covered = current.indexOf(flag) >= 0 || (flag != 'K' && current.indexOf('A') >= 0);
+                    if (!covered) {
+                        updated.append(flag);
+                    }
+                }
+
+                if (!updated.toString().equals(current)) {
+                    connection.serverCommands().setConfig(KEYSPACE_EVENTS_CONFIG, updated.toString());
+                }
+                return null;
+            });
+        } catch (DataAccessException e) {
+            LOGGER.warn("Could not enable keyspace notifications, index mirror will not observe writes of other instances", e);
+        }
+    }
+}
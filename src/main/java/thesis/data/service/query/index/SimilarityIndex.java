@@ -0,0 +1,188 @@
+package thesis.data.service.query.index;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import thesis.data.repository.custom.ScoredRecordId;
+import thesis.data.service.RecordOrdinalRegistry;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.IntPredicate;
+
+/**
+ * Nearest neighbour search over the min and max values of several markers.
+ * <p>
+ * The records are compared on the columns of the {@link NumericColumnSnapshot}, so the values of a record are
+ * looked up by its ordinal without hashing.
+ * </p>
+ * <p>
+ * The distance of a record to a marker's searched range is the gap between the range and the range of the
+ * record's result, divided by the spread of all values of the marker and capped at 1. A record without a result
+ * of the marker is at distance 1. The distance of a record is the weighted root mean square of its distances
+ * to all searched markers, so it lies between 0 and 1.
+ * </p>
+ * <p>
+ * The records are compared by brute force with early abandoning: the heaviest markers are compared first and
+ * a record is dropped as soon as its partial distance exceeds the distance of the k-th nearest record found so
+ * far. The records with a result of the heaviest marker are compared before all others, the others are skipped
+ * entirely once their lower bound, the full weight of the heaviest marker, exceeds that distance.
+ * </p>
+ */
+@Component
+public class SimilarityIndex {
+    private final NumericColumnSnapshot columnSnapshot;
+    private final RecordOrdinalRegistry ordinalRegistry;
+
+    @Autowired
+    public SimilarityIndex(NumericColumnSnapshot columnSnapshot, RecordOrdinalRegistry ordinalRegistry) {
+        this.columnSnapshot = columnSnapshot;
+        this.ordinalRegistry = ordinalRegistry;
+    }
+
+    /**
+     * Finds the records nearest to the given ranges of values.
+     *
+     * @param terms              the searched markers and ranges, each marker at most once
+     * @param withTechDeviations whether to compare with the indexes with applied technology deviations
+     * @param limit              the maximum number of records to return
+     * @param excludedRecordIds  the records that are never returned, e.g. the reference record
+     * @return the nearest records scored with their distance, ordered by ascending distance
+     */
+    public List<ScoredRecordId> findNearest(List<SimilarityTerm> terms, boolean withTechDeviations, int limit,
+                                            Collection<String> excludedRecordIds) {
+        // the heaviest markers are compared first, so that records are abandoned as early as possible
+        var sortedTerms = terms.stream()
+                .sorted(Comparator.comparingDouble(SimilarityTerm::weight).reversed())
+                .toList();
+        var columns = columnSnapshot.getColumns(sortedTerms.stream().map(SimilarityTerm::markerName).toList(),
+                withTechDeviations);
+
+        int termCount = sortedTerms.size();
+        NumericColumn[] termColumns = new NumericColumn[termCount];
+        double[] scales = new double[termCount];
+        double totalWeight = 0;
+        int size = 0;
+        for (int i = 0; i < termCount; i++) {
+            termColumns[i] = columns.get(sortedTerms.get(i).markerName());
+            double spread = termColumns[i].highest() - termColumns[i].lowest();
+            scales[i] = spread > 0 && Double.isFinite(spread) ? spread : 1;
+            totalWeight += sortedTerms.get(i).weight();
+            size = Math.max(size, termColumns[i].size());
+        }
+
+        BitSet excluded = new BitSet();
+        if (!excludedRecordIds.isEmpty()) {
+            for (var ordinal : ordinalRegistry.getOrdinals(new ArrayList<>(excludedRecordIds))) {
+                excluded.set(ordinal);
+            }
+        }
+
+        var nearest = new NearestRecords(limit);
+        var primary = termColumns[0];
+        compare(size, ordinal -> primary.isPresent(ordinal) && !excluded.get(ordinal),
+                sortedTerms, termColumns, scales, nearest);
+
+        if (!nearest.isFull() || sortedTerms.get(0).weight() <= nearest.bound()) {
+            compare(size, ordinal -> !primary.isPresent(ordinal) && !excluded.get(ordinal)
+                            && isPresentInAny(termColumns, ordinal),
+                    sortedTerms, termColumns, scales, nearest);
+        }
+
+        List<ScoredRecordId> result = new ArrayList<>();
+        for (var entry : nearest.sorted()) {
+            var recordId = ordinalRegistry.getRecordId(entry.ordinal());
+            if (recordId != null) {
+                result.add(new ScoredRecordId(recordId, Math.sqrt(entry.sum() / totalWeight)));
+            }
+        }
+        return result;
+    }
+
+    private static void compare(int size, IntPredicate candidate, List<SimilarityTerm> terms,
+                                NumericColumn[] termColumns, double[] scales, NearestRecords nearest) {
+        for (int ordinal = 0; ordinal < size; ordinal++) {
+            if (!candidate.test(ordinal)) {
+                continue;
+            }
+
+            double bound = nearest.bound();
+            double sum = 0;
+            int i = 0;
+            for (; i < termColumns.length; i++) {
+                var term = terms.get(i);
+                double distance = distance(termColumns[i], ordinal, term.min(), term.max(), scales[i]);
+                sum += term.weight() * distance * distance;
+                if (sum > bound) {
+                    break;
+                }
+            }
+            if (i == termColumns.length) {
+                nearest.offer(ordinal, sum);
+            }
+        }
+    }
+
+    private static boolean isPresentInAny(NumericColumn[] columns, int ordinal) {
+        for (var column : columns) {
+            if (column.isPresent(ordinal)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // normalized gap between the searched range and the range of the record, missing results count as 1
+    private static double distance(NumericColumn column, int ordinal, double min, double max, double scale) {
+        if (!column.isPresent(ordinal)) {
+            return 1;
+        }
+
+        double distance = Math.max(0.0, Math.max(column.getMin(ordinal) - max, min - column.getMax(ordinal))) / scale;
+        return distance <= 1 ? distance : 1;
+    }
+
+    private record Candidate(int ordinal, double sum) {
+    }
+
+    /**
+     * Bounded max-heap of the nearest records found so far, of records at equal distance the one compared first is kept.
+     */
+    private static final class NearestRecords {
+        private static final Comparator<Candidate> ORDER = Comparator.comparingDouble(Candidate::sum)
+                .thenComparingInt(Candidate::ordinal);
+
+        private final int limit;
+        private final PriorityQueue<Candidate> heap;
+
+        NearestRecords(int limit) {
+            this.limit = limit;
+            this.heap = new PriorityQueue<>(limit + 1, ORDER.reversed());
+        }
+
+        boolean isFull() {
+            return heap.size() >= limit;
+        }
+
+        // the sum a record must not exceed to be among the nearest records
+        double bound() {
+            return isFull() ? heap.peek().sum() : Double.POSITIVE_INFINITY;
+        }
+
+        void offer(int ordinal, double sum) {
+            if (!isFull()) {
+                heap.add(new Candidate(ordinal, sum));
+            } else if (sum < heap.peek().sum()) {
+                heap.poll();
+                heap.add(new Candidate(ordinal, sum));
+            }
+        }
+
+        List<Candidate> sorted() {
+            return heap.stream().sorted(ORDER).toList();
+        }
+    }
+}
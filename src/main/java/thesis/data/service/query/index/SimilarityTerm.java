@@ -0,0 +1,12 @@
+package thesis.data.service.query.index;
+
+/**
+ * One marker of a similarity search, the records are compared with the given range of values.
+ *
+ * @param markerName the name of the marker
+ * @param min        the minimum of the compared range, in the unit of the marker
+ * @param max        the maximum of the compared range, in the unit of the marker
+ * @param weight     the weight of the marker in the distance, positive
+ */
+public record SimilarityTerm(String markerName, double min, double max, double weight) {
+}
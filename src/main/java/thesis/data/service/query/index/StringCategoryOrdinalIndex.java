@@ -0,0 +1,200 @@
+package thesis.data.service.query.index;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import thesis.config.SearchProperties;
+import thesis.data.model.Result;
+import thesis.data.model.StringCategory;
+import thesis.data.repository.ResultRepository;
+import thesis.data.repository.StringCategoryRepository;
+import thesis.utils.EntityUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Ordinal indexes of the string values of the results, per marker and string category.
+ * <p>
+ * Every result with a string value of a category is scored with the position of the value in the category,
+ * so an ordered comparison such as "greater than medium" is a single score range query
+ * instead of one index set query per value of the category.
+ * </p>
+ * <p>
+ * The scores are maintained on every result write and re-scored when the values of a category change.
+ * </p>
+ * <p>
+ * Nothing is written unless {@code search.category-ordinal-index-enabled} is set, ordered comparisons then search
+ * the index sets of the accepted values. After enabling it the existing results are indexed with {@link #rebuild()}.
+ * </p>
+ */
+@Component
+public class StringCategoryOrdinalIndex {
+    private final ResultRepository resultRepository;
+    private final StringCategoryRepository stringCategoryRepository;
+    private final boolean enabled;
+
+    @Autowired
+    public StringCategoryOrdinalIndex(ResultRepository resultRepository, StringCategoryRepository stringCategoryRepository,
+                                      SearchProperties searchProperties) {
+        this.resultRepository = resultRepository;
+        this.stringCategoryRepository = stringCategoryRepository;
+        this.enabled = searchProperties.isCategoryOrdinalIndexEnabled();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Scores the given result with the position of its string value in its category.
+     *
+     * @param result the saved result
+     */
+    public void add(Result result) {
+        if (!enabled || !isIndexable(result)) {
+            return;
+        }
+
+        stringCategoryRepository.findById(result.getStringValueCategory()).ifPresent(category -> {
+            var ordinal = category.getValues().indexOf(result.getStringValue());
+            if (ordinal >= 0) {
+                resultRepository.saveResultCategoryOrdinals(category.getName(), Map.of(getResultId(result), ordinal));
+            }
+        });
+    }
+
+    /**
+     * Removes the given result from the ordinal index of its marker and category.
+     * Must be called with the values the result was indexed with, i.e. before it is modified.
+     *
+     * @param result the result to remove
+     */
+    public void remove(Result result) {
+        if (!enabled || !isIndexable(result)) {
+            return;
+        }
+
+        resultRepository.deleteResultCategoryOrdinals(result.getStringValueCategory(), List.of(getResultId(result)));
+    }
+
+    /**
+     * Re-scores the results of a category after its values changed.
+     * Only the results of values whose position changed are written, results of removed values are unindexed.
+     *
+     * @param category       the category with its new values
+     * @param previousValues the values of the category before the change
+     */
+    public void rescore(StringCategory category, List<String> previousValues) {
+        if (!enabled) {
+            return;
+        }
+
+        var values = category.getValues();
+        for (int ordinal = 0; ordinal < values.size(); ordinal++) {
+            var value = values.get(ordinal);
+            if (previousValues.indexOf(value) == ordinal) {
+                continue;
+            }
+
+            Map<String, Integer> ordinalsByResultId = new HashMap<>();
+            for (var resultId : findResultIds(category.getName(), value)) {
+                ordinalsByResultId.put(resultId, ordinal);
+            }
+            resultRepository.saveResultCategoryOrdinals(category.getName(), ordinalsByResultId);
+        }
+
+        for (var value : previousValues) {
+            if (!values.contains(value)) {
+                resultRepository.deleteResultCategoryOrdinals(category.getName(), findResultIds(category.getName(), value));
+            }
+        }
+    }
+
+    /**
+     * Finds the records of a marker whose string value has a position in the category between the bounds.
+     *
+     * @param markerName the name of the marker
+     * @param category   the string category
+     * @param from       the lowest position, inclusive
+     * @param to         the highest position, inclusive
+     * @return the matching record IDs
+     */
+    public Set<String> findRecordIds(String markerName, StringCategory category, int from, int to) {
+        return resultRepository.searchForCategoryOrdinalMatches(markerName, category.getName(), from, to);
+    }
+
+    /**
+     * Counts the records of a marker whose string value has a position in the category between the bounds.
+     *
+     * @param markerName the name of the marker
+     * @param category   the string category
+     * @param from       the lowest position, inclusive
+     * @param to         the highest position, inclusive
+     * @return the number of matching records
+     */
+    public long count(String markerName, StringCategory category, int from, int to) {
+        return resultRepository.countCategoryOrdinalMatches(markerName, category.getName(), from, to);
+    }
+
+    /**
+     * Checks which of the given records have a string value with a position in the category between the bounds.
+     *
+     * @param markerName the name of the marker
+     * @param category   the string category
+     * @param from       the lowest position, inclusive
+     * @param to         the highest position, inclusive
+     * @param recordIds  the candidate record IDs
+     * @return the subset of the candidate record IDs that match
+     */
+    public Set<String> probeRecordIds(String markerName, StringCategory category, int from, int to,
+                                      Collection<String> recordIds) {
+        return resultRepository.probeCategoryOrdinalMatches(markerName, category.getName(), from, to, recordIds);
+    }
+
+    /**
+     * Deletes all ordinal indexes and indexes all existing results again.
+     * Results written while the rebuild runs may have to be indexed again.
+     *
+     * @return the number of indexed results
+     */
+    public long rebuild() {
+        resultRepository.deleteAllCategoryOrdinals();
+
+        Map<String, List<String>> valuesByCategory = new HashMap<>();
+        stringCategoryRepository.findAll().forEach(category -> valuesByCategory.put(category.getName(), category.getValues()));
+
+        long[] count = {0};
+        resultRepository.streamAllResults(chunk -> {
+            Map<String, Map<String, Integer>> ordinalsByCategory = new HashMap<>();
+            for (var result : chunk) {
+                var values = isIndexable(result) ? valuesByCategory.get(result.getStringValueCategory()) : null;
+                var ordinal = values == null ? -1 : values.indexOf(result.getStringValue());
+                if (ordinal >= 0) {
+                    ordinalsByCategory.computeIfAbsent(result.getStringValueCategory(), k -> new HashMap<>())
+                            .put(getResultId(result), ordinal);
+                    count[0]++;
+                }
+            }
+            ordinalsByCategory.forEach(resultRepository::saveResultCategoryOrdinals);
+        });
+        return count[0];
+    }
+
+    private List<String> findResultIds(String categoryName, String value) {
+        var indexedValues = Map.of("stringValue", value, "stringValueCategory", categoryName);
+        return new ArrayList<>(resultRepository.findResultIdsByIndexedValues(indexedValues));
+    }
+
+    private static boolean isIndexable(Result result) {
+        return result.getRecordId() != null && result.getMarkerName() != null
+                && result.getStringValue() != null && result.getStringValueCategory() != null;
+    }
+
+    private static String getResultId(Result result) {
+        return EntityUtils.generateResultId(result.getRecordId(), result.getMarkerName());
+    }
+}
@@ -0,0 +1,187 @@
+package thesis.data.service.query.index;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import thesis.config.SearchProperties;
+import thesis.data.model.Result;
+import thesis.data.repository.ResultRepository;
+import thesis.data.repository.custom.NumericRangeIndex;
+import thesis.data.repository.custom.RangeBounds;
+import thesis.data.repository.custom.RangePageRequest;
+import thesis.data.repository.custom.ScoredRange;
+import thesis.data.repository.custom.ScoredRecordId;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Min and max indexes of the results of a marker partitioned by the technology the results were measured with.
+ * <p>
+ * A numeric search with a technology filter scans the ranges of the partitions of the requested technologies
+ * instead of the indexes of all results, so the matches measured with other technologies are neither read nor
+ * loaded to be filtered out. Every result has one technology, so the partitions of a marker are disjoint.
+ * </p>
+ * <p>
+ * The partitions are written in the same round trip as the indexes of all results. They are only written and read
+ * while {@code search.technology-partition-enabled} is set, data written before has to be indexed with
+ * {@link #rebuild()} first. The index mirror does not cover the partitions.
+ * </p>
+ */
+@Component
+public class TechnologyPartitionIndex {
+    private final ResultRepository resultRepository;
+    private final boolean enabled;
+
+    @Autowired
+    public TechnologyPartitionIndex(ResultRepository resultRepository, SearchProperties searchProperties) {
+        this.resultRepository = resultRepository;
+        this.enabled = searchProperties.isTechnologyPartitionEnabled();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns a range index over the partitions of the given technologies.
+     * A record matches if its result matches in the partition of one of the technologies.
+     *
+     * @param technologyNames the names of the technologies
+     * @return the range index over the union of the partitions
+     */
+    public NumericRangeIndex getRangeIndex(Set<String> technologyNames) {
+        return new UnionRangeIndex(technologyNames.stream().map(resultRepository::getTechnologyPartition).toList());
+    }
+
+    /**
+     * Deletes all partitions and builds them again from the indexes of all results.
+     * The scores are copied, so the partitions with applied technology deviations match the indexes exactly.
+     * Results written while the rebuild runs may have to be indexed again.
+     *
+     * @return the number of indexed results
+     */
+    public long rebuild() {
+        resultRepository.deleteAllTechnologyPartitions();
+
+        long[] count = {0};
+        resultRepository.streamAllResults(chunk -> {
+            Map<String, Map<String, String>> technologiesByMarker = new HashMap<>();
+            chunk.stream()
+                    .filter(TechnologyPartitionIndex::isIndexable)
+                    .forEach(result -> technologiesByMarker.computeIfAbsent(result.getMarkerName(), k -> new HashMap<>())
+                            .put(result.getRecordId(), result.getTechnologyName()));
+
+            technologiesByMarker.forEach((markerName, technologies) -> {
+                for (var withTechDeviations : List.of(false, true)) {
+                    var ranges = resultRepository.getSearchIndexRanges(List.of(markerName), withTechDeviations,
+                            technologies.keySet()).get(markerName);
+                    Map<String, Map<String, ScoredRange>> rangesByTechnology = new HashMap<>();
+                    ranges.forEach((recordId, range) -> rangesByTechnology
+                            .computeIfAbsent(technologies.get(recordId), k -> new HashMap<>()).put(recordId, range));
+                    rangesByTechnology.forEach((technologyName, technologyRanges) -> resultRepository
+                            .saveTechnologyPartitionRanges(markerName, technologyName, withTechDeviations, technologyRanges));
+                    if (!withTechDeviations) {
+                        count[0] += ranges.size();
+                    }
+                }
+            });
+        });
+        return count[0];
+    }
+
+    private static boolean isIndexable(Result result) {
+        return result.getRecordId() != null && result.getMarkerName() != null && result.getTechnologyName() != null
+                && result.getStringValue() == null && result.getBooleanValue() == null;
+    }
+
+    /**
+     * Answers range queries on several disjoint partitions: matches are united and counts are added up.
+     */
+    private static final class UnionRangeIndex implements NumericRangeIndex {
+        private final List<NumericRangeIndex> partitions;
+
+        private UnionRangeIndex(List<NumericRangeIndex> partitions) {
+            this.partitions = partitions;
+        }
+
+        @Override
+        public Set<String> searchForMinimumMatches(String markerName, Double min, Double max, Boolean withTechDeviations) {
+            Set<String> matches = new HashSet<>();
+            partitions.forEach(partition ->
+                    matches.addAll(partition.searchForMinimumMatches(markerName, min, max, withTechDeviations)));
+            return matches;
+        }
+
+        @Override
+        public Set<String> searchForMaximumMatches(String markerName, Double min, Double max, Boolean withTechDeviations) {
+            Set<String> matches = new HashSet<>();
+            partitions.forEach(partition ->
+                    matches.addAll(partition.searchForMaximumMatches(markerName, min, max, withTechDeviations)));
+            return matches;
+        }
+
+        @Override
+        public Set<String> searchForRangeMatches(String markerName, Double minFrom, Double minTo, Double maxFrom,
+                                                 Double maxTo, Boolean withTechDeviations) {
+            Set<String> matches = new HashSet<>();
+            partitions.forEach(partition -> matches.addAll(
+                    partition.searchForRangeMatches(markerName, minFrom, minTo, maxFrom, maxTo, withTechDeviations)));
+            return matches;
+        }
+
+        @Override
+        public long countRangeMatches(String markerName, Double minFrom, Double minTo, Double maxFrom, Double maxTo,
+                                      Boolean withTechDeviations) {
+            long count = 0;
+            for (var partition : partitions) {
+                count += partition.countRangeMatches(markerName, minFrom, minTo, maxFrom, maxTo, withTechDeviations);
+            }
+            return count;
+        }
+
+        @Override
+        public long estimateRangeMatches(String markerName, RangeBounds bounds, Boolean withTechDeviations) {
+            long estimate = 0;
+            for (var partition : partitions) {
+                estimate += partition.estimateRangeMatches(markerName, bounds, withTechDeviations);
+            }
+            return estimate;
+        }
+
+        @Override
+        public Set<String> probeRangeMatches(String markerName, RangeBounds bounds, Boolean withTechDeviations,
+                                             Collection<String> recordIds) {
+            Set<String> remaining = new HashSet<>(recordIds);
+            Set<String> matches = new HashSet<>();
+            for (var partition : partitions) {
+                if (remaining.isEmpty()) {
+                    break;
+                }
+                var partitionMatches = partition.probeRangeMatches(markerName, bounds, withTechDeviations, remaining);
+                remaining.removeAll(partitionMatches);
+                matches.addAll(partitionMatches);
+            }
+            return matches;
+        }
+
+        // every partition returns its first entries of the page, the first entries of all of them form the page
+        @Override
+        public List<ScoredRecordId> searchForRangePage(String markerName, Double minFrom, Double minTo, Double maxFrom,
+                                                       Double maxTo, Boolean withTechDeviations, RangePageRequest page) {
+            List<ScoredRecordId> entries = new ArrayList<>();
+            partitions.forEach(partition -> entries.addAll(
+                    partition.searchForRangePage(markerName, minFrom, minTo, maxFrom, maxTo, withTechDeviations, page)));
+
+            Comparator<ScoredRecordId> order = Comparator.comparingDouble(ScoredRecordId::score)
+                    .thenComparing(ScoredRecordId::recordId);
+            entries.sort(page.descending() ? order.reversed() : order);
+            return entries.size() > page.limit() ? new ArrayList<>(entries.subList(0, page.limit())) : entries;
+        }
+    }
+}
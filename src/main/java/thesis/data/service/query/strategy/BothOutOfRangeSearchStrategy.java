@@ -1,37 +1,73 @@
 package thesis.data.service.query.strategy;
 
-import thesis.data.repository.ResultRepository;
-import thesis.utils.SetUtils;
+import thesis.data.repository.custom.NumericRangeIndex;
+import thesis.data.repository.custom.RangeBounds;
+import thesis.data.repository.custom.RangePageRequest;
+import thesis.data.repository.custom.ScoredRecordId;
 
+import java.util.List;
 import java.util.Set;
 
 /**
  * This class implements the NumericSearchStrategy interface for searching results
  * when both minimum and maximum values are out of range.
  * <p>
- * It uses the ResultRepository to perform the search operations.
+ * It uses the NumericRangeIndex to perform the search operations.
  * </p>
  */
 public class BothOutOfRangeSearchStrategy implements NumericSearchStrategy {
-    private final ResultRepository resultRepository;
+    private final NumericRangeIndex rangeIndex;
 
-    public BothOutOfRangeSearchStrategy(ResultRepository resultRepository) {
-        this.resultRepository = resultRepository;
+    public BothOutOfRangeSearchStrategy(NumericRangeIndex rangeIndex) {
+        this.rangeIndex = rangeIndex;
     }
 
     @Override
     public Set<String> search(String markerName, Double min, Double max, Boolean useTechnologyDeviations) {
-        var minMatches = resultRepository.searchForMinimumMatches(markerName, Double.NEGATIVE_INFINITY, min - Math.ulp(min), useTechnologyDeviations);
-        var maxMatches = resultRepository.searchForMaximumMatches(markerName, max + Math.ulp(max), Double.POSITIVE_INFINITY, useTechnologyDeviations);
-
-        return SetUtils.getIntersection(minMatches, maxMatches);
+        return rangeIndex.searchForRangeMatches(markerName, Double.NEGATIVE_INFINITY, min - Math.ulp(min),
+                max + Math.ulp(max), Double.POSITIVE_INFINITY, useTechnologyDeviations);
     }
 
     @Override
     public Set<String> searchWithTolerance(String markerName, Double min, Double max, Double minWithTolerance, Double maxWithTolerance, Boolean useTechnologyDeviations) {
-        var minimumMatches = resultRepository.searchForMinimumMatches(markerName, minWithTolerance, min - Math.ulp(min), useTechnologyDeviations);
-        var maximumMatches = resultRepository.searchForMaximumMatches(markerName, max + Math.ulp(max), maxWithTolerance, useTechnologyDeviations);
+        return rangeIndex.searchForRangeMatches(markerName, minWithTolerance, min - Math.ulp(min),
+                max + Math.ulp(max), maxWithTolerance, useTechnologyDeviations);
+    }
+
+    @Override
+    public List<ScoredRecordId> searchPage(String markerName, Double min, Double max, Boolean useTechnologyDeviations,
+                                           RangePageRequest page) {
+        return rangeIndex.searchForRangePage(markerName, Double.NEGATIVE_INFINITY, min - Math.ulp(min),
+                max + Math.ulp(max), Double.POSITIVE_INFINITY, useTechnologyDeviations, page);
+    }
+
+    @Override
+    public List<ScoredRecordId> searchPageWithTolerance(String markerName, Double min, Double max, Double minWithTolerance,
+                                                        Double maxWithTolerance, Boolean useTechnologyDeviations,
+                                                        RangePageRequest page) {
+        return rangeIndex.searchForRangePage(markerName, minWithTolerance, min - Math.ulp(min),
+                max + Math.ulp(max), maxWithTolerance, useTechnologyDeviations, page);
+    }
+
+    @Override
+    public long count(String markerName, Double min, Double max, Boolean useTechnologyDeviations) {
+        return rangeIndex.countRangeMatches(markerName, Double.NEGATIVE_INFINITY, min - Math.ulp(min),
+                max + Math.ulp(max), Double.POSITIVE_INFINITY, useTechnologyDeviations);
+    }
+
+    @Override
+    public long countWithTolerance(String markerName, Double min, Double max, Double minWithTolerance, Double maxWithTolerance, Boolean useTechnologyDeviations) {
+        return rangeIndex.countRangeMatches(markerName, minWithTolerance, min - Math.ulp(min),
+                max + Math.ulp(max), maxWithTolerance, useTechnologyDeviations);
+    }
 
-        return SetUtils.getIntersection(minimumMatches, maximumMatches);
+    @Override
+    public RangeBounds getBounds(Double min, Double max) {
+        return new RangeBounds(Double.NEGATIVE_INFINITY, min - Math.ulp(min), max + Math.ulp(max), Double.POSITIVE_INFINITY);
+    }
+
+    @Override
+    public RangeBounds getBoundsWithTolerance(Double min, Double max, Double minWithTolerance, Double maxWithTolerance) {
+        return new RangeBounds(minWithTolerance, min - Math.ulp(min), max + Math.ulp(max), maxWithTolerance);
     }
 }
@@ -1,34 +1,67 @@
 package thesis.data.service.query.strategy;
 
-import thesis.data.repository.ResultRepository;
+import thesis.data.repository.custom.NumericRangeIndex;
+import thesis.data.repository.custom.RangeBounds;
+import thesis.data.repository.custom.RangePageRequest;
+import thesis.data.repository.custom.ScoredRecordId;
 import thesis.exceptions.BadRequestException;
-import thesis.utils.SetUtils;
 
+import java.util.List;
 import java.util.Set;
 
 /**
  * This class implements the NumericSearchStrategy interface for performing exact match searches.
  * <p>
- * It uses the ResultRepository to search for results that match the given numeric range exactly.
+ * It uses the NumericRangeIndex to search for results that match the given numeric range exactly.
  * </p>
  */
 public class ExactMatchSearchStrategy implements NumericSearchStrategy {
-    private final ResultRepository resultRepository;
+    private final NumericRangeIndex rangeIndex;
 
-    public ExactMatchSearchStrategy(ResultRepository resultRepository) {
-        this.resultRepository = resultRepository;
+    public ExactMatchSearchStrategy(NumericRangeIndex rangeIndex) {
+        this.rangeIndex = rangeIndex;
     }
 
     @Override
     public Set<String> search(String markerName, Double min, Double max, Boolean useTechnologyDeviations) {
-        var minimumMatches = resultRepository.searchForMinimumMatches(markerName, min, max, useTechnologyDeviations);
-        var maximumMatches = resultRepository.searchForMaximumMatches(markerName, min, max, useTechnologyDeviations);
-
-        return SetUtils.getIntersection(minimumMatches, maximumMatches);
+        return rangeIndex.searchForRangeMatches(markerName, min, max, min, max, useTechnologyDeviations);
     }
 
     @Override
     public Set<String> searchWithTolerance(String markerName, Double min, Double max, Double minWithTolerance, Double maxWithTolerance, Boolean useTechnologyDeviations) {
         throw new BadRequestException("Exact match search is not supported for numeric search with tolerance");
     }
+
+    @Override
+    public List<ScoredRecordId> searchPage(String markerName, Double min, Double max, Boolean useTechnologyDeviations,
+                                           RangePageRequest page) {
+        return rangeIndex.searchForRangePage(markerName, min, max, min, max, useTechnologyDeviations, page);
+    }
+
+    @Override
+    public List<ScoredRecordId> searchPageWithTolerance(String markerName, Double min, Double max, Double minWithTolerance,
+                                                        Double maxWithTolerance, Boolean useTechnologyDeviations,
+                                                        RangePageRequest page) {
+        throw new BadRequestException("Exact match search is not supported for numeric search with tolerance");
+    }
+
+    @Override
+    public long count(String markerName, Double min, Double max, Boolean useTechnologyDeviations) {
+        return rangeIndex.countRangeMatches(markerName, min, max, min, max, useTechnologyDeviations);
+    }
+
+    @Override
+    public long countWithTolerance(String markerName, Double min, Double max, Double minWithTolerance, Double maxWithTolerance, Boolean useTechnologyDeviations) {
+        throw new BadRequestException("Exact match search is not supported for numeric search with tolerance");
+    }
+
+    @Override
+    public RangeBounds getBounds(Double min, Double max) {
+        return new RangeBounds(min, max, min, max);
+    }
+
+    @Override
+    public RangeBounds getBoundsWithTolerance(Double min, Double max, Double minWithTolerance, Double maxWithTolerance) {
+        throw new BadRequestException("Exact match search is not supported for numeric search with tolerance");
+    }
 }
@@ -1,5 +1,10 @@
 package thesis.data.service.query.strategy;
 
+import thesis.data.repository.custom.RangeBounds;
+import thesis.data.repository.custom.RangePageRequest;
+import thesis.data.repository.custom.ScoredRecordId;
+
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -33,4 +38,79 @@ public interface NumericSearchStrategy {
      * @return a set of record IDs that match the criteria
      */
     Set<String> searchWithTolerance(String markerName, Double min, Double max, Double minWithTolerance, Double maxWithTolerance, Boolean useTechnologyDeviations);
+
+    /**
+     * Searches for one page of results based on the given marker name, minimum and maximum values.
+     *
+     * @param markerName            the name of the marker
+     * @param min                   the minimum value
+     * @param max                   the maximum value
+     * @param useTechnologyDeviations whether to include technology deviations
+     * @param page                  the order, start position and size of the page
+     * @return the record IDs of the page with their score in the sorted index
+     */
+    List<ScoredRecordId> searchPage(String markerName, Double min, Double max, Boolean useTechnologyDeviations,
+                                    RangePageRequest page);
+
+    /**
+     * Searches for one page of results based on the given marker name, minimum and maximum values with tolerance.
+     *
+     * @param markerName            the name of the marker
+     * @param min                   the minimum value
+     * @param max                   the maximum value
+     * @param minWithTolerance      the minimum value with tolerance
+     * @param maxWithTolerance      the maximum value with tolerance
+     * @param useTechnologyDeviations whether to include technology deviations
+     * @param page                  the order, start position and size of the page
+     * @return the record IDs of the page with their score in the sorted index
+     */
+    List<ScoredRecordId> searchPageWithTolerance(String markerName, Double min, Double max, Double minWithTolerance,
+                                                 Double maxWithTolerance, Boolean useTechnologyDeviations,
+                                                 RangePageRequest page);
+
+    /**
+     * Counts results based on the given marker name, minimum and maximum values without retrieving their record IDs.
+     *
+     * @param markerName            the name of the marker
+     * @param min                   the minimum value
+     * @param max                   the maximum value
+     * @param useTechnologyDeviations whether to include technology deviations
+     * @return the number of record IDs that match the criteria
+     */
+    long count(String markerName, Double min, Double max, Boolean useTechnologyDeviations);
+
+    /**
+     * Counts results based on the given marker name, minimum and maximum values with tolerance
+     * without retrieving their record IDs.
+     *
+     * @param markerName            the name of the marker
+     * @param min                   the minimum value
+     * @param max                   the maximum value
+     * @param minWithTolerance      the minimum value with tolerance
+     * @param maxWithTolerance      the maximum value with tolerance
+     * @param useTechnologyDeviations whether to include technology deviations
+     * @return the number of record IDs that match the criteria
+     */
+    long countWithTolerance(String markerName, Double min, Double max, Double minWithTolerance, Double maxWithTolerance,
+                            Boolean useTechnologyDeviations);
+
+    /**
+     * Returns the ranges the minimum and maximum of a result have to fall into to match the given values.
+     *
+     * @param min                   the minimum value
+     * @param max                   the maximum value
+     * @return the ranges for the minimum and maximum value
+     */
+    RangeBounds getBounds(Double min, Double max);
+
+    /**
+     * Returns the ranges the minimum and maximum of a result have to fall into to match the given values with tolerance.
+     *
+     * @param min                   the minimum value
+     * @param max                   the maximum value
+     * @param minWithTolerance      the minimum value with tolerance
+     * @param maxWithTolerance      the maximum value with tolerance
+     * @return the ranges for the minimum and maximum value
+     */
+    RangeBounds getBoundsWithTolerance(Double min, Double max, Double minWithTolerance, Double maxWithTolerance);
 }
@@ -9,6 +9,11 @@ import java.util.Set;
 public abstract class MarkerBaseValidator implements BaseValidator<Marker> {
     @Override
     public void validate(Marker marker) {
+        // the marker name is the part of a result ID after the last ':', see EntityUtils.extractMarkerName
+        if (marker.getName() != null && marker.getName().contains(":")) {
+            throw new ValidationException("Marker name must not contain ':'", marker);
+        }
+
         if (marker.getChildMarkerNames() != null && marker.getChildMarkerNames().isEmpty()) {
             throw new ValidationException("childMarkerNames must be null or not empty", marker);
         }
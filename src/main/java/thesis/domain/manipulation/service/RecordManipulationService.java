@@ -9,6 +9,7 @@ import thesis.data.service.ResultService;
 import thesis.data.validation.database.RecordDatabaseValidator;
 import thesis.domain.manipulation.dto.RecordUpdateDto;
 import thesis.exceptions.EntityNotFoundException;
+import thesis.utils.ChunkProducer;
 
 @Service
 public class RecordManipulationService extends BaseEntityManipulationService<Record> {
@@ -27,6 +28,10 @@ public class RecordManipulationService extends BaseEntityManipulationService<Rec
         this.recordMapper = recordMapper;
     }
 
+    public ChunkProducer<Record> streamAll() {
+        return recordService.streamAll();
+    }
+
     /**
      * Deletes a record and all its results.
      *
@@ -38,8 +43,7 @@ public class RecordManipulationService extends BaseEntityManipulationService<Rec
             throw new EntityNotFoundException("Record with id '" + id + "' not found");
         }
 
-        resultService.getResultsByRecordId(id)
-                .forEach(result -> resultService.delete(result.getId()));
+        resultService.deleteAll(resultService.getResultIdsByRecordId(id));
         delete(id);
     }
 
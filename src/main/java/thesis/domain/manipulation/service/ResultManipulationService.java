@@ -9,6 +9,7 @@ import thesis.data.service.ResultService;
 import thesis.data.validation.database.ResultDatabaseValidator;
 import thesis.domain.manipulation.dto.ResultCreateDto;
 import thesis.domain.manipulation.dto.ResultUpdateDto;
+import thesis.utils.ChunkProducer;
 
 import java.util.List;
 
@@ -33,6 +34,10 @@ public class ResultManipulationService extends BaseEntityManipulationService<Res
         return resultService.getResultsByRecordId(recordId);
     }
 
+    public ChunkProducer<Result> streamAll() {
+        return resultService.streamAll();
+    }
+
     /**
      * Updates an existing result with the given ID using the provided ResultUpdateDto.
      *
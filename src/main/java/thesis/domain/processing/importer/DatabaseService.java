@@ -49,7 +49,9 @@ public class DatabaseService {
 
         var recordIdMap = saveRecordsAndReturnIdMap(dataSet);
         updateResultIds(dataSet, recordIdMap);
-        saveEntities(dataSet.getResults(), resultService::save);
+        if (isNotEmpty(dataSet.getResults())) {
+            resultService.saveAll(dataSet.getResults());
+        }
     }
 
     private <T> void saveEntities(List<T> entities, Consumer<T> saveFunction) {
@@ -0,0 +1,59 @@
+package thesis.domain.search.cache;
+
+/**
+ * Statistics describing the size and the hit rate of the search result cache.
+ */
+public class SearchCacheStatistics {
+    private final boolean enabled;
+    private final int size;
+    private final int maxSize;
+    private final long hitCount;
+    private final long missCount;
+    private final long staleCount;
+    private final long evictionCount;
+
+    public SearchCacheStatistics(boolean enabled, int size, int maxSize, long hitCount, long missCount, long staleCount,
+                                 long evictionCount) {
+        this.enabled = enabled;
+        this.size = size;
+        this.maxSize = maxSize;
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.staleCount = staleCount;
+        this.evictionCount = evictionCount;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    // misses include the stale entries that were found but computed from older versions
+    public long getMissCount() {
+        return missCount;
+    }
+
+    public long getStaleCount() {
+        return staleCount;
+    }
+
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    public double getHitRate() {
+        var lookups = hitCount + missCount;
+        return lookups == 0 ? 0 : (double) hitCount / lookups;
+    }
+}
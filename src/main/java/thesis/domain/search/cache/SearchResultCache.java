@@ -0,0 +1,176 @@
+package thesis.domain.search.cache;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import thesis.config.SearchProperties;
+import thesis.data.service.SearchVersionRegistry;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache of search results, evicting the least recently used entry when it is full.
+ * <p>
+ * Entries are keyed by the kind of the search and a canonical form of its options, in which properties are
+ * sorted and the criteria lists of an advanced search, which are a conjunction, are ordered. Every entry stores
+ * the versions of the markers it was computed from, see {@link SearchVersionRegistry}. A lookup reads the
+ * current versions in one round trip and only serves the entry if they are unchanged, so a write to one marker
+ * never invalidates the cached searches of other markers and a stale entry is never served.
+ * </p>
+ * <p>
+ * Cached values are shared between callers and must not be modified.
+ * </p>
+ */
+@Component
+public class SearchResultCache {
+    // properties whose arrays are unordered, their elements are sorted in the cache key
+    private static final Set<String> UNORDERED_PROPERTIES = Set.of("numericOptions", "stringOptions", "boolOptions");
+
+    private final SearchVersionRegistry versionRegistry;
+    private final int maxSize;
+    private final ObjectMapper keyMapper = JsonMapper.builder()
+            .addModule(new JavaTimeModule())
+            .enable(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY)
+            .enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS)
+            .serializationInclusion(JsonInclude.Include.NON_NULL)
+            .build();
+
+    // access ordered, iteration starts at the least recently used entry
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder staleMisses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    @Autowired
+    public SearchResultCache(SearchVersionRegistry versionRegistry, SearchProperties searchProperties) {
+        this.versionRegistry = versionRegistry;
+        this.maxSize = Math.max(0, searchProperties.getResultCacheSize());
+    }
+
+    public boolean isEnabled() {
+        return maxSize > 0;
+    }
+
+    /**
+     * Returns the cached result of a search if none of the markers it reads changed since it was computed,
+     * otherwise computes and caches it.
+     *
+     * @param kind        the kind of the search, e.g. "numeric", distinguishing searches with equal options
+     * @param options     the options of the search
+     * @param markerNames the markers the result is computed from
+     * @param withRecords whether the result also depends on the set of all records
+     * @param loader      computes the result on a miss
+     * @param <T>         the type of the result
+     * @return the cached or computed result
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String kind, Object options, Collection<String> markerNames, boolean withRecords, Supplier<T> loader) {
+        if (!isEnabled()) {
+            return loader.get();
+        }
+
+        var key = kind + ":" + toKey(options);
+        // the versions are read before the search, a write during the search leaves an entry that is never served
+        var versions = versionRegistry.getVersions(new TreeSet<>(markerNames), withRecords);
+
+        synchronized (entries) {
+            var entry = entries.get(key);
+            if (entry != null && entry.versions().equals(versions)) {
+                hits.increment();
+                return (T) entry.value();
+            }
+            if (entry != null) {
+                staleMisses.increment();
+            }
+        }
+        misses.increment();
+
+        var value = loader.get();
+        synchronized (entries) {
+            entries.put(key, new Entry(versions, value));
+            while (entries.size() > maxSize) {
+                var eldest = entries.keySet().iterator();
+                eldest.next();
+                eldest.remove();
+                evictions.increment();
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Drops all entries, e.g. after the database was flushed.
+     */
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * Reports the number of entries and the hits, misses and evictions since the application started.
+     *
+     * @return the cache statistics
+     */
+    public SearchCacheStatistics getStatistics() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        return new SearchCacheStatistics(isEnabled(), size, maxSize, hits.sum(), misses.sum(), staleMisses.sum(),
+                evictions.sum());
+    }
+
+    private String toKey(Object options) {
+        return canonicalize(keyMapper.valueToTree(options)).toString();
+    }
+
+    private JsonNode canonicalize(JsonNode node) {
+        if (node instanceof ObjectNode object) {
+            object.fields().forEachRemaining(field -> {
+                var value = canonicalize(field.getValue());
+                if (value instanceof ArrayNode array && UNORDERED_PROPERTIES.contains(field.getKey())) {
+                    field.setValue(sorted(array));
+                } else {
+                    field.setValue(value);
+                }
+            });
+        } else if (node instanceof ArrayNode array) {
+            for (int i = 0; i < array.size(); i++) {
+                array.set(i, canonicalize(array.get(i)));
+            }
+        }
+        return node;
+    }
+
+    private ArrayNode sorted(ArrayNode array) {
+        List<JsonNode> elements = new ArrayList<>();
+        array.forEach(elements::add);
+        elements.sort(Comparator.comparing(JsonNode::toString));
+
+        var result = keyMapper.createArrayNode();
+        elements.forEach(result::add);
+        return result;
+    }
+
+    private record Entry(List<Long> versions, Object value) {
+    }
+}
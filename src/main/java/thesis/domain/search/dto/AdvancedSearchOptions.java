@@ -6,6 +6,8 @@ public class AdvancedSearchOptions {
     private List<NumericSearchOptions> numericOptions;
     private List<StringSearchOptions> stringOptions;
     private List<BoolSearchOptions> boolOptions;
+    // combined with the options above by AND
+    private SearchExpression expression;
 
     public List<NumericSearchOptions> getNumericOptions() {
         return numericOptions;
@@ -30,4 +32,12 @@ public class AdvancedSearchOptions {
     public void setBoolOptions(List<BoolSearchOptions> boolOptions) {
         this.boolOptions = boolOptions;
     }
+
+    public SearchExpression getExpression() {
+        return expression;
+    }
+
+    public void setExpression(SearchExpression expression) {
+        this.expression = expression;
+    }
 }
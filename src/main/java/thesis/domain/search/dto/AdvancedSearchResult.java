@@ -0,0 +1,30 @@
+package thesis.domain.search.dto;
+
+import java.util.List;
+import java.util.Set;
+
+public class AdvancedSearchResult {
+    private Set<String> recordIds;
+    private List<SearchPlanStep> plan;
+
+    public AdvancedSearchResult(Set<String> recordIds, List<SearchPlanStep> plan) {
+        this.recordIds = recordIds;
+        this.plan = plan;
+    }
+
+    public Set<String> getRecordIds() {
+        return recordIds;
+    }
+
+    public void setRecordIds(Set<String> recordIds) {
+        this.recordIds = recordIds;
+    }
+
+    public List<SearchPlanStep> getPlan() {
+        return plan;
+    }
+
+    public void setPlan(List<SearchPlanStep> plan) {
+        this.plan = plan;
+    }
+}
@@ -0,0 +1,26 @@
+package thesis.domain.search.dto;
+
+import thesis.data.model.Result;
+
+import java.util.List;
+
+/**
+ * One page of a numeric search, the results or the aggregated results if the marker has children, and the
+ * continuation token of the next page.
+ */
+public class NumericSearchPage extends NumericSearchResult {
+    private String nextCursor;
+
+    public NumericSearchPage(List<Result> results, List<AggregatedResult> aggregatedResults, String nextCursor) {
+        super(results, aggregatedResults);
+        this.nextCursor = nextCursor;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
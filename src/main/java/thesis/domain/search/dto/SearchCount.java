@@ -0,0 +1,27 @@
+package thesis.domain.search.dto;
+
+public class SearchCount {
+    private long count;
+    private boolean exists;
+
+    public SearchCount(long count) {
+        this.count = count;
+        this.exists = count > 0;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    public boolean isExists() {
+        return exists;
+    }
+
+    public void setExists(boolean exists) {
+        this.exists = exists;
+    }
+}
@@ -0,0 +1,58 @@
+package thesis.domain.search.dto;
+
+import thesis.domain.search.dto.enums.SearchExpressionOperator;
+
+import java.util.List;
+
+/**
+ * A node of a boolean search expression.
+ * A node either combines its operands with an operator or is a leaf holding exactly one search option.
+ */
+public class SearchExpression {
+    private SearchExpressionOperator operator;
+    private List<SearchExpression> operands;
+
+    private NumericSearchOptions numericOption;
+    private StringSearchOptions stringOption;
+    private BoolSearchOptions boolOption;
+
+    public SearchExpressionOperator getOperator() {
+        return operator;
+    }
+
+    public void setOperator(SearchExpressionOperator operator) {
+        this.operator = operator;
+    }
+
+    public List<SearchExpression> getOperands() {
+        return operands;
+    }
+
+    public void setOperands(List<SearchExpression> operands) {
+        this.operands = operands;
+    }
+
+    public NumericSearchOptions getNumericOption() {
+        return numericOption;
+    }
+
+    public void setNumericOption(NumericSearchOptions numericOption) {
+        this.numericOption = numericOption;
+    }
+
+    public StringSearchOptions getStringOption() {
+        return stringOption;
+    }
+
+    public void setStringOption(StringSearchOptions stringOption) {
+        this.stringOption = stringOption;
+    }
+
+    public BoolSearchOptions getBoolOption() {
+        return boolOption;
+    }
+
+    public void setBoolOption(BoolSearchOptions boolOption) {
+        this.boolOption = boolOption;
+    }
+}
@@ -0,0 +1,25 @@
+package thesis.domain.search.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import thesis.domain.search.dto.enums.SearchSortOrder;
+
+/**
+ * Paging parameters of a search request.
+ *
+ * @param limit  the maximum number of items of the page
+ * @param cursor the continuation token of the previous page, null for the first page
+ * @param sort   the order of the items, only used by numeric search, defaults to ascending minimum
+ */
+public record SearchPageRequest(
+        @NotNull(message = "Limit must be provided")
+        @Min(value = 1, message = "Limit must be at least 1")
+        @Max(value = 1000, message = "Limit must be at most 1000") Integer limit,
+        String cursor,
+        SearchSortOrder sort
+) {
+    public SearchSortOrder sortOrDefault() {
+        return sort != null ? sort : SearchSortOrder.MIN_ASC;
+    }
+}
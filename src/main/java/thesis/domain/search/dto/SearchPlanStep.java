@@ -0,0 +1,71 @@
+package thesis.domain.search.dto;
+
+import thesis.domain.search.dto.enums.SearchPlanStepType;
+
+public class SearchPlanStep {
+    private String criterion;
+    private Long estimate;
+    private SearchPlanStepType type;
+    private Integer candidates;
+    private Integer matches;
+    // nesting level of the criterion in the search expression, 0 for the criteria combined at the top level
+    private int depth;
+
+    public SearchPlanStep(String criterion, Long estimate, SearchPlanStepType type, Integer candidates, Integer matches,
+                          int depth) {
+        this.criterion = criterion;
+        this.estimate = estimate;
+        this.type = type;
+        this.candidates = candidates;
+        this.matches = matches;
+        this.depth = depth;
+    }
+
+    public String getCriterion() {
+        return criterion;
+    }
+
+    public void setCriterion(String criterion) {
+        this.criterion = criterion;
+    }
+
+    public Long getEstimate() {
+        return estimate;
+    }
+
+    public void setEstimate(Long estimate) {
+        this.estimate = estimate;
+    }
+
+    public SearchPlanStepType getType() {
+        return type;
+    }
+
+    public void setType(SearchPlanStepType type) {
+        this.type = type;
+    }
+
+    public Integer getCandidates() {
+        return candidates;
+    }
+
+    public void setCandidates(Integer candidates) {
+        this.candidates = candidates;
+    }
+
+    public Integer getMatches() {
+        return matches;
+    }
+
+    public void setMatches(Integer matches) {
+        this.matches = matches;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public void setDepth(int depth) {
+        this.depth = depth;
+    }
+}
@@ -0,0 +1,28 @@
+package thesis.domain.search.dto;
+
+public class SimilarRecord {
+    private String recordId;
+    // weighted and normalized distance to the searched values, between 0 and 1
+    private double distance;
+
+    public SimilarRecord(String recordId, double distance) {
+        this.recordId = recordId;
+        this.distance = distance;
+    }
+
+    public String getRecordId() {
+        return recordId;
+    }
+
+    public void setRecordId(String recordId) {
+        this.recordId = recordId;
+    }
+
+    public double getDistance() {
+        return distance;
+    }
+
+    public void setDistance(double distance) {
+        this.distance = distance;
+    }
+}
@@ -0,0 +1,50 @@
+package thesis.domain.search.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+
+import java.util.List;
+
+public class SimilaritySearchOptions {
+    // the record to find similar records of, either a record or values must be provided
+    private String recordId;
+    // the compared markers, defaults to all numeric markers of the reference record
+    private List<@Valid SimilarityValue> values;
+    @Min(value = 1, message = "Limit must be at least 1")
+    @Max(value = 1000, message = "Limit must be at most 1000")
+    private Integer limit;
+    private Boolean useTechnologyDeviation;
+
+    public String getRecordId() {
+        return recordId;
+    }
+
+    public void setRecordId(String recordId) {
+        this.recordId = recordId;
+    }
+
+    public List<SimilarityValue> getValues() {
+        return values;
+    }
+
+    public void setValues(List<SimilarityValue> values) {
+        this.values = values;
+    }
+
+    public Integer getLimit() {
+        return limit;
+    }
+
+    public void setLimit(Integer limit) {
+        this.limit = limit;
+    }
+
+    public Boolean getUseTechnologyDeviation() {
+        return useTechnologyDeviation;
+    }
+
+    public void setUseTechnologyDeviation(Boolean useTechnologyDeviation) {
+        this.useTechnologyDeviation = useTechnologyDeviation;
+    }
+}
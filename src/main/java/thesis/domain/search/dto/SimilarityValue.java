@@ -0,0 +1,76 @@
+package thesis.domain.search.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+public class SimilarityValue {
+    @NotNull(message = "Marker name must be provided")
+    private String markerName;
+    private String unitName;
+    // value, minimum and maximum are taken from the reference record when one is searched
+    private Double value;
+    private Double minimum;
+    private Double maximum;
+    @Positive(message = "Weight must be positive")
+    private Double weight;
+
+    public SimilarityValue() {
+    }
+
+    public SimilarityValue(String markerName, String unitName, Double value, Double minimum, Double maximum, Double weight) {
+        this.markerName = markerName;
+        this.unitName = unitName;
+        this.value = value;
+        this.minimum = minimum;
+        this.maximum = maximum;
+        this.weight = weight;
+    }
+
+    public @NotNull String getMarkerName() {
+        return markerName;
+    }
+
+    public void setMarkerName(@NotNull String markerName) {
+        this.markerName = markerName;
+    }
+
+    public String getUnitName() {
+        return unitName;
+    }
+
+    public void setUnitName(String unitName) {
+        this.unitName = unitName;
+    }
+
+    public Double getValue() {
+        return value;
+    }
+
+    public void setValue(Double value) {
+        this.value = value;
+    }
+
+    public Double getMinimum() {
+        return minimum;
+    }
+
+    public void setMinimum(Double minimum) {
+        this.minimum = minimum;
+    }
+
+    public Double getMaximum() {
+        return maximum;
+    }
+
+    public void setMaximum(Double maximum) {
+        this.maximum = maximum;
+    }
+
+    public Double getWeight() {
+        return weight;
+    }
+
+    public void setWeight(Double weight) {
+        this.weight = weight;
+    }
+}
@@ -0,0 +1,10 @@
+package thesis.domain.search.dto.enums;
+
+public enum SearchExpressionOperator {
+    // all operands have to match
+    AND,
+    // at least one operand has to match
+    OR,
+    // the single operand must not match
+    NOT
+}
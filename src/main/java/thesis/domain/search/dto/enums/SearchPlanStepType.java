@@ -0,0 +1,10 @@
+package thesis.domain.search.dto.enums;
+
+public enum SearchPlanStepType {
+    // all matching record IDs of the criterion are read from the indexes
+    SCAN,
+    // only the remaining candidate record IDs are checked against the criterion
+    PROBE,
+    // the criterion was not evaluated because no candidate was left
+    SKIPPED
+}
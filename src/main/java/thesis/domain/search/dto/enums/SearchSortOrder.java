@@ -0,0 +1,9 @@
+package thesis.domain.search.dto.enums;
+
+public enum SearchSortOrder {
+    MIN_ASC,
+    MIN_DESC,
+    MAX_ASC,
+    MAX_DESC,
+    DISTANCE
+}
@@ -2,32 +2,58 @@ package thesis.domain.search.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import thesis.data.model.Result;
+import thesis.domain.search.cache.SearchResultCache;
 import thesis.domain.search.dto.AdvancedSearchOptions;
-import thesis.domain.search.dto.AggregatedResult;
-import thesis.utils.SetUtils;
+import thesis.domain.search.dto.AdvancedSearchResult;
+import thesis.domain.search.dto.SearchCount;
+import thesis.domain.search.dto.SearchExpression;
+import thesis.domain.search.dto.SearchPage;
+import thesis.domain.search.dto.SearchPageRequest;
+import thesis.domain.search.service.helpers.SearchPagination;
+import thesis.domain.search.service.planner.AdvancedSearchPlanner;
+import thesis.domain.search.service.planner.PlanNode;
+import thesis.domain.search.service.planner.SearchCriterion;
+import thesis.domain.search.service.planner.SubQueryExecutor;
+import thesis.domain.search.validation.SearchExpressionValidator;
 
 import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.concurrent.Callable;
+import java.util.function.Function;
 
 /**
  * Service class for processing advanced search options.
- * It combines results from different search services (numeric, string, and boolean) to provide a comprehensive search result.
+ * It combines the criteria of the different search services (numeric, string, and boolean)
+ * and lets the AdvancedSearchPlanner evaluate them, starting with the most selective criterion.
+ * The option lists are intersected with each other and with the optional boolean expression.
+ * The sub-queries of a search are executed concurrently by the SubQueryExecutor.
+ * The matching record IDs are cached until the results of one of the searched markers or the set of records change.
  */
 @Service
 public class AdvancedSearchService {
     private final NumericSearchService numericSearchService;
     private final StringSearchService stringSearchService;
     private final BoolSearchService boolSearchService;
+    private final AdvancedSearchPlanner planner;
+    private final SubQueryExecutor subQueryExecutor;
+    private final SearchExpressionValidator expressionValidator;
+    private final SearchResultCache resultCache;
 
     @Autowired
     public AdvancedSearchService(NumericSearchService numericSearchService, StringSearchService stringSearchService,
-                                 BoolSearchService boolSearchService) {
+                                 BoolSearchService boolSearchService, AdvancedSearchPlanner planner,
+                                 SubQueryExecutor subQueryExecutor, SearchExpressionValidator expressionValidator,
+                                 SearchResultCache resultCache) {
         this.numericSearchService = numericSearchService;
         this.stringSearchService = stringSearchService;
         this.boolSearchService = boolSearchService;
+        this.planner = planner;
+        this.subQueryExecutor = subQueryExecutor;
+        this.expressionValidator = expressionValidator;
+        this.resultCache = resultCache;
     }
 
     /**
@@ -37,54 +63,141 @@ public class AdvancedSearchService {
      * @return a set of record IDs that match the search criteria
      */
     public Set<String> processAdvancedSearch(AdvancedSearchOptions options) {
-        List<Set<String>> recordIdSets = new ArrayList<>();
+        expressionValidator.validate(options.getExpression());
+        // a NOT is evaluated against all records, so the result also depends on the set of records
+        return resultCache.get("advanced", options, getSearchedMarkerNames(options), true,
+                () -> Set.copyOf(explainAdvancedSearch(options).getRecordIds()));
+    }
 
-        addRecordIdsFromBoolSearch(options, recordIdSets);
-        addRecordIdsFromNumericSearch(options, recordIdSets);
-        addRecordIdsFromStringSearch(options, recordIdSets);
+    /**
+     * Processes the advanced search options and returns the matching record IDs together with the executed plan,
+     * listing for every criterion its estimate, whether it was scanned, probed or skipped, and how many
+     * candidates it received and kept.
+     *
+     * @param options the advanced search options
+     * @return the matching record IDs and the executed plan
+     */
+    public AdvancedSearchResult explainAdvancedSearch(AdvancedSearchOptions options) {
+        return planner.execute(getPlan(options));
+    }
+
+    /**
+     * Processes the advanced search options and returns one page of the matching record IDs, ordered by record ID.
+     *
+     * @param options     the advanced search options
+     * @param pageRequest the size and start position of the page
+     * @return one page of record IDs that match the search criteria
+     */
+    public SearchPage<String> processAdvancedSearch(AdvancedSearchOptions options, SearchPageRequest pageRequest) {
+        return SearchPagination.pageByRecordId(new ArrayList<>(processAdvancedSearch(options)), Function.identity(), pageRequest);
+    }
 
-        return recordIdSets.stream()
-                .reduce(SetUtils::getIntersection)
-                .orElse(Set.of());
+    /**
+     * Processes the advanced search options and counts the matching records.
+     *
+     * @param options the advanced search options
+     * @return the number of record IDs that match all search criteria
+     */
+    public SearchCount countAdvancedSearch(AdvancedSearchOptions options) {
+        return new SearchCount(processAdvancedSearch(options).size());
     }
 
-    private void addRecordIdsFromBoolSearch(AdvancedSearchOptions options, List<Set<String>> recordIdSets) {
+    // criteria are prepared concurrently, preparing a criterion of a marker with children already runs its search
+    private PlanNode getPlan(AdvancedSearchOptions options) {
+        expressionValidator.validate(options.getExpression());
+        List<Callable<SearchCriterion>> tasks = new ArrayList<>();
+
         if (options.getBoolOptions() != null) {
-            options.getBoolOptions().forEach(boolOption -> {
-                List<Result> results = boolSearchService.processBoolSearch(boolOption);
-                recordIdSets.add(results.stream().map(Result::getRecordId).collect(Collectors.toSet()));
-            });
+            options.getBoolOptions().forEach(boolOption -> tasks.add(() -> boolSearchService.prepareCriterion(boolOption)));
         }
+        if (options.getNumericOptions() != null) {
+            options.getNumericOptions().forEach(numericOption -> tasks.add(() -> numericSearchService.prepareCriterion(numericOption)));
+        }
+        if (options.getStringOptions() != null) {
+            options.getStringOptions().forEach(stringOption -> tasks.add(() -> stringSearchService.prepareCriterion(stringOption)));
+        }
+        var listCount = tasks.size();
+        if (options.getExpression() != null) {
+            collectLeaves(options.getExpression(), tasks);
+        }
+
+        var criteria = subQueryExecutor.invokeAll(tasks).iterator();
+        List<PlanNode> operands = new ArrayList<>();
+        for (int i = 0; i < listCount; i++) {
+            operands.add(PlanNode.criterion(criteria.next()));
+        }
+        if (options.getExpression() != null) {
+            operands.add(toPlanNode(options.getExpression(), criteria));
+        }
+        return PlanNode.and(operands);
     }
 
-    private void addRecordIdsFromNumericSearch(AdvancedSearchOptions options, List<Set<String>> recordIdSets) {
+    private Set<String> getSearchedMarkerNames(AdvancedSearchOptions options) {
+        Set<String> markerNames = new LinkedHashSet<>();
         if (options.getNumericOptions() != null) {
-            options.getNumericOptions().forEach(numericOption -> {
-                var numericSearchResult = numericSearchService.processNumericSearch(numericOption);
-
-                Set<String> recordIds;
-
-                if (numericSearchResult.getResults() != null) {
-                    recordIds = numericSearchResult.getResults().stream()
-                            .map(Result::getRecordId)
-                            .collect(Collectors.toSet());
-                } else {
-                    recordIds = numericSearchResult.getAggregatedResults().stream()
-                            .map(AggregatedResult::getRecordId)
-                            .collect(Collectors.toSet());
-                }
-
-                recordIdSets.add(recordIds);
-            });
+            options.getNumericOptions().forEach(numericOption -> addNumericMarkerNames(numericOption.getMarkerName(), markerNames));
+        }
+        if (options.getStringOptions() != null) {
+            options.getStringOptions().forEach(stringOption -> addMarkerName(stringOption.getMarkerName(), markerNames));
+        }
+        if (options.getBoolOptions() != null) {
+            options.getBoolOptions().forEach(boolOption -> addMarkerName(boolOption.getMarkerName(), markerNames));
         }
+        if (options.getExpression() != null) {
+            collectMarkerNames(options.getExpression(), markerNames);
+        }
+        return markerNames;
     }
 
-    private void addRecordIdsFromStringSearch(AdvancedSearchOptions options, List<Set<String>> recordIdSets) {
-        if (options.getStringOptions() != null) {
-            options.getStringOptions().forEach(stringOption -> {
-                List<Result> results = stringSearchService.processStringSearch(stringOption);
-                recordIdSets.add(results.stream().map(Result::getRecordId).collect(Collectors.toSet()));
-            });
+    private void collectMarkerNames(SearchExpression expression, Set<String> markerNames) {
+        if (expression.getOperator() != null) {
+            expression.getOperands().forEach(operand -> collectMarkerNames(operand, markerNames));
+        } else if (expression.getNumericOption() != null) {
+            addNumericMarkerNames(expression.getNumericOption().getMarkerName(), markerNames);
+        } else if (expression.getStringOption() != null) {
+            addMarkerName(expression.getStringOption().getMarkerName(), markerNames);
+        } else {
+            addMarkerName(expression.getBoolOption().getMarkerName(), markerNames);
+        }
+    }
+
+    // a numeric search of a marker with children also reads the results of its descendants
+    private void addNumericMarkerNames(String markerName, Set<String> markerNames) {
+        if (markerName != null && !markerNames.contains(markerName)) {
+            markerNames.addAll(numericSearchService.getSearchedMarkerNames(markerName));
         }
     }
+
+    private static void addMarkerName(String markerName, Set<String> markerNames) {
+        if (markerName != null) {
+            markerNames.add(markerName);
+        }
+    }
+
+    private void collectLeaves(SearchExpression expression, List<Callable<SearchCriterion>> tasks) {
+        if (expression.getOperator() != null) {
+            expression.getOperands().forEach(operand -> collectLeaves(operand, tasks));
+        } else if (expression.getNumericOption() != null) {
+            tasks.add(() -> numericSearchService.prepareCriterion(expression.getNumericOption()));
+        } else if (expression.getStringOption() != null) {
+            tasks.add(() -> stringSearchService.prepareCriterion(expression.getStringOption()));
+        } else {
+            tasks.add(() -> boolSearchService.prepareCriterion(expression.getBoolOption()));
+        }
+    }
+
+    // consumes the prepared criteria in the order in which collectLeaves visited the leaves
+    private PlanNode toPlanNode(SearchExpression expression, Iterator<SearchCriterion> criteria) {
+        if (expression.getOperator() == null) {
+            return PlanNode.criterion(criteria.next());
+        }
+
+        List<PlanNode> operands = new ArrayList<>();
+        expression.getOperands().forEach(operand -> operands.add(toPlanNode(operand, criteria)));
+        return switch (expression.getOperator()) {
+            case AND -> PlanNode.and(operands);
+            case OR -> PlanNode.or(operands);
+            case NOT -> PlanNode.not(operands.get(0));
+        };
+    }
 }
@@ -4,11 +4,21 @@ import org.springframework.stereotype.Service;
 import thesis.data.model.Result;
 import thesis.data.service.MarkerService;
 import thesis.data.service.query.ResultBoolQueryService;
+import thesis.data.service.query.index.ResultFilterIndex;
 import thesis.domain.search.dto.BoolSearchOptions;
+import thesis.domain.search.dto.SearchCount;
+import thesis.domain.search.dto.SearchFilters;
+import thesis.domain.search.dto.SearchPage;
+import thesis.domain.search.dto.SearchPageRequest;
 import thesis.domain.search.service.helpers.ResultFilterUtil;
+import thesis.domain.search.service.helpers.SearchPagination;
 import thesis.domain.search.service.helpers.TechnologyResolver;
+import thesis.domain.search.service.planner.SearchCriterion;
 import thesis.domain.search.validation.BoolSearchValidator;
+import thesis.utils.ChunkProducer;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
@@ -22,13 +32,15 @@ public class BoolSearchService {
     private final MarkerService markerService;
     private final TechnologyResolver technologyResolver;
     private final BoolSearchValidator validator;
+    private final ResultFilterIndex filterIndex;
 
     public BoolSearchService(ResultBoolQueryService resultBoolQueryService, MarkerService markerService,
-                             TechnologyResolver technologyResolver, BoolSearchValidator validator) {
+                             TechnologyResolver technologyResolver, BoolSearchValidator validator, ResultFilterIndex filterIndex) {
         this.resultBoolQueryService = resultBoolQueryService;
         this.markerService = markerService;
         this.technologyResolver = technologyResolver;
         this.validator = validator;
+        this.filterIndex = filterIndex;
     }
 
     /**
@@ -41,14 +53,154 @@ public class BoolSearchService {
         validator.validateOptions(options);
         var marker = markerService.getEntity(options.getMarkerName());
 
-        Set<String> technologyNames = technologyResolver.resolveTechnologyNames(marker.getName(), options.getFilters());
+        var technologyNames = resolveTechnologyNames(options, marker.getName());
+        if (technologyNames == null) {
+            return List.of();
+        }
+
+        if (filterIndex.canFilter(options.getFilters())) {
+            List<Result> results = new ArrayList<>();
+            resultBoolQueryService.streamResultsByIds(getFilteredRecordIds(marker.getName(), options.getValue(), technologyNames,
+                    options.getFilters()), marker.getName()).forEachChunk(results::addAll);
+            return results;
+        }
+
+        return ResultFilterUtil.filterResults(resultBoolQueryService.getAllBoolResults(marker.getName(), options.getValue(), technologyNames), options.getFilters());
+    }
+
+    /**
+     * Processes the boolean search options and returns the matching results as chunks
+     * that are read from Redis only while they are consumed.
+     * The options are validated and the matching result IDs are resolved before this method returns.
+     *
+     * @param options the boolean search options
+     * @return a producer of the results that match the search criteria
+     */
+    public ChunkProducer<Result> streamBoolSearch(BoolSearchOptions options) {
+        validator.validateOptions(options);
+        var marker = markerService.getEntity(options.getMarkerName());
+
+        var technologyNames = resolveTechnologyNames(options, marker.getName());
+        if (technologyNames == null) {
+            return chunkConsumer -> {
+            };
+        }
+
+        if (filterIndex.canFilter(options.getFilters())) {
+            return resultBoolQueryService.streamResultsByIds(getFilteredRecordIds(marker.getName(), options.getValue(),
+                    technologyNames, options.getFilters()), marker.getName());
+        }
+
+        return ResultFilterUtil.filterResults(resultBoolQueryService.streamBoolResults(marker.getName(), options.getValue(), technologyNames), options.getFilters());
+    }
+
+    /**
+     * Processes the boolean search options and counts the matching results.
+     * The count is read from the cardinality of the index sets, sample and timestamp filters are applied
+     * on the record IDs using the filter indexes. Results are only loaded, and not retained,
+     * when sample or timestamp filters are set and the filter indexes are disabled.
+     *
+     * @param options the boolean search options
+     * @return the number of results that match the search criteria
+     */
+    public SearchCount countBoolSearch(BoolSearchOptions options) {
+        validator.validateOptions(options);
+        var marker = markerService.getEntity(options.getMarkerName());
+
+        var technologyNames = resolveTechnologyNames(options, marker.getName());
+        if (technologyNames == null) {
+            return new SearchCount(0);
+        }
+
+        if (filterIndex.canFilter(options.getFilters())) {
+            return new SearchCount(getFilteredRecordIds(marker.getName(), options.getValue(), technologyNames,
+                    options.getFilters()).size());
+        }
+        if (ResultFilterUtil.requiresResults(options.getFilters())) {
+            var results = resultBoolQueryService.streamBoolResults(marker.getName(), options.getValue(), technologyNames);
+            return new SearchCount(ResultFilterUtil.filterResults(results, options.getFilters()).count());
+        }
+        return new SearchCount(resultBoolQueryService.countBoolResults(marker.getName(), options.getValue(), technologyNames));
+    }
+
+    /**
+     * Validates and resolves the boolean search options into a criterion of an advanced search.
+     * The criterion estimates its matches from the cardinality of the index sets and probes candidates
+     * by their membership in the index sets. Results are only loaded for sample and timestamp filters
+     * while the filter indexes are disabled.
+     *
+     * @param options the boolean search options
+     * @return the prepared criterion
+     */
+    public SearchCriterion prepareCriterion(BoolSearchOptions options) {
+        validator.validateOptions(options);
+        var marker = markerService.getEntity(options.getMarkerName());
+        var markerName = marker.getName();
+        var value = options.getValue();
+
+        var technologyNames = resolveTechnologyNames(options, markerName);
+        var description = "bool " + markerName + " = " + value
+                + (technologyNames == null || technologyNames.isEmpty() ? "" : " technologies " + technologyNames)
+                + (ResultFilterUtil.requiresResults(options.getFilters()) ? " filtered" : "");
+        if (technologyNames == null) {
+            return SearchCriterion.of(description, () -> 0, HashSet::new, candidates -> new HashSet<>());
+        }
+
+        if (filterIndex.canFilter(options.getFilters())) {
+            return SearchCriterion.of(description,
+                    () -> resultBoolQueryService.countBoolResults(markerName, value, technologyNames),
+                    () -> getFilteredRecordIds(markerName, value, technologyNames, options.getFilters()),
+                    candidates -> resultBoolQueryService.probeBoolRecordIds(markerName, value, technologyNames,
+                            filterIndex.probeRecordIds(markerName, options.getFilters(), candidates)));
+        }
+
+        if (ResultFilterUtil.requiresResults(options.getFilters())) {
+            return SearchCriterion.of(description,
+                    () -> resultBoolQueryService.countBoolResults(markerName, value, technologyNames),
+                    () -> collectRecordIds(ResultFilterUtil.filterResults(
+                            resultBoolQueryService.streamBoolResults(markerName, value, technologyNames), options.getFilters())),
+                    candidates -> collectRecordIds(ResultFilterUtil.filterResults(resultBoolQueryService.streamResultsByIds(
+                            resultBoolQueryService.probeBoolRecordIds(markerName, value, technologyNames, candidates), markerName),
+                            options.getFilters())));
+        }
+        return SearchCriterion.of(description,
+                () -> resultBoolQueryService.countBoolResults(markerName, value, technologyNames),
+                () -> resultBoolQueryService.getBoolRecordIds(markerName, value, technologyNames),
+                candidates -> resultBoolQueryService.probeBoolRecordIds(markerName, value, technologyNames, candidates));
+    }
+
+    // the sample and timestamp filters are usually more selective than the value, so their matches are probed
+    private Set<String> getFilteredRecordIds(String markerName, Boolean value, Set<String> technologyNames, SearchFilters filters) {
+        return resultBoolQueryService.probeBoolRecordIds(markerName, value, technologyNames,
+                filterIndex.findRecordIds(markerName, filters));
+    }
+
+    private static Set<String> collectRecordIds(ChunkProducer<Result> results) {
+        Set<String> recordIds = new HashSet<>();
+        results.forEachChunk(chunk -> chunk.forEach(result -> recordIds.add(result.getRecordId())));
+        return recordIds;
+    }
+
+    // returns null if no technology satisfies the sensitivity and specificity thresholds
+    private Set<String> resolveTechnologyNames(BoolSearchOptions options, String markerName) {
+        Set<String> technologyNames = technologyResolver.resolveTechnologyNames(markerName, options.getFilters());
         if (options.getMinSpecificity() != null || options.getMinSensitivity() != null) {
-            technologyNames = technologyResolver.resolveTechnologyNamesByThresholds(marker.getName(), options.getMinSensitivity(), options.getMinSpecificity());
+            technologyNames = technologyResolver.resolveTechnologyNamesByThresholds(markerName, options.getMinSensitivity(), options.getMinSpecificity());
             if (technologyNames.isEmpty()) {
-                return List.of();
+                return null;
             }
         }
+        return technologyNames;
+    }
 
-        return ResultFilterUtil.filterResults(resultBoolQueryService.getAllBoolResults(marker.getName(), options.getValue(), technologyNames), options.getFilters());
+    /**
+     * Processes the boolean search options and returns one page of the matching results, ordered by record ID.
+     *
+     * @param options     the boolean search options
+     * @param pageRequest the size and start position of the page
+     * @return one page of results that match the search criteria
+     */
+    public SearchPage<Result> processBoolSearch(BoolSearchOptions options, SearchPageRequest pageRequest) {
+        return SearchPagination.pageByRecordId(processBoolSearch(options), Result::getRecordId, pageRequest);
     }
 }
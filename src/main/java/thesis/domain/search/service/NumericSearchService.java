@@ -3,22 +3,47 @@ package thesis.domain.search.service;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import thesis.data.model.Marker;
+import thesis.data.model.Result;
 import thesis.data.model.Unit;
 import thesis.data.service.MarkerService;
 import thesis.data.service.UnitService;
+import thesis.data.repository.custom.RangePageRequest;
+import thesis.data.repository.custom.ScoredRecordId;
 import thesis.data.service.query.ResultNumericQueryService;
+import thesis.data.service.query.index.AggregatedMarkerIndex;
+import thesis.data.service.query.index.ResultFilterIndex;
+import thesis.data.service.query.index.TechnologyPartitionIndex;
+import thesis.domain.search.cache.SearchResultCache;
+import thesis.domain.search.dto.AggregatedResult;
 import thesis.domain.search.dto.NumericSearchConfiguration;
 import thesis.domain.search.dto.NumericSearchOptions;
+import thesis.domain.search.dto.NumericSearchPage;
 import thesis.domain.search.dto.NumericSearchResult;
+import thesis.domain.search.dto.SearchCount;
+import thesis.domain.search.dto.SearchPage;
+import thesis.domain.search.dto.SearchPageRequest;
+import thesis.domain.search.dto.enums.SearchSortOrder;
 import thesis.domain.search.service.helpers.NumericSearchConfigurationBuilder;
 import thesis.domain.search.service.helpers.ResultFilterUtil;
 import thesis.domain.search.service.helpers.SearchConversionService;
+import thesis.domain.search.service.helpers.SearchPagination;
 import thesis.domain.search.service.helpers.TechnologyResolver;
+import thesis.domain.search.service.planner.SearchCriterion;
 import thesis.domain.search.validation.NumericSearchValidator;
 import thesis.exceptions.BadRequestException;
+import thesis.utils.ChunkProducer;
+import thesis.utils.SetUtils;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.OptionalLong;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * Service class for processing numeric search options.
@@ -36,12 +61,18 @@ public class NumericSearchService {
     private final TechnologyResolver technologyResolver;
     private final NumericSearchValidator validator;
     private final NumericSearchConfigurationBuilder configurationBuilder;
+    private final SearchResultCache resultCache;
+    private final AggregatedMarkerIndex aggregatedIndex;
+    private final ResultFilterIndex filterIndex;
+    private final TechnologyPartitionIndex partitionIndex;
 
     @Autowired
     public NumericSearchService(RecursiveNumericSearchService recursiveNumericSearchService,
                                 ResultNumericQueryService resultService, SearchConversionService searchConversionService,
                                 MarkerService markerService, UnitService unitService, TechnologyResolver technologyResolver,
-                                NumericSearchValidator validator, NumericSearchConfigurationBuilder configurationBuilder) {
+                                NumericSearchValidator validator, NumericSearchConfigurationBuilder configurationBuilder,
+                                SearchResultCache resultCache, AggregatedMarkerIndex aggregatedIndex,
+                                ResultFilterIndex filterIndex, TechnologyPartitionIndex partitionIndex) {
 
         this.recursiveNumericSearchService = recursiveNumericSearchService;
         this.resultService = resultService;
@@ -53,10 +84,15 @@ public class NumericSearchService {
         this.technologyResolver = technologyResolver;
         this.validator = validator;
         this.configurationBuilder = configurationBuilder;
+        this.resultCache = resultCache;
+        this.aggregatedIndex = aggregatedIndex;
+        this.filterIndex = filterIndex;
+        this.partitionIndex = partitionIndex;
     }
 
     /**
      * Processes the numeric search options and returns a NumericSearchResult containing the filtered results.
+     * The result is cached until the results of the marker or of one of its descendants change.
      *
      * @param options the numeric search options
      * @return a NumericSearchResult containing the filtered results
@@ -64,38 +100,459 @@ public class NumericSearchService {
     public NumericSearchResult processNumericSearch(NumericSearchOptions options) {
         validator.validateOptions(options);
 
+        var marker = markerService.getEntity(options.getMarkerName());
+        return resultCache.get("numeric", options, getSearchedMarkerNames(marker), false, () -> {
+            var technologyNames = technologyResolver.resolveTechnologyNames(marker.getName(), options.getFilters());
+            var unit = getUnit(options, marker);
+            var searchConfig = configurationBuilder.getSearchConfiguration(options);
+
+            return getRecordIds(marker, searchConfig, unit, options, technologyNames);
+        });
+    }
+
+    /**
+     * Processes the numeric search options and returns one page of the filtered results.
+     * <p>
+     * Pages ordered by minimum or maximum are read from the search index in sort order,
+     * so only the results of the requested page are loaded. Pages ordered by distance from the
+     * searched value are read from the search index from the searched value outwards, exact matches
+     * before matches within tolerance. Pages of aggregated results of markers with children are sorted in memory.
+     * </p>
+     *
+     * @param options     the numeric search options
+     * @param pageRequest the size, start position and order of the page
+     * @return one page of results, or of aggregated results if the marker has children, and the continuation token
+     * of the next page
+     */
+    public NumericSearchPage processNumericSearch(NumericSearchOptions options, SearchPageRequest pageRequest) {
+        validator.validateOptions(options);
+
         var marker = markerService.getEntity(options.getMarkerName());
         var technologyNames = technologyResolver.resolveTechnologyNames(marker.getName(), options.getFilters());
         var unit = getUnit(options, marker);
         var searchConfig = configurationBuilder.getSearchConfiguration(options);
 
-        return getRecordIds(marker, searchConfig, unit, options, technologyNames);
+        if (marker.getChildMarkerNames() != null) {
+            var aggregatedResults = getRecordIds(marker, searchConfig, unit, options, technologyNames).getAggregatedResults();
+            var page = pageAggregatedResults(aggregatedResults, searchConfig, pageRequest);
+            return new NumericSearchPage(null, page.getItems(), page.getNextCursor());
+        }
+
+        var page = getResultPage(marker, searchConfig, options, technologyNames, pageRequest);
+        return new NumericSearchPage(page.getItems(), null, page.getNextCursor());
     }
 
-    private NumericSearchResult getRecordIds(Marker marker, NumericSearchConfiguration searchConfig, Unit unit,
-                                             NumericSearchOptions options, Set<String> technologyNames) {
+    /**
+     * Processes the numeric search options and returns the filtered results as chunks
+     * that are read from Redis only while they are consumed.
+     * The options are validated and the matching record IDs are resolved before this method returns.
+     *
+     * @param options the numeric search options
+     * @return a producer of the filtered results
+     * @throws BadRequestException if the marker has child markers, aggregated results are not streamed
+     */
+    public ChunkProducer<Result> streamNumericSearch(NumericSearchOptions options) {
+        validator.validateOptions(options);
+
+        var marker = markerService.getEntity(options.getMarkerName());
         if (marker.getChildMarkerNames() != null) {
-            if (options.getFilters() != null) {
-                throw new BadRequestException("Filters are not supported for recursive search");
+            throw new BadRequestException("Streaming is not supported for recursive search");
+        }
+
+        var technologyNames = technologyResolver.resolveTechnologyNames(marker.getName(), options.getFilters());
+        // converts the searched values into the unit of the marker if another unit was requested
+        getUnit(options, marker);
+        var searchConfig = configurationBuilder.getSearchConfiguration(options);
+
+        if (filterIndex.canFilter(options.getFilters())) {
+            var recordIds = retainFilteredRecordIds(searchRecordIds(searchConfig, technologyNames), marker, options,
+                    technologyNames);
+            return resultService.streamResultsByIds(recordIds, marker.getName());
+        }
+
+        var results = resultService.streamResultsByIds(searchRecordIds(searchConfig, technologyNames), marker.getName());
+        return ResultFilterUtil.filterResults(results, options.getFilters(), getFilterTechnologies(technologyNames));
+    }
+
+    /**
+     * Processes the numeric search options and counts the matching results.
+     * <p>
+     * Without filters the count is read from the search index, technology filters are applied
+     * on the record IDs using the technology name index, or are counted on the technology partitions of the
+     * search index when these are enabled. Results are only loaded, and not retained,
+     * when sample or timestamp filters are set and the filter indexes are disabled.
+     * </p>
+     *
+     * @param options the numeric search options
+     * @return the number of matching results, or of aggregated results for markers with children
+     */
+    public SearchCount countNumericSearch(NumericSearchOptions options) {
+        validator.validateOptions(options);
+
+        var marker = markerService.getEntity(options.getMarkerName());
+        return resultCache.get("numeric-count", options, getSearchedMarkerNames(marker), false,
+                () -> countNumericSearch(marker, options));
+    }
+
+    /**
+     * Approximates the number of results matching the numeric search options for previews.
+     * <p>
+     * Searches of markers without children and without filters are approximated from the histograms of the
+     * marker statistics without reading the search index, see
+     * {@link thesis.data.service.query.index.MarkerStatisticsCatalog}. The approximation may undercount.
+     * All other searches, and searches while the statistics are disabled, are counted exactly like
+     * {@link #countNumericSearch(NumericSearchOptions)}.
+     * </p>
+     *
+     * @param options the numeric search options
+     * @return the approximate number of matching results
+     */
+    public SearchCount approximateNumericSearch(NumericSearchOptions options) {
+        validator.validateOptions(options);
+
+        var marker = markerService.getEntity(options.getMarkerName());
+        if (marker.getChildMarkerNames() == null && options.getFilters() == null) {
+            var searchConfig = configurationBuilder.getSearchConfiguration(options);
+            var approximation = approximateRecordIds(searchConfig);
+            if (approximation.isPresent()) {
+                return new SearchCount(approximation.getAsLong());
             }
-            var recursiveResults = recursiveNumericSearchService.getResultsForMarkerWithChildren(searchConfig, marker, unit);
-            return new NumericSearchResult(null, recursiveResults);
+        }
+        return countNumericSearch(options);
+    }
+
+    /**
+     * Returns the names of the given marker and of all its descendants, the results of which
+     * a numeric search of the marker reads.
+     *
+     * @param markerName the name of the marker
+     * @return the names of the marker and its descendants
+     */
+    public Set<String> getSearchedMarkerNames(String markerName) {
+        return getSearchedMarkerNames(markerService.getEntity(markerName));
+    }
+
+    private Set<String> getSearchedMarkerNames(Marker marker) {
+        Set<String> markerNames = new LinkedHashSet<>();
+        markerNames.add(marker.getName());
+        if (marker.getChildMarkerNames() != null) {
+            marker.getChildMarkerNames().stream()
+                    .filter(childName -> !markerNames.contains(childName))
+                    .forEach(childName -> markerNames.addAll(getSearchedMarkerNames(childName)));
+        }
+        return markerNames;
+    }
+
+    private SearchCount countNumericSearch(Marker marker, NumericSearchOptions options) {
+        var technologyNames = technologyResolver.resolveTechnologyNames(marker.getName(), options.getFilters());
+        var unit = getUnit(options, marker);
+        var searchConfig = configurationBuilder.getSearchConfiguration(options);
+
+        if (requiresAggregation(marker, options)) {
+            return new SearchCount(getRecordIds(marker, searchConfig, unit, options, technologyNames).getAggregatedResults().size());
+        }
+
+        if (!ResultFilterUtil.requiresResults(options.getFilters()) && getFilterTechnologies(technologyNames).isEmpty()) {
+            return new SearchCount(countRecordIds(searchConfig, technologyNames));
+        }
+
+        return new SearchCount(filterRecordIds(searchRecordIds(searchConfig, technologyNames), marker, options,
+                technologyNames).size());
+    }
+
+    /**
+     * Validates and resolves the numeric search options into a criterion of an advanced search.
+     * <p>
+     * The criterion estimates its matches from the sizes of the min and max index ranges and probes candidates
+     * by reading their scores. Results are only loaded for sample and timestamp filters while the filter indexes
+     * are disabled, and when probing
+     * only the results of the candidates that passed the range check are loaded. Markers with children
+     * are searched like other markers on their materialized indexes when these are enabled and no filters are set,
+     * otherwise they are searched when the criterion is created, since their filters apply to the child results.
+     * </p>
+     *
+     * @param options the numeric search options
+     * @return the prepared criterion
+     */
+    public SearchCriterion prepareCriterion(NumericSearchOptions options) {
+        validator.validateOptions(options);
+
+        var marker = markerService.getEntity(options.getMarkerName());
+        var technologyNames = technologyResolver.resolveTechnologyNames(marker.getName(), options.getFilters());
+        var unit = getUnit(options, marker);
+        var searchConfig = configurationBuilder.getSearchConfiguration(options);
+        var description = describe(searchConfig, options);
+
+        if (requiresAggregation(marker, options)) {
+            Set<String> recordIds = getRecordIds(marker, searchConfig, unit, options, technologyNames).getAggregatedResults().stream()
+                    .map(AggregatedResult::getRecordId)
+                    .collect(Collectors.toSet());
+            return SearchCriterion.of(description, recordIds::size, () -> new HashSet<>(recordIds),
+                    candidates -> SetUtils.getIntersection(new HashSet<>(candidates), recordIds));
+        }
+
+        return SearchCriterion.of(description,
+                () -> estimateRecordIds(searchConfig, technologyNames),
+                () -> filterRecordIds(searchRecordIds(searchConfig, technologyNames), marker, options, technologyNames),
+                candidates -> probeRecordIds(searchConfig, marker, options, technologyNames, candidates));
+    }
+
+    private Set<String> probeRecordIds(NumericSearchConfiguration searchConfig, Marker marker, NumericSearchOptions options,
+                                       Set<String> technologyNames, Set<String> candidates) {
+        Set<String> recordIds;
+        if (searchConfig.getWithTolerance()) {
+            recordIds = resultService.probeResultsWithTolerance(searchConfig.getMarkerName(), searchConfig.getMinimum(),
+                    searchConfig.getMaximum(), searchConfig.getMinimumWithTolerance(), searchConfig.getMaximumWithTolerance(),
+                    searchConfig.getSearchType(), searchConfig.getUseTechnologyDeviation(), candidates,
+                    getRangeTechnologies(technologyNames));
         } else {
-            Set<String> recordIds;
-            if (searchConfig.getWithTolerance()) {
-                recordIds = resultService.searchResultsWithTolerance(searchConfig.getMarkerName(), searchConfig.getMinimum(),
-                        searchConfig.getMaximum(), searchConfig.getMinimumWithTolerance(),
-                        searchConfig.getMaximumWithTolerance(), searchConfig.getSearchType(), searchConfig.getUseTechnologyDeviation());
+            recordIds = resultService.probeResults(searchConfig.getMarkerName(), searchConfig.getMinimum(),
+                    searchConfig.getMaximum(), searchConfig.getSearchType(), searchConfig.getUseTechnologyDeviation(), candidates,
+                    getRangeTechnologies(technologyNames));
+        }
+
+        var filterTechnologies = getFilterTechnologies(technologyNames);
+        if (!ResultFilterUtil.requiresResults(options.getFilters()) && !filterTechnologies.isEmpty()) {
+            return resultService.probeRecordIdsWithTechnologies(marker.getName(), filterTechnologies, recordIds);
+        }
+        return filterRecordIds(recordIds, marker, options, technologyNames);
+    }
+
+    private Set<String> filterRecordIds(Set<String> recordIds, Marker marker, NumericSearchOptions options,
+                                        Set<String> technologyNames) {
+        var filterTechnologies = getFilterTechnologies(technologyNames);
+        if (filterIndex.canFilter(options.getFilters())) {
+            var filteredRecordIds = filterIndex.probeRecordIds(marker.getName(), options.getFilters(), recordIds);
+            return filterTechnologies.isEmpty()
+                    ? filteredRecordIds
+                    : resultService.probeRecordIdsWithTechnologies(marker.getName(), filterTechnologies, filteredRecordIds);
+        }
+
+        if (ResultFilterUtil.requiresResults(options.getFilters())) {
+            Set<String> filteredRecordIds = new HashSet<>();
+            ResultFilterUtil.filterResults(resultService.streamResultsByIds(recordIds, marker.getName()),
+                            options.getFilters(), filterTechnologies)
+                    .forEachChunk(chunk -> chunk.forEach(result -> filteredRecordIds.add(result.getRecordId())));
+            return filteredRecordIds;
+        }
+
+        if (!filterTechnologies.isEmpty()) {
+            return SetUtils.getIntersection(recordIds, resultService.getRecordIdsWithTechnologies(marker.getName(), filterTechnologies));
+        }
+        return recordIds;
+    }
+
+    // filters the record IDs on the indexes, keeping the order in which they were read from the search index
+    private Set<String> retainFilteredRecordIds(Set<String> recordIds, Marker marker, NumericSearchOptions options,
+                                                Set<String> technologyNames) {
+        var filteredRecordIds = filterRecordIds(recordIds, marker, options, technologyNames);
+        return recordIds.stream()
+                .filter(filteredRecordIds::contains)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    private SearchPage<Result> getResultPage(Marker marker, NumericSearchConfiguration searchConfig, NumericSearchOptions options,
+                                             Set<String> technologyNames, SearchPageRequest pageRequest) {
+        // one more result than requested is collected to know whether another page follows
+        var wanted = pageRequest.limit() + 1;
+        var indexPage = SearchPagination.toRangePageRequest(pageRequest, wanted);
+        List<Result> results = new ArrayList<>();
+        Map<String, ScoredRecordId> positions = new HashMap<>();
+
+        // filters may be applied after loading, so the index is read until enough results passed them
+        while (results.size() < wanted) {
+            var entries = searchPage(searchConfig, pageRequest.sortOrDefault(), indexPage, technologyNames);
+            if (entries.isEmpty()) {
+                break;
+            }
+
+            Set<String> recordIds = new LinkedHashSet<>();
+            entries.forEach(entry -> {
+                recordIds.add(entry.recordId());
+                positions.put(entry.recordId(), entry);
+            });
+
+            if (filterIndex.canFilter(options.getFilters())) {
+                var filteredRecordIds = retainFilteredRecordIds(recordIds, marker, options, technologyNames);
+                results.addAll(resultService.getResultsByIds(filteredRecordIds, marker.getName()));
             } else {
-                recordIds = resultService.searchResults(searchConfig.getMarkerName(), searchConfig.getMinimum(),
-                        searchConfig.getMaximum(), searchConfig.getSearchType(), searchConfig.getUseTechnologyDeviation());
+                var loaded = resultService.getResultsByIds(recordIds, marker.getName());
+                results.addAll(ResultFilterUtil.filterResults(loaded, options.getFilters(), getFilterTechnologies(technologyNames)));
+            }
+
+            if (entries.size() < indexPage.limit()) {
+                break;
+            }
+            indexPage = indexPage.continueAfter(entries.get(entries.size() - 1), wanted - results.size());
+        }
+
+        return SearchPagination.toPage(results, pageRequest.limit(), result -> positions.get(result.getRecordId()));
+    }
+
+    private List<ScoredRecordId> searchPage(NumericSearchConfiguration searchConfig, SearchSortOrder sort,
+                                            RangePageRequest indexPage, Set<String> technologyNames) {
+        var rangeTechnologies = getRangeTechnologies(technologyNames);
+        if (sort == SearchSortOrder.DISTANCE) {
+            return searchNearestPage(searchConfig, indexPage, rangeTechnologies);
+        }
+        if (searchConfig.getWithTolerance()) {
+            return resultService.searchResultsPageWithTolerance(searchConfig.getMarkerName(), searchConfig.getMinimum(),
+                    searchConfig.getMaximum(), searchConfig.getMinimumWithTolerance(), searchConfig.getMaximumWithTolerance(),
+                    searchConfig.getSearchType(), searchConfig.getUseTechnologyDeviation(), indexPage, rangeTechnologies);
+        }
+        return resultService.searchResultsPage(searchConfig.getMarkerName(), searchConfig.getMinimum(),
+                searchConfig.getMaximum(), searchConfig.getSearchType(), searchConfig.getUseTechnologyDeviation(), indexPage,
+                rangeTechnologies);
+    }
+
+    // the index page is read in ascending order of the tier and the distance
+    private List<ScoredRecordId> searchNearestPage(NumericSearchConfiguration searchConfig, RangePageRequest indexPage,
+                                                   Set<String> rangeTechnologies) {
+        var queryPoint = getQueryPoint(searchConfig);
+        if (searchConfig.getWithTolerance()) {
+            return resultService.searchNearestResultsPageWithTolerance(searchConfig.getMarkerName(),
+                    searchConfig.getMinimum(), searchConfig.getMaximum(), searchConfig.getMinimumWithTolerance(),
+                    searchConfig.getMaximumWithTolerance(), searchConfig.getSearchType(),
+                    searchConfig.getUseTechnologyDeviation(), queryPoint, indexPage, rangeTechnologies);
+        }
+        return resultService.searchNearestResultsPage(searchConfig.getMarkerName(), searchConfig.getMinimum(),
+                searchConfig.getMaximum(), searchConfig.getSearchType(), searchConfig.getUseTechnologyDeviation(),
+                queryPoint, indexPage, rangeTechnologies);
+    }
+
+    private SearchPage<AggregatedResult> pageAggregatedResults(List<AggregatedResult> aggregatedResults,
+                                                               NumericSearchConfiguration searchConfig,
+                                                               SearchPageRequest pageRequest) {
+        var sort = pageRequest.sortOrDefault();
+        if (sort == SearchSortOrder.DISTANCE) {
+            var queryPoint = getQueryPoint(searchConfig);
+            return SearchPagination.page(aggregatedResults, AggregatedResult::getRecordId,
+                    result -> getDistance(result.getMin(), result.getMax(), queryPoint), false, pageRequest);
+        }
+
+        var byMax = sort == SearchSortOrder.MAX_ASC || sort == SearchSortOrder.MAX_DESC;
+        var descending = sort == SearchSortOrder.MIN_DESC || sort == SearchSortOrder.MAX_DESC;
+        return SearchPagination.page(aggregatedResults, AggregatedResult::getRecordId,
+                result -> byMax ? result.getMax() : result.getMin(), descending, pageRequest);
+    }
+
+    private double getQueryPoint(NumericSearchConfiguration searchConfig) {
+        var min = searchConfig.getMinimum();
+        var max = searchConfig.getMaximum();
+        if (min.isInfinite() && max.isInfinite()) {
+            throw new BadRequestException("Sorting by distance requires a value, minimum or maximum");
+        }
+        if (min.isInfinite()) {
+            return max;
+        }
+        if (max.isInfinite()) {
+            return min;
+        }
+        return (min + max) / 2;
+    }
+
+    // distance between the searched value and the closest point of the result range
+    private static double getDistance(Double min, Double max, double queryPoint) {
+        return Math.max(0.0, Math.max(min - queryPoint, queryPoint - max));
+    }
+
+    private NumericSearchResult getRecordIds(Marker marker, NumericSearchConfiguration searchConfig, Unit unit,
+                                             NumericSearchOptions options, Set<String> technologyNames) {
+        if (marker.getChildMarkerNames() != null) {
+            // the materialized indexes of aggregated markers are not partitioned, the technologies filter the child results
+            var recursiveResults = aggregatedIndex.isEnabled()
+                    ? recursiveNumericSearchService.getIndexedResults(marker, searchRecordIds(searchConfig, Set.of()),
+                    searchConfig.getUseTechnologyDeviation())
+                    : recursiveNumericSearchService.getResultsForMarkerWithChildren(searchConfig, marker, unit);
+            var filteredResults = recursiveNumericSearchService.filterResults(recursiveResults, options.getFilters(), technologyNames);
+            return new NumericSearchResult(null, filteredResults);
+        } else {
+            var recordIds = searchRecordIds(searchConfig, technologyNames);
+            if (filterIndex.canFilter(options.getFilters())) {
+                var filteredRecordIds = retainFilteredRecordIds(recordIds, marker, options, technologyNames);
+                return new NumericSearchResult(resultService.getResultsByIds(filteredRecordIds, marker.getName()), null);
             }
+
             var results = resultService.getResultsByIds(recordIds, marker.getName());
-            var filteredResults = ResultFilterUtil.filterResults(results, options.getFilters(), technologyNames);
+            var filteredResults = ResultFilterUtil.filterResults(results, options.getFilters(), getFilterTechnologies(technologyNames));
             return new NumericSearchResult(filteredResults, null);
         }
     }
 
+    // markers with children are only searched like other markers on their materialized indexes without filters,
+    // which apply to the child results
+    private boolean requiresAggregation(Marker marker, NumericSearchOptions options) {
+        return marker.getChildMarkerNames() != null && (!aggregatedIndex.isEnabled() || options.getFilters() != null);
+    }
+
+    private Set<String> searchRecordIds(NumericSearchConfiguration searchConfig, Set<String> technologyNames) {
+        var rangeTechnologies = getRangeTechnologies(technologyNames);
+        if (searchConfig.getWithTolerance()) {
+            return resultService.searchResultsWithTolerance(searchConfig.getMarkerName(), searchConfig.getMinimum(),
+                    searchConfig.getMaximum(), searchConfig.getMinimumWithTolerance(),
+                    searchConfig.getMaximumWithTolerance(), searchConfig.getSearchType(), searchConfig.getUseTechnologyDeviation(),
+                    rangeTechnologies);
+        }
+        return resultService.searchResults(searchConfig.getMarkerName(), searchConfig.getMinimum(),
+                searchConfig.getMaximum(), searchConfig.getSearchType(), searchConfig.getUseTechnologyDeviation(),
+                rangeTechnologies);
+    }
+
+    private long countRecordIds(NumericSearchConfiguration searchConfig, Set<String> technologyNames) {
+        var rangeTechnologies = getRangeTechnologies(technologyNames);
+        if (searchConfig.getWithTolerance()) {
+            return resultService.countResultsWithTolerance(searchConfig.getMarkerName(), searchConfig.getMinimum(),
+                    searchConfig.getMaximum(), searchConfig.getMinimumWithTolerance(),
+                    searchConfig.getMaximumWithTolerance(), searchConfig.getSearchType(), searchConfig.getUseTechnologyDeviation(),
+                    rangeTechnologies);
+        }
+        return resultService.countResults(searchConfig.getMarkerName(), searchConfig.getMinimum(),
+                searchConfig.getMaximum(), searchConfig.getSearchType(), searchConfig.getUseTechnologyDeviation(),
+                rangeTechnologies);
+    }
+
+    private OptionalLong approximateRecordIds(NumericSearchConfiguration searchConfig) {
+        if (searchConfig.getWithTolerance()) {
+            return resultService.approximateResultsWithTolerance(searchConfig.getMarkerName(), searchConfig.getMinimum(),
+                    searchConfig.getMaximum(), searchConfig.getMinimumWithTolerance(),
+                    searchConfig.getMaximumWithTolerance(), searchConfig.getSearchType(),
+                    searchConfig.getUseTechnologyDeviation());
+        }
+        return resultService.approximateResults(searchConfig.getMarkerName(), searchConfig.getMinimum(),
+                searchConfig.getMaximum(), searchConfig.getSearchType(), searchConfig.getUseTechnologyDeviation());
+    }
+
+    private long estimateRecordIds(NumericSearchConfiguration searchConfig, Set<String> technologyNames) {
+        var rangeTechnologies = getRangeTechnologies(technologyNames);
+        if (searchConfig.getWithTolerance()) {
+            return resultService.estimateResultsWithTolerance(searchConfig.getMarkerName(), searchConfig.getMinimum(),
+                    searchConfig.getMaximum(), searchConfig.getMinimumWithTolerance(),
+                    searchConfig.getMaximumWithTolerance(), searchConfig.getSearchType(), searchConfig.getUseTechnologyDeviation(),
+                    rangeTechnologies);
+        }
+        return resultService.estimateResults(searchConfig.getMarkerName(), searchConfig.getMinimum(),
+                searchConfig.getMaximum(), searchConfig.getSearchType(), searchConfig.getUseTechnologyDeviation(),
+                rangeTechnologies);
+    }
+
+    // with technology partitions the technologies restrict the scanned ranges, otherwise they filter the scanned records
+    private Set<String> getRangeTechnologies(Set<String> technologyNames) {
+        return partitionIndex.isEnabled() ? technologyNames : Set.of();
+    }
+
+    private Set<String> getFilterTechnologies(Set<String> technologyNames) {
+        return partitionIndex.isEnabled() ? Set.of() : technologyNames;
+    }
+
+    private static String describe(NumericSearchConfiguration searchConfig, NumericSearchOptions options) {
+        var description = "numeric " + searchConfig.getMarkerName() + " " + searchConfig.getSearchType()
+                + " [" + searchConfig.getMinimum() + ", " + searchConfig.getMaximum() + "]";
+        if (searchConfig.getWithTolerance()) {
+            description += " tolerance [" + searchConfig.getMinimumWithTolerance() + ", " + searchConfig.getMaximumWithTolerance() + "]";
+        }
+        return options.getFilters() == null ? description : description + " filtered";
+    }
+
     private Unit getUnit(NumericSearchOptions options, Marker marker) {
         Unit unit = null;
         if (options.getUnitName() != null) {
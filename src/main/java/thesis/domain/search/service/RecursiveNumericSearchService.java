@@ -4,40 +4,60 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import thesis.data.model.Marker;
 import thesis.data.model.Unit;
+import thesis.data.repository.custom.ScoredRange;
 import thesis.data.service.MarkerService;
 import thesis.data.service.query.ResultNumericQueryService;
+import thesis.data.service.query.index.AggregatedMarkerIndex;
+import thesis.data.service.query.index.ResultFilterIndex;
 import thesis.domain.search.dto.AggregatedResult;
 import thesis.domain.search.dto.NumericSearchConfiguration;
-import thesis.domain.search.dto.RecursiveResult;
+import thesis.domain.search.dto.SearchFilters;
 import thesis.domain.search.service.helpers.RecursiveNumericSearchUtil;
+import thesis.domain.search.service.helpers.RecursiveRangeAggregator;
+import thesis.domain.search.service.helpers.ResultFilterUtil;
 import thesis.domain.search.service.helpers.SearchConversionService;
 import thesis.utils.EntityUtils;
 
-import java.util.Collections;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 /**
  * Service class for performing recursive numeric searches.
  * It retrieves results for a given marker and its child markers, aggregates them, and filters them based on the provided configuration.
+ * When the materialized indexes of the aggregated markers are enabled, the aggregated results of the records matched on
+ * the indexes are read instead, see {@link AggregatedMarkerIndex}.
  */
 @Service
 public class RecursiveNumericSearchService {
     private final SearchConversionService searchConversionService;
     private final ResultNumericQueryService resultService;
     private final MarkerService markerService;
+    private final AggregatedMarkerIndex aggregatedIndex;
+    private final ResultFilterIndex filterIndex;
 
     @Autowired
-    public RecursiveNumericSearchService(SearchConversionService searchConversionService, ResultNumericQueryService resultService, MarkerService markerService) {
+    public RecursiveNumericSearchService(SearchConversionService searchConversionService, ResultNumericQueryService resultService,
+                                         MarkerService markerService, AggregatedMarkerIndex aggregatedIndex,
+                                         ResultFilterIndex filterIndex) {
         this.searchConversionService = searchConversionService;
         this.resultService = resultService;
         this.markerService = markerService;
+        this.aggregatedIndex = aggregatedIndex;
+        this.filterIndex = filterIndex;
     }
 
     /**
      * Retrieves and aggregates results for a given marker and its child markers.
+     * The search indexes of the leaf markers are scanned in chunks of records, the results of all leaf markers
+     * for a chunk are read in one pipelined round trip and the chunk is aggregated and filtered right away.
+     * Only the matching aggregated results are kept, so the working set does not grow with the number of results.
      *
      * @param config the numeric search configuration
      * @param marker the marker for which to retrieve results
@@ -45,38 +65,180 @@ public class RecursiveNumericSearchService {
      * @return a list of aggregated results
      */
     public List<AggregatedResult> getResultsForMarkerWithChildren(NumericSearchConfiguration config, Marker marker, Unit unit) {
-        var results = getResultsRecursive(marker, unit, config.getUseTechnologyDeviation());
+        List<Marker> leafMarkers = new ArrayList<>();
+        collectLeafMarkers(marker, leafMarkers);
+        Map<String, Marker> distinctLeafMarkers = new LinkedHashMap<>();
+        leafMarkers.forEach(leafMarker -> distinctLeafMarkers.putIfAbsent(leafMarker.getName(), leafMarker));
+        List<String> leafMarkerNames = new ArrayList<>(distinctLeafMarkers.keySet());
 
-        Map<String, List<RecursiveResult>> groupedResults = results.stream()
-                .collect(Collectors.groupingBy(RecursiveResult::getRecordId));
+        Map<String, AggregatedResult> matches = new LinkedHashMap<>();
+        for (int i = 0; i < leafMarkerNames.size(); i++) {
+            var scannedMarkerNames = leafMarkerNames.subList(0, i);
+            resultService.streamRecordIdsForMarker(leafMarkerNames.get(i), config.getUseTechnologyDeviation())
+                    .forEachChunk(recordIds -> {
+                        var ranges = resultService.getSearchIndexRanges(leafMarkerNames,
+                                config.getUseTechnologyDeviation(), recordIds);
+                        // a record with a result of a marker scanned before was already aggregated with that marker
+                        var newRecordIds = recordIds.stream()
+                                .filter(recordId -> scannedMarkerNames.stream()
+                                        .noneMatch(markerName -> ranges.getOrDefault(markerName, Map.of()).containsKey(recordId)))
+                                .toList();
+                        aggregateChunk(config, marker, unit, leafMarkers, distinctLeafMarkers.values(), ranges, newRecordIds)
+                                .forEach(result -> matches.putIfAbsent(result.getRecordId(), result));
+                    });
+        }
+        return new ArrayList<>(matches.values());
+    }
 
-        return groupedResults.entrySet().stream()
-                .map(entry -> RecursiveNumericSearchUtil.aggregateResults(entry.getKey(), entry.getValue(), marker.getAggregationType()))
-                .filter(aggregatedResult -> RecursiveNumericSearchUtil.filterByNumericSearchType(config, aggregatedResult.getMin(), aggregatedResult.getMax()))
-                .toList();
+    /**
+     * Reads the aggregated results of the given records from the materialized indexes of a marker with child markers.
+     * The values are in the unit of the marker.
+     *
+     * @param marker                  the marker with child markers
+     * @param recordIds               the IDs of the records matched on the indexes of the marker
+     * @param useTechnologyDeviations whether to read the indexes with applied technology deviations
+     * @return a list of aggregated results, records that are no longer indexed are skipped
+     */
+    public List<AggregatedResult> getIndexedResults(Marker marker, Set<String> recordIds, Boolean useTechnologyDeviations) {
+        var leafMarkerNames = aggregatedIndex.getLeafMarkerNames(marker.getName());
+        List<String> markerNames = new ArrayList<>(leafMarkerNames);
+        markerNames.add(marker.getName());
+        var ranges = resultService.getSearchIndexRanges(markerNames, useTechnologyDeviations, recordIds);
+
+        var aggregatedRanges = ranges.get(marker.getName());
+        List<AggregatedResult> results = new ArrayList<>();
+        for (var recordId : recordIds) {
+            var range = aggregatedRanges.get(recordId);
+            if (range == null) {
+                continue;
+            }
+
+            var childMarkerNames = leafMarkerNames.stream()
+                    .filter(leafMarkerName -> ranges.get(leafMarkerName).containsKey(recordId))
+                    .toList();
+            results.add(new AggregatedResult(recordId, range.min(), range.max(), childMarkerNames, childMarkerNames.stream()
+                    .map(childMarkerName -> EntityUtils.generateResultId(recordId, childMarkerName))
+                    .toList()));
+        }
+        return results;
     }
 
-    private List<RecursiveResult> getResultsRecursive(Marker marker, Unit unit, Boolean useTechnologyDeviations) {
-        if (marker.getChildMarkerNames() == null) {
-            return getMarkerResults(marker, unit, useTechnologyDeviations);
+    /**
+     * Filters aggregated results by the results of the child markers they were aggregated from.
+     * An aggregated result is kept if all its child results pass the filters. The filters are applied
+     * on the record IDs per marker using the filter and technology name indexes, only sample and timestamp filters
+     * while the filter indexes are disabled require the child results to be loaded in pipelined batches per marker.
+     *
+     * @param aggregatedResults the aggregated results to filter
+     * @param filters           the search filters to apply, no filtering if null
+     * @param technologyNames   the set of technology names to filter by
+     * @return the aggregated results whose child results all pass the filters
+     */
+    public List<AggregatedResult> filterResults(List<AggregatedResult> aggregatedResults, SearchFilters filters,
+                                                Set<String> technologyNames) {
+        if (filters == null) {
+            return aggregatedResults;
         }
 
-        return marker.getChildMarkerNames().stream()
-                .map(markerService::getEntity)
-                .flatMap(childMarker -> getResultsRecursive(childMarker, unit, useTechnologyDeviations).stream())
-                .collect(Collectors.toList());
+        Map<String, Set<String>> recordIdsByMarker = new HashMap<>();
+        aggregatedResults.forEach(result -> result.getMarkerNames().forEach(markerName ->
+                recordIdsByMarker.computeIfAbsent(markerName, k -> new HashSet<>()).add(result.getRecordId())));
 
+        Set<String> passedResultIds = new HashSet<>();
+        recordIdsByMarker.forEach((markerName, recordIds) -> {
+            if (ResultFilterUtil.requiresResults(filters) && !filterIndex.canFilter(filters)) {
+                ResultFilterUtil.filterResults(resultService.streamResultsByIds(recordIds, markerName), filters, technologyNames)
+                        .forEachChunk(chunk -> chunk.forEach(result ->
+                                passedResultIds.add(EntityUtils.generateResultId(result.getRecordId(), markerName))));
+                return;
+            }
+
+            var passedRecordIds = filterIndex.canFilter(filters)
+                    ? filterIndex.probeRecordIds(markerName, filters, recordIds)
+                    : recordIds;
+            if (!technologyNames.isEmpty()) {
+                passedRecordIds = resultService.probeRecordIdsWithTechnologies(markerName, technologyNames, passedRecordIds);
+            }
+            passedRecordIds.forEach(recordId -> passedResultIds.add(EntityUtils.generateResultId(recordId, markerName)));
+        });
+
+        return aggregatedResults.stream()
+                .filter(result -> passedResultIds.containsAll(result.getResultIds()))
+                .toList();
     }
 
-    private List<RecursiveResult> getMarkerResults(Marker childMarker, Unit unit, Boolean useTechnologyDeviations) {
-        var results = Optional.ofNullable(resultService.getAllResultsForMarker(childMarker.getName(), useTechnologyDeviations))
-                .orElse(Collections.emptyList());
+    private List<AggregatedResult> aggregateChunk(NumericSearchConfiguration config, Marker marker, Unit unit,
+                                                  List<Marker> leafMarkers, Collection<Marker> distinctLeafMarkers,
+                                                  Map<String, Map<String, ScoredRange>> ranges, List<String> recordIds) {
+        // records are addressed by their position in the chunk, the minimum and maximum of the i-th result are at 2i and 2i + 1
+        Map<String, LeafValues> valuesByMarker = new HashMap<>();
+        for (var leafMarker : distinctLeafMarkers) {
+            var markerRanges = ranges.getOrDefault(leafMarker.getName(), Map.of());
+            int[] ordinals = new int[recordIds.size()];
+            double[] values = new double[recordIds.size() * 2];
+            int length = 0;
+            for (int i = 0; i < recordIds.size(); i++) {
+                var range = markerRanges.get(recordIds.get(i));
+                if (range != null) {
+                    ordinals[length] = i;
+                    values[2 * length] = range.min();
+                    values[2 * length + 1] = range.max();
+                    length++;
+                }
+            }
 
-        results.forEach(result -> {
-            result.setMarkerName(childMarker.getName());
-            result.setResultId(EntityUtils.generateResultId(result.getRecordId(), childMarker.getName()));
+            var convertedValues = searchConversionService.convertRecursiveValues(leafMarker, unit, Arrays.copyOf(values, 2 * length));
+            valuesByMarker.put(leafMarker.getName(), new LeafValues(ordinals, convertedValues, length));
+        }
+
+        // a leaf marker occurring several times in the hierarchy contributes its results several times
+        var aggregator = new RecursiveRangeAggregator(recordIds.size(), marker.getAggregationType());
+        leafMarkers.forEach(leafMarker -> {
+            var leafValues = valuesByMarker.get(leafMarker.getName());
+            aggregator.add(leafValues.ordinals(), leafValues.values(), leafValues.length());
         });
 
-        return searchConversionService.convertRecursiveResults(childMarker, unit, results);
+        List<AggregatedResult> aggregatedResults = new ArrayList<>();
+        for (int i = 0; i < recordIds.size(); i++) {
+            // the result may have been deleted since the record was scanned
+            if (aggregator.getCount(i) == 0) {
+                continue;
+            }
+
+            double min = aggregator.getMin(i);
+            double max = aggregator.getMax(i);
+            if (RecursiveNumericSearchUtil.filterByNumericSearchType(config, min, max)) {
+                aggregatedResults.add(createAggregatedResult(recordIds.get(i), min, max, leafMarkers, ranges));
+            }
+        }
+        return aggregatedResults;
+    }
+
+    private void collectLeafMarkers(Marker marker, List<Marker> leafMarkers) {
+        if (marker.getChildMarkerNames() == null) {
+            leafMarkers.add(marker);
+            return;
+        }
+
+        marker.getChildMarkerNames().stream()
+                .map(markerService::getEntity)
+                .forEach(childMarker -> collectLeafMarkers(childMarker, leafMarkers));
+    }
+
+    private static AggregatedResult createAggregatedResult(String recordId, double min, double max, List<Marker> leafMarkers,
+                                                           Map<String, Map<String, ScoredRange>> ranges) {
+        List<String> markerNames = leafMarkers.stream()
+                .map(Marker::getName)
+                .filter(markerName -> ranges.getOrDefault(markerName, Map.of()).containsKey(recordId))
+                .toList();
+        return new AggregatedResult(recordId, min, max, markerNames, markerNames.stream()
+                .map(markerName -> EntityUtils.generateResultId(recordId, markerName))
+                .toList());
+    }
+
+    /**
+     * Values of the results of one leaf marker for a chunk of records, see {@link RecursiveRangeAggregator#add}.
+     */
+    private record LeafValues(int[] ordinals, double[] values, int length) {
     }
 }
@@ -0,0 +1,158 @@
+package thesis.domain.search.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import thesis.data.model.Marker;
+import thesis.data.service.MarkerService;
+import thesis.data.service.RecordService;
+import thesis.data.service.UnitService;
+import thesis.data.service.query.ResultNumericQueryService;
+import thesis.data.service.query.index.SimilarityIndex;
+import thesis.data.service.query.index.SimilarityTerm;
+import thesis.domain.search.dto.SimilarRecord;
+import thesis.domain.search.dto.SimilaritySearchOptions;
+import thesis.domain.search.dto.SimilarityValue;
+import thesis.domain.search.service.helpers.SearchConversionService;
+import thesis.domain.search.validation.SimilaritySearchValidator;
+import thesis.exceptions.BadRequestException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Service class for finding the records most similar to a reference record or to given marker values.
+ * The records are compared on the in-memory columns of the min and max indexes, see {@link SimilarityIndex}
+ * for the distance and the search.
+ */
+@Service
+public class SimilaritySearchService {
+    private static final int DEFAULT_LIMIT = 10;
+    private static final double DEFAULT_WEIGHT = 1.0;
+
+    private final SimilarityIndex similarityIndex;
+    private final ResultNumericQueryService resultService;
+    private final SearchConversionService searchConversionService;
+    private final MarkerService markerService;
+    private final UnitService unitService;
+    private final RecordService recordService;
+    private final SimilaritySearchValidator validator;
+
+    @Autowired
+    public SimilaritySearchService(SimilarityIndex similarityIndex, ResultNumericQueryService resultService,
+                                   SearchConversionService searchConversionService, MarkerService markerService,
+                                   UnitService unitService, RecordService recordService,
+                                   SimilaritySearchValidator validator) {
+        this.similarityIndex = similarityIndex;
+        this.resultService = resultService;
+        this.searchConversionService = searchConversionService;
+        this.markerService = markerService;
+        this.unitService = unitService;
+        this.recordService = recordService;
+        this.validator = validator;
+    }
+
+    /**
+     * Processes the similarity search options and returns the most similar records.
+     * <p>
+     * With a record ID the records are compared with the results of the reference record, by default on all
+     * its numeric markers, the reference record itself is not returned. Otherwise they are compared with the
+     * given values, which are converted into the units of the markers.
+     * </p>
+     *
+     * @param options the similarity search options
+     * @return the most similar records, ordered by ascending distance
+     */
+    public List<SimilarRecord> processSimilaritySearch(SimilaritySearchOptions options) {
+        validator.validateOptions(options);
+
+        var useTechnologyDeviation = Boolean.TRUE.equals(options.getUseTechnologyDeviation());
+        var terms = options.getRecordId() != null
+                ? getReferenceTerms(options, useTechnologyDeviation)
+                : options.getValues().stream().map(this::getValueTerm).toList();
+        if (terms.isEmpty()) {
+            throw new BadRequestException(String.format("Record '%s' does not have numeric results", options.getRecordId()));
+        }
+
+        var limit = options.getLimit() != null ? options.getLimit() : DEFAULT_LIMIT;
+        var excludedRecordIds = options.getRecordId() != null ? Set.of(options.getRecordId()) : Set.<String>of();
+        return similarityIndex.findNearest(terms, useTechnologyDeviation, limit, excludedRecordIds).stream()
+                .map(match -> new SimilarRecord(match.recordId(), match.score()))
+                .toList();
+    }
+
+    // the reference values are read from the same indexes the other records are compared on
+    private List<SimilarityTerm> getReferenceTerms(SimilaritySearchOptions options, boolean useTechnologyDeviation) {
+        var recordId = options.getRecordId();
+        recordService.getEntity(recordId);
+
+        var values = options.getValues() != null ? options.getValues() : List.<SimilarityValue>of();
+        var markerNames = values.isEmpty()
+                ? new TreeSet<>(resultService.getMarkerNamesOfRecord(recordId))
+                : values.stream().map(value -> getSearchableMarker(value.getMarkerName()).getName()).toList();
+        var ranges = resultService.getSearchIndexRanges(markerNames, useTechnologyDeviation, List.of(recordId));
+
+        List<SimilarityTerm> terms = new ArrayList<>();
+        for (var markerName : markerNames) {
+            var range = ranges.getOrDefault(markerName, Map.of()).get(recordId);
+            if (range == null) {
+                if (!values.isEmpty()) {
+                    throw new BadRequestException(String.format("Record '%s' does not have a numeric result of marker '%s'",
+                            recordId, markerName));
+                }
+                // string and boolean results are not in the search indexes
+                continue;
+            }
+
+            var weight = values.stream()
+                    .filter(value -> value.getMarkerName().equals(markerName))
+                    .map(SimilarityValue::getWeight)
+                    .filter(Objects::nonNull)
+                    .findFirst()
+                    .orElse(DEFAULT_WEIGHT);
+            terms.add(new SimilarityTerm(markerName, range.min(), range.max(), weight));
+        }
+        return terms;
+    }
+
+    private SimilarityTerm getValueTerm(SimilarityValue value) {
+        var marker = getSearchableMarker(value.getMarkerName());
+        var minimum = value.getValue() != null ? value.getValue() : value.getMinimum();
+        var maximum = value.getValue() != null ? value.getValue() : value.getMaximum();
+
+        if (value.getUnitName() != null) {
+            if (marker.getUnitName() == null) {
+                throw new BadRequestException("Unit can't be set, marker does not have a unit");
+            }
+
+            if (!Objects.equals(marker.getUnitName(), value.getUnitName())) {
+                var unit = unitService.getEntity(value.getUnitName());
+                minimum = searchConversionService.convertValue(unit, marker, minimum);
+                maximum = searchConversionService.convertValue(unit, marker, maximum);
+                // a decreasing conversion swaps the bounds
+                if (minimum != null && maximum != null && minimum > maximum) {
+                    var converted = minimum;
+                    minimum = maximum;
+                    maximum = converted;
+                }
+            }
+        }
+
+        return new SimilarityTerm(marker.getName(),
+                minimum != null ? minimum : Double.NEGATIVE_INFINITY,
+                maximum != null ? maximum : Double.POSITIVE_INFINITY,
+                value.getWeight() != null ? value.getWeight() : DEFAULT_WEIGHT);
+    }
+
+    private Marker getSearchableMarker(String markerName) {
+        var marker = markerService.getEntity(markerName);
+        if (marker.getChildMarkerNames() != null) {
+            throw new BadRequestException(String.format("Similarity search is not supported for marker '%s' with child markers",
+                    markerName));
+        }
+        return marker;
+    }
+}
@@ -7,14 +7,25 @@ import thesis.data.model.StringCategory;
 import thesis.data.service.MarkerService;
 import thesis.data.service.StringCategoryService;
 import thesis.data.service.query.ResultStringQueryService;
+import thesis.data.service.query.index.ResultFilterIndex;
+import thesis.data.service.query.index.StringCategoryOrdinalIndex;
+import thesis.domain.search.dto.SearchFilters;
+import thesis.domain.search.dto.SearchCount;
+import thesis.domain.search.dto.SearchPage;
+import thesis.domain.search.dto.SearchPageRequest;
 import thesis.domain.search.dto.StringSearchOptions;
 import thesis.domain.search.dto.enums.StringSearchType;
 import thesis.domain.search.service.helpers.ResultFilterUtil;
+import thesis.domain.search.service.helpers.SearchPagination;
 import thesis.domain.search.service.helpers.TechnologyResolver;
+import thesis.domain.search.service.planner.SearchCriterion;
 import thesis.domain.search.validation.StringSearchValidator;
+import thesis.utils.ChunkProducer;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Service class for processing string search options.
@@ -27,15 +38,20 @@ public class StringSearchService {
     private final StringCategoryService stringCategoryService;
     private final StringSearchValidator validator;
     private final TechnologyResolver technologyResolver;
+    private final ResultFilterIndex filterIndex;
+    private final StringCategoryOrdinalIndex ordinalIndex;
 
     @Autowired
     public StringSearchService(ResultStringQueryService resultService, MarkerService markerService,
-                               StringCategoryService stringCategoryService, StringSearchValidator validator, TechnologyResolver technologyResolver) {
+                               StringCategoryService stringCategoryService, StringSearchValidator validator, TechnologyResolver technologyResolver,
+                               ResultFilterIndex filterIndex, StringCategoryOrdinalIndex ordinalIndex) {
         this.resultService = resultService;
         this.markerService = markerService;
         this.stringCategoryService = stringCategoryService;
         this.validator = validator;
         this.technologyResolver = technologyResolver;
+        this.filterIndex = filterIndex;
+        this.ordinalIndex = ordinalIndex;
     }
 
     /**
@@ -63,29 +79,226 @@ public class StringSearchService {
 
         if (options.getFilters() != null) {
             var technologyNames = technologyResolver.resolveTechnologyNames(marker.getName(), options.getFilters());
+            if (filterIndex.canFilter(options.getFilters())) {
+                List<Result> results = new ArrayList<>();
+                resultService.streamResultsByIds(getFilteredRecordIds(options.getMarkerName(), category, options.getFilters(),
+                        technologyNames), options.getMarkerName()).forEachChunk(results::addAll);
+                return results;
+            }
 
             return ResultFilterUtil.filterResults(resultService.getAllStringResultsForCategory(options.getMarkerName(), category), options.getFilters(), technologyNames);
         }
         return resultService.getAllStringResultsForCategory(options.getMarkerName(), category);
     }
 
+    /**
+     * Processes the string search options and returns one page of the matching results, ordered by record ID.
+     *
+     * @param options     the string search options
+     * @param pageRequest the size and start position of the page
+     * @return one page of results that match the search criteria
+     */
+    public SearchPage<Result> processStringSearch(StringSearchOptions options, SearchPageRequest pageRequest) {
+        return SearchPagination.pageByRecordId(processStringSearch(options), Result::getRecordId, pageRequest);
+    }
+
+    /**
+     * Processes the string search options and returns the matching results as chunks
+     * that are read from Redis only while they are consumed.
+     * The options are validated and the matching result IDs are resolved before this method returns.
+     *
+     * @param options the string search options
+     * @return a producer of the results that match the search criteria
+     */
+    public ChunkProducer<Result> streamStringSearch(StringSearchOptions options) {
+        validator.validateOptions(options);
+        var marker = markerService.getEntity(options.getMarkerName());
+        var category = getCategory(options);
+
+        if (options.getSearchType() == null) {
+            options.setSearchType(StringSearchType.EQUAL);
+        }
+
+        if (isOrdinalRangeSearch(options)) {
+            var range = getOrdinalRange(options, category);
+            return resultService.streamStringResultsForOrdinalRange(options.getMarkerName(), category, range.from(), range.to());
+        }
+
+        if (options.getValue() != null) {
+            return resultService.streamStringResultsForMultipleValues(options.getMarkerName(), getSearchValues(options, category), category);
+        }
+
+        if (options.getValues() != null) {
+            return resultService.streamStringResultsForMultipleValues(options.getMarkerName(), options.getValues(), category);
+        }
+
+        if (filterIndex.canFilter(options.getFilters())) {
+            var technologyNames = technologyResolver.resolveTechnologyNames(marker.getName(), options.getFilters());
+            return resultService.streamResultsByIds(getFilteredRecordIds(options.getMarkerName(), category, options.getFilters(),
+                    technologyNames), options.getMarkerName());
+        }
+
+        var results = resultService.streamStringResultsForCategory(options.getMarkerName(), category);
+        if (options.getFilters() != null) {
+            var technologyNames = technologyResolver.resolveTechnologyNames(marker.getName(), options.getFilters());
+
+            return ResultFilterUtil.filterResults(results, options.getFilters(), technologyNames);
+        }
+        return results;
+    }
+
+    /**
+     * Processes the string search options and counts the matching results.
+     * The count is read from the cardinality of the index sets, sample and timestamp filters are applied
+     * on the record IDs using the filter indexes. Results are only loaded, and not retained,
+     * when sample or timestamp filters are set and the filter indexes are disabled.
+     *
+     * @param options the string search options
+     * @return the number of results that match the search criteria
+     */
+    public SearchCount countStringSearch(StringSearchOptions options) {
+        validator.validateOptions(options);
+        var marker = markerService.getEntity(options.getMarkerName());
+        var category = getCategory(options);
+
+        if (options.getSearchType() == null) {
+            options.setSearchType(StringSearchType.EQUAL);
+        }
+
+        if (isOrdinalRangeSearch(options)) {
+            var range = getOrdinalRange(options, category);
+            return new SearchCount(resultService.countStringResultsForOrdinalRange(options.getMarkerName(), category, range.from(), range.to()));
+        }
+
+        if (options.getValue() != null) {
+            return new SearchCount(resultService.countStringResultsForMultipleValues(options.getMarkerName(), getSearchValues(options, category), category));
+        }
+
+        if (options.getValues() != null) {
+            return new SearchCount(resultService.countStringResultsForMultipleValues(options.getMarkerName(), options.getValues(), category));
+        }
+
+        var technologyNames = technologyResolver.resolveTechnologyNames(marker.getName(), options.getFilters());
+        if (filterIndex.canFilter(options.getFilters())) {
+            return new SearchCount(getFilteredRecordIds(options.getMarkerName(), category, options.getFilters(), technologyNames).size());
+        }
+        if (ResultFilterUtil.requiresResults(options.getFilters())) {
+            var results = resultService.streamStringResultsForCategory(options.getMarkerName(), category);
+            return new SearchCount(ResultFilterUtil.filterResults(results, options.getFilters(), technologyNames).count());
+        }
+        return new SearchCount(resultService.countStringResultsForCategory(options.getMarkerName(), category, technologyNames));
+    }
+
+    /**
+     * Validates and resolves the string search options into a criterion of an advanced search.
+     * The criterion estimates its matches from the cardinality of the index sets and probes candidates
+     * by their membership in the index sets. Results are only loaded for sample and timestamp filters
+     * while the filter indexes are disabled.
+     *
+     * @param options the string search options
+     * @return the prepared criterion
+     */
+    public SearchCriterion prepareCriterion(StringSearchOptions options) {
+        validator.validateOptions(options);
+        var marker = markerService.getEntity(options.getMarkerName());
+        var category = getCategory(options);
+
+        if (options.getSearchType() == null) {
+            options.setSearchType(StringSearchType.EQUAL);
+        }
+
+        var markerName = options.getMarkerName();
+        if (isOrdinalRangeSearch(options)) {
+            var range = getOrdinalRange(options, category);
+            return SearchCriterion.of("string " + markerName + " " + options.getSearchType() + " " + options.getValue(),
+                    () -> resultService.countStringResultsForOrdinalRange(markerName, category, range.from(), range.to()),
+                    () -> resultService.getStringRecordIdsForOrdinalRange(markerName, category, range.from(), range.to()),
+                    candidates -> resultService.probeStringRecordIdsForOrdinalRange(markerName, category, range.from(), range.to(), candidates));
+        }
+
+        if (options.getValue() != null || options.getValues() != null) {
+            var values = options.getValue() != null ? getSearchValues(options, category) : options.getValues();
+            return SearchCriterion.of("string " + markerName + " in " + values,
+                    () -> resultService.countStringResultsForMultipleValues(markerName, values, category),
+                    () -> resultService.getStringRecordIdsForMultipleValues(markerName, values, category),
+                    candidates -> resultService.probeStringRecordIdsForMultipleValues(markerName, values, category, candidates));
+        }
+
+        var technologyNames = technologyResolver.resolveTechnologyNames(marker.getName(), options.getFilters());
+        var description = "string " + markerName + " category " + category.getName()
+                + (options.getFilters() == null ? "" : " filtered");
+        if (filterIndex.canFilter(options.getFilters())) {
+            return SearchCriterion.of(description,
+                    () -> resultService.countStringResultsForCategory(markerName, category, technologyNames),
+                    () -> getFilteredRecordIds(markerName, category, options.getFilters(), technologyNames),
+                    candidates -> resultService.probeStringRecordIdsForCategory(markerName, category, technologyNames,
+                            filterIndex.probeRecordIds(markerName, options.getFilters(), candidates)));
+        }
+        if (ResultFilterUtil.requiresResults(options.getFilters())) {
+            return SearchCriterion.of(description,
+                    () -> resultService.countStringResultsForCategory(markerName, category, technologyNames),
+                    () -> collectRecordIds(ResultFilterUtil.filterResults(
+                            resultService.streamStringResultsForCategory(markerName, category), options.getFilters(), technologyNames)),
+                    candidates -> collectRecordIds(ResultFilterUtil.filterResults(resultService.streamResultsByIds(
+                            resultService.probeStringRecordIdsForCategory(markerName, category, technologyNames, candidates), markerName),
+                            options.getFilters(), technologyNames)));
+        }
+        return SearchCriterion.of(description,
+                () -> resultService.countStringResultsForCategory(markerName, category, technologyNames),
+                () -> resultService.getStringRecordIdsForCategory(markerName, category, technologyNames),
+                candidates -> resultService.probeStringRecordIdsForCategory(markerName, category, technologyNames, candidates));
+    }
+
+    // the sample and timestamp filters are usually more selective than the category, so their matches are probed
+    private Set<String> getFilteredRecordIds(String markerName, StringCategory category, SearchFilters filters,
+                                             Set<String> technologyNames) {
+        return resultService.probeStringRecordIdsForCategory(markerName, category, technologyNames,
+                filterIndex.findRecordIds(markerName, filters));
+    }
+
+    private static Set<String> collectRecordIds(ChunkProducer<Result> results) {
+        Set<String> recordIds = new HashSet<>();
+        results.forEachChunk(chunk -> chunk.forEach(result -> recordIds.add(result.getRecordId())));
+        return recordIds;
+    }
+
     private List<Result> processSingleValue(StringSearchOptions options, StringCategory category) {
         if (options.getSearchType() == StringSearchType.EQUAL) {
             return resultService.getAllStringResultsForSingleValue(options.getMarkerName(), options.getValue(), category);
         }
 
-        var orderedValues = category.getValues();
-        List<String> searchValues = new ArrayList<>();
-        var index = orderedValues.indexOf(options.getValue());
-        searchValues = switch (options.getSearchType()) {
-            case GREATER_THAN -> orderedValues.subList(index + 1, orderedValues.size());
-            case GREATER_THAN_OR_EQUAL -> orderedValues.subList(index, orderedValues.size());
-            case LESS_THAN -> orderedValues.subList(0, index);
-            case LESS_THAN_OR_EQUAL -> orderedValues.subList(0, index + 1);
-            default -> searchValues;
-        };
+        if (isOrdinalRangeSearch(options)) {
+            var range = getOrdinalRange(options, category);
+            return resultService.getAllStringResultsForOrdinalRange(options.getMarkerName(), category, range.from(), range.to());
+        }
+        return resultService.getAllStringResultsForMultipleValues(options.getMarkerName(), getSearchValues(options, category), category);
+    }
+
+    // ordered comparisons read the ordinal index while it is enabled, and the index sets of the accepted values otherwise
+    private boolean isOrdinalRangeSearch(StringSearchOptions options) {
+        return options.getValue() != null && options.getSearchType() != StringSearchType.EQUAL && ordinalIndex.isEnabled();
+    }
+
+    private List<String> getSearchValues(StringSearchOptions options, StringCategory category) {
+        if (options.getSearchType() == StringSearchType.EQUAL) {
+            return List.of(options.getValue());
+        }
 
-        return resultService.getAllStringResultsForMultipleValues(options.getMarkerName(), searchValues, category);
+        var range = getOrdinalRange(options, category);
+        return range.from() > range.to() ? List.of() : category.getValues().subList(range.from(), range.to() + 1);
+    }
+
+    // the positions in the category of the values an ordered comparison accepts, an empty range if from > to
+    private OrdinalRange getOrdinalRange(StringSearchOptions options, StringCategory category) {
+        var last = category.getValues().size() - 1;
+        var index = category.getValues().indexOf(options.getValue());
+        return switch (options.getSearchType()) {
+            case GREATER_THAN -> new OrdinalRange(index + 1, last);
+            case GREATER_THAN_OR_EQUAL -> new OrdinalRange(index, last);
+            case LESS_THAN -> new OrdinalRange(0, index - 1);
+            case LESS_THAN_OR_EQUAL -> new OrdinalRange(0, index);
+            default -> new OrdinalRange(index, index);
+        };
     }
 
     private List<Result> processMultipleValues(StringSearchOptions options, StringCategory category) {
@@ -102,4 +315,7 @@ public class StringSearchService {
 
         return category;
     }
+
+    private record OrdinalRange(int from, int to) {
+    }
 }
@@ -6,8 +6,8 @@ import thesis.domain.search.dto.NumericSearchConfiguration;
 import thesis.domain.search.dto.RecursiveResult;
 import thesis.exceptions.BadRequestException;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * Utility class for handling recursive numeric search operations.
@@ -47,24 +47,21 @@ public final class RecursiveNumericSearchUtil {
      * @return an AggregatedResult object containing the aggregated results
      */
     public static AggregatedResult aggregateResults(String recordId, List<RecursiveResult> recordResults, AggregationType aggregationType) {
-        double sumMin = recordResults.stream()
-                .mapToDouble(result -> result.getMin() != null ? result.getMin() : Double.NEGATIVE_INFINITY)
-                .sum();
-        double sumMax = recordResults.stream()
-                .mapToDouble(result -> result.getMax() != null ? result.getMax() : Double.POSITIVE_INFINITY)
-                .sum();
-        int count = recordResults.size();
-
-        var res = new AggregatedResult(recordId, sumMin, sumMax,
-                recordResults.stream().map(RecursiveResult::getMarkerName).collect(Collectors.toList()),
-                recordResults.stream().map(RecursiveResult::getResultId).collect(Collectors.toList()));
-
-        if (aggregationType == AggregationType.AVERAGE) {
-            res.setMin(sumMin / count);
-            res.setMax(sumMax / count);
+        double sumMin = 0;
+        double sumMax = 0;
+        List<String> markerNames = new ArrayList<>(recordResults.size());
+        List<String> resultIds = new ArrayList<>(recordResults.size());
+        for (var result : recordResults) {
+            sumMin += result.getMin() != null ? result.getMin() : Double.NEGATIVE_INFINITY;
+            sumMax += result.getMax() != null ? result.getMax() : Double.POSITIVE_INFINITY;
+            markerNames.add(result.getMarkerName());
+            resultIds.add(result.getResultId());
         }
 
-        return res;
+        int count = recordResults.size();
+        return aggregationType == AggregationType.AVERAGE
+                ? new AggregatedResult(recordId, sumMin / count, sumMax / count, markerNames, resultIds)
+                : new AggregatedResult(recordId, sumMin, sumMax, markerNames, resultIds);
     }
 
     private static boolean filterWithoutTolerance(NumericSearchConfiguration config, Double min, Double max) {
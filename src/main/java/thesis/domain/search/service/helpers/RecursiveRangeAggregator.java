@@ -0,0 +1,71 @@
+package thesis.domain.search.service.helpers;
+
+import thesis.data.enums.AggregationType;
+
+/**
+ * Aggregates the minimum and maximum values of the results of several child markers per record.
+ * Records are addressed by their ordinal, e.g. their position in a chunk of scanned records, and the sums are
+ * kept in primitive arrays, so the values of a child marker are added in a single pass without creating
+ * an object per result. The semantics are those of {@link RecursiveNumericSearchUtil#aggregateResults}.
+ */
+public final class RecursiveRangeAggregator {
+    private final AggregationType aggregationType;
+    private final double[] sumMin;
+    private final double[] sumMax;
+    private final int[] counts;
+
+    /**
+     * Creates an aggregator for a fixed number of records.
+     *
+     * @param recordCount     the number of records, ordinals range from 0 to recordCount - 1
+     * @param aggregationType the type of aggregation to perform
+     */
+    public RecursiveRangeAggregator(int recordCount, AggregationType aggregationType) {
+        this.aggregationType = aggregationType;
+        this.sumMin = new double[recordCount];
+        this.sumMax = new double[recordCount];
+        this.counts = new int[recordCount];
+    }
+
+    /**
+     * Adds the values of the results of one child marker.
+     * The minimum and maximum of the i-th result are at 2i and 2i + 1 and belong to the record with ordinal
+     * {@code ordinals[i]}. A NaN value, e.g. of a failed conversion, makes the aggregate of the record NaN.
+     *
+     * @param ordinals the ordinals of the records the results belong to
+     * @param values   the minimum and maximum values of the results
+     * @param length   the number of results to add
+     */
+    public void add(int[] ordinals, double[] values, int length) {
+        for (int i = 0; i < length; i++) {
+            var ordinal = ordinals[i];
+            sumMin[ordinal] += values[2 * i];
+            sumMax[ordinal] += values[2 * i + 1];
+            counts[ordinal]++;
+        }
+    }
+
+    /**
+     * @param ordinal the ordinal of the record
+     * @return the number of results that were added for the record, 0 if the record is not aggregated
+     */
+    public int getCount(int ordinal) {
+        return counts[ordinal];
+    }
+
+    /**
+     * @param ordinal the ordinal of the record
+     * @return the aggregated minimum of the record
+     */
+    public double getMin(int ordinal) {
+        return aggregationType == AggregationType.AVERAGE ? sumMin[ordinal] / counts[ordinal] : sumMin[ordinal];
+    }
+
+    /**
+     * @param ordinal the ordinal of the record
+     * @return the aggregated maximum of the record
+     */
+    public double getMax(int ordinal) {
+        return aggregationType == AggregationType.AVERAGE ? sumMax[ordinal] / counts[ordinal] : sumMax[ordinal];
+    }
+}
@@ -2,6 +2,7 @@ package thesis.domain.search.service.helpers;
 
 import thesis.data.model.Result;
 import thesis.domain.search.dto.SearchFilters;
+import thesis.utils.ChunkProducer;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -14,6 +15,19 @@ public final class ResultFilterUtil {
     private ResultFilterUtil() {
     }
 
+    /**
+     * Checks whether the search filters need the loaded results to be applied.
+     * Technology filters can be answered from the technology name index, while sample
+     * and timestamp filters are only stored in the result hashes.
+     *
+     * @param filters the search filters to check
+     * @return true if the results have to be loaded to apply the filters
+     */
+    public static boolean requiresResults(SearchFilters filters) {
+        return filters != null
+                && (filters.getSample() != null || filters.getFromTimestamp() != null || filters.getToTimestamp() != null);
+    }
+
     /**
      * Filters the results based on the provided search filters and technology names.
      *
@@ -63,6 +77,49 @@ public final class ResultFilterUtil {
         return filteredResults;
     }
 
+    /**
+     * Filters each chunk of the results based on the provided search filters and technology names.
+     * Chunks that are empty after filtering are not passed on.
+     *
+     * @param results         the producer of the results to filter
+     * @param filters         the search filters to apply
+     * @param technologyNames the set of technology names to filter by
+     * @return a producer of filtered results
+     */
+    public static ChunkProducer<Result> filterResults(ChunkProducer<Result> results, SearchFilters filters, Set<String> technologyNames) {
+        if (filters == null) {
+            return results;
+        }
+
+        return chunkConsumer -> results.forEachChunk(chunk -> {
+            var filteredChunk = filterResults(chunk, filters, technologyNames);
+            if (!filteredChunk.isEmpty()) {
+                chunkConsumer.accept(filteredChunk);
+            }
+        });
+    }
+
+    /**
+     * Filters each chunk of the results based on the provided search filters.
+     * Chunks that are empty after filtering are not passed on.
+     *
+     * @param results the producer of the results to filter
+     * @param filters the search filters to apply
+     * @return a producer of filtered results
+     */
+    public static ChunkProducer<Result> filterResults(ChunkProducer<Result> results, SearchFilters filters) {
+        if (filters == null) {
+            return results;
+        }
+
+        return chunkConsumer -> results.forEachChunk(chunk -> {
+            var filteredChunk = filterResults(chunk, filters);
+            if (!filteredChunk.isEmpty()) {
+                chunkConsumer.accept(filteredChunk);
+            }
+        });
+    }
+
     private static void filterByCommonCriteria(SearchFilters filters, List<Result> filteredResults, Result result) {
         if (filters.getSample() != null) {
             if (result.getSample() == null || !result.getSample().equals(filters.getSample())) {
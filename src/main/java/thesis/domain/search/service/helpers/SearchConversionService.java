@@ -6,27 +6,29 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import thesis.data.model.Marker;
 import thesis.data.model.Unit;
-import thesis.data.service.UnitService;
+import thesis.data.service.UnitConversionGraph;
+import thesis.data.service.UnitConversionGraph.ResolvedConversion;
 import thesis.domain.search.dto.NumericSearchOptions;
 import thesis.domain.search.dto.RecursiveResult;
 import thesis.exceptions.UnitConversionException;
-import thesis.utils.FormulaEvaluator;
 
 import java.util.List;
 
 /**
  * Service class for converting units and values in search results.
  * It handles the conversion of recursive results and numeric search options based on the provided unit formulas.
+ * Conversions are resolved from the {@link UnitConversionGraph}, units without a direct conversion are converted
+ * through intermediate units.
  */
 @Service
 public class SearchConversionService {
     private static final Logger LOGGER = LoggerFactory.getLogger(SearchConversionService.class);
 
-    private final UnitService unitService;
+    private final UnitConversionGraph conversionGraph;
 
     @Autowired
-    public SearchConversionService(UnitService unitService) {
-        this.unitService = unitService;
+    public SearchConversionService(UnitConversionGraph conversionGraph) {
+        this.conversionGraph = conversionGraph;
     }
 
     /**
@@ -44,17 +46,32 @@ public class SearchConversionService {
             return recursiveResults;
         }
 
-        var childUnit = unitService.getEntity(childMarker.getUnitName());
-        var formula = getFormula(childMarker.getName(), parentMarkerUnit.getName(), childUnit);
+        var conversion = getConversion(childMarker.getName(), parentMarkerUnit.getName(), childMarker.getUnitName());
 
-        recursiveResults.forEach(result -> {
-            result.setMin(safelyConvert(formula, result.getMin(), false));
-            result.setMax(safelyConvert(formula, result.getMax(), false));
-        });
+        convertAll(conversion, recursiveResults);
 
         return recursiveResults;
     }
 
+    /**
+     * Converts the minimum and maximum values of results of a child marker into the unit of the parent marker,
+     * without creating an object per result.
+     *
+     * @param childMarker      the child marker for conversion
+     * @param parentMarkerUnit the parent marker unit for conversion
+     * @param values           the values to convert, the minimum and maximum of the i-th result are at 2i and 2i + 1
+     * @return the converted values, values that fail to convert are NaN
+     */
+    public double[] convertRecursiveValues(Marker childMarker, Unit parentMarkerUnit, double[] values) {
+        validateMarkerUnit(childMarker, parentMarkerUnit);
+
+        if (childMarker.getUnitName() == null || childMarker.getUnitName().equals(parentMarkerUnit.getName())) {
+            return values;
+        }
+
+        return evaluateAll(getConversion(childMarker.getName(), parentMarkerUnit.getName(), childMarker.getUnitName()), values);
+    }
+
     /**
      * Converts numeric search options based on the provided source unit and marker.
      *
@@ -63,42 +80,82 @@ public class SearchConversionService {
      * @param options    the numeric search options to be converted
      */
     public void convertNumericSearchOptions(Unit sourceUnit, Marker marker, NumericSearchOptions options) {
-        var formula = getFormula(marker.getName(), marker.getUnitName(), sourceUnit);
+        var conversion = getConversion(marker.getName(), marker.getUnitName(), sourceUnit.getName());
+
+        options.setValue(safelyConvert(conversion, options.getValue(), true));
+        options.setMinimum(safelyConvert(conversion, options.getMinimum(), true));
+        options.setMaximum(safelyConvert(conversion, options.getMaximum(), true));
+        options.setAbsoluteDeviation(safelyConvert(conversion, options.getAbsoluteDeviation(), true));
+        options.setAbsoluteTolerance(safelyConvert(conversion, options.getAbsoluteTolerance(), true));
+    }
+
+    /**
+     * Converts a single searched value from the provided source unit into the unit of the marker.
+     *
+     * @param sourceUnit the unit of the value
+     * @param marker     the marker associated with the conversion
+     * @param value      the value to convert, may be null
+     * @return the converted value, null if the value is null
+     * @throws UnitConversionException if the conversion does not exist or fails
+     */
+    public Double convertValue(Unit sourceUnit, Marker marker, Double value) {
+        var conversion = getConversion(marker.getName(), marker.getUnitName(), sourceUnit.getName());
+        return safelyConvert(conversion, value, true);
+    }
 
-        options.setValue(safelyConvert(formula, options.getValue(), true));
-        options.setMinimum(safelyConvert(formula, options.getMinimum(), true));
-        options.setMaximum(safelyConvert(formula, options.getMaximum(), true));
-        options.setAbsoluteDeviation(safelyConvert(formula, options.getAbsoluteDeviation(), true));
-        options.setAbsoluteTolerance(safelyConvert(formula, options.getAbsoluteTolerance(), true));
+    private ResolvedConversion getConversion(String markerName, String targetUnitName, String sourceUnitName) {
+        return conversionGraph.resolve(markerName, sourceUnitName, targetUnitName).orElseThrow(() -> {
+            if (!conversionGraph.hasConversions(sourceUnitName)) {
+                return new UnitConversionException(String.format("Unit '%s' does not have any conversions", sourceUnitName));
+            }
+            return new UnitConversionException(String.format("Conversion between from unit '%s' to target unit '%s' does not exist for marker '%s'", sourceUnitName, targetUnitName, markerName));
+        });
     }
 
-    private String getFormula(String markerName, String targetUnitName, Unit sourceUnit) {
-        if (sourceUnit.getConversions() == null) {
-            throw new UnitConversionException(String.format("Unit '%s' does not have any conversions", sourceUnit.getName()));
+    private void convertAll(ResolvedConversion conversion, List<RecursiveResult> recursiveResults) {
+        // the minimum and maximum of the i-th result are at 2i and 2i + 1, missing values are restored afterwards
+        double[] values = new double[recursiveResults.size() * 2];
+        for (int i = 0; i < recursiveResults.size(); i++) {
+            var result = recursiveResults.get(i);
+            values[2 * i] = result.getMin() == null ? Double.NaN : result.getMin();
+            values[2 * i + 1] = result.getMax() == null ? Double.NaN : result.getMax();
         }
 
-        var conversion = sourceUnit.getConversions().stream()
-                .filter(c -> c.getTargetUnitName().equals(targetUnitName)
-                        && c.getMarkerName().equals(markerName))
-                .findFirst()
-                .orElseThrow(() -> new UnitConversionException(String.format("Conversion between from unit '%s' to target unit '%s' does not exist for marker '%s'", sourceUnit.getName(), targetUnitName, markerName)));
+        var converted = evaluateAll(conversion, values);
 
-        return conversion.getFormula();
+        for (int i = 0; i < recursiveResults.size(); i++) {
+            var result = recursiveResults.get(i);
+            result.setMin(result.getMin() == null ? null : converted[2 * i]);
+            result.setMax(result.getMax() == null ? null : converted[2 * i + 1]);
+        }
+    }
+
+    private double[] evaluateAll(ResolvedConversion conversion, double[] values) {
+        try {
+            return conversion.function().evaluateAll(values);
+        } catch (Exception e) {
+            // converts the values one by one, so that only the failing ones become NaN
+            double[] converted = new double[values.length];
+            for (int i = 0; i < values.length; i++) {
+                converted[i] = safelyConvert(conversion, values[i], false);
+            }
+            return converted;
+        }
     }
 
-    private Double safelyConvert(String formula, Double value, Boolean failOnError) {
+    private Double safelyConvert(ResolvedConversion conversion, Double value, Boolean failOnError) {
         if (value == null) {
             return null;
         }
 
         try {
-            return FormulaEvaluator.evaluateFormula(formula, value);
+            return conversion.function().evaluate(value);
         } catch (Exception e) {
             LOGGER.error("Failed to convert value", e);
             if (failOnError) {
                 throw new UnitConversionException(String.format(
                         "Conversion failed for value '%s' using formula '%s'. Error: %s",
-                        value, formula, e.getMessage()
+                        value, conversion.formula(), e.getMessage()
                 ));
             }
             return Double.NaN;
@@ -0,0 +1,149 @@
+package thesis.domain.search.service.helpers;
+
+import thesis.data.repository.custom.RangePageRequest;
+import thesis.data.repository.custom.ScoredRecordId;
+import thesis.domain.search.dto.SearchPage;
+import thesis.domain.search.dto.SearchPageRequest;
+import thesis.domain.search.dto.enums.SearchSortOrder;
+import thesis.exceptions.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Utility class for keyset pagination of search results.
+ * <p>
+ * A continuation token holds the sort score and the record ID of the last item of a page, and its tier when the
+ * order is tiered.
+ * The next page starts right after that position, so pages stay consistent while results are added or removed.
+ * </p>
+ */
+public final class SearchPagination {
+    private static final String SEPARATOR = "\n";
+    private static final String TIER_SEPARATOR = ":";
+
+    private SearchPagination() {
+    }
+
+    /**
+     * Decodes a continuation token.
+     *
+     * @param cursor the continuation token, may be null
+     * @return the position of the last item of the previous page, or null for the first page
+     * @throws BadRequestException if the token is malformed
+     */
+    public static ScoredRecordId decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+
+        try {
+            var decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            var separatorIndex = decoded.indexOf(SEPARATOR);
+            if (separatorIndex < 0) {
+                throw new BadRequestException("Invalid cursor");
+            }
+            var score = decoded.substring(0, separatorIndex);
+            var tierIndex = score.indexOf(TIER_SEPARATOR);
+            var tier = tierIndex < 0 ? 0 : Integer.parseInt(score.substring(0, tierIndex));
+            var value = Double.parseDouble(score.substring(tierIndex + 1));
+            // a position of an index entry always has a finite score and a tier that is not negative
+            if (tier < 0 || !Double.isFinite(value)) {
+                throw new BadRequestException("Invalid cursor");
+            }
+            return new ScoredRecordId(decoded.substring(separatorIndex + 1), value, tier);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+
+    /**
+     * Encodes the position of the last item of a page as a continuation token.
+     *
+     * @param position the score, tier and record ID of the last item
+     * @return the continuation token
+     */
+    public static String encodeCursor(ScoredRecordId position) {
+        var score = position.tier() == 0
+                ? String.valueOf(position.score())
+                : position.tier() + TIER_SEPARATOR + position.score();
+        var raw = score + SEPARATOR + position.recordId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Translates a search page request into an index page request.
+     *
+     * @param request the search page request, pages sorted by distance are read in ascending order of the tier and
+     *                the distance
+     * @param limit   the number of entries to read from the index
+     * @return the index page request
+     */
+    public static RangePageRequest toRangePageRequest(SearchPageRequest request, int limit) {
+        var sort = request.sortOrDefault();
+        var sortByMax = sort == SearchSortOrder.MAX_ASC || sort == SearchSortOrder.MAX_DESC;
+        var descending = sort == SearchSortOrder.MIN_DESC || sort == SearchSortOrder.MAX_DESC;
+        return new RangePageRequest(sortByMax, descending, decodeCursor(request.cursor()), limit);
+    }
+
+    /**
+     * Pages items held in memory, ordered by the given score and then by record ID.
+     *
+     * @param items      the items to page
+     * @param recordId   the function returning the record ID of an item
+     * @param score      the function returning the sort score of an item
+     * @param descending whether the items are ordered by descending score
+     * @param request    the search page request
+     * @param <T>        the type of the items
+     * @return the requested page
+     */
+    public static <T> SearchPage<T> page(List<T> items, Function<T, String> recordId, ToDoubleFunction<T> score,
+                                         boolean descending, SearchPageRequest request) {
+        var pageRequest = new RangePageRequest(false, descending, decodeCursor(request.cursor()), request.limit());
+
+        Comparator<T> comparator = Comparator.<T>comparingDouble(score).thenComparing(recordId);
+        var sorted = items.stream()
+                .filter(item -> pageRequest.isAfterStart(recordId.apply(item), score.applyAsDouble(item)))
+                .sorted(descending ? comparator.reversed() : comparator)
+                .limit(request.limit() + 1L)
+                .toList();
+
+        return toPage(sorted, request.limit(), item -> new ScoredRecordId(recordId.apply(item), score.applyAsDouble(item)));
+    }
+
+    /**
+     * Pages items held in memory, ordered by record ID.
+     *
+     * @param items    the items to page
+     * @param recordId the function returning the record ID of an item
+     * @param request  the search page request
+     * @param <T>      the type of the items
+     * @return the requested page
+     */
+    public static <T> SearchPage<T> pageByRecordId(List<T> items, Function<T, String> recordId, SearchPageRequest request) {
+        return page(items, recordId, item -> 0.0, false, request);
+    }
+
+    /**
+     * Builds a page from up to limit + 1 items, the additional item signals that another page follows.
+     *
+     * @param items    the items of the page and possibly the first item of the next page
+     * @param limit    the page size
+     * @param position the function returning the cursor position of an item
+     * @param <T>      the type of the items
+     * @return the page with a continuation token if another page follows
+     */
+    public static <T> SearchPage<T> toPage(List<T> items, int limit, Function<T, ScoredRecordId> position) {
+        if (items.size() <= limit) {
+            return new SearchPage<>(items, null);
+        }
+
+        var pageItems = new ArrayList<>(items.subList(0, limit));
+        return new SearchPage<>(pageItems, encodeCursor(position.apply(pageItems.get(limit - 1))));
+    }
+}
@@ -0,0 +1,61 @@
+package thesis.domain.search.service.planner;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import thesis.data.service.RecordOrdinalRegistry;
+import thesis.data.service.RecordService;
+import thesis.domain.search.dto.AdvancedSearchResult;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Plans and executes the boolean expressions of advanced searches.
+ * <p>
+ * Intermediate results are kept as bitmaps over the ordinals of the RecordOrdinalRegistry,
+ * so intersections, unions and differences are word-wise operations instead of hash set lookups.
+ * Record IDs are only materialized for the sub-queries and for the final result.
+ * </p>
+ * <p>
+ * Every operator decides from the estimates of its operands which of them are scanned and which are only
+ * probed for the candidates left so far, see AndNode, OrNode and NotNode. Independent sub-queries are executed
+ * concurrently by the SubQueryExecutor and evaluation stops as soon as the result can not change anymore.
+ * </p>
+ */
+@Component
+public class AdvancedSearchPlanner {
+    private final SubQueryExecutor subQueryExecutor;
+    private final RecordService recordService;
+    private final RecordOrdinalRegistry ordinalRegistry;
+
+    @Autowired
+    public AdvancedSearchPlanner(SubQueryExecutor subQueryExecutor, RecordService recordService,
+                                 RecordOrdinalRegistry ordinalRegistry) {
+        this.subQueryExecutor = subQueryExecutor;
+        this.recordService = recordService;
+        this.ordinalRegistry = ordinalRegistry;
+    }
+
+    /**
+     * Executes the intersection of the given criteria.
+     *
+     * @param criteria the criteria that all have to match
+     * @return the matching record IDs and the executed plan, no record matches if there are no criteria
+     */
+    public AdvancedSearchResult execute(List<SearchCriterion> criteria) {
+        return execute(PlanNode.and(criteria.stream().map(PlanNode::criterion).toList()));
+    }
+
+    /**
+     * Executes the given expression. The plan lists every evaluated node below the root.
+     *
+     * @param root the root of the expression
+     * @return the matching record IDs and the executed plan
+     */
+    public AdvancedSearchResult execute(PlanNode root) {
+        var context = new EvaluationContext(subQueryExecutor, recordService, ordinalRegistry);
+        root.assignDepth(0);
+        var matches = root.scan(context);
+        return new AdvancedSearchResult(ordinalRegistry.toRecordIds(matches), new ArrayList<>(context.plan()));
+    }
+}
@@ -0,0 +1,122 @@
+package thesis.domain.search.service.planner;
+
+import thesis.domain.search.dto.enums.SearchPlanStepType;
+
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+
+/**
+ * Intersection of the operands.
+ * <p>
+ * The operands are ordered by their estimated number of matches and only the most selective one is scanned.
+ * Since estimates never undercount, the candidates left after the scan are at most as many as any following
+ * operand could match, so every following operand is only probed for the remaining candidates as a semi-join.
+ * A negated operand is estimated with the whole population and is therefore always probed,
+ * which turns it into a difference with the candidates.
+ * </p>
+ * <p>
+ * The following operands are probed concurrently in groups of the per-search concurrency of the SubQueryExecutor.
+ * Each group probes the candidates left by the previous group and its matches are intersected as the probes
+ * complete. Evaluation stops as soon as an estimate is zero or no candidate is left.
+ * </p>
+ */
+final class AndNode extends CompositeNode {
+
+    AndNode(List<PlanNode> operands) {
+        super(operands);
+    }
+
+    @Override
+    String describe() {
+        return "AND";
+    }
+
+    @Override
+    long computeEstimate(EvaluationContext context) {
+        var estimates = estimateOperands(context, true);
+        if (estimates.isEmpty() || estimates.contains(null)) {
+            return 0;
+        }
+        return estimates.stream().mapToLong(Long::longValue).min().orElse(0);
+    }
+
+    @Override
+    BitSet scan(EvaluationContext context) {
+        var ordered = order(context);
+        if (ordered == null) {
+            return new BitSet();
+        }
+
+        var first = ordered.get(0);
+        var candidates = first.scan(context);
+        context.record(first, SearchPlanStepType.SCAN, null, candidates.cardinality());
+        return probeInGroups(context, ordered.subList(1, ordered.size()), candidates);
+    }
+
+    @Override
+    BitSet probe(EvaluationContext context, BitSet candidates) {
+        var ordered = order(context);
+        if (ordered == null) {
+            return new BitSet();
+        }
+        return probeInGroups(context, ordered, (BitSet) candidates.clone());
+    }
+
+    // the operands ordered by their estimates, null if the intersection is empty without evaluating any operand
+    private List<PlanNode> order(EvaluationContext context) {
+        if (operands.isEmpty()) {
+            return null;
+        }
+
+        var estimates = estimateOperands(context, true);
+        if (estimates.contains(null) || estimates.contains(0L)) {
+            // an operand without matches empties the intersection, nothing has to be evaluated
+            skip(context, operands);
+            return null;
+        }
+        return operands.stream()
+                .sorted(Comparator.comparingLong(operand -> operand.estimate(context)))
+                .toList();
+    }
+
+    private BitSet probeInGroups(EvaluationContext context, List<PlanNode> ordered, BitSet candidates) {
+        var concurrency = context.executor().getConcurrency();
+        int next = 0;
+        while (next < ordered.size() && !candidates.isEmpty()) {
+            var group = ordered.subList(next, Math.min(ordered.size(), next + concurrency));
+            candidates = probeGroup(context, group, candidates);
+            next += group.size();
+        }
+
+        skip(context, ordered.subList(next, ordered.size()));
+        return candidates;
+    }
+
+    private BitSet probeGroup(EvaluationContext context, List<PlanNode> group, BitSet candidates) {
+        // the candidates are only read by the probes, the intersection is built on the calling thread
+        var matches = (BitSet) candidates.clone();
+        var candidateCount = candidates.cardinality();
+        Set<Integer> completed = new HashSet<>();
+        List<Callable<BitSet>> tasks = group.stream()
+                .map(operand -> (Callable<BitSet>) () -> operand.probe(context, candidates))
+                .toList();
+
+        context.executor().forEachCompleted(tasks, (index, probed) -> {
+            matches.and(probed);
+            completed.add(index);
+            context.record(group.get(index), SearchPlanStepType.PROBE, candidateCount, matches.cardinality());
+            return !matches.isEmpty();
+        });
+
+        for (int i = 0; i < group.size(); i++) {
+            if (!completed.contains(i)) {
+                context.record(group.get(i), SearchPlanStepType.SKIPPED, null, null);
+            }
+        }
+        return matches;
+    }
+}
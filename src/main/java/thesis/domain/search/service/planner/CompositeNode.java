@@ -0,0 +1,50 @@
+package thesis.domain.search.service.planner;
+
+import thesis.domain.search.dto.enums.SearchPlanStepType;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * Base class of the nodes combining several operands.
+ */
+abstract class CompositeNode extends PlanNode {
+    final List<PlanNode> operands;
+
+    CompositeNode(List<PlanNode> operands) {
+        this.operands = List.copyOf(operands);
+    }
+
+    @Override
+    void assignDepth(int depth) {
+        super.assignDepth(depth);
+        operands.forEach(operand -> operand.assignDepth(depth + 1));
+    }
+
+    /**
+     * Estimates all operands concurrently.
+     *
+     * @param context    the evaluation context
+     * @param stopOnZero whether to stop as soon as an estimate is zero
+     * @return the estimates in the order of the operands, null for estimates that were not computed
+     */
+    List<Long> estimateOperands(EvaluationContext context, boolean stopOnZero) {
+        List<Long> estimates = new ArrayList<>();
+        operands.forEach(operand -> estimates.add(null));
+
+        List<Callable<Long>> tasks = operands.stream()
+                .map(operand -> (Callable<Long>) () -> operand.estimate(context))
+                .toList();
+        context.executor().forEachCompleted(tasks, (index, estimate) -> {
+            estimates.set(index, estimate);
+            return !stopOnZero || estimate != 0;
+        });
+        return estimates;
+    }
+
+    static void skip(EvaluationContext context, Collection<PlanNode> nodes) {
+        nodes.forEach(node -> context.record(node, SearchPlanStepType.SKIPPED, null, null));
+    }
+}
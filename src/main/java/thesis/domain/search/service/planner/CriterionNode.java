@@ -0,0 +1,35 @@
+package thesis.domain.search.service.planner;
+
+import java.util.BitSet;
+
+/**
+ * Leaf of a search expression, translating between the record IDs of the criterion and the ordinal bitmaps of the evaluation.
+ */
+final class CriterionNode extends PlanNode {
+    private final SearchCriterion criterion;
+
+    CriterionNode(SearchCriterion criterion) {
+        this.criterion = criterion;
+    }
+
+    @Override
+    String describe() {
+        return criterion.describe();
+    }
+
+    @Override
+    long computeEstimate(EvaluationContext context) {
+        return criterion.estimate();
+    }
+
+    @Override
+    BitSet scan(EvaluationContext context) {
+        return context.ordinals().toBitSet(criterion.scan());
+    }
+
+    @Override
+    BitSet probe(EvaluationContext context, BitSet candidates) {
+        var recordIds = context.ordinals().toRecordIds(candidates);
+        return context.ordinals().toBitSet(criterion.probe(recordIds));
+    }
+}
@@ -0,0 +1,65 @@
+package thesis.domain.search.service.planner;
+
+import thesis.data.service.RecordOrdinalRegistry;
+import thesis.data.service.RecordService;
+import thesis.domain.search.dto.SearchPlanStep;
+import thesis.domain.search.dto.enums.SearchPlanStepType;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * State of the evaluation of a single search expression: the lazily loaded population of all records
+ * for negations and the executed plan.
+ */
+final class EvaluationContext {
+    private final SubQueryExecutor subQueryExecutor;
+    private final RecordService recordService;
+    private final RecordOrdinalRegistry ordinalRegistry;
+    private final List<SearchPlanStep> plan = Collections.synchronizedList(new ArrayList<>());
+    private Long populationSize;
+    private BitSet population;
+
+    EvaluationContext(SubQueryExecutor subQueryExecutor, RecordService recordService,
+                      RecordOrdinalRegistry ordinalRegistry) {
+        this.subQueryExecutor = subQueryExecutor;
+        this.recordService = recordService;
+        this.ordinalRegistry = ordinalRegistry;
+    }
+
+    SubQueryExecutor executor() {
+        return subQueryExecutor;
+    }
+
+    RecordOrdinalRegistry ordinals() {
+        return ordinalRegistry;
+    }
+
+    List<SearchPlanStep> plan() {
+        return plan;
+    }
+
+    synchronized long populationSize() {
+        if (populationSize == null) {
+            populationSize = population != null ? population.cardinality() : recordService.count();
+        }
+        return populationSize;
+    }
+
+    // the returned bitmap is shared and must not be modified
+    synchronized BitSet population() {
+        if (population == null) {
+            var bits = new BitSet();
+            recordService.streamAllIds().forEachChunk(chunk -> bits.or(ordinalRegistry.toBitSet(chunk)));
+            population = bits;
+        }
+        return population;
+    }
+
+    void record(PlanNode node, SearchPlanStepType type, Integer candidates, Integer matches) {
+        // the root is not part of the plan, its operands are on the first level
+        plan.add(new SearchPlanStep(node.describe(), node.getEstimate(), type, candidates, matches, node.getDepth() - 1));
+    }
+}
@@ -0,0 +1,58 @@
+package thesis.domain.search.service.planner;
+
+import thesis.domain.search.dto.enums.SearchPlanStepType;
+
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Complement of the operand within all records.
+ * A scan subtracts the operand from the whole population, a probe only subtracts it from the candidates,
+ * so a negation inside an intersection never has to load the population.
+ */
+final class NotNode extends CompositeNode {
+
+    NotNode(PlanNode operand) {
+        super(List.of(operand));
+    }
+
+    @Override
+    String describe() {
+        return "NOT";
+    }
+
+    @Override
+    long computeEstimate(EvaluationContext context) {
+        return context.populationSize();
+    }
+
+    @Override
+    BitSet scan(EvaluationContext context) {
+        var operand = operands.get(0);
+        var result = (BitSet) context.population().clone();
+        if (operand.estimate(context) == 0) {
+            context.record(operand, SearchPlanStepType.SKIPPED, null, null);
+            return result;
+        }
+
+        var excluded = operand.scan(context);
+        context.record(operand, SearchPlanStepType.SCAN, null, excluded.cardinality());
+        result.andNot(excluded);
+        return result;
+    }
+
+    @Override
+    BitSet probe(EvaluationContext context, BitSet candidates) {
+        var operand = operands.get(0);
+        var result = (BitSet) candidates.clone();
+        if (operand.estimate(context) == 0) {
+            context.record(operand, SearchPlanStepType.SKIPPED, null, null);
+            return result;
+        }
+
+        var excluded = operand.probe(context, candidates);
+        context.record(operand, SearchPlanStepType.PROBE, candidates.cardinality(), excluded.cardinality());
+        result.andNot(excluded);
+        return result;
+    }
+}
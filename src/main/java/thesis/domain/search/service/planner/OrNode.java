@@ -0,0 +1,109 @@
+package thesis.domain.search.service.planner;
+
+import thesis.domain.search.dto.enums.SearchPlanStepType;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+
+/**
+ * Union of the operands.
+ * <p>
+ * A scan scans all operands concurrently and unites their bitmaps. A probe checks the candidates against the
+ * operands with the most matches first, in groups of the per-search concurrency, and only passes the candidates
+ * that have not matched yet on to the next group. Operands estimated without matches are never evaluated.
+ * </p>
+ */
+final class OrNode extends CompositeNode {
+
+    OrNode(List<PlanNode> operands) {
+        super(operands);
+    }
+
+    @Override
+    String describe() {
+        return "OR";
+    }
+
+    @Override
+    long computeEstimate(EvaluationContext context) {
+        return estimateOperands(context, false).stream().mapToLong(Long::longValue).sum();
+    }
+
+    @Override
+    BitSet scan(EvaluationContext context) {
+        var matching = matchingOperands(context);
+        var matches = new BitSet();
+        List<Callable<BitSet>> tasks = matching.stream()
+                .map(operand -> (Callable<BitSet>) () -> operand.scan(context))
+                .toList();
+
+        context.executor().forEachCompleted(tasks, (index, scanned) -> {
+            matches.or(scanned);
+            context.record(matching.get(index), SearchPlanStepType.SCAN, null, scanned.cardinality());
+            return true;
+        });
+        return matches;
+    }
+
+    @Override
+    BitSet probe(EvaluationContext context, BitSet candidates) {
+        var ordered = new ArrayList<>(matchingOperands(context));
+        ordered.sort(Comparator.comparingLong((PlanNode operand) -> operand.estimate(context)).reversed());
+
+        var concurrency = context.executor().getConcurrency();
+        var remaining = (BitSet) candidates.clone();
+        var matches = new BitSet();
+        int next = 0;
+        while (next < ordered.size() && !remaining.isEmpty()) {
+            var group = ordered.subList(next, Math.min(ordered.size(), next + concurrency));
+            probeGroup(context, group, remaining, matches);
+            next += group.size();
+        }
+
+        skip(context, ordered.subList(next, ordered.size()));
+        return matches;
+    }
+
+    // the operands that can match, the others are recorded as skipped
+    private List<PlanNode> matchingOperands(EvaluationContext context) {
+        estimateOperands(context, false);
+        List<PlanNode> matching = new ArrayList<>();
+        for (var operand : operands) {
+            if (operand.estimate(context) == 0) {
+                context.record(operand, SearchPlanStepType.SKIPPED, null, null);
+            } else {
+                matching.add(operand);
+            }
+        }
+        return matching;
+    }
+
+    private void probeGroup(EvaluationContext context, List<PlanNode> group, BitSet remaining, BitSet matches) {
+        // the probes read a copy, the remaining candidates shrink on the calling thread as the probes complete
+        var input = (BitSet) remaining.clone();
+        var candidateCount = input.cardinality();
+        Set<Integer> completed = new HashSet<>();
+        List<Callable<BitSet>> tasks = group.stream()
+                .map(operand -> (Callable<BitSet>) () -> operand.probe(context, input))
+                .toList();
+
+        context.executor().forEachCompleted(tasks, (index, probed) -> {
+            matches.or(probed);
+            remaining.andNot(probed);
+            completed.add(index);
+            context.record(group.get(index), SearchPlanStepType.PROBE, candidateCount, probed.cardinality());
+            return !remaining.isEmpty();
+        });
+
+        for (int i = 0; i < group.size(); i++) {
+            if (!completed.contains(i)) {
+                context.record(group.get(i), SearchPlanStepType.SKIPPED, null, null);
+            }
+        }
+    }
+}
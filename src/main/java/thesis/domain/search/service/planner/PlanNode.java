@@ -0,0 +1,92 @@
+package thesis.domain.search.service.planner;
+
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * A node of a search expression prepared for evaluation by the AdvancedSearchPlanner.
+ * Leaves wrap a SearchCriterion, inner nodes combine the bitmaps of their operands with AND, OR or NOT.
+ * <p>
+ * Every node can be evaluated in two ways: a scan reads all matching records, a probe only checks
+ * which of the given candidates match. The parent decides which one to use based on the estimates.
+ * </p>
+ */
+public abstract class PlanNode {
+    private volatile Long estimate;
+    private int depth;
+
+    PlanNode() {
+    }
+
+    /**
+     * Creates a leaf matching the records of the given criterion.
+     *
+     * @param criterion the prepared criterion
+     * @return the node
+     */
+    public static PlanNode criterion(SearchCriterion criterion) {
+        return new CriterionNode(criterion);
+    }
+
+    /**
+     * Creates a node matching the records that match all operands, no records if there are no operands.
+     *
+     * @param operands the operands
+     * @return the node
+     */
+    public static PlanNode and(List<PlanNode> operands) {
+        return new AndNode(operands);
+    }
+
+    /**
+     * Creates a node matching the records that match at least one operand.
+     *
+     * @param operands the operands
+     * @return the node
+     */
+    public static PlanNode or(List<PlanNode> operands) {
+        return new OrNode(operands);
+    }
+
+    /**
+     * Creates a node matching all records that do not match the operand.
+     *
+     * @param operand the operand
+     * @return the node
+     */
+    public static PlanNode not(PlanNode operand) {
+        return new NotNode(operand);
+    }
+
+    abstract String describe();
+
+    abstract long computeEstimate(EvaluationContext context);
+
+    abstract BitSet scan(EvaluationContext context);
+
+    // the candidates are shared with concurrent sub-queries and must not be modified
+    abstract BitSet probe(EvaluationContext context, BitSet candidates);
+
+    // an upper bound of the number of matching records, computed once per evaluation
+    final long estimate(EvaluationContext context) {
+        var value = estimate;
+        if (value == null) {
+            value = computeEstimate(context);
+            estimate = value;
+        }
+        return value;
+    }
+
+    // the estimate if it has been computed, otherwise null
+    final Long getEstimate() {
+        return estimate;
+    }
+
+    final int getDepth() {
+        return depth;
+    }
+
+    void assignDepth(int depth) {
+        this.depth = depth;
+    }
+}
@@ -0,0 +1,79 @@
+package thesis.domain.search.service.planner;
+
+import java.util.Set;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * A single criterion of an advanced search, prepared by the search service of its type.
+ * The options of the criterion are validated and resolved when it is created,
+ * so the planner can estimate, scan and probe it without repeating that work.
+ */
+public interface SearchCriterion {
+
+    /**
+     * Returns a short human readable description of the criterion for the search plan.
+     *
+     * @return the description
+     */
+    String describe();
+
+    /**
+     * Estimates the number of matching records from the index sizes without reading any record IDs.
+     * The estimate may overcount, e.g. when filters can only be checked on the loaded results, but never undercounts.
+     *
+     * @return an upper bound of the number of matching records
+     */
+    long estimate();
+
+    /**
+     * Reads the IDs of all records matching the criterion.
+     *
+     * @return a set of record IDs
+     */
+    Set<String> scan();
+
+    /**
+     * Checks which of the given candidate records match the criterion.
+     * The cost depends on the number of candidates rather than on the number of matches.
+     *
+     * @param recordIds the candidate record IDs
+     * @return the subset of the candidates that match the criterion
+     */
+    Set<String> probe(Set<String> recordIds);
+
+    /**
+     * Creates a criterion from its description and operations.
+     *
+     * @param description the description of the criterion
+     * @param estimate    the estimate of the number of matching records
+     * @param scan        reads all matching record IDs
+     * @param probe       checks which candidate record IDs match
+     * @return the criterion
+     */
+    static SearchCriterion of(String description, LongSupplier estimate, Supplier<Set<String>> scan,
+                              UnaryOperator<Set<String>> probe) {
+        return new SearchCriterion() {
+            @Override
+            public String describe() {
+                return description;
+            }
+
+            @Override
+            public long estimate() {
+                return estimate.getAsLong();
+            }
+
+            @Override
+            public Set<String> scan() {
+                return scan.get();
+            }
+
+            @Override
+            public Set<String> probe(Set<String> recordIds) {
+                return probe.apply(recordIds);
+            }
+        };
+    }
+}
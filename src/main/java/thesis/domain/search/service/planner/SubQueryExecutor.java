@@ -0,0 +1,160 @@
+package thesis.domain.search.service.planner;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import thesis.config.SearchProperties;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiPredicate;
+
+/**
+ * Executes the sub-queries of advanced searches concurrently.
+ * <p>
+ * All searches share one pool of {@code search.sub-query-threads} threads, which caps the number of sub-queries
+ * waiting on Redis at the same time, and a single search keeps at most {@code search.sub-query-concurrency}
+ * of its sub-queries in flight, so one large search can not occupy the whole pool.
+ * With a concurrency of one the sub-queries run one after another on the calling thread.
+ * </p>
+ * <p>
+ * Sub-queries started from a sub-query, e.g. the operands of a nested expression, also run on the calling
+ * thread, so a pool thread never waits for tasks queued behind it.
+ * </p>
+ */
+@Component
+public class SubQueryExecutor {
+    private static final ThreadLocal<Boolean> POOL_THREAD = ThreadLocal.withInitial(() -> false);
+
+    private final ExecutorService executor;
+    private final int concurrency;
+
+    @Autowired
+    public SubQueryExecutor(SearchProperties searchProperties) {
+        this.concurrency = Math.max(1, searchProperties.getSubQueryConcurrency());
+        var threads = Math.max(1, searchProperties.getSubQueryThreads());
+        var threadCount = new AtomicInteger();
+        var pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            var thread = new Thread(() -> {
+                POOL_THREAD.set(true);
+                runnable.run();
+            }, "search-sub-query-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        pool.allowCoreThreadTimeOut(true);
+        this.executor = pool;
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    /**
+     * Executes the tasks and returns their results in the order of the tasks.
+     *
+     * @param tasks the tasks to execute
+     * @param <T>   the type of the results
+     * @return the results of the tasks
+     */
+    public <T> List<T> invokeAll(List<Callable<T>> tasks) {
+        List<T> results = new ArrayList<>(tasks.size());
+        tasks.forEach(task -> results.add(null));
+        forEachCompleted(tasks, (index, result) -> {
+            results.set(index, result);
+            return true;
+        });
+        return results;
+    }
+
+    /**
+     * Executes the tasks and passes every result to the handler on the calling thread as soon as it is available.
+     * When the handler returns false the tasks that have not completed yet are cancelled and no further
+     * result is passed on. If a task fails, the remaining tasks are cancelled and the exception is rethrown.
+     *
+     * @param tasks   the tasks to execute
+     * @param handler receives the index of the task and its result, returns whether to continue
+     * @param <T>     the type of the results
+     */
+    public <T> void forEachCompleted(List<Callable<T>> tasks, BiPredicate<Integer, T> handler) {
+        if (concurrency == 1 || tasks.size() <= 1 || POOL_THREAD.get()) {
+            for (int i = 0; i < tasks.size(); i++) {
+                if (!handler.test(i, call(tasks.get(i)))) {
+                    return;
+                }
+            }
+            return;
+        }
+
+        var completionService = new ExecutorCompletionService<T>(executor);
+        Map<Future<T>, Integer> running = new HashMap<>();
+        int next = 0;
+        try {
+            while (next < tasks.size() && running.size() < concurrency) {
+                running.put(completionService.submit(tasks.get(next)), next);
+                next++;
+            }
+
+            while (!running.isEmpty()) {
+                var future = completionService.take();
+                var index = running.remove(future);
+                if (!handler.test(index, getResult(future))) {
+                    return;
+                }
+                if (next < tasks.size()) {
+                    running.put(completionService.submit(tasks.get(next)), next);
+                    next++;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for search sub-queries", e);
+        } finally {
+            running.keySet().forEach(future -> future.cancel(true));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static <T> T call(Callable<T> task) {
+        try {
+            return task.call();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException("Search sub-query failed", e);
+        }
+    }
+
+    private static <T> T getResult(Future<T> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (CancellationException e) {
+            throw new IllegalStateException("Search sub-query was cancelled", e);
+        } catch (ExecutionException e) {
+            // rethrow the original exception so BadRequestException and the like keep their meaning
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException("Search sub-query failed", e.getCause());
+        }
+    }
+}
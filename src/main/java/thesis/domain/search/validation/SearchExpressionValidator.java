@@ -0,0 +1,67 @@
+package thesis.domain.search.validation;
+
+import org.springframework.stereotype.Component;
+import thesis.domain.search.dto.SearchExpression;
+import thesis.domain.search.dto.enums.SearchExpressionOperator;
+import thesis.exceptions.BadRequestException;
+
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Validator class for boolean search expressions.
+ * It checks the structure of the expression tree, the options of the leaves are validated by their search services.
+ */
+@Component
+public class SearchExpressionValidator {
+    // deeper expressions are rejected so a request can not exhaust the stack while the tree is evaluated
+    static final int MAX_DEPTH = 32;
+
+    /**
+     * Validates the provided search expression.
+     *
+     * @param expression the search expression to validate
+     * @throws BadRequestException if the expression is invalid
+     */
+    public void validate(SearchExpression expression) {
+        if (expression == null) {
+            return;
+        }
+        validate(expression, 1);
+    }
+
+    private void validate(SearchExpression expression, int depth) {
+        if (expression == null) {
+            throw new BadRequestException("Search expression operands cannot be null");
+        }
+        if (depth > MAX_DEPTH) {
+            throw new BadRequestException("Search expression cannot be nested deeper than " + MAX_DEPTH + " levels");
+        }
+
+        var options = Stream.of(expression.getNumericOption(), expression.getStringOption(), expression.getBoolOption())
+                .filter(Objects::nonNull)
+                .count();
+
+        if (expression.getOperator() == null) {
+            if (options != 1) {
+                throw new BadRequestException("Search expression leaf must contain exactly one search option");
+            }
+            if (expression.getOperands() != null && !expression.getOperands().isEmpty()) {
+                throw new BadRequestException("Search expression leaf cannot have operands");
+            }
+            return;
+        }
+
+        if (options != 0) {
+            throw new BadRequestException("Search expression with an operator cannot contain a search option");
+        }
+        if (expression.getOperands() == null || expression.getOperands().isEmpty()) {
+            throw new BadRequestException("Search expression operator " + expression.getOperator() + " requires operands");
+        }
+        if (expression.getOperator() == SearchExpressionOperator.NOT && expression.getOperands().size() != 1) {
+            throw new BadRequestException("Search expression operator NOT requires exactly one operand");
+        }
+
+        expression.getOperands().forEach(operand -> validate(operand, depth + 1));
+    }
+}
@@ -0,0 +1,57 @@
+package thesis.domain.search.validation;
+
+import org.springframework.stereotype.Component;
+import thesis.domain.search.dto.SimilaritySearchOptions;
+import thesis.domain.search.dto.SimilarityValue;
+import thesis.exceptions.BadRequestException;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Validator class for similarity search options.
+ * It checks the validity of the provided options and ensures that they conform to the expected format and constraints.
+ */
+@Component
+public class SimilaritySearchValidator {
+    /**
+     * Validates the provided similarity search options.
+     *
+     * @param options the similarity search options to validate
+     * @throws BadRequestException if the options are invalid
+     */
+    public void validateOptions(SimilaritySearchOptions options) {
+        var hasValues = options.getValues() != null && !options.getValues().isEmpty();
+        if (options.getRecordId() == null && !hasValues) {
+            throw new BadRequestException("Either a record ID or values must be provided");
+        }
+
+        if (!hasValues) {
+            return;
+        }
+
+        Set<String> markerNames = new HashSet<>();
+        for (SimilarityValue value : options.getValues()) {
+            if (!markerNames.add(value.getMarkerName())) {
+                throw new BadRequestException(String.format("Marker '%s' can only be provided once", value.getMarkerName()));
+            }
+
+            var hasRange = value.getValue() != null || value.getMinimum() != null || value.getMaximum() != null;
+            if (options.getRecordId() != null && (hasRange || value.getUnitName() != null)) {
+                throw new BadRequestException("Only marker names and weights can be provided with a record ID");
+            }
+
+            if (options.getRecordId() == null && !hasRange) {
+                throw new BadRequestException(String.format("Value, minimum or maximum must be provided for marker '%s'", value.getMarkerName()));
+            }
+
+            if (value.getValue() != null && (value.getMinimum() != null || value.getMaximum() != null)) {
+                throw new BadRequestException("Value cannot be provided with minimum or maximum");
+            }
+
+            if (value.getMinimum() != null && value.getMaximum() != null && value.getMinimum() > value.getMaximum()) {
+                throw new BadRequestException("Minimum must be less than maximum");
+            }
+        }
+    }
+}
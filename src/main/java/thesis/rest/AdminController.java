@@ -4,10 +4,24 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import thesis.data.service.MetadataCache;
+import thesis.data.service.RecordOrdinalRegistry;
+import thesis.data.service.query.index.AggregatedMarkerIndex;
+import thesis.data.service.query.index.IndexMirrorStatistics;
+import thesis.data.service.query.index.MarkerStatisticsCatalog;
+import thesis.data.service.query.index.NumericColumnSnapshot;
+import thesis.data.service.query.index.ResultBitmapIndex;
+import thesis.data.service.query.index.ResultFilterIndex;
+import thesis.data.service.query.index.ResultIndexMirror;
+import thesis.data.service.query.index.StringCategoryOrdinalIndex;
+import thesis.data.service.query.index.TechnologyPartitionIndex;
+import thesis.domain.search.cache.SearchCacheStatistics;
+import thesis.domain.search.cache.SearchResultCache;
 
 @RestController
 @RequestMapping("/admin")
@@ -15,9 +29,36 @@ public class AdminController {
     private static final Logger LOGGER = LoggerFactory.getLogger(AdminController.class);
 
     private final StringRedisTemplate redisTemplate;
+    private final ResultIndexMirror indexMirror;
+    private final RecordOrdinalRegistry ordinalRegistry;
+    private final ResultBitmapIndex bitmapIndex;
+    private final StringCategoryOrdinalIndex categoryOrdinalIndex;
+    private final SearchResultCache resultCache;
+    private final MetadataCache metadataCache;
+    private final AggregatedMarkerIndex aggregatedIndex;
+    private final ResultFilterIndex filterIndex;
+    private final TechnologyPartitionIndex partitionIndex;
+    private final NumericColumnSnapshot columnSnapshot;
+    private final MarkerStatisticsCatalog statisticsCatalog;
 
-    public AdminController(StringRedisTemplate redisTemplate) {
+    public AdminController(StringRedisTemplate redisTemplate, ResultIndexMirror indexMirror,
+                           RecordOrdinalRegistry ordinalRegistry, ResultBitmapIndex bitmapIndex,
+                           StringCategoryOrdinalIndex categoryOrdinalIndex, SearchResultCache resultCache,
+                           MetadataCache metadataCache, AggregatedMarkerIndex aggregatedIndex,
+                           ResultFilterIndex filterIndex, TechnologyPartitionIndex partitionIndex,
+                           NumericColumnSnapshot columnSnapshot, MarkerStatisticsCatalog statisticsCatalog) {
         this.redisTemplate = redisTemplate;
+        this.indexMirror = indexMirror;
+        this.ordinalRegistry = ordinalRegistry;
+        this.bitmapIndex = bitmapIndex;
+        this.categoryOrdinalIndex = categoryOrdinalIndex;
+        this.resultCache = resultCache;
+        this.metadataCache = metadataCache;
+        this.aggregatedIndex = aggregatedIndex;
+        this.filterIndex = filterIndex;
+        this.partitionIndex = partitionIndex;
+        this.columnSnapshot = columnSnapshot;
+        this.statisticsCatalog = statisticsCatalog;
     }
 
     @ResponseStatus(HttpStatus.NO_CONTENT)
@@ -25,5 +66,72 @@ public class AdminController {
     public void flushAll() {
         LOGGER.info("Flushing all Redis data");
         redisTemplate.getConnectionFactory().getConnection().serverCommands().flushAll();
+        indexMirror.invalidateAll();
+        ordinalRegistry.invalidateAll();
+        resultCache.invalidateAll();
+        metadataCache.evictAll();
+        aggregatedIndex.invalidate();
+        columnSnapshot.invalidateAll();
+        statisticsCatalog.invalidateAll();
     }
-}
\ No newline at end of file
+
+    @PostMapping("/record-ordinals/migrate")
+    public long migrateRecordOrdinals() {
+        LOGGER.info("Assigning ordinals to existing records");
+        return ordinalRegistry.migrate();
+    }
+
+    @PostMapping("/result-bitmaps/rebuild")
+    public long rebuildResultBitmaps() {
+        LOGGER.info("Rebuilding result bitmap indexes");
+        return bitmapIndex.rebuild();
+    }
+
+    @PostMapping("/category-ordinals/rebuild")
+    public long rebuildCategoryOrdinals() {
+        LOGGER.info("Rebuilding string category ordinal indexes");
+        return categoryOrdinalIndex.rebuild();
+    }
+
+    @PostMapping("/aggregated-indexes/rebuild")
+    public long rebuildAggregatedIndexes() {
+        LOGGER.info("Rebuilding aggregated marker indexes");
+        return aggregatedIndex.rebuild();
+    }
+
+    @PostMapping("/filter-indexes/rebuild")
+    public long rebuildFilterIndexes() {
+        LOGGER.info("Rebuilding sample and timestamp filter indexes");
+        return filterIndex.rebuild();
+    }
+
+    @PostMapping("/technology-partitions/rebuild")
+    public long rebuildTechnologyPartitions() {
+        LOGGER.info("Rebuilding technology partitions of the numeric indexes");
+        return partitionIndex.rebuild();
+    }
+
+    @PostMapping("/column-snapshot/rebuild")
+    public long rebuildColumnSnapshot() {
+        LOGGER.info("Loading numeric column snapshot");
+        return columnSnapshot.rebuild();
+    }
+
+    @PostMapping("/marker-statistics/rebuild")
+    public long rebuildMarkerStatistics() {
+        LOGGER.info("Rebuilding marker statistics");
+        return statisticsCatalog.rebuild();
+    }
+
+    @GetMapping("/index-mirror")
+    public IndexMirrorStatistics getIndexMirrorStatistics() {
+        LOGGER.info("Processing get index mirror statistics");
+        return indexMirror.getStatistics();
+    }
+
+    @GetMapping("/search-cache")
+    public SearchCacheStatistics getSearchCacheStatistics() {
+        LOGGER.info("Processing get search cache statistics");
+        return resultCache.getStatistics();
+    }
+}
@@ -7,6 +7,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
 import thesis.data.model.Marker;
+import thesis.data.repository.custom.MarkerStatistics;
+import thesis.data.service.query.index.MarkerStatisticsCatalog;
 import thesis.domain.manipulation.service.MarkerManipulationService;
 import thesis.utils.JsonLog;
 
@@ -15,10 +17,12 @@ import thesis.utils.JsonLog;
 public class MarkerController {
     private static final Logger LOGGER = LoggerFactory.getLogger(MarkerController.class);
     private final MarkerManipulationService markerService;
+    private final MarkerStatisticsCatalog statisticsCatalog;
 
     @Autowired
-    public MarkerController(MarkerManipulationService markerService) {
+    public MarkerController(MarkerManipulationService markerService, MarkerStatisticsCatalog statisticsCatalog) {
         this.markerService = markerService;
+        this.statisticsCatalog = statisticsCatalog;
     }
 
     @ResponseStatus(HttpStatus.CREATED)
@@ -34,6 +38,14 @@ public class MarkerController {
         return markerService.getEntity(name);
     }
 
+    @GetMapping("/{name}/statistics")
+    public MarkerStatistics getStatistics(@PathVariable("name") String name,
+                                          @RequestParam(value = "useTechnologyDeviations", defaultValue = "false")
+                                          boolean useTechnologyDeviations) {
+        LOGGER.info("Processing get marker statistics: {}", name);
+        return statisticsCatalog.getStatistics(name, useTechnologyDeviations);
+    }
+
     @ResponseStatus(HttpStatus.NO_CONTENT)
     @DeleteMapping("/{name}")
     public void delete(@PathVariable("name") String name) {
@@ -5,10 +5,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import thesis.data.model.Record;
 import thesis.domain.manipulation.dto.RecordUpdateDto;
 import thesis.domain.manipulation.service.RecordManipulationService;
+import thesis.rest.streaming.NdjsonResponseWriter;
 import thesis.utils.JsonLog;
 
 @RestController
@@ -16,10 +20,12 @@ import thesis.utils.JsonLog;
 public class RecordController {
     private static final Logger LOGGER = LoggerFactory.getLogger(RecordController.class);
     private final RecordManipulationService recordService;
+    private final NdjsonResponseWriter ndjsonWriter;
 
     @Autowired
-    public RecordController(RecordManipulationService recordService) {
+    public RecordController(RecordManipulationService recordService, NdjsonResponseWriter ndjsonWriter) {
         this.recordService = recordService;
+        this.ndjsonWriter = ndjsonWriter;
     }
 
     @ResponseStatus(HttpStatus.CREATED)
@@ -60,4 +66,10 @@ public class RecordController {
         LOGGER.info("Processing get all records");
         return recordService.findAll();
     }
+
+    @GetMapping(value = "all", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAll() {
+        LOGGER.info("Processing stream all records");
+        return ndjsonWriter.write(recordService.streamAll());
+    }
 }
@@ -5,11 +5,15 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import thesis.data.model.Result;
 import thesis.domain.manipulation.dto.ResultCreateDto;
 import thesis.domain.manipulation.dto.ResultUpdateDto;
 import thesis.domain.manipulation.service.ResultManipulationService;
+import thesis.rest.streaming.NdjsonResponseWriter;
 import thesis.utils.JsonLog;
 
 import java.util.List;
@@ -19,10 +23,12 @@ import java.util.List;
 public class ResultController {
     private static final Logger LOGGER = LoggerFactory.getLogger(ResultController.class);
     private final ResultManipulationService resultService;
+    private final NdjsonResponseWriter ndjsonWriter;
 
     @Autowired
-    public ResultController(ResultManipulationService resultService) {
+    public ResultController(ResultManipulationService resultService, NdjsonResponseWriter ndjsonWriter) {
         this.resultService = resultService;
+        this.ndjsonWriter = ndjsonWriter;
     }
 
     @ResponseStatus(HttpStatus.CREATED)
@@ -62,4 +68,10 @@ public class ResultController {
         LOGGER.info("Processing get all results");
         return resultService.findAll();
     }
+
+    @GetMapping(value = "all", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAll() {
+        LOGGER.info("Processing stream all results");
+        return ndjsonWriter.write(resultService.streamAll());
+    }
 }
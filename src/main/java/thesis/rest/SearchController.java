@@ -4,16 +4,24 @@ import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import thesis.data.model.Result;
 import thesis.domain.search.dto.*;
 import thesis.domain.search.service.AdvancedSearchService;
 import thesis.domain.search.service.BoolSearchService;
 import thesis.domain.search.service.NumericSearchService;
+import thesis.domain.search.service.SimilaritySearchService;
 import thesis.domain.search.service.StringSearchService;
+import thesis.exceptions.BadRequestException;
+import thesis.rest.streaming.NdjsonResponseWriter;
 import thesis.utils.JsonLog;
 
 import java.util.List;
@@ -27,14 +35,19 @@ public class SearchController {
     private final StringSearchService stringSearchService;
     private final BoolSearchService boolSearchService;
     private final AdvancedSearchService advancedSearchService;
+    private final SimilaritySearchService similaritySearchService;
+    private final NdjsonResponseWriter ndjsonWriter;
 
     @Autowired
     public SearchController(NumericSearchService numericSearchService, StringSearchService stringSearchService,
-                            BoolSearchService boolSearchService, AdvancedSearchService advancedSearchService) {
+                            BoolSearchService boolSearchService, AdvancedSearchService advancedSearchService,
+                            SimilaritySearchService similaritySearchService, NdjsonResponseWriter ndjsonWriter) {
         this.numericSearchService = numericSearchService;
         this.stringSearchService = stringSearchService;
         this.boolSearchService = boolSearchService;
         this.advancedSearchService = advancedSearchService;
+        this.similaritySearchService = similaritySearchService;
+        this.ndjsonWriter = ndjsonWriter;
     }
 
     @PostMapping("/numeric")
@@ -43,21 +56,126 @@ public class SearchController {
         return numericSearchService.processNumericSearch(options);
     }
 
+    @PostMapping(value = "/numeric", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> numericSearchStream(@Valid @RequestBody NumericSearchOptions options,
+                                                                     @RequestParam(value = "limit", required = false) Integer limit) {
+        rejectPagedStream(limit);
+        LOGGER.info("Processing numeric search stream with options: {}", JsonLog.toJson(options));
+        return ndjsonWriter.write(numericSearchService.streamNumericSearch(options));
+    }
+
+    @PostMapping(value = "/numeric", params = "limit", produces = MediaType.APPLICATION_JSON_VALUE)
+    public NumericSearchPage numericSearchPage(@Valid @RequestBody NumericSearchOptions options,
+                                               @Valid @ModelAttribute SearchPageRequest pageRequest) {
+        LOGGER.info("Processing numeric search page with options: {}", JsonLog.toJson(options));
+        return numericSearchService.processNumericSearch(options, pageRequest);
+    }
+
+    @PostMapping("/numeric/count")
+    public SearchCount numericSearchCount(@Valid @RequestBody NumericSearchOptions options) {
+        LOGGER.info("Processing numeric search count with options: {}", JsonLog.toJson(options));
+        return numericSearchService.countNumericSearch(options);
+    }
+
+    @PostMapping(value = "/numeric/count", params = "approximate=true")
+    public SearchCount numericSearchApproximateCount(@Valid @RequestBody NumericSearchOptions options) {
+        LOGGER.info("Processing approximate numeric search count with options: {}", JsonLog.toJson(options));
+        return numericSearchService.approximateNumericSearch(options);
+    }
+
     @PostMapping("/string")
     public List<Result> stringSearch(@Valid @RequestBody StringSearchOptions options) {
         LOGGER.info("Processing string search with options: {}", JsonLog.toJson(options));
         return stringSearchService.processStringSearch(options);
     }
 
+    @PostMapping(value = "/string", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> stringSearchStream(@Valid @RequestBody StringSearchOptions options,
+                                                                    @RequestParam(value = "limit", required = false) Integer limit) {
+        rejectPagedStream(limit);
+        LOGGER.info("Processing string search stream with options: {}", JsonLog.toJson(options));
+        return ndjsonWriter.write(stringSearchService.streamStringSearch(options));
+    }
+
+    @PostMapping(value = "/string", params = "limit", produces = MediaType.APPLICATION_JSON_VALUE)
+    public SearchPage<Result> stringSearchPage(@Valid @RequestBody StringSearchOptions options,
+                                               @Valid @ModelAttribute SearchPageRequest pageRequest) {
+        LOGGER.info("Processing string search page with options: {}", JsonLog.toJson(options));
+        return stringSearchService.processStringSearch(options, pageRequest);
+    }
+
+    @PostMapping("/string/count")
+    public SearchCount stringSearchCount(@Valid @RequestBody StringSearchOptions options) {
+        LOGGER.info("Processing string search count with options: {}", JsonLog.toJson(options));
+        return stringSearchService.countStringSearch(options);
+    }
+
     @PostMapping("/bool")
     public List<Result> stringSearch(@Valid @RequestBody BoolSearchOptions options) {
         LOGGER.info("Processing bool search with options: {}", JsonLog.toJson(options));
         return boolSearchService.processBoolSearch(options);
     }
 
+    @PostMapping(value = "/bool", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> boolSearchStream(@Valid @RequestBody BoolSearchOptions options,
+                                                                  @RequestParam(value = "limit", required = false) Integer limit) {
+        rejectPagedStream(limit);
+        LOGGER.info("Processing bool search stream with options: {}", JsonLog.toJson(options));
+        return ndjsonWriter.write(boolSearchService.streamBoolSearch(options));
+    }
+
+    @PostMapping(value = "/bool", params = "limit", produces = MediaType.APPLICATION_JSON_VALUE)
+    public SearchPage<Result> boolSearchPage(@Valid @RequestBody BoolSearchOptions options,
+                                             @Valid @ModelAttribute SearchPageRequest pageRequest) {
+        LOGGER.info("Processing bool search page with options: {}", JsonLog.toJson(options));
+        return boolSearchService.processBoolSearch(options, pageRequest);
+    }
+
+    @PostMapping("/bool/count")
+    public SearchCount boolSearchCount(@Valid @RequestBody BoolSearchOptions options) {
+        LOGGER.info("Processing bool search count with options: {}", JsonLog.toJson(options));
+        return boolSearchService.countBoolSearch(options);
+    }
+
     @PostMapping("/advanced")
     public Set<String> advancedSearch(@Valid @RequestBody AdvancedSearchOptions options) {
         LOGGER.info("Processing advanced search with options: {}", JsonLog.toJson(options));
         return advancedSearchService.processAdvancedSearch(options);
     }
+
+    @PostMapping(value = "/advanced", params = "explain=true")
+    public AdvancedSearchResult advancedSearchExplain(@Valid @RequestBody AdvancedSearchOptions options,
+                                                      @RequestParam(value = "limit", required = false) Integer limit) {
+        if (limit != null) {
+            throw new BadRequestException("The plan of an advanced search can not be paged, remove the limit parameter");
+        }
+        LOGGER.info("Processing advanced search with plan and options: {}", JsonLog.toJson(options));
+        return advancedSearchService.explainAdvancedSearch(options);
+    }
+
+    @PostMapping(value = "/advanced", params = {"limit", "explain!=true"})
+    public SearchPage<String> advancedSearchPage(@Valid @RequestBody AdvancedSearchOptions options,
+                                                 @Valid @ModelAttribute SearchPageRequest pageRequest) {
+        LOGGER.info("Processing advanced search page with options: {}", JsonLog.toJson(options));
+        return advancedSearchService.processAdvancedSearch(options, pageRequest);
+    }
+
+    @PostMapping("/advanced/count")
+    public SearchCount advancedSearchCount(@Valid @RequestBody AdvancedSearchOptions options) {
+        LOGGER.info("Processing advanced search count with options: {}", JsonLog.toJson(options));
+        return advancedSearchService.countAdvancedSearch(options);
+    }
+
+    @PostMapping("/similar")
+    public List<SimilarRecord> similaritySearch(@Valid @RequestBody SimilaritySearchOptions options) {
+        LOGGER.info("Processing similarity search with options: {}", JsonLog.toJson(options));
+        return similaritySearchService.processSimilaritySearch(options);
+    }
+
+    // a streamed search always returns all results, a limit would otherwise be ignored silently
+    private static void rejectPagedStream(Integer limit) {
+        if (limit != null) {
+            throw new BadRequestException("Streamed searches can not be paged, remove the limit parameter");
+        }
+    }
 }
@@ -0,0 +1,65 @@
+package thesis.rest.streaming;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import thesis.utils.ChunkProducer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Writes the items of a {@link ChunkProducer} as newline delimited JSON.
+ * <p>
+ * Every chunk is serialized and flushed as soon as it was read, so the first items reach the client
+ * before the last ones are loaded and at most one chunk is held in memory per request.
+ * </p>
+ */
+@Component
+public class NdjsonResponseWriter {
+    private static final byte LINE_SEPARATOR = '\n';
+
+    private final ObjectWriter objectWriter;
+
+    @Autowired
+    public NdjsonResponseWriter(ObjectMapper objectMapper) {
+        // every item has to be written on a single line
+        this.objectWriter = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+    }
+
+    /**
+     * Creates a streaming response for the given items.
+     *
+     * @param producer the producer of the items, it is consumed while the response is written
+     * @param <T>      the type of the items
+     * @return the response writing one JSON document per line
+     */
+    public <T> ResponseEntity<StreamingResponseBody> write(ChunkProducer<T> producer) {
+        StreamingResponseBody body = outputStream -> {
+            try {
+                producer.forEachChunk(chunk -> {
+                    try {
+                        for (var item : chunk) {
+                            outputStream.write(objectWriter.writeValueAsBytes(item));
+                            outputStream.write(LINE_SEPARATOR);
+                        }
+                        outputStream.flush();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+}
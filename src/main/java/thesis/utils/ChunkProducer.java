@@ -0,0 +1,32 @@
+package thesis.utils;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Produces a possibly large sequence of items in bounded chunks.
+ * Nothing is read before {@link #forEachChunk(Consumer)} is called, so a producer can be handed to a response writer.
+ *
+ * @param <T> the type of the items
+ */
+@FunctionalInterface
+public interface ChunkProducer<T> {
+
+    /**
+     * Passes all items to the given consumer, one chunk at a time.
+     *
+     * @param chunkConsumer the consumer receiving the chunks
+     */
+    void forEachChunk(Consumer<List<T>> chunkConsumer);
+
+    /**
+     * Counts the produced items without retaining them.
+     *
+     * @return the number of items
+     */
+    default long count() {
+        long[] count = {0};
+        forEachChunk(chunk -> count[0] += chunk.size());
+        return count[0];
+    }
+}
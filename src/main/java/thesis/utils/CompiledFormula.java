@@ -0,0 +1,53 @@
+package thesis.utils;
+
+/**
+ * A formula that was parsed once and can be evaluated for many values, see {@link FormulaEvaluator#compile(String)}.
+ * Implementations are immutable and safe to share between threads.
+ */
+public interface CompiledFormula {
+
+    /**
+     * Evaluates the formula with the specified variable value.
+     *
+     * @param x the value of the variable in the formula
+     * @return the result of the evaluation
+     * @throws ArithmeticException if the formula causes an arithmetic error (e.g., division by zero)
+     */
+    double evaluate(double x);
+
+    /**
+     * Evaluates the formula for all given values in one pass.
+     *
+     * @param values the values of the variable in the formula
+     * @return the results of the evaluation, in the order of the values
+     * @throws ArithmeticException if the formula causes an arithmetic error for any of the values
+     */
+    default double[] evaluateAll(double[] values) {
+        double[] results = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            results[i] = evaluate(values[i]);
+        }
+        return results;
+    }
+
+    /**
+     * Composes this formula with another one, the result of this formula is the variable of the next one.
+     *
+     * @param next the formula applied to the result of this formula
+     * @return the composed formula
+     */
+    default CompiledFormula andThen(CompiledFormula next) {
+        var first = this;
+        return new CompiledFormula() {
+            @Override
+            public double evaluate(double x) {
+                return next.evaluate(first.evaluate(x));
+            }
+
+            @Override
+            public double[] evaluateAll(double[] values) {
+                return next.evaluateAll(first.evaluateAll(values));
+            }
+        };
+    }
+}
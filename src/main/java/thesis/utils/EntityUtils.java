@@ -42,6 +42,39 @@ public final class EntityUtils {
         return recordId + ":" + markerName;
     }
 
+    /**
+     * Extracts the record ID from a result ID generated by {@link #generateResultId(String, String)}.
+     *
+     * @param resultId   the result ID
+     * @param markerName the marker name the result ID was generated with
+     * @return the record ID
+     */
+    public static String extractRecordId(String resultId, String markerName) {
+        return resultId.substring(0, resultId.length() - markerName.length() - 1);
+    }
+
+    /**
+     * Extracts the marker name from a result ID generated by {@link #generateResultId(String, String)}.
+     * Marker names are validated not to contain ':', so the marker name is the part after the last ':'.
+     *
+     * @param resultId the result ID
+     * @return the marker name
+     */
+    public static String extractMarkerName(String resultId) {
+        return resultId.substring(resultId.lastIndexOf(':') + 1);
+    }
+
+    /**
+     * Extracts the marker name from a result ID generated by {@link #generateResultId(String, String)}.
+     *
+     * @param resultId the result ID
+     * @param recordId the record ID the result ID was generated with
+     * @return the marker name
+     */
+    public static String extractMarkerName(String resultId, String recordId) {
+        return resultId.substring(recordId.length() + 1);
+    }
+
     /**
      * Generates a deviation range ID by concatenating the from, to, and deviation values.
      *
@@ -3,10 +3,26 @@ package thesis.utils;
 import net.objecthunter.exp4j.Expression;
 import net.objecthunter.exp4j.ExpressionBuilder;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
 /**
  * Utility class for evaluating mathematical formulas.
+ * <p>
+ * Formulas are compiled once and cached by their text. Formulas that apply a single operation with a constant
+ * to the variable, such as "x * 18" or "x / 2.54", are evaluated as plain arithmetic, all others with exp4j.
+ * </p>
  */
 public final class FormulaEvaluator {
+    // formulas come from the unit conversions, the cache is only cleared if it grows beyond that
+    private static final int MAX_CACHED_FORMULAS = 1024;
+    private static final String NUMBER = "(\\d+(?:\\.\\d*)?|\\.\\d+)";
+    private static final Pattern VARIABLE_FIRST = Pattern.compile("^\\s*x\\s*([*/+-])\\s*" + NUMBER + "\\s*$");
+    private static final Pattern CONSTANT_FIRST = Pattern.compile("^\\s*" + NUMBER + "\\s*([*+])\\s*x\\s*$");
+
+    private static final Map<String, CompiledFormula> COMPILED_FORMULAS = new ConcurrentHashMap<>();
+
     private FormulaEvaluator() {
     }
 
@@ -37,11 +53,120 @@ public final class FormulaEvaluator {
      * @throws ArithmeticException           if the formula causes an arithmetic error (e.g., division by zero)
      */
     public static double evaluateFormula(String formula, double x) {
-        Expression expression = new ExpressionBuilder(formula)
+        return compile(formula).evaluate(x);
+    }
+
+    /**
+     * Returns the compiled form of the given formula, parsing it only on the first call.
+     *
+     * @param formula the formula to compile
+     * @return the compiled formula
+     * @throws IllegalArgumentException      if the formula is invalid
+     * @throws UnsupportedOperationException if the formula contains unsupported operations
+     */
+    public static CompiledFormula compile(String formula) {
+        var compiled = COMPILED_FORMULAS.get(formula);
+        if (compiled != null) {
+            return compiled;
+        }
+
+        compiled = parse(formula);
+        if (COMPILED_FORMULAS.size() >= MAX_CACHED_FORMULAS) {
+            COMPILED_FORMULAS.clear();
+        }
+        COMPILED_FORMULAS.put(formula, compiled);
+        return compiled;
+    }
+
+    private static CompiledFormula parse(String formula) {
+        var matcher = VARIABLE_FIRST.matcher(formula);
+        if (matcher.matches()) {
+            var operator = matcher.group(1).charAt(0);
+            var constant = Double.parseDouble(matcher.group(2));
+            // exp4j fails on a division by zero, which is left to the interpreter
+            if (operator != '/' || constant != 0) {
+                return new ArithmeticFormula(operator, constant);
+            }
+        }
+
+        matcher = CONSTANT_FIRST.matcher(formula);
+        if (matcher.matches()) {
+            // multiplication and addition are commutative
+            return new ArithmeticFormula(matcher.group(2).charAt(0), Double.parseDouble(matcher.group(1)));
+        }
+
+        return new InterpretedFormula(new ExpressionBuilder(formula)
                 .variable("x")
-                .build()
-                .setVariable("x", x);
+                .build());
+    }
 
-        return expression.evaluate();
+    /**
+     * Formula applying a single operation with a constant to the variable, i.e. "x * k", "x / k", "x + k" or "x - k".
+     */
+    private record ArithmeticFormula(char operator, double constant) implements CompiledFormula {
+
+        @Override
+        public double evaluate(double x) {
+            return switch (operator) {
+                case '*' -> x * constant;
+                case '/' -> x / constant;
+                case '+' -> x + constant;
+                case '-' -> x - constant;
+                default -> throw new IllegalStateException("Unexpected operator: " + operator);
+            };
+        }
+
+        @Override
+        public double[] evaluateAll(double[] values) {
+            double[] results = new double[values.length];
+            switch (operator) {
+                case '*' -> {
+                    for (int i = 0; i < values.length; i++) {
+                        results[i] = values[i] * constant;
+                    }
+                }
+                case '/' -> {
+                    for (int i = 0; i < values.length; i++) {
+                        results[i] = values[i] / constant;
+                    }
+                }
+                case '+' -> {
+                    for (int i = 0; i < values.length; i++) {
+                        results[i] = values[i] + constant;
+                    }
+                }
+                case '-' -> {
+                    for (int i = 0; i < values.length; i++) {
+                        results[i] = values[i] - constant;
+                    }
+                }
+                default -> throw new IllegalStateException("Unexpected operator: " + operator);
+            }
+            return results;
+        }
+    }
+
+    /**
+     * Formula evaluated by exp4j. The parsed expression is shared, every evaluation works on a copy,
+     * since an expression holds the value of its variable.
+     */
+    private record InterpretedFormula(Expression expression) implements CompiledFormula {
+
+        @Override
+        public double evaluate(double x) {
+            return new Expression(expression)
+                    .setVariable("x", x)
+                    .evaluate();
+        }
+
+        @Override
+        public double[] evaluateAll(double[] values) {
+            var copy = new Expression(expression);
+            double[] results = new double[values.length];
+            for (int i = 0; i < values.length; i++) {
+                results[i] = copy.setVariable("x", values[i]).evaluate();
+            }
+            return results;
+        }
     }
-}
\ No newline at end of file
+}
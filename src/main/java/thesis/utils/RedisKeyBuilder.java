@@ -1,6 +1,20 @@
 package thesis.utils;
 
 public class RedisKeyBuilder {
+    public static final String RESULT_KEYSPACE = "result";
+    public static final String RECORD_KEYSPACE = "record";
+    // dense ordinals of the record IDs, kept outside the record keyspace of Spring Data
+    public static final String RECORD_ORDINAL_SEQUENCE_KEY = "ordinal:record:sequence";
+    public static final String RECORD_ORDINALS_KEY = "ordinal:record:ordinals";
+    public static final String RECORD_IDS_BY_ORDINAL_KEY = "ordinal:record:ids";
+    // versions of the data searches read, bumped on every write that can change a search result
+    public static final String RECORD_VERSION_KEY = "version:record";
+    public static final String TECHNOLOGY_VERSION_KEY = "version:technology";
+    // random value identifying the current content of the database, recreated after it was flushed
+    public static final String VERSION_EPOCH_KEY = "version:epoch";
+    // pub/sub channel on which evictions of cached markers, units, technologies and string categories are broadcast
+    public static final String METADATA_EVICTION_CHANNEL = "metadata:eviction";
+
     private RedisKeyBuilder() {
     }
 
@@ -20,10 +34,81 @@ public class RedisKeyBuilder {
         return "marker:" + markerName + ":technology:result:max";
     }
 
+    // min and max indexes of the results of a marker measured with one technology, for technology filters
+    public static String partitionMinKey(String markerName, String technologyName) {
+        return "marker:" + markerName + ":partition:" + technologyName + ":result:min";
+    }
+
+    public static String partitionMaxKey(String markerName, String technologyName) {
+        return "marker:" + markerName + ":partition:" + technologyName + ":result:max";
+    }
+
+    public static String techPartitionMinKey(String markerName, String technologyName) {
+        return "marker:" + markerName + ":partition:" + technologyName + ":technology:result:min";
+    }
+
+    public static String techPartitionMaxKey(String markerName, String technologyName) {
+        return "marker:" + markerName + ":partition:" + technologyName + ":technology:result:max";
+    }
+
+    public static String partitionKeyPattern() {
+        return "marker:*:partition:*";
+    }
+
     public static String resultHashKey(String recordId, String markerName) {
         return "result:" + EntityUtils.generateResultId(recordId, markerName);
     }
 
+    // secondary index set maintained by Spring Data for @Indexed properties of Result
+    public static String resultIndexKey(String propertyName, String value) {
+        return RESULT_KEYSPACE + ":" + propertyName + ":" + value;
+    }
+
+    // bitmap over the record ordinals of the results of a marker with the given property value
+    public static String resultBitmapKey(String markerName, String propertyName, String value) {
+        return "marker:" + markerName + ":bitmap:" + propertyName + ":" + value;
+    }
+
+    public static String resultBitmapKeyPattern() {
+        return "marker:*:bitmap:*";
+    }
+
+    // ordinal positions of the string values of a category in the results of a marker, for ordered comparisons
+    public static String resultCategoryOrdinalKey(String markerName, String categoryName) {
+        return "marker:" + markerName + ":category:" + categoryName + ":result:ordinal";
+    }
+
+    public static String resultCategoryOrdinalKeyPattern() {
+        return "marker:*:category:*:result:ordinal";
+    }
+
+    // record IDs of the results of a marker with the given sample, for search filters
+    public static String resultSampleKey(String markerName, String sample) {
+        return "marker:" + markerName + ":filter:sample:" + sample;
+    }
+
+    // record IDs of the results of a marker scored with their timestamp in epoch microseconds, for search filters
+    public static String resultTimestampKey(String markerName) {
+        return "marker:" + markerName + ":filter:timestamp";
+    }
+
+    public static String resultFilterKeyPattern() {
+        return "marker:*:filter:*";
+    }
+
+    // counts, envelope and histograms of the min and max indexes of a marker, for search planning
+    public static String markerStatisticsKey(String markerName) {
+        return "marker:" + markerName + ":statistics";
+    }
+
+    public static String techMarkerStatisticsKey(String markerName) {
+        return "marker:" + markerName + ":technology:statistics";
+    }
+
+    public static String markerVersionKey(String markerName) {
+        return "version:marker:" + markerName;
+    }
+
     public static String sensitivityKey(String markerName) {
         return "marker:" + markerName + ":sensitivity";
     }
@@ -0,0 +1,42 @@
+-- Computes the statistics of the min index KEYS[2] and the max index KEYS[3] of a marker into the hash KEYS[1]:
+-- the number of results, per index the number of unbounded scores, the lowest and highest score and an equi-depth
+-- histogram over the finite scores with ARGV[1] buckets.
+-- The bucket bounds are read at evenly spaced ranks, so only the scores at the bounds are transferred.
+local statisticsKey = KEYS[1]
+local buckets = tonumber(ARGV[1])
+
+redis.call('DEL', statisticsKey)
+redis.call('HSET', statisticsKey, 'count', redis.call('ZCARD', KEYS[2]))
+
+local function describe(key, prefix, unbounded)
+    redis.call('HSET', statisticsKey, prefix .. ':unbounded', redis.call('ZCOUNT', key, unbounded, unbounded))
+
+    local lowest = redis.call('ZRANGE', key, 0, 0, 'WITHSCORES')
+    if #lowest == 0 then
+        return
+    end
+    local highest = redis.call('ZRANGE', key, -1, -1, 'WITHSCORES')
+    redis.call('HSET', statisticsKey, prefix .. ':lowest', lowest[2], prefix .. ':highest', highest[2])
+
+    -- the finite scores are ranked after the scores of negative infinity
+    local first = redis.call('ZCOUNT', key, '-inf', '-inf')
+    local finite = redis.call('ZCOUNT', key, '(-inf', '(+inf')
+    if finite == 0 then
+        return
+    end
+
+    local bounds = {}
+    for i = 0, buckets do
+        local rank = first + math.floor(i * (finite - 1) / buckets)
+        bounds[i + 1] = redis.call('ZRANGE', key, rank, rank, 'WITHSCORES')[2]
+    end
+    redis.call('HSET', statisticsKey, prefix .. ':bounds', table.concat(bounds, ','))
+    for i = 1, buckets do
+        local upper = i == buckets and bounds[i + 1] or '(' .. bounds[i + 1]
+        redis.call('HSET', statisticsKey, prefix .. ':' .. (i - 1), redis.call('ZCOUNT', key, bounds[i], upper))
+    end
+end
+
+describe(KEYS[2], 'min', '-inf')
+describe(KEYS[3], 'max', '+inf')
+return 1
@@ -0,0 +1,86 @@
+-- Updates the statistics hash KEYS[1] of a marker, see marker-statistics-build.lua, before a result is written to
+-- the min index KEYS[2] and the max index KEYS[3]. ARGV[1] is the record ID, ARGV[2] and ARGV[3] are the minimum and
+-- maximum the result is indexed with now, both empty if it is removed. The scores it was indexed with before are
+-- read from the indexes. Statistics that were not built are left alone, unless the indexes are still empty: then
+-- they are started with this result, like a build right before it would have done.
+-- The lowest and highest scores only grow, so every indexed score stays inside them until the next build.
+local statisticsKey = KEYS[1]
+if redis.call('EXISTS', statisticsKey) == 0 then
+    if ARGV[2] == '' or redis.call('ZCARD', KEYS[2]) > 0 then
+        return 0
+    end
+    redis.call('HSET', statisticsKey, 'count', 0, 'min:unbounded', 0, 'max:unbounded', 0)
+end
+
+local function toNumber(score)
+    if score == '+inf' or score == 'inf' then
+        return math.huge
+    elseif score == '-inf' then
+        return -math.huge
+    end
+    return tonumber(score)
+end
+
+-- the last bucket whose lower bound is not above the value, the first bucket for values below all bounds
+local function findBucket(prefix, value)
+    local bounds = redis.call('HGET', statisticsKey, prefix .. ':bounds')
+    if not bounds then
+        return nil
+    end
+    local lowerBounds = {}
+    for bound in string.gmatch(bounds, '[^,]+') do
+        lowerBounds[#lowerBounds + 1] = toNumber(bound)
+    end
+    local bucket = 0
+    for i = 1, #lowerBounds - 1 do
+        if lowerBounds[i] <= value then
+            bucket = i - 1
+        end
+    end
+    return bucket
+end
+
+local function apply(prefix, score, unbounded, delta)
+    if score == '' then
+        return
+    end
+
+    local value = toNumber(score)
+    if value == toNumber(unbounded) then
+        redis.call('HINCRBY', statisticsKey, prefix .. ':unbounded', delta)
+    elseif value ~= math.huge and value ~= -math.huge then
+        local bucket = findBucket(prefix, value)
+        if bucket then
+            redis.call('HINCRBY', statisticsKey, prefix .. ':' .. bucket, delta)
+        elseif delta > 0 then
+            redis.call('HSET', statisticsKey, prefix .. ':bounds', score .. ',' .. score, prefix .. ':0', 1)
+        end
+    end
+
+    if delta > 0 then
+        local lowest = redis.call('HGET', statisticsKey, prefix .. ':lowest')
+        if not lowest or value < toNumber(lowest) then
+            redis.call('HSET', statisticsKey, prefix .. ':lowest', score)
+        end
+        local highest = redis.call('HGET', statisticsKey, prefix .. ':highest')
+        if not highest or value > toNumber(highest) then
+            redis.call('HSET', statisticsKey, prefix .. ':highest', score)
+        end
+    end
+end
+
+local previousMin = redis.call('ZSCORE', KEYS[2], ARGV[1]) or ''
+local previousMax = redis.call('ZSCORE', KEYS[3], ARGV[1]) or ''
+
+if previousMin ~= '' then
+    redis.call('HINCRBY', statisticsKey, 'count', -1)
+end
+apply('min', previousMin, '-inf', -1)
+apply('max', previousMax, '+inf', -1)
+
+if ARGV[2] ~= '' then
+    redis.call('HINCRBY', statisticsKey, 'count', 1)
+end
+apply('min', ARGV[2], '-inf', 1)
+apply('max', ARGV[3], '+inf', 1)
+return 1
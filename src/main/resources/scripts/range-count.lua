@@ -0,0 +1,43 @@
+-- Counts members whose score in KEYS[1] lies in [ARGV[1], ARGV[2]]
+-- and whose score in KEYS[2] lies in [ARGV[3], ARGV[4]].
+-- The smaller range scan is iterated and its members are probed in the other index.
+local function toNumber(score)
+    if score == '+inf' or score == 'inf' then
+        return math.huge
+    elseif score == '-inf' then
+        return -math.huge
+    end
+    return tonumber(score)
+end
+
+local minCount = redis.call('ZCOUNT', KEYS[1], ARGV[1], ARGV[2])
+if minCount == 0 then
+    return 0
+end
+local maxCount = redis.call('ZCOUNT', KEYS[2], ARGV[3], ARGV[4])
+if maxCount == 0 then
+    return 0
+end
+
+local scanKey, scanFrom, scanTo, probeKey, probeFrom, probeTo
+if minCount <= maxCount then
+    scanKey, scanFrom, scanTo = KEYS[1], ARGV[1], ARGV[2]
+    probeKey, probeFrom, probeTo = KEYS[2], toNumber(ARGV[3]), toNumber(ARGV[4])
+else
+    scanKey, scanFrom, scanTo = KEYS[2], ARGV[3], ARGV[4]
+    probeKey, probeFrom, probeTo = KEYS[1], toNumber(ARGV[1]), toNumber(ARGV[2])
+end
+
+local count = 0
+local members = redis.call('ZRANGEBYSCORE', scanKey, scanFrom, scanTo)
+for _, member in ipairs(members) do
+    local score = redis.call('ZSCORE', probeKey, member)
+    if score then
+        local value = toNumber(score)
+        if value >= probeFrom and value <= probeTo then
+            count = count + 1
+        end
+    end
+end
+
+return count
@@ -0,0 +1,86 @@
+-- Returns one page of members whose score in KEYS[1] lies in [ARGV[1], ARGV[2]]
+-- and whose score in KEYS[2] lies in [ARGV[3], ARGV[4]], ordered by their score in KEYS[1].
+-- ARGV[5] is '1' for descending order, ARGV[6] the page size.
+-- ARGV[7] and ARGV[8] are score and member of the last entry of the previous page, empty for the first page.
+-- The result is a flat list of member and score pairs.
+local function toNumber(score)
+    if score == '+inf' or score == 'inf' then
+        return math.huge
+    elseif score == '-inf' then
+        return -math.huge
+    end
+    return tonumber(score)
+end
+
+-- sorted set members with equal scores are ordered by their bytes
+local function compareBytes(a, b)
+    local length = math.min(#a, #b)
+    for i = 1, length do
+        local x, y = string.byte(a, i), string.byte(b, i)
+        if x ~= y then
+            return x - y
+        end
+    end
+    return #a - #b
+end
+
+local scanKey, probeKey = KEYS[1], KEYS[2]
+local scanFrom, scanTo = ARGV[1], ARGV[2]
+local probeFrom, probeTo = toNumber(ARGV[3]), toNumber(ARGV[4])
+local descending = ARGV[5] == '1'
+local limit = tonumber(ARGV[6])
+local hasCursor = ARGV[7] ~= ''
+local cursorScore = hasCursor and toNumber(ARGV[7]) or nil
+local cursorMember = ARGV[8]
+-- every member of the index has a score, an unbounded probe range needs no lookup
+local probeAll = probeFrom == -math.huge and probeTo == math.huge
+
+local batchSize = math.max(limit * 2, 100)
+local offset = 0
+local page = {}
+local count = 0
+
+while count < limit do
+    local entries
+    if descending then
+        entries = redis.call('ZREVRANGEBYSCORE', scanKey, scanTo, scanFrom, 'WITHSCORES', 'LIMIT', offset, batchSize)
+    else
+        entries = redis.call('ZRANGEBYSCORE', scanKey, scanFrom, scanTo, 'WITHSCORES', 'LIMIT', offset, batchSize)
+    end
+
+    for i = 1, #entries, 2 do
+        local member, score = entries[i], entries[i + 1]
+        local include = true
+
+        if hasCursor and toNumber(score) == cursorScore then
+            local comparison = compareBytes(member, cursorMember)
+            include = (descending and comparison < 0) or (not descending and comparison > 0)
+        end
+
+        if include and not probeAll then
+            local probeScore = redis.call('ZSCORE', probeKey, member)
+            if probeScore then
+                local value = toNumber(probeScore)
+                include = value >= probeFrom and value <= probeTo
+            else
+                include = false
+            end
+        end
+
+        if include then
+            page[#page + 1] = member
+            page[#page + 1] = score
+            count = count + 1
+            if count == limit then
+                break
+            end
+        end
+    end
+
+    if #entries < batchSize * 2 then
+        break
+    end
+    offset = offset + batchSize
+end
+
+return page
@@ -0,0 +1,14 @@
+-- Returns the ordinal of every record ID in ARGV in the same order.
+-- Record IDs without an ordinal get the next value of the sequence in KEYS[3],
+-- which is stored in the hash KEYS[1] (record ID -> ordinal) and the hash KEYS[2] (ordinal -> record ID).
+local ordinals = {}
+for i, recordId in ipairs(ARGV) do
+    local ordinal = redis.call('HGET', KEYS[1], recordId)
+    if not ordinal then
+        ordinal = redis.call('INCR', KEYS[3])
+        redis.call('HSET', KEYS[1], recordId, ordinal)
+        redis.call('HSET', KEYS[2], ordinal, recordId)
+    end
+    ordinals[i] = tonumber(ordinal)
+end
+return ordinals
@@ -0,0 +1,2 @@
+-- Returns the cardinality of the intersection of the sets in KEYS without transferring their members.
+return redis.call('SINTERCARD', #KEYS, unpack(KEYS))
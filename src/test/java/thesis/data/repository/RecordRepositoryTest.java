@@ -0,0 +1,48 @@
+package thesis.data.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import thesis.RedisContainerTestBase;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("soil")
+public class RecordRepositoryTest extends RedisContainerTestBase {
+    @Autowired
+    private RecordRepository repository;
+
+    @DynamicPropertySource
+    static void setRedisProperties(DynamicPropertyRegistry registry) {
+        redisContainer.start();
+        registry.add("spring.data.redis.host", redisContainer::getHost);
+        registry.add("spring.data.redis.port", () -> redisContainer.getMappedPort(6379));
+    }
+
+    @Test
+    public void testAllocateOrdinals() {
+        var first = repository.allocateOrdinals(List.of("recordA", "recordB"));
+        var second = repository.allocateOrdinals(List.of("recordB", "recordC"));
+
+        assertEquals(List.of(1, 2), first);
+        assertEquals(List.of(2, 3), second);
+        assertEquals(Arrays.asList("recordA", "recordC", null), repository.findRecordIdsByOrdinals(List.of(1, 3, 4)));
+    }
+
+    @Test
+    public void testDeleteOrdinal() {
+        repository.allocateOrdinals(List.of("recordA"));
+
+        repository.deleteOrdinal("recordA");
+
+        assertEquals(Arrays.asList((String) null), repository.findRecordIdsByOrdinals(List.of(1)));
+        assertEquals(List.of(2), repository.allocateOrdinals(List.of("recordA")));
+    }
+}
@@ -8,10 +8,21 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import thesis.RedisContainerTestBase;
+import thesis.config.SearchProperties;
+import thesis.data.enums.RangeIntersectionMode;
 import thesis.data.model.Result;
+import thesis.data.repository.custom.MarkerStatisticsUpdate;
+import thesis.data.repository.custom.RangeBounds;
+import thesis.data.repository.custom.RangePageRequest;
+import thesis.data.repository.custom.ScoredRange;
+import thesis.data.repository.custom.ScoredRecordId;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -22,6 +33,8 @@ public class ResultRepositoryTest extends RedisContainerTestBase {
             "sample", "technology", 5D, 6D, "Unit2", LocalDateTime.now());
     @Autowired
     private ResultRepository repository;
+    @Autowired
+    private SearchProperties searchProperties;
 
     @DynamicPropertySource
     static void setRedisProperties(DynamicPropertyRegistry registry) {
@@ -56,6 +69,100 @@ public class ResultRepositoryTest extends RedisContainerTestBase {
         assertTrue(matches.contains("2"));
     }
 
+    @Test
+    public void testSearchForRangeMatches() {
+        result.setRecordId("6");
+        repository.saveResultSearchIndex(result);
+        var other = new Result(0, "Marker1", 1.5, 3.5, null, null, null, null, null, null, null, null, null);
+        other.setRecordId("7");
+        repository.saveResultSearchIndex(other);
+
+        for (var mode : RangeIntersectionMode.values()) {
+            Set<String> matches = repository.searchForRangeMatches("Marker1", 1.0, 2.0, 2.0, 3.0, false, mode);
+            assertEquals(Set.of("6"), matches);
+        }
+    }
+
+    @Test
+    public void testSearchForRangeMatchesWithInfiniteBounds() {
+        var unbounded = new Result(0, "Marker1", Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, null, null, null, null, null, null, null, null, null);
+        unbounded.setRecordId("8");
+        repository.saveResultSearchIndex(unbounded);
+
+        for (var mode : RangeIntersectionMode.values()) {
+            Set<String> matches = repository.searchForRangeMatches("Marker1", Double.NEGATIVE_INFINITY, 0.0,
+                    10.0, Double.POSITIVE_INFINITY, false, mode);
+            assertEquals(Set.of("8"), matches);
+        }
+    }
+
+    @Test
+    public void testSearchForRangePage() {
+        double[][] values = {{1.0, 10.0}, {2.0, 20.0}, {2.0, 30.0}, {3.0, 99.0}, {4.0, 40.0}};
+        for (int i = 0; i < values.length; i++) {
+            var paged = new Result(0, "PagedMarker", values[i][0], values[i][1], null, null, null, null, null, null, null, null, null);
+            paged.setRecordId("p" + i);
+            repository.saveResultSearchIndex(paged);
+        }
+
+        for (var serverSide : List.of(true, false)) {
+            searchProperties.setServerSideIntersection(serverSide);
+            try {
+                var first = repository.searchForRangePage("PagedMarker", 0.0, 10.0, 0.0, 50.0, false,
+                        new RangePageRequest(false, false, null, 2));
+                assertEquals(List.of(new ScoredRecordId("p0", 1.0), new ScoredRecordId("p1", 2.0)), first);
+
+                var second = repository.searchForRangePage("PagedMarker", 0.0, 10.0, 0.0, 50.0, false,
+                        new RangePageRequest(false, false, first.get(1), 2));
+                assertEquals(List.of(new ScoredRecordId("p2", 2.0), new ScoredRecordId("p4", 4.0)), second);
+
+                var descending = repository.searchForRangePage("PagedMarker", 0.0, 10.0, 0.0, 50.0, false,
+                        new RangePageRequest(true, true, null, 3));
+                assertEquals(List.of("p4", "p2", "p1"), descending.stream().map(ScoredRecordId::recordId).toList());
+            } finally {
+                searchProperties.setServerSideIntersection(true);
+            }
+        }
+    }
+
+    @Test
+    public void testCountRangeMatches() {
+        double[][] values = {{1.0, 10.0}, {2.0, 20.0}, {3.0, 30.0}, {4.0, 99.0}};
+        for (int i = 0; i < values.length; i++) {
+            var counted = new Result(0, "CountedMarker", values[i][0], values[i][1], null, null, null, null, null, null, null, null, null);
+            counted.setRecordId("c" + i);
+            repository.saveResultSearchIndex(counted);
+        }
+
+        for (var serverSide : List.of(true, false)) {
+            searchProperties.setServerSideIntersection(serverSide);
+            try {
+                assertEquals(2, repository.countRangeMatches("CountedMarker", 2.0, 4.0, 0.0, 50.0, false));
+                assertEquals(3, repository.countRangeMatches("CountedMarker", 2.0, 4.0,
+                        Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, false));
+                assertEquals(1, repository.countRangeMatches("CountedMarker", Double.NEGATIVE_INFINITY,
+                        Double.POSITIVE_INFINITY, 50.0, Double.POSITIVE_INFINITY, false));
+                assertEquals(0, repository.countRangeMatches("CountedMarker", 5.0, 6.0, 0.0, 50.0, false));
+            } finally {
+                searchProperties.setServerSideIntersection(true);
+            }
+        }
+    }
+
+    @Test
+    public void testProbeRangeMatches() {
+        double[][] values = {{1.0, 10.0}, {2.0, 20.0}, {3.0, 30.0}};
+        for (int i = 0; i < values.length; i++) {
+            var probed = new Result(0, "ProbedMarker", values[i][0], values[i][1], null, null, null, null, null, null, null, null, null);
+            probed.setRecordId("q" + i);
+            repository.saveResultSearchIndex(probed);
+        }
+
+        var bounds = new RangeBounds(1.5, 3.0, 0.0, 25.0);
+        assertEquals(Set.of("q1"), repository.probeRangeMatches("ProbedMarker", bounds, false, List.of("q0", "q1", "q2", "missing")));
+        assertEquals(2, repository.estimateRangeMatches("ProbedMarker", bounds, false));
+    }
+
     @Test
     public void testGetTechnologyName() {
         result.setId("3:Marker1");
@@ -76,6 +183,26 @@ public class ResultRepositoryTest extends RedisContainerTestBase {
         assertTrue(minResults.stream().anyMatch(tuple -> tuple.getValue().equals("4") && tuple.getScore().equals(1.7)));
     }
 
+    @Test
+    public void testScanSearchIndexRecordIds() {
+        for (int i = 0; i < 5; i++) {
+            redisTemplate.opsForZSet().add("marker:ScannedMarker:result:min", String.valueOf(i), i);
+        }
+
+        var chunkSize = searchProperties.getHydrationChunkSize();
+        searchProperties.setHydrationChunkSize(2);
+        try {
+            List<List<String>> chunks = new ArrayList<>();
+            repository.scanSearchIndexRecordIds("ScannedMarker", false, chunks::add);
+
+            assertTrue(chunks.stream().allMatch(chunk -> chunk.size() <= 2));
+            assertEquals(Set.of("0", "1", "2", "3", "4"),
+                    chunks.stream().flatMap(List::stream).collect(Collectors.toSet()));
+        } finally {
+            searchProperties.setHydrationChunkSize(chunkSize);
+        }
+    }
+
     @Test
     public void testDeleteResultSearchIndexWithTechDeviations() {
         result.setId("5:Marker1");
@@ -87,4 +214,188 @@ public class ResultRepositoryTest extends RedisContainerTestBase {
         var minValues = redisTemplate.opsForZSet().rangeByScore("marker:Marker1:technology:result:min", 1.9, 1.9);
         assertTrue(minValues == null || minValues.isEmpty());
     }
+
+    @Test
+    public void testFindOrdinalsByResultBitmaps() {
+        repository.updateResultBitmaps(Map.of(
+                "marker:Marker1:bitmap:stringValue:a", List.of(1, 9),
+                "marker:Marker1:bitmap:stringValue:b", List.of(3),
+                "marker:Marker1:bitmap:technologyName:tech1", List.of(3, 9, 20)), true);
+        repository.updateResultBitmaps(Map.of("marker:Marker1:bitmap:technologyName:tech1", List.of(20)), false);
+
+        var ordinals = repository.findOrdinalsByResultBitmaps(List.of(
+                List.of("marker:Marker1:bitmap:stringValue:a", "marker:Marker1:bitmap:stringValue:b"),
+                List.of("marker:Marker1:bitmap:technologyName:tech1")));
+
+        assertEquals(List.of(3, 9), ordinals.stream().boxed().toList());
+        assertTrue(repository.findOrdinalsByResultBitmaps(List.of(List.of("marker:Marker1:bitmap:stringValue:c"))).isEmpty());
+    }
+
+    @Test
+    public void testDeleteAllResultBitmaps() {
+        repository.updateResultBitmaps(Map.of("marker:Marker1:bitmap:booleanValue:1", List.of(2)), true);
+
+        repository.deleteAllResultBitmaps();
+
+        assertFalse(redisTemplate.hasKey("marker:Marker1:bitmap:booleanValue:1"));
+    }
+
+    @Test
+    public void testSearchForCategoryOrdinalMatches() {
+        repository.saveResultCategoryOrdinals("size", Map.of("1:Marker1", 0, "2:Marker1", 1, "3:Marker1", 2, "4:Marker2", 2));
+        repository.deleteResultCategoryOrdinals("size", List.of("3:Marker1"));
+        repository.saveResultCategoryOrdinals("size", Map.of("5:Marker1", 2));
+
+        assertEquals(Set.of("2", "5"), repository.searchForCategoryOrdinalMatches("Marker1", "size", 1, 2));
+        assertEquals(2, repository.countCategoryOrdinalMatches("Marker1", "size", 1, 2));
+        assertEquals(Set.of("5"), repository.probeCategoryOrdinalMatches("Marker1", "size", 2, 2, List.of("1", "3", "5")));
+        assertTrue(repository.searchForCategoryOrdinalMatches("Marker1", "size", 0, -1).isEmpty());
+    }
+
+    @Test
+    public void testSearchForFilterMatches() {
+        repository.saveResultFilterIndexes(List.of(
+                filteredResult("1", "Sample1", LocalDateTime.of(2024, 1, 1, 0, 0)),
+                filteredResult("2", "Sample1", LocalDateTime.of(2024, 2, 1, 0, 0)),
+                filteredResult("3", "Sample2", LocalDateTime.of(2024, 2, 1, 0, 0)),
+                filteredResult("4", "Sample1", null)));
+        var deleted = filteredResult("5", "Sample1", LocalDateTime.of(2024, 2, 1, 0, 0));
+        repository.saveResultFilterIndexes(List.of(deleted));
+        repository.deleteResultFilterIndexes(deleted);
+
+        var from = LocalDateTime.of(2024, 2, 1, 0, 0);
+        assertEquals(Set.of("1", "2", "4"), repository.searchForFilterMatches("FilteredMarker", "Sample1", null, null));
+        assertEquals(Set.of("2", "3"), repository.searchForFilterMatches("FilteredMarker", null, from, null));
+        assertEquals(Set.of("2"), repository.searchForFilterMatches("FilteredMarker", "Sample1", from, from));
+        assertEquals(Set.of("2"), repository.probeFilterMatches("FilteredMarker", "Sample1", from, null,
+                List.of("1", "2", "3", "4", "5")));
+        assertEquals(Set.of("1"), repository.probeFilterMatches("FilteredMarker", null, null, from.minusNanos(1_000),
+                List.of("1", "2", "4")));
+
+        repository.deleteAllResultFilterIndexes();
+        assertTrue(repository.searchForFilterMatches("FilteredMarker", "Sample1", null, null).isEmpty());
+    }
+
+    @Test
+    public void testTechnologyPartitions() {
+        var measured = partitionedResult("1", "Tech1", 1.0, 2.0);
+        searchProperties.setTechnologyPartitionEnabled(true);
+        try {
+            repository.saveResultSearchIndex(measured);
+            repository.saveResultSearchIndex(partitionedResult("2", "Tech1", 5.0, 6.0));
+        } finally {
+            searchProperties.setTechnologyPartitionEnabled(false);
+        }
+        // without partitions only the indexes of all results are written
+        repository.saveResultSearchIndex(partitionedResult("3", "Tech2", 1.5, 2.5));
+        assertTrue(repository.getTechnologyPartition("Tech2")
+                .searchForMinimumMatches("PartitionedMarker", 1.5, 1.5, false).isEmpty());
+        repository.saveTechnologyPartitionRanges("PartitionedMarker", "Tech2", true,
+                Map.of("3", new ScoredRange(1.6, 2.6)));
+
+        var tech1 = repository.getTechnologyPartition("Tech1");
+        assertEquals(Set.of("1"), tech1.searchForRangeMatches("PartitionedMarker", 0.0, 3.0, 0.0, 3.0, false));
+        assertEquals(2, tech1.countRangeMatches("PartitionedMarker", 0.0, 10.0, 0.0, 10.0, false));
+        assertEquals(Set.of("3"), repository.getTechnologyPartition("Tech2")
+                .searchForMinimumMatches("PartitionedMarker", 1.6, 1.6, true));
+        assertEquals(Set.of("1", "3"), repository.searchForRangeMatches("PartitionedMarker", 0.0, 3.0, 0.0, 3.0, false));
+
+        searchProperties.setTechnologyPartitionEnabled(true);
+        try {
+            repository.deleteResultSearchIndex(measured);
+        } finally {
+            searchProperties.setTechnologyPartitionEnabled(false);
+        }
+        assertTrue(tech1.searchForRangeMatches("PartitionedMarker", 0.0, 3.0, 0.0, 3.0, false).isEmpty());
+
+        repository.deleteAllTechnologyPartitions();
+        assertEquals(0, tech1.countRangeMatches("PartitionedMarker", 0.0, 10.0, 0.0, 10.0, false));
+        assertEquals(Set.of("2", "3"), repository.searchForRangeMatches("PartitionedMarker", 0.0, 10.0, 0.0, 10.0, false));
+    }
+
+    @Test
+    public void testMarkerStatistics() {
+        assertNull(repository.getMarkerStatistics("StatisticsMarker", false));
+        repository.saveResultSearchIndex(statisticsResult("1", 1.0, 2.0));
+        repository.saveResultSearchIndex(statisticsResult("2", 3.0, 4.0));
+        repository.saveResultSearchIndex(statisticsResult("3", Double.NEGATIVE_INFINITY, 6.0));
+        repository.saveResultSearchIndex(statisticsResult("4", 5.0, Double.POSITIVE_INFINITY));
+
+        repository.buildMarkerStatistics("StatisticsMarker", false, 2);
+
+        var statistics = repository.getMarkerStatistics("StatisticsMarker", false);
+        assertEquals(4, statistics.count());
+        assertEquals(1, statistics.unboundedMinCount());
+        assertEquals(1, statistics.unboundedMaxCount());
+        assertEquals(Double.NEGATIVE_INFINITY, statistics.lowestMin());
+        assertEquals(5.0, statistics.highestMin());
+        assertEquals(2.0, statistics.lowestMax());
+        assertEquals(Double.POSITIVE_INFINITY, statistics.highestMax());
+        assertArrayEquals(new double[]{1.0, 3.0, 5.0}, statistics.minHistogram().bounds());
+        assertArrayEquals(new long[]{1, 2}, statistics.minHistogram().counts());
+        assertArrayEquals(new long[]{1, 2}, statistics.maxHistogram().counts());
+        assertTrue(statistics.excludes(new RangeBounds(10.0, 11.0, 10.0, 11.0)));
+
+        // the scores the results were indexed with before are read by the script
+        repository.updateMarkerStatistics(List.of(
+                new MarkerStatisticsUpdate("StatisticsMarker", "5", false, new ScoredRange(10.0, 11.0)),
+                new MarkerStatisticsUpdate("StatisticsMarker", "1", false, null)));
+        repository.saveResultSearchIndex(statisticsResult("5", 10.0, 11.0));
+
+        statistics = repository.getMarkerStatistics("StatisticsMarker", false);
+        assertEquals(4, statistics.count());
+        assertEquals(10.0, statistics.highestMin());
+        assertArrayEquals(new long[]{0, 3}, statistics.minHistogram().counts());
+        assertFalse(statistics.excludes(new RangeBounds(10.0, 11.0, 10.0, 11.0)));
+        assertNull(repository.getMarkerStatistics("StatisticsMarker", true));
+    }
+
+    @Test
+    public void testMarkerStatisticsStartedOnEmptyIndexes() {
+        // removals and writes to indexes that are not empty leave statistics that were not built alone
+        repository.updateMarkerStatistics(List.of(new MarkerStatisticsUpdate("StatisticsMarker", "1", false, null)));
+        assertNull(repository.getMarkerStatistics("StatisticsMarker", false));
+        repository.saveResultSearchIndex(statisticsResult("1", 1.0, 2.0));
+        repository.updateMarkerStatistics(List.of(
+                new MarkerStatisticsUpdate("StatisticsMarker", "2", false, new ScoredRange(3.0, 4.0))));
+        assertNull(repository.getMarkerStatistics("StatisticsMarker", false));
+
+        repository.updateMarkerStatistics(List.of(
+                new MarkerStatisticsUpdate("StatisticsMarker", "1", true, new ScoredRange(1.0, 2.0))));
+
+        var statistics = repository.getMarkerStatistics("StatisticsMarker", true);
+        assertEquals(1, statistics.count());
+        assertEquals(0, statistics.unboundedMinCount());
+        assertEquals(1.0, statistics.lowestMin());
+        assertEquals(2.0, statistics.highestMax());
+        assertTrue(statistics.excludes(new RangeBounds(10.0, 11.0, 10.0, 11.0)));
+    }
+
+    private static Result partitionedResult(String recordId, String technologyName, double min, double max) {
+        var partitionedResult = new Result();
+        partitionedResult.setRecordId(recordId);
+        partitionedResult.setMarkerName("PartitionedMarker");
+        partitionedResult.setTechnologyName(technologyName);
+        partitionedResult.setMin(min);
+        partitionedResult.setMax(max);
+        return partitionedResult;
+    }
+
+    private static Result statisticsResult(String recordId, double min, double max) {
+        var statisticsResult = new Result();
+        statisticsResult.setRecordId(recordId);
+        statisticsResult.setMarkerName("StatisticsMarker");
+        statisticsResult.setMin(min);
+        statisticsResult.setMax(max);
+        return statisticsResult;
+    }
+
+    private static Result filteredResult(String recordId, String sample, LocalDateTime timestamp) {
+        var filteredResult = new Result();
+        filteredResult.setRecordId(recordId);
+        filteredResult.setMarkerName("FilteredMarker");
+        filteredResult.setSample(sample);
+        filteredResult.setTimestamp(timestamp);
+        return filteredResult;
+    }
 }
@@ -10,11 +10,13 @@ import thesis.data.repository.MarkerRepository;
 import thesis.data.repository.ResultRepository;
 import thesis.data.repository.TechnologyRepository;
 import thesis.data.repository.UnitRepository;
+import thesis.data.service.query.index.AggregatedMarkerIndex;
 import thesis.exceptions.EntityInUseException;
 import thesis.exceptions.EntityNotFoundException;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -32,12 +34,19 @@ class MarkerServiceTest {
     @Mock
     private TechnologyRepository technologyRepository;
 
+    @Mock
+    private MetadataCache metadataCache;
+
+    @Mock
+    private AggregatedMarkerIndex aggregatedIndex;
+
     @InjectMocks
     private MarkerService markerService;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        when(metadataCache.get(any(), any(), any())).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(2).get());
     }
 
     @Test
@@ -52,6 +61,8 @@ class MarkerServiceTest {
 
         assertNotNull(savedMarker);
         verify(markerRepository).save(marker);
+        verify(metadataCache).evict(Marker.class, "marker1");
+        verify(aggregatedIndex).addMarker(marker);
     }
 
     @Test
@@ -66,6 +77,7 @@ class MarkerServiceTest {
 
         assertEquals(existingMarker, savedMarker);
         verify(markerRepository, never()).save(existingMarker);
+        verify(aggregatedIndex, never()).addMarker(any());
     }
 
     @Test
@@ -98,6 +110,8 @@ class MarkerServiceTest {
         markerService.delete("marker1");
 
         verify(markerRepository).deleteById("marker1");
+        verify(metadataCache).evict(Marker.class, "marker1");
+        verify(aggregatedIndex).removeMarker("marker1");
     }
 
     @Test
@@ -0,0 +1,156 @@
+package thesis.data.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import thesis.config.SearchProperties;
+import thesis.data.model.Marker;
+import thesis.data.model.Unit;
+import thesis.exceptions.EntityNotFoundException;
+import thesis.utils.RedisKeyBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class MetadataCacheTest {
+    private final StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+    private final RedisMessageListenerContainer listenerContainer = mock(RedisMessageListenerContainer.class);
+
+    @Test
+    void get_ShouldLoadEntityOnce_WhenCalledRepeatedly() {
+        var cache = cache(true, 300);
+        var loads = new AtomicInteger();
+
+        var first = cache.get(Marker.class, "marker1", () -> marker("marker1", loads));
+        var second = cache.get(Marker.class, "marker1", () -> marker("marker1", loads));
+
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void get_ShouldSeparateTypes_WhenIdsAreEqual() {
+        var cache = cache(true, 300);
+        var loads = new AtomicInteger();
+
+        cache.get(Marker.class, "mmol", () -> marker("mmol", loads));
+        var unit = cache.get(Unit.class, "mmol", () -> new Unit("mmol", "mmol/l"));
+
+        assertEquals("mmol", unit.getName());
+    }
+
+    @Test
+    void get_ShouldNotCacheMissingEntity() {
+        var cache = cache(true, 300);
+
+        assertThrows(EntityNotFoundException.class, () -> cache.get(Marker.class, "marker1", () -> {
+            throw new EntityNotFoundException("Marker with name 'marker1' not found");
+        }));
+        var marker = cache.get(Marker.class, "marker1", () -> marker("marker1", new AtomicInteger()));
+
+        assertEquals("marker1", marker.getName());
+    }
+
+    @Test
+    void get_ShouldReloadEntity_WhenEntryExpired() {
+        var cache = cache(true, 0);
+        var loads = new AtomicInteger();
+
+        cache.get(Marker.class, "marker1", () -> marker("marker1", loads));
+        cache.get(Marker.class, "marker1", () -> marker("marker1", loads));
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void evict_ShouldDropEntityAndPublishEviction() {
+        var cache = cache(true, 300);
+        var loads = new AtomicInteger();
+        cache.get(Marker.class, "marker1", () -> marker("marker1", loads));
+
+        cache.evict(Marker.class, "marker1");
+        cache.get(Marker.class, "marker1", () -> marker("marker1", loads));
+
+        assertEquals(2, loads.get());
+        verify(redisTemplate).convertAndSend(eq(RedisKeyBuilder.METADATA_EVICTION_CHANNEL), any(String.class));
+    }
+
+    @Test
+    void onMessage_ShouldDropEntity_WhenOtherInstanceEvictedIt() {
+        var cache = cache(true, 300);
+        var loads = new AtomicInteger();
+        cache.get(Marker.class, "marker1", () -> marker("marker1", loads));
+        cache.get(Marker.class, "marker2", () -> marker("marker2", loads));
+
+        cache.onMessage(message("other-instance:Marker:marker1"), null);
+        cache.get(Marker.class, "marker1", () -> marker("marker1", loads));
+        cache.get(Marker.class, "marker2", () -> marker("marker2", loads));
+
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void onMessage_ShouldDropAllEntities_WhenOtherInstanceEvictedAll() {
+        var cache = cache(true, 300);
+        var loads = new AtomicInteger();
+        cache.get(Marker.class, "marker1", () -> marker("marker1", loads));
+
+        cache.onMessage(message("other-instance:*:"), null);
+        cache.get(Marker.class, "marker1", () -> marker("marker1", loads));
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void onMessage_ShouldNotifyEvictionListenersOfType() {
+        var cache = cache(true, 300);
+        var unitEvictions = new AtomicInteger();
+        var markerEvictions = new AtomicInteger();
+        cache.addEvictionListener(Unit.class, unitEvictions::incrementAndGet);
+        cache.addEvictionListener(Marker.class, markerEvictions::incrementAndGet);
+
+        cache.onMessage(message("other-instance:Unit:mmol"), null);
+
+        assertEquals(1, unitEvictions.get());
+        assertEquals(0, markerEvictions.get());
+    }
+
+    @Test
+    void get_ShouldAlwaysLoad_WhenCacheIsDisabled() {
+        var cache = cache(false, 300);
+        var loads = new AtomicInteger();
+
+        cache.get(Marker.class, "marker1", () -> marker("marker1", loads));
+        cache.get(Marker.class, "marker1", () -> marker("marker1", loads));
+        cache.evict(Marker.class, "marker1");
+
+        assertEquals(2, loads.get());
+        verifyNoInteractions(redisTemplate);
+    }
+
+    private MetadataCache cache(boolean enabled, int ttlSeconds) {
+        var properties = new SearchProperties();
+        properties.setMetadataCacheEnabled(enabled);
+        properties.setMetadataCacheTtlSeconds(ttlSeconds);
+        return new MetadataCache(redisTemplate, listenerContainer, properties);
+    }
+
+    private static Marker marker(String name, AtomicInteger loads) {
+        loads.incrementAndGet();
+        var marker = new Marker();
+        marker.setName(name);
+        return marker;
+    }
+
+    private static Message message(String body) {
+        var message = mock(Message.class);
+        when(message.getBody()).thenReturn(body.getBytes(StandardCharsets.UTF_8));
+        return message;
+    }
+}
@@ -0,0 +1,100 @@
+package thesis.data.service;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import thesis.data.repository.RecordRepository;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RecordOrdinalRegistryTest {
+    @Mock
+    private RecordRepository recordRepository;
+
+    @InjectMocks
+    private RecordOrdinalRegistry ordinalRegistry;
+
+    public RecordOrdinalRegistryTest() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void toBitSet_ShouldAllocateOnlyUncachedRecordIds() {
+        when(recordRepository.allocateOrdinals(List.of("record1", "record2"))).thenReturn(List.of(1, 2));
+        when(recordRepository.allocateOrdinals(List.of("record3"))).thenReturn(List.of(5));
+
+        ordinalRegistry.toBitSet(List.of("record1", "record2"));
+        BitSet bits = ordinalRegistry.toBitSet(List.of("record2", "record3"));
+
+        assertEquals(Set.of(2, 5), Set.copyOf(bits.stream().boxed().toList()));
+        verify(recordRepository, times(1)).allocateOrdinals(List.of("record3"));
+    }
+
+    @Test
+    void toRecordIds_ShouldLoadUncachedOrdinals() {
+        when(recordRepository.allocateOrdinals(List.of("record1"))).thenReturn(List.of(1));
+        when(recordRepository.findRecordIdsByOrdinals(List.of(7))).thenReturn(List.of("record7"));
+        BitSet bits = ordinalRegistry.toBitSet(List.of("record1"));
+        bits.set(7);
+
+        Set<String> recordIds = ordinalRegistry.toRecordIds(bits);
+
+        assertEquals(Set.of("record1", "record7"), recordIds);
+        assertEquals(7, ordinalRegistry.getOrdinal("record7"));
+    }
+
+    @Test
+    void getOrdinals_ShouldAllocateMissingOrdinalsInOneRoundTrip() {
+        when(recordRepository.allocateOrdinals(List.of("record1"))).thenReturn(List.of(1));
+        when(recordRepository.allocateOrdinals(List.of("record2", "record3"))).thenReturn(List.of(2, 3));
+        ordinalRegistry.getOrdinal("record1");
+
+        int[] ordinals = ordinalRegistry.getOrdinals(List.of("record2", "record1", "record3"));
+
+        assertArrayEquals(new int[]{2, 1, 3}, ordinals);
+        verify(recordRepository, times(1)).allocateOrdinals(List.of("record2", "record3"));
+    }
+
+    @Test
+    void getRecordId_ShouldLoadAndCacheUncachedOrdinal() {
+        when(recordRepository.findRecordIdsByOrdinals(List.of(4))).thenReturn(List.of("record4"));
+
+        assertEquals("record4", ordinalRegistry.getRecordId(4));
+        assertEquals("record4", ordinalRegistry.getRecordId(4));
+
+        verify(recordRepository, times(1)).findRecordIdsByOrdinals(List.of(4));
+    }
+
+    @Test
+    void release_ShouldDeleteOrdinal() {
+        when(recordRepository.allocateOrdinals(List.of("record1"))).thenReturn(List.of(1), List.of(2));
+        ordinalRegistry.getOrdinal("record1");
+
+        ordinalRegistry.release("record1");
+
+        verify(recordRepository).deleteOrdinal("record1");
+        assertEquals(2, ordinalRegistry.getOrdinal("record1"));
+    }
+
+    @Test
+    void migrate_ShouldAllocateOrdinalsForAllRecords() {
+        doAnswer(invocation -> {
+            Consumer<List<String>> consumer = invocation.getArgument(0);
+            consumer.accept(List.of("record1", "record2"));
+            return null;
+        }).when(recordRepository).streamAllRecordIds(any());
+        when(recordRepository.allocateOrdinals(List.of("record1", "record2"))).thenReturn(List.of(1, 2));
+
+        long count = ordinalRegistry.migrate();
+
+        assertEquals(2, count);
+        verify(recordRepository).allocateOrdinals(List.of("record1", "record2"));
+    }
+}
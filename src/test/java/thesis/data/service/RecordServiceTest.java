@@ -22,6 +22,12 @@ class RecordServiceTest {
     @Mock
     private ResultRepository resultRepository;
 
+    @Mock
+    private RecordOrdinalRegistry ordinalRegistry;
+
+    @Mock
+    private SearchVersionRegistry versionRegistry;
+
     @InjectMocks
     private RecordService recordService;
 
@@ -32,12 +38,14 @@ class RecordServiceTest {
     @Test
     void save_ShouldSaveRecord() {
         Record record = new Record();
+        record.setId("record1");
         when(recordRepository.save(record)).thenReturn(record);
 
         Record savedRecord = recordService.save(record);
 
         assertNotNull(savedRecord);
         verify(recordRepository, times(1)).save(record);
+        verify(ordinalRegistry).getOrdinal("record1");
     }
 
     @Test
@@ -113,6 +121,7 @@ class RecordServiceTest {
         recordService.delete("record1");
 
         verify(recordRepository).deleteById("record1");
+        verify(ordinalRegistry).release("record1");
     }
 
     @Test
@@ -8,9 +8,20 @@ import org.mockito.MockitoAnnotations;
 import thesis.data.model.Result;
 import thesis.data.repository.ResultRepository;
 import thesis.data.repository.TechnologyRepository;
+import thesis.data.repository.custom.MarkerStatisticsUpdate;
+import thesis.data.repository.custom.ScoredRange;
+import thesis.data.service.query.index.AggregatedMarkerIndex;
+import thesis.data.service.query.index.MarkerStatisticsCatalog;
+import thesis.data.service.query.index.NumericColumnSnapshot;
+import thesis.data.service.query.index.ResultBitmapIndex;
+import thesis.data.service.query.index.ResultFilterIndex;
+import thesis.data.service.query.index.ResultIndexMirror;
 import thesis.exceptions.EntityNotFoundException;
+import thesis.data.service.query.index.StringCategoryOrdinalIndex;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
@@ -21,9 +32,33 @@ class ResultServiceTest {
     @Mock
     private ResultRepository resultRepository;
 
+    @Mock
+    private ResultBitmapIndex bitmapIndex;
+
+    @Mock
+    private StringCategoryOrdinalIndex categoryOrdinalIndex;
+
     @Mock
     private TechnologyRepository technologyRepository;
 
+    @Mock
+    private ResultIndexMirror indexMirror;
+
+    @Mock
+    private SearchVersionRegistry versionRegistry;
+
+    @Mock
+    private AggregatedMarkerIndex aggregatedIndex;
+
+    @Mock
+    private ResultFilterIndex filterIndex;
+
+    @Mock
+    private NumericColumnSnapshot columnSnapshot;
+
+    @Mock
+    private MarkerStatisticsCatalog statisticsCatalog;
+
     @InjectMocks
     private ResultService resultService;
 
@@ -45,11 +80,27 @@ class ResultServiceTest {
         when(technologyRepository.getToDeviation("Tech1", "Marker1", 5.0)).thenReturn(Set.of("1.0::10.0::2.0"));
         when(technologyRepository.getFromDeviation("Tech1", "Marker1", 10.0)).thenReturn(Set.of("1.0::10.0::2.0"));
         when(technologyRepository.getToDeviation("Tech1", "Marker1", 10.0)).thenReturn(Set.of("1.0::10.0::2.0"));
+        when(resultRepository.save(result)).thenReturn(result);
 
         resultService.save(result);
 
         verify(resultRepository).saveResultSearchIndexWithTechDeviations(result, 3.0, 12.0);
         verify(resultRepository).save(result);
+        verify(bitmapIndex).add(result);
+    }
+
+    @Test
+    void save_ShouldDropColumnsOfMarkerOnce() {
+        var result = new Result();
+        result.setTechnologyName("Tech1");
+        result.setMarkerName("Marker1");
+        result.setMin(5.0);
+        result.setMax(10.0);
+
+        resultService.save(result);
+
+        verify(columnSnapshot).invalidate(List.of("Marker1"));
+        verify(versionRegistry).bumpMarker("Marker1");
     }
 
     @Test
@@ -83,6 +134,60 @@ class ResultServiceTest {
         verify(resultRepository, never()).saveResultSearchIndexWithTechDeviations(any(), any(), any());
         verify(resultRepository).saveResultSearchIndex(result);
         verify(resultRepository).save(result);
+        verify(aggregatedIndex).update(List.of(result));
+    }
+
+    @Test
+    void save_ShouldUpdateStatisticsBeforeWritingIndexes() {
+        var result = new Result();
+        result.setMarkerName("Marker1");
+        result.setRecordId("r1");
+        result.setMin(5.0);
+
+        resultService.save(result);
+
+        var inOrder = inOrder(resultRepository, statisticsCatalog);
+        inOrder.verify(statisticsCatalog).update(List.of(new MarkerStatisticsUpdate("Marker1", "r1", false,
+                new ScoredRange(5.0, Double.POSITIVE_INFINITY))));
+        inOrder.verify(resultRepository).saveResultSearchIndex(result);
+    }
+
+    @Test
+    void saveAll_ShouldUpdateStatisticsOfAllResultsAtOnce() {
+        var first = new Result();
+        first.setMarkerName("Marker1");
+        first.setRecordId("r1");
+        first.setMin(1.0);
+        first.setMax(2.0);
+        var second = new Result();
+        second.setMarkerName("Marker1");
+        second.setRecordId("r2");
+        second.setStringValue("value");
+
+        resultService.saveAll(List.of(first, second));
+
+        verify(statisticsCatalog).update(List.of(new MarkerStatisticsUpdate("Marker1", "r1", false,
+                new ScoredRange(1.0, 2.0))));
+        verify(resultRepository).saveResultSearchIndex(first);
+        verify(resultRepository, never()).saveResultSearchIndex(second);
+        verify(resultRepository).save(second);
+    }
+
+    @Test
+    void saveAll_ShouldInvalidateMirrorOncePerBatch() {
+        List<Result> results = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            var result = new Result();
+            result.setMarkerName("Marker1");
+            result.setRecordId("r" + i);
+            result.setMin((double) i);
+            results.add(result);
+        }
+
+        resultService.saveAll(results);
+
+        verify(indexMirror).invalidate(List.of("Marker1", "Marker1", "Marker1"));
+        verify(indexMirror, never()).invalidate(anyString());
     }
 
     @Test
@@ -119,6 +224,7 @@ class ResultServiceTest {
         updatedResult.setMarkerName("Marker1");
 
         when(resultRepository.findById("1")).thenReturn(Optional.of(existingResult));
+        when(resultRepository.save(existingResult)).thenReturn(existingResult);
         when(technologyRepository.isDeviationPercentage("Tech1", "Marker1")).thenReturn(false);
         when(technologyRepository.getFromDeviation("Tech1", "Marker1", 5.0)).thenReturn(Set.of("1.0::10.0::2.0"));
         when(technologyRepository.getToDeviation("Tech1", "Marker1", 5.0)).thenReturn(Set.of("1.0::10.0::2.0"));
@@ -131,6 +237,9 @@ class ResultServiceTest {
         verify(resultRepository).deleteResultSearchIndexWithTechDeviations(existingResult);
         verify(resultRepository).saveResultSearchIndexWithTechDeviations(existingResult, 3.0, 12.0);
         verify(resultRepository).save(existingResult);
+        verify(bitmapIndex).add(existingResult);
+        verify(categoryOrdinalIndex).add(existingResult);
+        verify(filterIndex).add(existingResult);
     }
 
     @Test
@@ -146,6 +255,30 @@ class ResultServiceTest {
         verify(resultRepository).deleteResultSearchIndex(result);
         verify(resultRepository).deleteResultSearchIndexWithTechDeviations(result);
         verify(resultRepository).deleteById("1");
+        verify(aggregatedIndex).update(List.of(result));
+    }
+
+    @Test
+    void deleteAll_ShouldDeleteResultsAndIndexes_WhenResultsExist() {
+        var result = new Result();
+        result.setId("1");
+        result.setMin(5.0);
+
+        when(resultRepository.findAllResultsByIds(Set.of("1"))).thenReturn(Map.of("1", result));
+
+        resultService.deleteAll(Set.of("1"));
+
+        verify(resultRepository).deleteResultSearchIndex(result);
+        verify(resultRepository).deleteResultSearchIndexWithTechDeviations(result);
+        verify(resultRepository).deleteAllById(Set.of("1"));
+    }
+
+    @Test
+    void deleteAll_ShouldThrowException_WhenResultDoesNotExist() {
+        when(resultRepository.findAllResultsByIds(Set.of("1"))).thenReturn(Map.of());
+
+        assertThrows(EntityNotFoundException.class, () -> resultService.deleteAll(Set.of("1")));
+        verify(resultRepository, never()).deleteAllById(any());
     }
 
     @Test
@@ -10,10 +10,12 @@ import thesis.data.repository.StringCategoryRepository;
 import thesis.exceptions.BadRequestException;
 import thesis.exceptions.EntityInUseException;
 import thesis.exceptions.EntityNotFoundException;
+import thesis.data.service.query.index.StringCategoryOrdinalIndex;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -25,11 +27,18 @@ class StringCategoryServiceTest {
     @Mock
     private ResultRepository resultRepository;
 
+    @Mock
+    private StringCategoryOrdinalIndex ordinalIndex;
+
+    @Mock
+    private MetadataCache metadataCache;
+
     @InjectMocks
     private StringCategoryService stringCategoryService;
 
     public StringCategoryServiceTest() {
         MockitoAnnotations.openMocks(this);
+        when(metadataCache.get(any(), any(), any())).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(2).get());
     }
 
     @Test
@@ -42,6 +51,7 @@ class StringCategoryServiceTest {
 
         assertNotNull(savedCategory);
         verify(stringCategoryRepository, times(1)).save(category);
+        verify(metadataCache).evict(StringCategory.class, "category1");
     }
 
     @Test
@@ -55,6 +65,7 @@ class StringCategoryServiceTest {
         assertNotNull(result);
         assertEquals("category1", result.getName());
         verify(stringCategoryRepository, times(1)).findById("category1");
+        verify(metadataCache, never()).evict(any(), any());
     }
 
     @Test
@@ -86,6 +97,7 @@ class StringCategoryServiceTest {
         stringCategoryService.delete("category1");
 
         verify(stringCategoryRepository, times(1)).deleteById("category1");
+        verify(metadataCache).evict(StringCategory.class, "category1");
     }
 
     @Test
@@ -119,6 +131,8 @@ class StringCategoryServiceTest {
         StringCategory result = stringCategoryService.addValue("category1", "value2");
 
         assertTrue(result.getValues().contains("value2"));
+        verify(ordinalIndex).rescore(category, List.of("value1"));
+        verify(metadataCache).evict(StringCategory.class, "category1");
     }
 
     @Test
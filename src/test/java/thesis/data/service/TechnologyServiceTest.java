@@ -16,6 +16,7 @@ import thesis.exceptions.EntityNotFoundException;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -30,9 +31,16 @@ public class TechnologyServiceTest {
     @Mock
     private ResultRepository resultRepository;
 
+    @Mock
+    private SearchVersionRegistry versionRegistry;
+
+    @Mock
+    private MetadataCache metadataCache;
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        when(metadataCache.get(any(), any(), any())).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(2).get());
     }
 
     @Test
@@ -46,6 +54,7 @@ public class TechnologyServiceTest {
 
         assertNotNull(savedTechnology);
         verify(technologyRepository).save(technology);
+        verify(metadataCache).evict(Technology.class, "tech1");
     }
 
     @Test
@@ -59,6 +68,7 @@ public class TechnologyServiceTest {
 
         assertEquals(existingTechnology, savedTechnology);
         verify(technologyRepository, never()).save(existingTechnology);
+        verify(metadataCache, never()).evict(any(), any());
     }
 
     @Test
@@ -87,6 +97,7 @@ public class TechnologyServiceTest {
 
         technologyService.delete("tech1");
         verify(technologyRepository).deleteById("tech1");
+        verify(metadataCache).evict(Technology.class, "tech1");
     }
 
     @Test
@@ -137,6 +148,7 @@ public class TechnologyServiceTest {
         assertNotNull(result.getProperties());
         assertEquals(1, result.getProperties().size());
         assertEquals("marker1", result.getProperties().get(0).getMarkerName());
+        verify(metadataCache).evict(Technology.class, "tech1");
     }
 
     @Test
@@ -0,0 +1,99 @@
+package thesis.data.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import thesis.config.SearchProperties;
+import thesis.data.model.Conversion;
+import thesis.data.model.Unit;
+import thesis.data.repository.UnitRepository;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class UnitConversionGraphTest {
+    private final UnitRepository unitRepository = mock(UnitRepository.class);
+    private final MetadataCache metadataCache = mock(MetadataCache.class);
+    private final UnitConversionGraph conversionGraph =
+            new UnitConversionGraph(unitRepository, metadataCache, new SearchProperties());
+
+    @BeforeEach
+    void setUp() {
+        when(metadataCache.isEnabled()).thenReturn(true);
+    }
+
+    @Test
+    void resolve_ShouldReturnDirectConversion() {
+        when(unitRepository.findAll()).thenReturn(List.of(unit("mmol/L", new Conversion("mg/dL", "Glucose", "x * 18"))));
+
+        var conversion = conversionGraph.resolve("Glucose", "mmol/L", "mg/dL").orElseThrow();
+
+        assertEquals("x * 18", conversion.formula());
+        assertEquals(90.0, conversion.function().evaluate(5.0));
+    }
+
+    @Test
+    void resolve_ShouldComposeConversions_WhenUnitsAreConnectedThroughIntermediateUnit() {
+        when(unitRepository.findAll()).thenReturn(List.of(
+                unit("mg/kg", new Conversion("g/kg", "Fat", "x / 1000")),
+                unit("g/kg", new Conversion("%", "Fat", "x / 10"))));
+
+        var conversion = conversionGraph.resolve("Fat", "mg/kg", "%").orElseThrow();
+
+        assertEquals("x / 1000 -> x / 10", conversion.formula());
+        assertEquals(0.5, conversion.function().evaluate(5000.0));
+    }
+
+    @Test
+    void resolve_ShouldNotComposeConversionsOfDifferentMarkers() {
+        when(unitRepository.findAll()).thenReturn(List.of(
+                unit("mg/kg", new Conversion("g/kg", "Fat", "x / 1000")),
+                unit("g/kg", new Conversion("%", "Protein", "x / 10"))));
+
+        assertTrue(conversionGraph.resolve("Fat", "mg/kg", "%").isEmpty());
+        assertTrue(conversionGraph.hasConversions("g/kg"));
+        assertFalse(conversionGraph.hasConversions("%"));
+    }
+
+    @Test
+    void addConversion_ShouldUpdateLoadedGraphWithoutReloadingUnits() {
+        when(unitRepository.findAll()).thenReturn(List.of(unit("mg/kg", new Conversion("g/kg", "Fat", "x / 1000"))));
+        assertTrue(conversionGraph.resolve("Fat", "mg/kg", "%").isEmpty());
+
+        conversionGraph.addConversion("g/kg", new Conversion("%", "Fat", "x / 10"));
+
+        assertEquals(0.5, conversionGraph.resolve("Fat", "mg/kg", "%").orElseThrow().function().evaluate(5000.0));
+        verify(unitRepository, times(1)).findAll();
+    }
+
+    @Test
+    void removeUnit_ShouldRemoveConversionsThroughUnit() {
+        when(unitRepository.findAll()).thenReturn(List.of(
+                unit("mg/kg", new Conversion("g/kg", "Fat", "x / 1000")),
+                unit("g/kg", new Conversion("%", "Fat", "x / 10"))));
+        assertTrue(conversionGraph.resolve("Fat", "mg/kg", "%").isPresent());
+
+        conversionGraph.removeUnit("g/kg");
+
+        assertTrue(conversionGraph.resolve("Fat", "mg/kg", "%").isEmpty());
+        assertTrue(conversionGraph.resolve("Fat", "mg/kg", "g/kg").isPresent());
+    }
+
+    @Test
+    void invalidate_ShouldReloadUnits() {
+        when(unitRepository.findAll()).thenReturn(List.of(unit("mmol/L", new Conversion("mg/dL", "Glucose", "x * 18"))));
+        conversionGraph.resolve("Glucose", "mmol/L", "mg/dL");
+
+        conversionGraph.invalidate();
+        conversionGraph.resolve("Glucose", "mmol/L", "mg/dL");
+
+        verify(unitRepository, times(2)).findAll();
+    }
+
+    private static Unit unit(String name, Conversion conversion) {
+        var unit = new Unit(name, name);
+        unit.setConversions(List.of(conversion));
+        return unit;
+    }
+}
@@ -9,12 +9,14 @@ import thesis.data.model.Conversion;
 import thesis.data.model.Unit;
 import thesis.data.repository.MarkerRepository;
 import thesis.data.repository.UnitRepository;
+import thesis.data.service.query.index.AggregatedMarkerIndex;
 import thesis.exceptions.BadRequestException;
 import thesis.exceptions.EntityInUseException;
 import thesis.exceptions.EntityNotFoundException;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -27,12 +29,22 @@ class UnitServiceTest {
     @Mock
     private MarkerRepository markerRepository;
 
+    @Mock
+    private MetadataCache metadataCache;
+
+    @Mock
+    private UnitConversionGraph conversionGraph;
+
+    @Mock
+    private AggregatedMarkerIndex aggregatedIndex;
+
     @InjectMocks
     private UnitService unitService;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        when(metadataCache.get(any(), any(), any())).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(2).get());
     }
 
     @Test
@@ -45,6 +57,7 @@ class UnitServiceTest {
 
         assertEquals(unit, savedUnit);
         verify(unitRepository).save(unit);
+        verify(conversionGraph).addUnit(unit);
     }
 
     @Test
@@ -114,6 +127,8 @@ class UnitServiceTest {
         unitService.delete("unit1");
 
         verify(unitRepository).deleteById("unit1");
+        verify(metadataCache).evict(Unit.class, "unit1");
+        verify(conversionGraph).removeUnit("unit1");
     }
 
     @Test
@@ -123,6 +138,22 @@ class UnitServiceTest {
         assertThrows(BadRequestException.class, () -> unitService.addConversion("unit1", conversion));
     }
 
+    @Test
+    void addConversion_ShouldUpdateConversionGraphAndAggregatedIndexes() {
+        Unit unit = new Unit("unit1", "u1");
+        Conversion conversion = new Conversion("unit2", "marker1", "x*2");
+
+        when(unitRepository.findById("unit1")).thenReturn(Optional.of(unit));
+        when(unitRepository.save(unit)).thenReturn(unit);
+
+        unitService.addConversion("unit1", conversion);
+
+        assertEquals(List.of(conversion), unit.getConversions());
+        verify(metadataCache).evict(Unit.class, "unit1");
+        verify(conversionGraph).addConversion("unit1", conversion);
+        verify(aggregatedIndex).refresh(List.of("marker1"));
+    }
+
     @Test
     void addConversion_ShouldThrowBadRequestException_WhenConversionAlreadyExists() {
         Conversion existingConversion = new Conversion("unit2", "marker1", "x+1");
@@ -0,0 +1,147 @@
+package thesis.data.service.query;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import thesis.data.repository.ResultRepository;
+import thesis.data.repository.custom.NumericRangeIndex;
+import thesis.data.repository.custom.RangeBounds;
+import thesis.data.repository.custom.RangePageRequest;
+import thesis.data.repository.custom.ScoredRange;
+import thesis.data.repository.custom.ScoredRecordId;
+import thesis.exceptions.BadRequestException;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.doubleThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class NearestRangeSearchTest {
+    private static final RangeBounds WITH_TOLERANCE = new RangeBounds(-100.0, 100.0, -100.0, 100.0);
+    // the tiers as ranked by the search with tolerance: its matches that also match exactly, then the others
+    private static final List<RangeBounds> TIERS = List.of(
+            new RangeBounds(0.0, 30.0, Double.NEGATIVE_INFINITY, 30.0).intersect(WITH_TOLERANCE), WITH_TOLERANCE);
+
+    // distances to the query point 15: a 0, b 2, h 4, g 5, c 7, d 10 and only within tolerance e 35, f 45
+    private static final Map<String, ScoredRange> RANGES = Map.of(
+            "a", new ScoredRange(14.0, 16.0),
+            "b", new ScoredRange(17.0, 18.0),
+            "c", new ScoredRange(5.0, 8.0),
+            "d", new ScoredRange(25.0, 26.0),
+            "e", new ScoredRange(50.0, 60.0),
+            "f", new ScoredRange(-40.0, -30.0),
+            "g", new ScoredRange(20.0, 21.0),
+            "h", new ScoredRange(9.0, 11.0));
+
+    private final NumericRangeIndex index = mock(NumericRangeIndex.class);
+    private final ResultRepository resultRepository = mock(ResultRepository.class);
+    private final NearestRangeSearch search = new NearestRangeSearch(index, resultRepository, "marker", false, 15.0);
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        when(index.searchForRangeMatches(eq("marker"), anyDouble(), anyDouble(), anyDouble(), anyDouble(), eq(false)))
+                .thenAnswer(invocation -> matches(invocation.getArguments()).collect(Collectors.toSet()));
+        when(index.countRangeMatches(eq("marker"), anyDouble(), anyDouble(), anyDouble(), anyDouble(), eq(false)))
+                .thenAnswer(invocation -> matches(invocation.getArguments()).count());
+        when(index.searchForRangePage(eq("marker"), anyDouble(), anyDouble(), anyDouble(), anyDouble(), eq(false),
+                any(RangePageRequest.class))).thenAnswer(invocation -> {
+            RangePageRequest page = invocation.getArgument(6);
+            var order = Comparator.comparingDouble(ScoredRecordId::score).thenComparing(ScoredRecordId::recordId);
+            return matches(invocation.getArguments())
+                    .map(recordId -> new ScoredRecordId(recordId,
+                            page.sortByMax() ? RANGES.get(recordId).max() : RANGES.get(recordId).min()))
+                    .filter(entry -> page.isAfterStart(entry.recordId(), entry.score()))
+                    .sorted(page.descending() ? order.reversed() : order)
+                    .limit(page.limit())
+                    .toList();
+        });
+        when(resultRepository.getSearchIndexRanges(anyList(), eq(false), any())).thenAnswer(invocation -> {
+            Map<String, ScoredRange> ranges = new HashMap<>();
+            ((Collection<String>) invocation.getArgument(2)).forEach(recordId -> ranges.put(recordId, RANGES.get(recordId)));
+            return Map.of("marker", ranges);
+        });
+    }
+
+    @Test
+    void searchPage_ShouldRankByTierAndDistance_WhenPagedWithCursor() {
+        var first = search.searchPage(TIERS, new RangePageRequest(false, false, null, 3));
+        var second = search.searchPage(TIERS, new RangePageRequest(false, false, first.get(2), 4));
+        var third = search.searchPage(TIERS, new RangePageRequest(false, false, second.get(3), 4));
+
+        assertEquals(List.of("a", "b", "h"), recordIds(first));
+        assertEquals(List.of("g", "c", "d", "e"), recordIds(second));
+        assertEquals(List.of("f"), recordIds(third));
+    }
+
+    @Test
+    void searchPage_ShouldReadOnlyNearestEntriesOfEachSide_WhenFirstTierHasEnoughMatches() {
+        var page = search.searchPage(TIERS, new RangePageRequest(false, false, null, 3));
+
+        assertEquals(List.of("a", "b", "h"), recordIds(page));
+        assertEquals(List.of(0.0, 2.0, 4.0), page.stream().map(ScoredRecordId::score).toList());
+        // a contains the query point, each side is read until two matches and the next entry further away
+        verify(index).searchForRangeMatches("marker", 0.0, 15.0, 15.0, 30.0, false);
+        verify(index, never()).searchForRangeMatches(eq("marker"), eq(-100.0), anyDouble(), anyDouble(), anyDouble(),
+                eq(false));
+        verify(index, never()).searchForRangePage(eq("marker"), eq(-100.0), anyDouble(), anyDouble(), anyDouble(),
+                eq(false), any(RangePageRequest.class));
+    }
+
+    @Test
+    void searchPage_ShouldStartAtDistanceOfCursor() {
+        var page = search.searchPage(TIERS, new RangePageRequest(false, false, new ScoredRecordId("h", 4.0), 2));
+
+        assertEquals(List.of("g", "c"), recordIds(page));
+        // the matches nearer than the cursor are neither counted nor read again
+        verify(index, never()).searchForRangeMatches(anyString(), anyDouble(), anyDouble(), anyDouble(), anyDouble(),
+                anyBoolean());
+        verify(index, never()).countRangeMatches(anyString(), anyDouble(), anyDouble(), anyDouble(), anyDouble(),
+                anyBoolean());
+        verify(index).searchForRangePage(eq("marker"), doubleThat(minFrom -> minFrom > 18.99 && minFrom <= 19.0),
+                eq(30.0), eq(-100.0), eq(30.0), eq(false), any(RangePageRequest.class));
+    }
+
+    @Test
+    void searchPage_ShouldSkipMatchesOfEarlierTiers_WhenCursorIsInLaterTier() {
+        var page = search.searchPage(TIERS, new RangePageRequest(false, false, new ScoredRecordId("e", 35.0, 1), 2));
+
+        assertEquals(List.of("f"), recordIds(page));
+        assertEquals(1, page.get(0).tier());
+    }
+
+    @Test
+    void searchPage_ShouldThrowBadRequest_WhenCursorIsInTierThatDoesNotExist() {
+        var page = new RangePageRequest(false, false, new ScoredRecordId("e", 35.0, 2), 2);
+
+        assertThrows(BadRequestException.class, () -> search.searchPage(TIERS, page));
+    }
+
+    private static Stream<String> matches(Object[] arguments) {
+        var bounds = new RangeBounds((Double) arguments[1], (Double) arguments[2], (Double) arguments[3],
+                (Double) arguments[4]);
+        return RANGES.entrySet().stream()
+                .filter(entry -> bounds.contains(entry.getValue().min(), entry.getValue().max()))
+                .map(Map.Entry::getKey);
+    }
+
+    private static List<String> recordIds(List<ScoredRecordId> entries) {
+        return entries.stream().map(ScoredRecordId::recordId).toList();
+    }
+}
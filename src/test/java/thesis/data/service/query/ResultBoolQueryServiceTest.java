@@ -7,9 +7,11 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import thesis.data.model.Result;
 import thesis.data.repository.ResultRepository;
+import thesis.data.service.query.index.ResultBitmapIndex;
 
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -19,6 +21,9 @@ class ResultBoolQueryServiceTest {
     @Mock
     private ResultRepository resultRepository;
 
+    @Mock
+    private ResultBitmapIndex bitmapIndex;
+
     @InjectMocks
     private ResultBoolQueryService resultBoolQueryService;
 
@@ -61,5 +66,18 @@ class ResultBoolQueryServiceTest {
 
         assertEquals(Set.of(result1, result2, result3, result4), new HashSet<>(actualResults));
     }
-}
 
+    @Test
+    void getBoolRecordIds_ShouldUseBitmapIndex_WhenEnabled() {
+        String markerName = "marker1";
+        Set<String> technologyNames = Set.of("tech1", "tech2");
+
+        when(bitmapIndex.isEnabled()).thenReturn(true);
+        when(bitmapIndex.findRecordIds(markerName, Map.of("booleanValue", List.of("1"), "technologyName", technologyNames)))
+                .thenReturn(Set.of("1", "3"));
+
+        Set<String> recordIds = resultBoolQueryService.getBoolRecordIds(markerName, true, technologyNames);
+
+        assertEquals(Set.of("1", "3"), recordIds);
+    }
+}
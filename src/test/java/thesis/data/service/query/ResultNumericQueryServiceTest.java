@@ -9,6 +9,11 @@ import org.springframework.data.redis.core.DefaultTypedTuple;
 import org.springframework.data.redis.core.ZSetOperations;
 import thesis.data.model.Result;
 import thesis.data.repository.ResultRepository;
+import thesis.data.repository.custom.NumericRangeIndex;
+import thesis.data.repository.custom.RangeBounds;
+import thesis.data.service.query.index.MarkerStatisticsCatalog;
+import thesis.data.service.query.index.ResultIndexMirror;
+import thesis.data.service.query.index.TechnologyPartitionIndex;
 import thesis.domain.search.dto.RecursiveResult;
 import thesis.domain.search.dto.enums.NumericSearchType;
 import thesis.exceptions.EntityNotFoundException;
@@ -16,17 +21,31 @@ import thesis.utils.EntityUtils;
 
 import java.util.HashSet;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 class ResultNumericQueryServiceTest {
     @Mock
     private ResultRepository resultRepository;
 
+    @Mock
+    private ResultIndexMirror indexMirror;
+
+    @Mock
+    private TechnologyPartitionIndex partitionIndex;
+
+    @Mock
+    private MarkerStatisticsCatalog statisticsCatalog;
+
     @InjectMocks
     private ResultNumericQueryService resultNumericQueryService;
 
@@ -41,8 +60,9 @@ class ResultNumericQueryServiceTest {
         Set<String> recordIds = Set.of("1", "2");
         Result result1 = new Result();
         Result result2 = new Result();
-        when(resultRepository.findById(EntityUtils.generateResultId("1", markerName))).thenReturn(Optional.of(result1));
-        when(resultRepository.findById(EntityUtils.generateResultId("2", markerName))).thenReturn(Optional.of(result2));
+        when(resultRepository.findAllResultsByIds(anyCollection())).thenReturn(Map.of(
+                EntityUtils.generateResultId("1", markerName), result1,
+                EntityUtils.generateResultId("2", markerName), result2));
 
         List<Result> results = resultNumericQueryService.getResultsByIds(recordIds, markerName);
 
@@ -53,8 +73,7 @@ class ResultNumericQueryServiceTest {
     void getResultsByIds_ShouldThrowException_WhenIdNotFound() {
         String markerName = "marker1";
         Set<String> recordIds = Set.of("1");
-        when(resultRepository.findById(EntityUtils.generateResultId("1", markerName)))
-                .thenReturn(Optional.empty());
+        when(resultRepository.findAllResultsByIds(anyCollection())).thenReturn(Map.of());
 
         assertThrows(EntityNotFoundException.class, () -> resultNumericQueryService.getResultsByIds(recordIds, markerName));
     }
@@ -107,5 +126,38 @@ class ResultNumericQueryServiceTest {
 
         assertEquals(expectedResults, results);
     }
-}
 
+    @Test
+    void searchResults_ShouldSearchTechnologyPartitions_WhenTechnologiesAreGiven() {
+        String markerName = "marker1";
+        NumericRangeIndex partitions = mock(NumericRangeIndex.class);
+        when(partitionIndex.getRangeIndex(Set.of("tech1", "tech2"))).thenReturn(partitions);
+        when(partitions.searchForRangeMatches(markerName, 10.0, 20.0, 10.0, 20.0, false)).thenReturn(Set.of("result1"));
+
+        Set<String> results = resultNumericQueryService.searchResults(markerName, 10.0, 20.0, NumericSearchType.EXACT_MATCH,
+                false, Set.of("tech1", "tech2"));
+
+        assertEquals(Set.of("result1"), results);
+        verify(resultRepository, never()).searchForRangeMatches(markerName, 10.0, 20.0, 10.0, 20.0, false);
+    }
+
+    @Test
+    void searchResults_ShouldNotReadIndex_WhenRangeIsOutsideEnvelopeOfMarker() {
+        when(statisticsCatalog.isEnabled()).thenReturn(true);
+        when(statisticsCatalog.excludes("marker1", false, new RangeBounds(50.0, 60.0, 50.0, 60.0))).thenReturn(true);
+        var service = new ResultNumericQueryService(resultRepository, indexMirror, partitionIndex, statisticsCatalog);
+
+        Set<String> results = service.searchResults("marker1", 50.0, 60.0, NumericSearchType.EXACT_MATCH, false);
+
+        assertEquals(Set.of(), results);
+        verify(resultRepository, never()).searchForRangeMatches("marker1", 50.0, 60.0, 50.0, 60.0, false);
+    }
+
+    @Test
+    void searchResults_ShouldNotCheckEnvelope_WhenCatalogIsDisabled() {
+        resultNumericQueryService.searchResults("marker1", 50.0, 60.0, NumericSearchType.EXACT_MATCH, false);
+
+        verify(statisticsCatalog, never()).excludes(any(), any(), any());
+        verify(resultRepository).searchForRangeMatches("marker1", 50.0, 60.0, 50.0, 60.0, false);
+    }
+}
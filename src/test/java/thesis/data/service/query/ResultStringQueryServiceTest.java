@@ -8,17 +8,31 @@ import org.mockito.MockitoAnnotations;
 import thesis.data.model.Result;
 import thesis.data.model.StringCategory;
 import thesis.data.repository.ResultRepository;
+import thesis.data.service.query.index.ResultBitmapIndex;
+import thesis.data.service.query.index.StringCategoryOrdinalIndex;
+import thesis.utils.EntityUtils;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 class ResultStringQueryServiceTest {
     @Mock
     private ResultRepository resultRepository;
 
+    @Mock
+    private ResultBitmapIndex bitmapIndex;
+
+    @Mock
+    private StringCategoryOrdinalIndex ordinalIndex;
+
     @InjectMocks
     private ResultStringQueryService resultStringQueryService;
 
@@ -92,4 +106,48 @@ class ResultStringQueryServiceTest {
 
         assertEquals(expectedResults, actualResults);
     }
+
+    @Test
+    void countStringResultsForCategory_ShouldUseBitmapIndex_WhenEnabled() {
+        String markerName = "marker5";
+        StringCategory category = new StringCategory("category4", false, List.of("value1", "value2"));
+        Set<String> technologyNames = Set.of("tech1");
+
+        when(bitmapIndex.isEnabled()).thenReturn(true);
+        when(bitmapIndex.count(markerName, Map.of("stringValueCategory", List.of("category4"), "technologyName", technologyNames)))
+                .thenReturn(3L);
+
+        long count = resultStringQueryService.countStringResultsForCategory(markerName, category, technologyNames);
+
+        assertEquals(3L, count);
+        verify(resultRepository, never()).countResultIdsByIndexedValues(any());
+    }
+
+    @Test
+    void getStringRecordIdsForMultipleValues_ShouldUseBitmapIndex_WhenEnabled() {
+        String markerName = "marker6";
+        List<String> values = List.of("value1", "value2");
+        StringCategory category = new StringCategory("category5", false, values);
+
+        when(bitmapIndex.isEnabled()).thenReturn(true);
+        when(bitmapIndex.findRecordIds(markerName, Map.of("stringValue", values, "stringValueCategory", List.of("category5"))))
+                .thenReturn(Set.of("1", "2"));
+
+        Set<String> recordIds = resultStringQueryService.getStringRecordIdsForMultipleValues(markerName, values, category);
+
+        assertEquals(Set.of("1", "2"), recordIds);
+    }
+
+    @Test
+    void getStringRecordIdsForMultipleValues_ShouldUseIndexSets_WhenValuesHaveNoCategory() {
+        String markerName = "marker7";
+
+        when(bitmapIndex.isEnabled()).thenReturn(true);
+        when(resultRepository.findResultIdsByIndexedValues(any())).thenReturn(Set.of(EntityUtils.generateResultId("1", markerName)));
+
+        Set<String> recordIds = resultStringQueryService.getStringRecordIdsForMultipleValues(markerName, List.of("free text"), null);
+
+        assertEquals(Set.of("1"), recordIds);
+        verify(bitmapIndex, never()).findRecordIds(any(), any());
+    }
 }
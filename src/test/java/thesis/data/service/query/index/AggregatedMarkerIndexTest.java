@@ -0,0 +1,137 @@
+package thesis.data.service.query.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import thesis.config.SearchProperties;
+import thesis.data.enums.AggregationType;
+import thesis.data.model.Marker;
+import thesis.data.model.Result;
+import thesis.data.repository.MarkerRepository;
+import thesis.data.repository.ResultRepository;
+import thesis.data.repository.custom.ScoredRange;
+import thesis.data.service.MetadataCache;
+import thesis.data.service.SearchVersionRegistry;
+import thesis.data.service.UnitConversionGraph;
+import thesis.data.service.UnitConversionGraph.ResolvedConversion;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class AggregatedMarkerIndexTest {
+    private final ResultRepository resultRepository = mock(ResultRepository.class);
+    private final MarkerRepository markerRepository = mock(MarkerRepository.class);
+    private final UnitConversionGraph conversionGraph = mock(UnitConversionGraph.class);
+    private final ResultIndexMirror indexMirror = mock(ResultIndexMirror.class);
+    private final SearchVersionRegistry versionRegistry = mock(SearchVersionRegistry.class);
+    private final AggregatedMarkerIndex aggregatedIndex = createAggregatedIndex(true);
+
+    @BeforeEach
+    void setUp() {
+        when(markerRepository.findAll()).thenReturn(List.of(
+                marker("parent", "g/L", List.of("child1", "child2"), AggregationType.AVERAGE),
+                marker("child1", "g/L", null, null),
+                marker("child2", "mg/L", null, null),
+                marker("other", "g/L", null, null)));
+    }
+
+    @Test
+    void update_ShouldIndexConvertedAggregateOfLeafResults() {
+        when(conversionGraph.resolve("child2", "mg/L", "g/L"))
+                .thenReturn(Optional.of(new ResolvedConversion("x / 1000", x -> x / 1000)));
+        when(resultRepository.getSearchIndexRanges(any(), eq(false), eq(List.of("r1")))).thenReturn(Map.of(
+                "child1", Map.of("r1", new ScoredRange(1.0, 2.0)),
+                "child2", Map.of("r1", new ScoredRange(3000.0, 4000.0))));
+        when(resultRepository.getSearchIndexRanges(any(), eq(true), eq(List.of("r1")))).thenReturn(Map.of(
+                "child1", Map.of(), "child2", Map.of()));
+
+        aggregatedIndex.update(List.of(result("r1", "child1")));
+
+        verify(resultRepository).saveSearchIndexRanges("parent", false, Map.of("r1", new ScoredRange(2.0, 3.0)), List.of());
+        verify(resultRepository).saveSearchIndexRanges("parent", true, Map.of(), List.of("r1"));
+        verify(indexMirror).invalidate("parent");
+        verify(versionRegistry).bumpMarkers(Set.of("parent"));
+    }
+
+    @Test
+    void refresh_ShouldBumpVersionOfAggregatedMarker_AfterItsIndexesWereWritten() {
+        aggregatedIndex.refresh(List.of("child2"));
+
+        var inOrder = inOrder(resultRepository, versionRegistry);
+        inOrder.verify(resultRepository).deleteSearchIndexes("parent");
+        inOrder.verify(versionRegistry).bumpMarkers(Set.of("parent"));
+    }
+
+    @Test
+    void update_ShouldRemoveRecord_WhenConversionIsMissing() {
+        when(conversionGraph.resolve("child2", "mg/L", "g/L")).thenReturn(Optional.empty());
+        when(resultRepository.getSearchIndexRanges(any(), anyBoolean(), eq(List.of("r1")))).thenReturn(Map.of(
+                "child1", Map.of("r1", new ScoredRange(1.0, 2.0)),
+                "child2", Map.of("r1", new ScoredRange(3000.0, 4000.0))));
+
+        aggregatedIndex.update(List.of(result("r1", "child2")));
+
+        verify(resultRepository).saveSearchIndexRanges("parent", false, Map.of(), List.of("r1"));
+    }
+
+    @Test
+    void update_ShouldSkipResults_WhenMarkerHasNoAggregatedAncestor() {
+        aggregatedIndex.update(List.of(result("r1", "other")));
+
+        verify(resultRepository, never()).getSearchIndexRanges(any(), any(), any());
+        verify(resultRepository, never()).saveSearchIndexRanges(any(), any(), any(), any());
+    }
+
+    @Test
+    void update_ShouldNotComputeAggregates_WhenIndexIsDisabled() {
+        createAggregatedIndex(false).update(List.of(result("r1", "child1")));
+
+        verifyNoInteractions(resultRepository, markerRepository);
+    }
+
+    @Test
+    void getLeafMarkerNames_ShouldFlattenNestedAggregatedMarkers() {
+        when(markerRepository.findAll()).thenReturn(List.of(
+                marker("grandparent", "g/L", List.of("parent", "child1"), AggregationType.SUM),
+                marker("parent", "g/L", List.of("child1", "child2"), AggregationType.AVERAGE),
+                marker("child1", "g/L", null, null),
+                marker("child2", "g/L", null, null)));
+
+        assertEquals(List.of("child1", "child2", "child1"), aggregatedIndex.getLeafMarkerNames("grandparent"));
+        assertEquals(List.of(), aggregatedIndex.getLeafMarkerNames("child1"));
+    }
+
+    @Test
+    void removeMarker_ShouldDeleteIndexesOfMarker() {
+        aggregatedIndex.removeMarker("parent");
+
+        verify(resultRepository).deleteSearchIndexes("parent");
+        verify(indexMirror).invalidate("parent");
+    }
+
+    private AggregatedMarkerIndex createAggregatedIndex(boolean enabled) {
+        var properties = new SearchProperties();
+        properties.setAggregatedIndexEnabled(enabled);
+        return new AggregatedMarkerIndex(resultRepository, markerRepository, conversionGraph, indexMirror,
+                mock(MetadataCache.class), versionRegistry, properties);
+    }
+
+    private static Marker marker(String name, String unitName, List<String> childMarkerNames,
+                                 AggregationType aggregationType) {
+        return new Marker(name, null, null, unitName, childMarkerNames, aggregationType);
+    }
+
+    private static Result result(String recordId, String markerName) {
+        var result = new Result();
+        result.setRecordId(recordId);
+        result.setMarkerName(markerName);
+        return result;
+    }
+}
@@ -0,0 +1,71 @@
+package thesis.data.service.query.index;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
+import thesis.data.repository.custom.RangePageRequest;
+import thesis.data.repository.custom.ScoredRecordId;
+
+import java.util.BitSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MarkerIntervalIndexTest {
+
+    @Test
+    void minAndMaxRange_ShouldReturnRecordsWithScoresInsideBounds() {
+        var index = MarkerIntervalIndex.build(1L,
+                tuples("1", 1.0, "2", 5.0, "3", 10.0),
+                tuples("1", 4.0, "2", 8.0, "3", 20.0));
+
+        BitSet ordinals = index.minRange(1.0, 5.0);
+        ordinals.and(index.maxRange(5.0, Double.POSITIVE_INFINITY));
+
+        assertEquals(Set.of("2"), index.toRecordIds(ordinals));
+        assertEquals(Set.of("1", "2", "3"), index.toRecordIds(index.minRange(Double.NEGATIVE_INFINITY, 10.0)));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void minRange_ShouldReturnEmptySet_WhenBoundsAreReversed() {
+        var index = MarkerIntervalIndex.build(1L, tuples("1", 1.0), tuples("1", 2.0));
+
+        assertTrue(index.minRange(5.0, 1.0).isEmpty());
+    }
+
+    @Test
+    void build_ShouldSortScores_WhenTuplesAreUnordered() {
+        var index = MarkerIntervalIndex.build(1L, tuples("1", 9.0, "2", 3.0), tuples("1", 9.0, "2", 3.0));
+
+        assertEquals(Set.of("2"), index.toRecordIds(index.minRange(2.0, 4.0)));
+        assertEquals(Set.of("1"), index.toRecordIds(index.maxRange(8.0, 10.0)));
+    }
+
+    @Test
+    void page_ShouldContinueAfterCursor_WhenScoresAreEqual() {
+        var index = MarkerIntervalIndex.build(1L,
+                tuples("1", 1.0, "2", 2.0, "3", 2.0, "4", 3.0),
+                tuples("1", 5.0, "2", 5.0, "3", 5.0, "4", 50.0));
+        var allowed = index.maxRange(0.0, 10.0);
+
+        var first = index.page(new RangePageRequest(false, false, null, 2), 0.0, 10.0, allowed);
+        var second = index.page(new RangePageRequest(false, false, first.get(1), 2), 0.0, 10.0, allowed);
+        var descending = index.page(new RangePageRequest(false, true, null, 2), 0.0, 10.0, allowed);
+
+        assertEquals(List.of(new ScoredRecordId("1", 1.0), new ScoredRecordId("2", 2.0)), first);
+        assertEquals(List.of(new ScoredRecordId("3", 2.0)), second);
+        assertEquals(List.of(new ScoredRecordId("3", 2.0), new ScoredRecordId("2", 2.0)), descending);
+    }
+
+    private static Set<TypedTuple<String>> tuples(Object... membersAndScores) {
+        Set<TypedTuple<String>> tuples = new LinkedHashSet<>();
+        for (int i = 0; i < membersAndScores.length; i += 2) {
+            tuples.add(new DefaultTypedTuple<>((String) membersAndScores[i], (Double) membersAndScores[i + 1]));
+        }
+        return tuples;
+    }
+}
@@ -0,0 +1,178 @@
+package thesis.data.service.query.index;
+
+import org.junit.jupiter.api.Test;
+import thesis.config.SearchProperties;
+import thesis.data.model.Marker;
+import thesis.data.repository.MarkerRepository;
+import thesis.data.repository.ResultRepository;
+import thesis.data.repository.custom.MarkerStatistics;
+import thesis.data.repository.custom.MarkerStatisticsUpdate;
+import thesis.data.repository.custom.RangeBounds;
+import thesis.data.repository.custom.ScoredRange;
+import thesis.data.repository.custom.ValueHistogram;
+import thesis.data.service.SearchVersionRegistry;
+import thesis.exceptions.BadRequestException;
+import thesis.exceptions.EntityNotFoundException;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class MarkerStatisticsCatalogTest {
+    private final ResultRepository resultRepository = mock(ResultRepository.class);
+    private final MarkerRepository markerRepository = mock(MarkerRepository.class);
+    private final SearchVersionRegistry versionRegistry = mock(SearchVersionRegistry.class);
+
+    @Test
+    void excludes_ShouldPruneRangesOutsideEnvelope_AndReuseStatisticsWhileVersionIsUnchanged() {
+        var catalog = createCatalog(true);
+        when(markerRepository.findById("marker1")).thenReturn(Optional.of(new Marker()));
+        when(versionRegistry.getVersions(List.of("marker1"), false)).thenReturn(List.of(1L, 2L, 3L));
+        when(resultRepository.getMarkerStatistics("marker1", false)).thenReturn(createStatistics());
+
+        assertTrue(catalog.excludes("marker1", false, new RangeBounds(20.0, 30.0, 20.0, 30.0)));
+        assertTrue(catalog.excludesMinimum("marker1", false, 11.0, Double.POSITIVE_INFINITY));
+        assertTrue(catalog.excludesMaximum("marker1", false, 25.0, Double.POSITIVE_INFINITY));
+        assertFalse(catalog.excludes("marker1", false, new RangeBounds(0.0, 5.0, 0.0, 15.0)));
+
+        verify(resultRepository, times(1)).getMarkerStatistics("marker1", false);
+        verify(resultRepository, never()).buildMarkerStatistics(anyString(), anyBoolean(), anyInt());
+    }
+
+    @Test
+    void excludes_ShouldReloadStatistics_WhenVersionChanged() {
+        var catalog = createCatalog(true);
+        when(markerRepository.findById("marker1")).thenReturn(Optional.of(new Marker()));
+        when(versionRegistry.getVersions(List.of("marker1"), false))
+                .thenReturn(List.of(1L, 2L, 3L), List.of(1L, 3L, 3L));
+        when(resultRepository.getMarkerStatistics("marker1", true)).thenReturn(createStatistics());
+
+        catalog.excludes("marker1", true, new RangeBounds(0.0, 5.0, 0.0, 15.0));
+        catalog.excludes("marker1", true, new RangeBounds(0.0, 5.0, 0.0, 15.0));
+
+        verify(resultRepository, times(2)).getMarkerStatistics("marker1", true);
+    }
+
+    @Test
+    void excludes_ShouldNotPruneNorBuild_WhenStatisticsAreNotBuilt() {
+        var catalog = createCatalog(true);
+        when(markerRepository.findById("marker1")).thenReturn(Optional.of(new Marker()));
+        when(versionRegistry.getVersions(List.of("marker1"), false)).thenReturn(List.of(1L, 2L, 3L));
+
+        assertFalse(catalog.excludes("marker1", false, new RangeBounds(20.0, 30.0, 20.0, 30.0)));
+        assertEquals(OptionalLong.empty(), catalog.estimate("marker1", false, new RangeBounds(0.0, 5.0, 0.0, 15.0)));
+        assertThrows(EntityNotFoundException.class, () -> catalog.getStatistics("marker1", false));
+
+        verify(resultRepository, never()).buildMarkerStatistics(anyString(), anyBoolean(), anyInt());
+    }
+
+    @Test
+    void buildMissingStatistics_ShouldBuildOnlyStatisticsThatAreNotBuilt() {
+        var catalog = createCatalog(true);
+        var parent = new Marker("parent", null, null, null);
+        parent.setChildMarkerNames(List.of("marker1"));
+        when(markerRepository.findAll()).thenReturn(List.of(new Marker("marker1", null, null, null), parent));
+        when(resultRepository.getMarkerStatistics("marker1", false)).thenReturn(createStatistics());
+
+        catalog.buildMissingStatistics();
+
+        verify(resultRepository).buildMarkerStatistics("marker1", true, 16);
+        verify(resultRepository, never()).buildMarkerStatistics("marker1", false, 16);
+        verify(resultRepository, never()).buildMarkerStatistics(eq("parent"), anyBoolean(), anyInt());
+    }
+
+    @Test
+    void buildMissingStatistics_ShouldNotBuild_WhenCatalogIsDisabled() {
+        createCatalog(false).buildMissingStatistics();
+
+        verifyNoInteractions(resultRepository, markerRepository);
+    }
+
+    @Test
+    void excludes_ShouldNotPrune_WhenMarkerHasChildren() {
+        var catalog = createCatalog(true);
+        var marker = new Marker();
+        marker.setChildMarkerNames(List.of("child1"));
+        when(markerRepository.findById("marker1")).thenReturn(Optional.of(marker));
+        when(versionRegistry.getVersions(List.of("marker1"), false)).thenReturn(List.of(1L, 2L, 3L));
+
+        assertFalse(catalog.excludes("marker1", false, new RangeBounds(20.0, 30.0, 20.0, 30.0)));
+        assertEquals(OptionalLong.empty(), catalog.estimate("marker1", false, new RangeBounds(0.0, 5.0, 0.0, 15.0)));
+        assertThrows(BadRequestException.class, () -> catalog.getStatistics("marker1", false));
+        verifyNoInteractions(resultRepository);
+    }
+
+    @Test
+    void excludes_ShouldNotPrune_WhenCatalogIsDisabled() {
+        var catalog = createCatalog(false);
+
+        assertFalse(catalog.excludes("marker1", false, new RangeBounds(20.0, 30.0, 20.0, 30.0)));
+        assertEquals(OptionalLong.empty(), catalog.estimate("marker1", false, new RangeBounds(0.0, 5.0, 0.0, 15.0)));
+        verifyNoInteractions(resultRepository, versionRegistry);
+    }
+
+    @Test
+    void estimate_ShouldTakeSmallerHistogramEstimate_AndAddUnboundedResults() {
+        var catalog = createCatalog(true);
+        when(markerRepository.findById("marker1")).thenReturn(Optional.of(new Marker()));
+        when(versionRegistry.getVersions(List.of("marker1"), false)).thenReturn(List.of(1L, 2L, 3L));
+        when(resultRepository.getMarkerStatistics("marker1", false)).thenReturn(createStatistics());
+
+        // half of the first min bucket, all max buckets
+        assertEquals(OptionalLong.of(2), catalog.estimate("marker1", false, new RangeBounds(0.0, 2.5, 5.0, 20.0)));
+        // all min buckets and the results without a minimum, the first max bucket
+        assertEquals(OptionalLong.of(6), catalog.estimate("marker1", false,
+                new RangeBounds(Double.NEGATIVE_INFINITY, 10.0, 5.0, 15.0)));
+        assertEquals(OptionalLong.of(0), catalog.estimate("marker1", false, new RangeBounds(20.0, 30.0, 20.0, 30.0)));
+    }
+
+    @Test
+    void update_ShouldWriteUpdatesOfResultsWithMarker() {
+        var update = new MarkerStatisticsUpdate("marker1", "r1", false, new ScoredRange(1.0, 2.0));
+
+        createCatalog(true).update(List.of(update, new MarkerStatisticsUpdate(null, "r2", false, null)));
+
+        verify(resultRepository).updateMarkerStatistics(List.of(update));
+    }
+
+    @Test
+    void update_ShouldNotWrite_WhenCatalogIsDisabled() {
+        createCatalog(false).update(List.of(new MarkerStatisticsUpdate("marker1", "r1", false, new ScoredRange(1.0, 2.0))));
+
+        verifyNoInteractions(resultRepository);
+    }
+
+    @Test
+    void rebuild_ShouldBuildBothVariantsOfMarkersWithoutChildren() {
+        var catalog = createCatalog(true);
+        var parent = new Marker("parent", null, null, null);
+        parent.setChildMarkerNames(List.of("marker1"));
+        when(markerRepository.findAll()).thenReturn(List.of(new Marker("marker1", null, null, null), parent));
+
+        assertEquals(2, catalog.rebuild());
+
+        verify(resultRepository).buildMarkerStatistics("marker1", false, 16);
+        verify(resultRepository).buildMarkerStatistics("marker1", true, 16);
+        verify(resultRepository, never()).buildMarkerStatistics(eq("parent"), anyBoolean(), anyInt());
+    }
+
+    private MarkerStatisticsCatalog createCatalog(boolean enabled) {
+        var properties = new SearchProperties();
+        properties.setStatisticsCatalogEnabled(enabled);
+        return new MarkerStatisticsCatalog(resultRepository, markerRepository, versionRegistry, properties);
+    }
+
+    // 10 results, 2 without a minimum, mins within [1, 10] and maxs within [5, 20]
+    private static MarkerStatistics createStatistics() {
+        return new MarkerStatistics(10, 2, 0, Double.NEGATIVE_INFINITY, 10.0, 5.0, 20.0,
+                new ValueHistogram(new double[]{1.0, 5.0, 10.0}, new long[]{4, 4}),
+                new ValueHistogram(new double[]{5.0, 15.0, 20.0}, new long[]{6, 4}));
+    }
+}
@@ -0,0 +1,134 @@
+package thesis.data.service.query.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
+import thesis.config.SearchProperties;
+import thesis.data.repository.MarkerRepository;
+import thesis.data.repository.ResultRepository;
+import thesis.data.service.RecordOrdinalRegistry;
+import thesis.data.service.SearchVersionRegistry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class NumericColumnSnapshotTest {
+    private final ResultRepository resultRepository = mock(ResultRepository.class);
+    private final MarkerRepository markerRepository = mock(MarkerRepository.class);
+    private final RecordOrdinalRegistry ordinalRegistry = mock(RecordOrdinalRegistry.class);
+    private final SearchVersionRegistry versionRegistry = mock(SearchVersionRegistry.class);
+
+    private final NumericColumnSnapshot columnSnapshot = new NumericColumnSnapshot(resultRepository, markerRepository,
+            ordinalRegistry, versionRegistry, new SearchProperties());
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        // record "rN" has the ordinal N
+        when(ordinalRegistry.getOrdinals(anyList())).thenAnswer(invocation -> ((List<String>) invocation.getArgument(0))
+                .stream().mapToInt(NumericColumnSnapshotTest::ordinal).toArray());
+        when(ordinalRegistry.getOrdinal(anyString())).thenAnswer(invocation -> ordinal(invocation.getArgument(0)));
+        mockVersions(0L);
+
+        mockIndexes("marker1", Map.of("r1", 1.0, "r2", 2.0));
+        mockIndexes("marker2", Map.of("r3", 3.0));
+    }
+
+    @Test
+    void getColumns_ShouldLoadColumnsAlignedOnOrdinalsAndReuseThemWhileVersionsUnchanged() {
+        var columns = columnSnapshot.getColumns(List.of("marker1", "marker2"), false);
+
+        assertEquals(1.0, columns.get("marker1").getMin(1));
+        assertEquals(2.0, columns.get("marker1").getMax(2));
+        assertFalse(columns.get("marker1").isPresent(3));
+        assertEquals(Double.NaN, columns.get("marker2").getMin(1));
+        assertEquals(3.0, columns.get("marker2").getMax(3));
+
+        columnSnapshot.getColumns(List.of("marker1", "marker2"), false);
+        verify(resultRepository, times(1)).getAllMinResultsForMarker("marker1", false);
+        verify(resultRepository, times(1)).getAllMinResultsForMarker("marker2", false);
+
+        mockVersions(1L);
+        columnSnapshot.getColumn("marker1", false);
+        verify(resultRepository, times(2)).getAllMinResultsForMarker("marker1", false);
+    }
+
+    @Test
+    void invalidate_ShouldDropColumns_AndLeaveColumnOfRunningReadUnchanged() {
+        var column = columnSnapshot.getColumn("marker1", false);
+        mockIndexes("marker1", Map.of("r1", 5.0));
+
+        columnSnapshot.invalidate(List.of("marker1"));
+
+        assertEquals(1.0, column.getMin(1));
+        assertEquals(5.0, columnSnapshot.getColumn("marker1", false).getMin(1));
+        verify(resultRepository, times(2)).getAllMinResultsForMarker("marker1", false);
+    }
+
+    @Test
+    void getColumns_ShouldReloadColumn_WhenVersionWasBumpedByAnotherInstance() {
+        columnSnapshot.getColumn("marker1", false);
+
+        mockVersions(2L);
+        columnSnapshot.getColumn("marker1", false);
+
+        verify(resultRepository, times(2)).getAllMinResultsForMarker("marker1", false);
+    }
+
+    @Test
+    void getColumns_ShouldReloadOnlyColumnsWithTechDeviations_WhenTechnologiesChanged() {
+        mockIndexes("marker1", true, Map.of("r1", 1.0));
+        columnSnapshot.getColumn("marker1", false);
+        columnSnapshot.getColumn("marker1", true);
+
+        mockVersions(0L, 1L);
+        columnSnapshot.getColumn("marker1", false);
+        columnSnapshot.getColumn("marker1", true);
+
+        verify(resultRepository, times(1)).getAllMinResultsForMarker("marker1", false);
+        verify(resultRepository, times(2)).getAllMinResultsForMarker("marker1", true);
+    }
+
+    private void mockVersions(long markerVersion) {
+        mockVersions(markerVersion, 0L);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void mockVersions(long markerVersion, long technologyVersion) {
+        when(versionRegistry.getVersions(anyList(), eq(false))).thenAnswer(invocation -> {
+            var markerNames = (List<String>) invocation.getArgument(0);
+            var versions = new ArrayList<Long>();
+            versions.add(7L);
+            markerNames.forEach(markerName -> versions.add(markerVersion));
+            versions.add(technologyVersion);
+            return versions;
+        });
+    }
+
+    private void mockIndexes(String markerName, Map<String, Double> values) {
+        mockIndexes(markerName, false, values);
+    }
+
+    private void mockIndexes(String markerName, boolean withTechDeviations, Map<String, Double> values) {
+        Set<TypedTuple<String>> tuples = values.entrySet().stream()
+                .map(entry -> (TypedTuple<String>) new DefaultTypedTuple<>(entry.getKey(), entry.getValue()))
+                .collect(Collectors.toSet());
+        when(resultRepository.getAllMinResultsForMarker(markerName, withTechDeviations)).thenReturn(tuples);
+        when(resultRepository.getAllMaxResultsForMarker(markerName, withTechDeviations)).thenReturn(tuples);
+    }
+
+    private static int ordinal(String recordId) {
+        return Integer.parseInt(recordId.substring(1));
+    }
+}
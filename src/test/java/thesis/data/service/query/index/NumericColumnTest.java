@@ -0,0 +1,36 @@
+package thesis.data.service.query.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NumericColumnTest {
+    private static final List<Long> VERSIONS = List.of(1L, 0L, 0L);
+
+    @Test
+    void build_ShouldTreatRecordContainedInOnlyOneIndexAsMissing() {
+        var column = NumericColumn.build(VERSIONS, new int[]{0, 2}, new double[]{1.0, 2.0},
+                new int[]{0}, new double[]{3.0});
+
+        assertTrue(column.isPresent(0));
+        assertFalse(column.isPresent(1));
+        assertFalse(column.isPresent(2));
+        assertEquals(1, column.count());
+        assertEquals(3, column.size());
+    }
+
+    @Test
+    void lowestAndHighest_ShouldIgnoreUnboundedValues() {
+        var column = NumericColumn.build(VERSIONS,
+                new int[]{0, 1, 2}, new double[]{Double.NEGATIVE_INFINITY, 2.0, 4.0},
+                new int[]{0, 1, 2}, new double[]{1.0, Double.POSITIVE_INFINITY, 6.0});
+
+        assertEquals(1.0, column.lowest());
+        assertEquals(6.0, column.highest());
+        assertEquals(3, column.count());
+    }
+}
@@ -0,0 +1,104 @@
+package thesis.data.service.query.index;
+
+import org.junit.jupiter.api.Test;
+import thesis.config.SearchProperties;
+import thesis.data.model.Result;
+import thesis.data.repository.ResultRepository;
+import thesis.data.service.RecordOrdinalRegistry;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.*;
+
+class ResultBitmapIndexTest {
+    private final ResultRepository resultRepository = mock(ResultRepository.class);
+    private final RecordOrdinalRegistry ordinalRegistry = mock(RecordOrdinalRegistry.class);
+    private final ResultBitmapIndex bitmapIndex = createBitmapIndex(true);
+
+    @Test
+    void add_ShouldSetOrdinalInBitmapsOfAllValues() {
+        var result = new Result();
+        result.setRecordId("record1");
+        result.setMarkerName("marker1");
+        result.setTechnologyName("tech1");
+        result.setBooleanValue(false);
+        when(ordinalRegistry.getOrdinal("record1")).thenReturn(4);
+
+        bitmapIndex.add(result);
+
+        verify(resultRepository).updateResultBitmaps(Map.of(
+                "marker:marker1:bitmap:booleanValue:0", List.of(4),
+                "marker:marker1:bitmap:technologyName:tech1", List.of(4)), true);
+    }
+
+    @Test
+    void add_ShouldNotIndexStringValue_WhenResultHasNoCategory() {
+        var result = new Result();
+        result.setRecordId("record1");
+        result.setMarkerName("marker1");
+        result.setStringValue("free text");
+
+        bitmapIndex.add(result);
+
+        verify(resultRepository, never()).updateResultBitmaps(any(), anyBoolean());
+    }
+
+    @Test
+    void add_ShouldNotWriteBitmaps_WhenIndexIsDisabled() {
+        var result = new Result();
+        result.setRecordId("record1");
+        result.setMarkerName("marker1");
+        result.setBooleanValue(true);
+
+        createBitmapIndex(false).add(result);
+
+        verifyNoInteractions(resultRepository, ordinalRegistry);
+    }
+
+    @Test
+    void remove_ShouldSkipResult_WhenRecordIdIsMissing() {
+        var result = new Result();
+        result.setMarkerName("marker1");
+        result.setStringValue("value1");
+
+        bitmapIndex.remove(result);
+
+        verify(resultRepository, never()).updateResultBitmaps(any(), anyBoolean());
+        verify(ordinalRegistry, never()).getOrdinal(any());
+    }
+
+    @Test
+    void probeRecordIds_ShouldIntersectBitmapsWithCandidates() {
+        BitSet matches = new BitSet();
+        matches.set(1);
+        matches.set(2);
+        BitSet candidates = new BitSet();
+        candidates.set(2);
+        candidates.set(3);
+        BitSet expected = new BitSet();
+        expected.set(2);
+
+        when(resultRepository.findOrdinalsByResultBitmaps(List.of(
+                List.of("marker:marker1:bitmap:stringValue:a", "marker:marker1:bitmap:stringValue:b"))))
+                .thenReturn(matches);
+        when(ordinalRegistry.toBitSet(List.of("record2", "record3"))).thenReturn(candidates);
+        when(ordinalRegistry.toRecordIds(expected)).thenReturn(Set.of("record2"));
+
+        Set<String> recordIds = bitmapIndex.probeRecordIds("marker1",
+                Map.of(ResultBitmapIndex.STRING_VALUE, List.of("a", "b", "a")), List.of("record2", "record3"));
+
+        assertEquals(Set.of("record2"), recordIds);
+    }
+
+    private ResultBitmapIndex createBitmapIndex(boolean enabled) {
+        var properties = new SearchProperties();
+        properties.setBitmapIndexEnabled(enabled);
+        return new ResultBitmapIndex(resultRepository, ordinalRegistry, properties);
+    }
+}
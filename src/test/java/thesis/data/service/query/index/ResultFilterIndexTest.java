@@ -0,0 +1,91 @@
+package thesis.data.service.query.index;
+
+import org.junit.jupiter.api.Test;
+import thesis.config.SearchProperties;
+import thesis.data.model.Result;
+import thesis.data.repository.ResultRepository;
+import thesis.domain.search.dto.SearchFilters;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ResultFilterIndexTest {
+    private final ResultRepository resultRepository = mock(ResultRepository.class);
+
+    @Test
+    void canFilter_ShouldOnlyAnswerSampleAndTimestampFilters_WhenEnabled() {
+        var filterIndex = new ResultFilterIndex(resultRepository, properties(true));
+
+        assertTrue(filterIndex.canFilter(new SearchFilters(null, null, "sample", null, null)));
+        assertTrue(filterIndex.canFilter(new SearchFilters(null, null, null, null, LocalDateTime.now())));
+        assertFalse(filterIndex.canFilter(new SearchFilters("tech", null, null, null, null)));
+        assertFalse(filterIndex.canFilter(null));
+        assertFalse(new ResultFilterIndex(resultRepository, properties(false))
+                .canFilter(new SearchFilters(null, null, "sample", null, null)));
+    }
+
+    @Test
+    void add_ShouldSkipResult_WhenItHasNeitherSampleNorTimestamp() {
+        var filterIndex = new ResultFilterIndex(resultRepository, properties(true));
+        var result = createResult("record1", null, null);
+
+        filterIndex.add(result);
+        filterIndex.remove(result);
+
+        verify(resultRepository, never()).saveResultFilterIndexes(any());
+        verify(resultRepository, never()).deleteResultFilterIndexes(any());
+    }
+
+    @Test
+    void add_ShouldNotWriteIndexes_WhenIndexIsDisabled() {
+        var filterIndex = new ResultFilterIndex(resultRepository, properties(false));
+        var result = createResult("record1", "sample", LocalDateTime.of(2024, 5, 1, 12, 0));
+
+        filterIndex.add(result);
+        filterIndex.remove(result);
+
+        verifyNoInteractions(resultRepository);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void rebuild_ShouldDeleteIndexesAndIndexResultsWithSampleOrTimestamp() {
+        var filterIndex = new ResultFilterIndex(resultRepository, properties(false));
+        var withSample = createResult("record1", "sample", null);
+        var withTimestamp = createResult("record2", null, LocalDateTime.of(2024, 5, 1, 12, 0));
+        var withNeither = createResult("record3", null, null);
+        doAnswer(invocation -> {
+            invocation.getArgument(0, Consumer.class).accept(List.of(withSample, withTimestamp, withNeither));
+            return null;
+        }).when(resultRepository).streamAllResults(any());
+
+        var count = filterIndex.rebuild();
+
+        assertEquals(2, count);
+        var inOrder = inOrder(resultRepository);
+        inOrder.verify(resultRepository).deleteAllResultFilterIndexes();
+        inOrder.verify(resultRepository).saveResultFilterIndexes(List.of(withSample, withTimestamp));
+    }
+
+    private static Result createResult(String recordId, String sample, LocalDateTime timestamp) {
+        var result = new Result();
+        result.setRecordId(recordId);
+        result.setMarkerName("marker1");
+        result.setSample(sample);
+        result.setTimestamp(timestamp);
+        return result;
+    }
+
+    private static SearchProperties properties(boolean filterIndexEnabled) {
+        var properties = new SearchProperties();
+        properties.setFilterIndexEnabled(filterIndexEnabled);
+        return properties;
+    }
+}
@@ -0,0 +1,127 @@
+package thesis.data.service.query.index;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import thesis.config.SearchProperties;
+import thesis.data.repository.ResultRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+class ResultIndexMirrorTest {
+    private final ResultRepository resultRepository = mock(ResultRepository.class);
+
+    @Test
+    void onMessage_ShouldReloadMarker_WhenIndexOfOtherInstanceChanged() {
+        var mirror = createMirror();
+        mirror.countRangeMatches("marker1", 0.0, 1.0, 0.0, 1.0, false);
+
+        mirror.onMessage(message("__keyspace@0__:marker:marker1:result:max"), null);
+        mirror.countRangeMatches("marker1", 0.0, 1.0, 0.0, 1.0, false);
+
+        verify(resultRepository, times(2)).getAllMinResultsForMarker("marker1", false);
+    }
+
+    @Test
+    void onMessage_ShouldOnlyReloadChangedVariant() {
+        var mirror = createMirror();
+        mirror.countRangeMatches("marker1", 0.0, 1.0, 0.0, 1.0, false);
+        mirror.countRangeMatches("marker1", 0.0, 1.0, 0.0, 1.0, true);
+
+        mirror.onMessage(message("__keyspace@0__:marker:marker1:technology:result:max"), null);
+        mirror.countRangeMatches("marker1", 0.0, 1.0, 0.0, 1.0, false);
+        mirror.countRangeMatches("marker1", 0.0, 1.0, 0.0, 1.0, true);
+
+        verify(resultRepository, times(1)).getAllMinResultsForMarker("marker1", false);
+        verify(resultRepository, times(2)).getAllMinResultsForMarker("marker1", true);
+    }
+
+    @Test
+    void invalidate_ShouldReloadOnce_AfterBurstOfWrites() {
+        var mirror = createMirror();
+        mirror.countRangeMatches("marker1", 0.0, 1.0, 0.0, 1.0, false);
+
+        // 50 written results, each notified on both indexes and invalidated locally
+        for (int i = 0; i < 50; i++) {
+            mirror.onMessage(message("__keyspace@0__:marker:marker1:result:min"), null);
+            mirror.onMessage(message("__keyspace@0__:marker:marker1:result:max"), null);
+            mirror.invalidate("marker1");
+        }
+        for (int i = 0; i < 10; i++) {
+            mirror.countRangeMatches("marker1", 0.0, 1.0, 0.0, 1.0, false);
+        }
+
+        verify(resultRepository, times(2)).getAllMinResultsForMarker("marker1", false);
+        verify(resultRepository, times(2)).getAllMaxResultsForMarker("marker1", false);
+    }
+
+    @Test
+    void getIndex_ShouldShareReload_BetweenConcurrentSearches() throws Exception {
+        var mirror = createMirror();
+        var loading = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        when(resultRepository.getAllMinResultsForMarker("marker1", false)).thenAnswer(invocation -> {
+            loading.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return Set.of();
+        });
+
+        var executor = Executors.newFixedThreadPool(4);
+        try {
+            var first = executor.submit(() -> mirror.countRangeMatches("marker1", 0.0, 1.0, 0.0, 1.0, false));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            List<Future<Long>> waiting = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                waiting.add(executor.submit(() -> mirror.countRangeMatches("marker1", 0.0, 1.0, 0.0, 1.0, false)));
+            }
+            release.countDown();
+
+            assertEquals(0L, first.get(5, TimeUnit.SECONDS));
+            for (var future : waiting) {
+                assertEquals(0L, future.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        verify(resultRepository, times(1)).getAllMinResultsForMarker("marker1", false);
+    }
+
+    @Test
+    void onMessage_ShouldIgnoreTechnologyPartitions() {
+        var mirror = createMirror();
+        mirror.countRangeMatches("marker1", 0.0, 1.0, 0.0, 1.0, false);
+
+        mirror.onMessage(message("__keyspace@0__:marker:marker1:partition:Tech1:result:min"), null);
+        mirror.countRangeMatches("marker1", 0.0, 1.0, 0.0, 1.0, false);
+
+        verify(resultRepository, times(1)).getAllMinResultsForMarker("marker1", false);
+    }
+
+    private ResultIndexMirror createMirror() {
+        when(resultRepository.getAllMinResultsForMarker(anyString(), anyBoolean())).thenReturn(Set.of());
+        when(resultRepository.getAllMaxResultsForMarker(anyString(), anyBoolean())).thenReturn(Set.of());
+        var properties = new SearchProperties();
+        properties.setIndexMirrorEnabled(true);
+        return new ResultIndexMirror(resultRepository, mock(StringRedisTemplate.class),
+                mock(RedisMessageListenerContainer.class), properties);
+    }
+
+    private static Message message(String channel) {
+        var message = mock(Message.class);
+        when(message.getChannel()).thenReturn(channel.getBytes(StandardCharsets.UTF_8));
+        return message;
+    }
+}
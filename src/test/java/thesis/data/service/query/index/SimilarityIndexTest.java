@@ -0,0 +1,68 @@
+package thesis.data.service.query.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import thesis.data.repository.custom.ScoredRecordId;
+import thesis.data.service.RecordOrdinalRegistry;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class SimilarityIndexTest {
+    private final NumericColumnSnapshot columnSnapshot = mock(NumericColumnSnapshot.class);
+    private final RecordOrdinalRegistry ordinalRegistry = mock(RecordOrdinalRegistry.class);
+
+    private final SimilarityIndex similarityIndex = new SimilarityIndex(columnSnapshot, ordinalRegistry);
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        // record "rN" has the ordinal N
+        when(ordinalRegistry.getOrdinals(anyList())).thenAnswer(invocation -> ((List<String>) invocation.getArgument(0))
+                .stream().mapToInt(id -> Integer.parseInt(id.substring(1))).toArray());
+        when(ordinalRegistry.getRecordId(anyInt())).thenAnswer(invocation -> "r" + invocation.getArgument(0));
+
+        var marker1 = createColumn(new int[]{1, 2, 3}, new double[]{0.0, 5.0, 10.0});
+        var marker2 = createColumn(new int[]{1, 4}, new double[]{1.0, 3.0});
+        when(columnSnapshot.getColumns(anyList(), eq(false))).thenAnswer(invocation -> {
+            Map<String, NumericColumn> columns = Map.of("marker1", marker1, "marker2", marker2);
+            return ((List<String>) invocation.getArgument(0)).stream()
+                    .collect(Collectors.toMap(markerName -> markerName, columns::get));
+        });
+    }
+
+    @Test
+    void findNearest_ShouldReturnNearestRecordsByNormalizedDistance() {
+        var nearest = similarityIndex.findNearest(List.of(new SimilarityTerm("marker1", 5.0, 5.0, 1.0)),
+                false, 2, Set.of());
+
+        // r1 and r3 are at the same distance, the one with the lower ordinal is kept
+        assertEquals(List.of(new ScoredRecordId("r2", 0.0), new ScoredRecordId("r1", 0.5)), nearest);
+    }
+
+    @Test
+    void findNearest_ShouldWeighMarkersAndCountMissingResultsAsMaximalDistance() {
+        var terms = List.of(
+                new SimilarityTerm("marker1", 5.0, 5.0, 1.0),
+                new SimilarityTerm("marker2", 1.0, 1.0, 3.0));
+
+        var nearest = similarityIndex.findNearest(terms, false, 10, Set.of("r1"));
+
+        assertEquals(List.of("r2", "r3", "r4"), nearest.stream().map(ScoredRecordId::recordId).toList());
+        assertEquals(Math.sqrt(3.0 / 4), nearest.get(0).score(), 1e-9);
+        assertEquals(Math.sqrt(3.25 / 4), nearest.get(1).score(), 1e-9);
+        assertEquals(1.0, nearest.get(2).score(), 1e-9);
+    }
+
+    private static NumericColumn createColumn(int[] ordinals, double[] values) {
+        return NumericColumn.build(List.of(1L, 0L, 0L), ordinals, values, ordinals, values);
+    }
+}
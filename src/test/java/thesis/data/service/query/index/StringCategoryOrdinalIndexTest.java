@@ -0,0 +1,100 @@
+package thesis.data.service.query.index;
+
+import org.junit.jupiter.api.Test;
+import thesis.config.SearchProperties;
+import thesis.data.model.Result;
+import thesis.data.model.StringCategory;
+import thesis.data.repository.ResultRepository;
+import thesis.data.repository.StringCategoryRepository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class StringCategoryOrdinalIndexTest {
+    private final ResultRepository resultRepository = mock(ResultRepository.class);
+    private final StringCategoryRepository stringCategoryRepository = mock(StringCategoryRepository.class);
+    private final StringCategoryOrdinalIndex ordinalIndex = createOrdinalIndex(true);
+
+    @Test
+    void add_ShouldScoreResultWithPositionOfValueInCategory() {
+        var result = new Result();
+        result.setRecordId("record1");
+        result.setMarkerName("frame");
+        result.setStringValue("medium");
+        result.setStringValueCategory("size");
+        when(stringCategoryRepository.findById("size"))
+                .thenReturn(Optional.of(new StringCategory("size", true, List.of("small", "medium", "large"))));
+
+        ordinalIndex.add(result);
+
+        verify(resultRepository).saveResultCategoryOrdinals("size", Map.of("record1:frame", 1));
+    }
+
+    @Test
+    void add_ShouldSkipResult_WhenValueIsNotInCategory() {
+        var result = new Result();
+        result.setRecordId("record1");
+        result.setMarkerName("frame");
+        result.setStringValue("huge");
+        result.setStringValueCategory("size");
+        when(stringCategoryRepository.findById("size"))
+                .thenReturn(Optional.of(new StringCategory("size", true, List.of("small", "medium", "large"))));
+
+        ordinalIndex.add(result);
+
+        verify(resultRepository, never()).saveResultCategoryOrdinals(any(), anyMap());
+    }
+
+    @Test
+    void add_ShouldNotWriteOrdinals_WhenIndexIsDisabled() {
+        var result = new Result();
+        result.setRecordId("record1");
+        result.setMarkerName("frame");
+        result.setStringValue("medium");
+        result.setStringValueCategory("size");
+
+        createOrdinalIndex(false).add(result);
+
+        verifyNoInteractions(resultRepository, stringCategoryRepository);
+    }
+
+    @Test
+    void rescore_ShouldOnlyRescoreValuesWhosePositionChanged() {
+        var category = new StringCategory("color", false, List.of("red", "blue", "green"));
+        when(resultRepository.findResultIdsByIndexedValues(Map.of("stringValue", "green", "stringValueCategory", "color")))
+                .thenReturn(Set.of("record3:marker1"));
+
+        ordinalIndex.rescore(category, List.of("red", "blue"));
+
+        verify(resultRepository).saveResultCategoryOrdinals("color", Map.of("record3:marker1", 2));
+        verify(resultRepository, never()).saveResultCategoryOrdinals(eq("color"), eq(Map.of()));
+        verify(resultRepository, times(1)).findResultIdsByIndexedValues(anyMap());
+    }
+
+    @Test
+    void rescore_ShouldUnindexResults_WhenValueWasRemoved() {
+        var category = new StringCategory("size", true, List.of("small", "large"));
+        when(resultRepository.findResultIdsByIndexedValues(Map.of("stringValue", "large", "stringValueCategory", "size")))
+                .thenReturn(Set.of("record2:frame"));
+        when(resultRepository.findResultIdsByIndexedValues(Map.of("stringValue", "medium", "stringValueCategory", "size")))
+                .thenReturn(Set.of("record1:frame"));
+
+        ordinalIndex.rescore(category, List.of("small", "medium", "large"));
+
+        verify(resultRepository).saveResultCategoryOrdinals("size", Map.of("record2:frame", 1));
+        verify(resultRepository).deleteResultCategoryOrdinals("size", List.of("record1:frame"));
+    }
+
+    private StringCategoryOrdinalIndex createOrdinalIndex(boolean enabled) {
+        var properties = new SearchProperties();
+        properties.setCategoryOrdinalIndexEnabled(enabled);
+        return new StringCategoryOrdinalIndex(resultRepository, stringCategoryRepository, properties);
+    }
+}
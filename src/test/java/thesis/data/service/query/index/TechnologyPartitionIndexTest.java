@@ -0,0 +1,110 @@
+package thesis.data.service.query.index;
+
+import org.junit.jupiter.api.Test;
+import thesis.config.SearchProperties;
+import thesis.data.model.Result;
+import thesis.data.repository.ResultRepository;
+import thesis.data.repository.custom.NumericRangeIndex;
+import thesis.data.repository.custom.RangeBounds;
+import thesis.data.repository.custom.RangePageRequest;
+import thesis.data.repository.custom.ScoredRange;
+import thesis.data.repository.custom.ScoredRecordId;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class TechnologyPartitionIndexTest {
+    private final ResultRepository resultRepository = mock(ResultRepository.class);
+    private final NumericRangeIndex tech1 = mock(NumericRangeIndex.class);
+    private final NumericRangeIndex tech2 = mock(NumericRangeIndex.class);
+
+    @Test
+    void getRangeIndex_ShouldUniteMatchesAndAddUpCountsOfPartitions() {
+        var partitionIndex = createPartitionIndex();
+        var bounds = new RangeBounds(0.0, 10.0, 0.0, 10.0);
+        when(tech1.searchForRangeMatches("marker1", 0.0, 10.0, 0.0, 10.0, false)).thenReturn(Set.of("1", "2"));
+        when(tech2.searchForRangeMatches("marker1", 0.0, 10.0, 0.0, 10.0, false)).thenReturn(Set.of("3"));
+        when(tech1.countRangeMatches("marker1", 0.0, 10.0, 0.0, 10.0, false)).thenReturn(2L);
+        when(tech2.countRangeMatches("marker1", 0.0, 10.0, 0.0, 10.0, false)).thenReturn(1L);
+        when(tech1.probeRangeMatches("marker1", bounds, false, Set.of("1", "3", "4"))).thenReturn(Set.of("1"));
+        when(tech2.probeRangeMatches("marker1", bounds, false, Set.of("3", "4"))).thenReturn(Set.of("3"));
+
+        var rangeIndex = partitionIndex.getRangeIndex(new LinkedHashSet<>(List.of("Tech1", "Tech2")));
+
+        assertEquals(Set.of("1", "2", "3"), rangeIndex.searchForRangeMatches("marker1", 0.0, 10.0, 0.0, 10.0, false));
+        assertEquals(3, rangeIndex.countRangeMatches("marker1", 0.0, 10.0, 0.0, 10.0, false));
+        assertEquals(Set.of("1", "3"), rangeIndex.probeRangeMatches("marker1", bounds, false, Set.of("1", "3", "4")));
+    }
+
+    @Test
+    void getRangeIndex_ShouldMergePagesOfPartitionsInSortOrder() {
+        var partitionIndex = createPartitionIndex();
+        var page = new RangePageRequest(false, true, null, 3);
+        when(tech1.searchForRangePage("marker1", 0.0, 10.0, 0.0, 10.0, false, page)).thenReturn(List.of(
+                new ScoredRecordId("1", 9.0), new ScoredRecordId("2", 5.0), new ScoredRecordId("4", 1.0)));
+        when(tech2.searchForRangePage("marker1", 0.0, 10.0, 0.0, 10.0, false, page)).thenReturn(List.of(
+                new ScoredRecordId("3", 5.0), new ScoredRecordId("5", 2.0)));
+
+        var entries = partitionIndex.getRangeIndex(new LinkedHashSet<>(List.of("Tech1", "Tech2")))
+                .searchForRangePage("marker1", 0.0, 10.0, 0.0, 10.0, false, page);
+
+        assertEquals(List.of(new ScoredRecordId("1", 9.0), new ScoredRecordId("3", 5.0), new ScoredRecordId("2", 5.0)),
+                entries);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void rebuild_ShouldCopyRangesOfNumericResultsIntoPartitionsOfTheirTechnology() {
+        var partitionIndex = createPartitionIndex();
+        var measured1 = createResult("1", "Tech1");
+        var measured2 = createResult("2", "Tech2");
+        var unmeasured = createResult("3", null);
+        doAnswer(invocation -> {
+            invocation.getArgument(0, Consumer.class).accept(List.of(measured1, measured2, unmeasured));
+            return null;
+        }).when(resultRepository).streamAllResults(any());
+        when(resultRepository.getSearchIndexRanges(eq(List.of("marker1")), anyBoolean(), eq(Set.of("1", "2"))))
+                .thenReturn(Map.of("marker1", Map.of("1", new ScoredRange(1.0, 2.0), "2", new ScoredRange(3.0, 4.0))));
+
+        var count = partitionIndex.rebuild();
+
+        assertEquals(2, count);
+        var inOrder = inOrder(resultRepository);
+        inOrder.verify(resultRepository).deleteAllTechnologyPartitions();
+        inOrder.verify(resultRepository).saveTechnologyPartitionRanges("marker1", "Tech1", false,
+                Map.of("1", new ScoredRange(1.0, 2.0)));
+        verify(resultRepository).saveTechnologyPartitionRanges("marker1", "Tech2", false,
+                Map.of("2", new ScoredRange(3.0, 4.0)));
+        verify(resultRepository).saveTechnologyPartitionRanges("marker1", "Tech1", true,
+                Map.of("1", new ScoredRange(1.0, 2.0)));
+        verify(resultRepository).saveTechnologyPartitionRanges("marker1", "Tech2", true,
+                Map.of("2", new ScoredRange(3.0, 4.0)));
+    }
+
+    private TechnologyPartitionIndex createPartitionIndex() {
+        when(resultRepository.getTechnologyPartition("Tech1")).thenReturn(tech1);
+        when(resultRepository.getTechnologyPartition("Tech2")).thenReturn(tech2);
+        var properties = new SearchProperties();
+        properties.setTechnologyPartitionEnabled(true);
+        return new TechnologyPartitionIndex(resultRepository, properties);
+    }
+
+    private static Result createResult(String recordId, String technologyName) {
+        var result = new Result();
+        result.setRecordId(recordId);
+        result.setMarkerName("marker1");
+        result.setTechnologyName(technologyName);
+        result.setMin(1.0);
+        result.setMax(2.0);
+        return result;
+    }
+}
@@ -14,6 +14,15 @@ class MarkerBaseValidatorTest {
     private final MarkerBaseValidator validator = new MarkerBaseValidator() {
     };
 
+    @Test
+    void validate_ShouldThrowException_WhenNameContainsColon() {
+        var marker = new Marker();
+        marker.setName("Marker:1");
+
+        assertThrows(ValidationException.class, () -> validator.validate(marker),
+                "Expected ValidationException when the marker name contains ':'");
+    }
+
     @Test
     void validate_ShouldThrowException_WhenAggregationTypeIsSetWithoutChildMarkers() {
         var marker = new Marker();
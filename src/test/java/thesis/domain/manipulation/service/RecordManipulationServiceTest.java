@@ -7,14 +7,13 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import thesis.data.mapper.RecordMapper;
 import thesis.data.model.Record;
-import thesis.data.model.Result;
 import thesis.data.service.RecordService;
 import thesis.data.service.ResultService;
 import thesis.data.validation.database.RecordDatabaseValidator;
 import thesis.domain.manipulation.dto.RecordUpdateDto;
 import thesis.exceptions.EntityNotFoundException;
 
-import java.util.List;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -46,14 +45,12 @@ class RecordManipulationServiceTest {
     @Test
     void deleteWithResults_ShouldDeleteRecordAndResults_WhenRecordExists() {
         when(recordService.existsById("recordId")).thenReturn(true);
-        Result result1 = new Result();
-        result1.setId("resultId1");
-        when(resultService.getResultsByRecordId("recordId")).thenReturn(List.of(result1));
+        when(resultService.getResultIdsByRecordId("recordId")).thenReturn(Set.of("resultId1"));
 
         recordManipulationService.deleteWithResults("recordId");
 
-        verify(resultService).getResultsByRecordId("recordId");
-        verify(resultService).delete("resultId1");
+        verify(resultService).getResultIdsByRecordId("recordId");
+        verify(resultService).deleteAll(Set.of("resultId1"));
         verify(recordService).delete("recordId");
     }
 
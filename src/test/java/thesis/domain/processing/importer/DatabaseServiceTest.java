@@ -12,6 +12,7 @@ import thesis.data.service.*;
 
 import java.time.LocalDateTime;
 import java.util.Collections;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -87,7 +88,7 @@ class DatabaseServiceTest {
         assertEquals("newRecordId", result.getRecordId());
         assertEquals("newRecordId:marker1", result.getId());
 
-        verify(resultService, times(1)).save(result);
+        verify(resultService, times(1)).saveAll(List.of(result));
     }
 
     @Test
@@ -114,7 +115,7 @@ class DatabaseServiceTest {
         verify(stringCategoryService, never()).save(any());
 
         verify(recordService, times(1)).save(record);
-        verify(resultService, times(1)).save(result);
+        verify(resultService, times(1)).saveAll(List.of(result));
 
         assertEquals("a", result.getRecordId());
     }
@@ -148,6 +149,6 @@ class DatabaseServiceTest {
         verify(technologyService, never()).save(any());
         verify(stringCategoryService, never()).save(any());
         verify(recordService, never()).save(any());
-        verify(resultService, never()).save(any());
+        verify(resultService, never()).saveAll(any());
     }
 }
\ No newline at end of file
@@ -0,0 +1,134 @@
+package thesis.domain.search.cache;
+
+import org.junit.jupiter.api.Test;
+import thesis.config.SearchProperties;
+import thesis.data.service.SearchVersionRegistry;
+import thesis.domain.search.dto.AdvancedSearchOptions;
+import thesis.domain.search.dto.BoolSearchOptions;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.*;
+
+class SearchResultCacheTest {
+    private final SearchVersionRegistry versionRegistry = mock(SearchVersionRegistry.class);
+
+    @Test
+    void get_ShouldReturnCachedResult_WhenVersionsAreUnchanged() {
+        var cache = cache(10);
+        when(versionRegistry.getVersions(any(), anyBoolean())).thenReturn(List.of(7L, 1L, 0L));
+        var loads = new AtomicInteger();
+
+        var first = cache.get("bool", boolOptions("marker1", true), Set.of("marker1"), false,
+                () -> Set.of("record" + loads.incrementAndGet()));
+        var second = cache.get("bool", boolOptions("marker1", true), Set.of("marker1"), false,
+                () -> Set.of("record" + loads.incrementAndGet()));
+
+        assertEquals(Set.of("record1"), first);
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.getStatistics().getHitCount());
+        assertEquals(1, cache.getStatistics().getMissCount());
+    }
+
+    @Test
+    void get_ShouldRecomputeResult_WhenMarkerVersionChanged() {
+        var cache = cache(10);
+        when(versionRegistry.getVersions(any(), anyBoolean()))
+                .thenReturn(List.of(7L, 1L, 0L))
+                .thenReturn(List.of(7L, 2L, 0L));
+        var loads = new AtomicInteger();
+
+        cache.get("bool", boolOptions("marker1", true), Set.of("marker1"), false, loads::incrementAndGet);
+        var result = cache.get("bool", boolOptions("marker1", true), Set.of("marker1"), false, loads::incrementAndGet);
+
+        assertEquals(2, result);
+        assertEquals(0, cache.getStatistics().getHitCount());
+        assertEquals(1, cache.getStatistics().getStaleCount());
+    }
+
+    @Test
+    void get_ShouldShareEntry_WhenAdvancedCriteriaAreInDifferentOrder() {
+        var cache = cache(10);
+        when(versionRegistry.getVersions(any(), anyBoolean())).thenReturn(List.of(7L, 1L, 1L, 0L, 0L));
+        var first = new AdvancedSearchOptions();
+        first.setBoolOptions(List.of(boolOptions("marker1", true), boolOptions("marker2", false)));
+        var second = new AdvancedSearchOptions();
+        second.setBoolOptions(List.of(boolOptions("marker2", false), boolOptions("marker1", true)));
+
+        cache.get("advanced", first, List.of("marker1", "marker2"), true, () -> Set.of("record1"));
+        var result = cache.get("advanced", second, List.of("marker2", "marker1"), true, () -> Set.of("record2"));
+
+        assertEquals(Set.of("record1"), result);
+    }
+
+    @Test
+    void get_ShouldNotShareEntry_WhenKindsDiffer() {
+        var cache = cache(10);
+        when(versionRegistry.getVersions(any(), anyBoolean())).thenReturn(List.of(7L, 1L, 0L));
+
+        cache.get("numeric", boolOptions("marker1", true), Set.of("marker1"), false, () -> 1L);
+        var count = cache.get("numeric-count", boolOptions("marker1", true), Set.of("marker1"), false, () -> 2L);
+
+        assertEquals(2L, count);
+    }
+
+    @Test
+    void get_ShouldEvictLeastRecentlyUsedEntry_WhenCacheIsFull() {
+        var cache = cache(2);
+        when(versionRegistry.getVersions(any(), anyBoolean())).thenReturn(List.of(7L, 1L, 0L));
+
+        cache.get("bool", boolOptions("marker1", true), Set.of("marker1"), false, () -> "a");
+        cache.get("bool", boolOptions("marker2", true), Set.of("marker2"), false, () -> "b");
+        cache.get("bool", boolOptions("marker1", true), Set.of("marker1"), false, () -> "unused");
+        cache.get("bool", boolOptions("marker3", true), Set.of("marker3"), false, () -> "c");
+
+        assertEquals("a", cache.get("bool", boolOptions("marker1", true), Set.of("marker1"), false, () -> "reloaded"));
+        assertEquals("reloaded", cache.get("bool", boolOptions("marker2", true), Set.of("marker2"), false, () -> "reloaded"));
+        assertEquals(2, cache.getStatistics().getSize());
+        assertEquals(2, cache.getStatistics().getEvictionCount());
+    }
+
+    @Test
+    void get_ShouldAlwaysLoad_WhenCacheIsDisabled() {
+        var cache = cache(0);
+        var loads = new AtomicInteger();
+
+        cache.get("bool", boolOptions("marker1", true), Set.of("marker1"), false, loads::incrementAndGet);
+        cache.get("bool", boolOptions("marker1", true), Set.of("marker1"), false, loads::incrementAndGet);
+
+        assertEquals(2, loads.get());
+        assertFalse(cache.getStatistics().isEnabled());
+        verifyNoInteractions(versionRegistry);
+    }
+
+    @Test
+    void invalidateAll_ShouldDropAllEntries() {
+        var cache = cache(10);
+        when(versionRegistry.getVersions(any(), anyBoolean())).thenReturn(List.of(7L, 1L, 0L));
+        cache.get("bool", boolOptions("marker1", true), Set.of("marker1"), false, () -> "a");
+
+        cache.invalidateAll();
+
+        assertEquals(0, cache.getStatistics().getSize());
+        assertEquals("b", cache.get("bool", boolOptions("marker1", true), Set.of("marker1"), false, () -> "b"));
+    }
+
+    private SearchResultCache cache(int size) {
+        var properties = new SearchProperties();
+        properties.setResultCacheSize(size);
+        return new SearchResultCache(versionRegistry, properties);
+    }
+
+    private static BoolSearchOptions boolOptions(String markerName, boolean value) {
+        var options = new BoolSearchOptions();
+        options.setMarkerName(markerName);
+        options.setValue(value);
+        return options;
+    }
+}
@@ -5,14 +5,33 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-import thesis.data.model.Result;
+import org.mockito.Spy;
+import thesis.config.SearchProperties;
+import thesis.data.repository.RecordRepository;
+import thesis.data.service.RecordOrdinalRegistry;
+import thesis.data.service.RecordService;
+import thesis.data.service.SearchVersionRegistry;
+import thesis.domain.search.cache.SearchResultCache;
 import thesis.domain.search.dto.*;
-
-import java.time.LocalDateTime;
+import thesis.domain.search.dto.enums.SearchExpressionOperator;
+import thesis.domain.search.dto.enums.SearchPlanStepType;
+import thesis.domain.search.service.planner.AdvancedSearchPlanner;
+import thesis.domain.search.service.planner.SearchCriterion;
+import thesis.domain.search.service.planner.SubQueryExecutor;
+import thesis.domain.search.validation.SearchExpressionValidator;
+import thesis.exceptions.BadRequestException;
+
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 class AdvancedSearchServiceTest {
@@ -28,6 +47,21 @@ class AdvancedSearchServiceTest {
     @Mock
     private BoolSearchService boolSearchService;
 
+    @Spy
+    private SubQueryExecutor subQueryExecutor = new SubQueryExecutor(new SearchProperties());
+
+    private final RecordService recordService = mock(RecordService.class);
+    private final RecordOrdinalRegistry ordinalRegistry = ordinalRegistry();
+
+    @Spy
+    private AdvancedSearchPlanner planner = new AdvancedSearchPlanner(subQueryExecutor, recordService, ordinalRegistry);
+
+    @Spy
+    private SearchExpressionValidator expressionValidator = new SearchExpressionValidator();
+
+    @Spy
+    private SearchResultCache resultCache = disabledResultCache();
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
@@ -39,33 +73,41 @@ class AdvancedSearchServiceTest {
 
         BoolSearchOptions boolOption = new BoolSearchOptions();
         options.setBoolOptions(List.of(boolOption));
-        Result boolResult1 = new Result(1, "markerX", null, null, null, null, true, "sample", null, null, null, null, LocalDateTime.now());
-        boolResult1.setRecordId("1");
-        Result boolResult2 = new Result(2, "markerX", null, null, null, null, true, "sample", null, null, null, null, LocalDateTime.now());
-        boolResult2.setRecordId("2");
-        when(boolSearchService.processBoolSearch(boolOption)).thenReturn(List.of(boolResult1, boolResult2));
+        when(boolSearchService.prepareCriterion(boolOption)).thenReturn(criterion("bool", Set.of("1", "2")));
 
         NumericSearchOptions numericOption = new NumericSearchOptions();
         options.setNumericOptions(List.of(numericOption));
-        NumericSearchResult numericSearchResult = new NumericSearchResult(null, null);
-        Result numericResult1 = new Result(2, "markerX", 3.0, 8.0, null, null, null, "sample", null, null, null, null, LocalDateTime.now());
-        numericResult1.setRecordId("2");
-        Result numericResult2 = new Result(3, "markerX", 4.0, 7.0, null, null, null, "sample", null, null, null, null, LocalDateTime.now());
-        numericResult2.setRecordId("3");
-        numericSearchResult.setResults(List.of(numericResult1, numericResult2));
-        when(numericSearchService.processNumericSearch(numericOption)).thenReturn(numericSearchResult);
+        when(numericSearchService.prepareCriterion(numericOption)).thenReturn(criterion("numeric", Set.of("2", "3")));
 
         StringSearchOptions stringOption = new StringSearchOptions();
         options.setStringOptions(List.of(stringOption));
-        Result stringResult = new Result(2, "markerX", null, null, "true", "cat", null, "sample", null, null, null, null, LocalDateTime.now());
-        stringResult.setRecordId("2");
-        when(stringSearchService.processStringSearch(stringOption)).thenReturn(List.of(stringResult));
+        when(stringSearchService.prepareCriterion(stringOption)).thenReturn(criterion("string", Set.of("2")));
 
         Set<String> result = advancedSearchService.processAdvancedSearch(options);
 
         assertEquals(Set.of("2"), result);
     }
 
+    @Test
+    void explainAdvancedSearch_ShouldScanMostSelectiveCriterionFirst() {
+        AdvancedSearchOptions options = new AdvancedSearchOptions();
+
+        BoolSearchOptions boolOption = new BoolSearchOptions();
+        options.setBoolOptions(List.of(boolOption));
+        when(boolSearchService.prepareCriterion(boolOption)).thenReturn(criterion("bool", Set.of("1", "2", "3", "4")));
+
+        StringSearchOptions stringOption = new StringSearchOptions();
+        options.setStringOptions(List.of(stringOption));
+        when(stringSearchService.prepareCriterion(stringOption)).thenReturn(criterion("string", Set.of("2", "5")));
+
+        AdvancedSearchResult result = advancedSearchService.explainAdvancedSearch(options);
+
+        assertEquals(Set.of("2"), result.getRecordIds());
+        assertEquals(List.of("string", "bool"), result.getPlan().stream().map(SearchPlanStep::getCriterion).toList());
+        assertEquals(List.of(SearchPlanStepType.SCAN, SearchPlanStepType.PROBE),
+                result.getPlan().stream().map(SearchPlanStep::getType).toList());
+    }
+
     @Test
     void processAdvancedSearch_ShouldReturnEmptySet_WhenAllOptionsAreEmpty() {
         AdvancedSearchOptions options = new AdvancedSearchOptions();
@@ -79,9 +121,7 @@ class AdvancedSearchServiceTest {
         NumericSearchOptions numericOption = new NumericSearchOptions();
         options.setNumericOptions(List.of(numericOption));
 
-        NumericSearchResult numericSearchResult = new NumericSearchResult(null, null);
-        numericSearchResult.setAggregatedResults(List.of(new AggregatedResult("100", null, null, null, null)));
-        when(numericSearchService.processNumericSearch(numericOption)).thenReturn(numericSearchResult);
+        when(numericSearchService.prepareCriterion(numericOption)).thenReturn(criterion("numeric", Set.of("100")));
 
         Set<String> result = advancedSearchService.processAdvancedSearch(options);
         assertEquals(Set.of("100"), result);
@@ -93,4 +133,85 @@ class AdvancedSearchServiceTest {
         Set<String> result = advancedSearchService.processAdvancedSearch(options);
         assertEquals(Set.of(), result);
     }
+
+    @Test
+    void processAdvancedSearch_ShouldIntersectOptionListsWithExpression() {
+        AdvancedSearchOptions options = new AdvancedSearchOptions();
+
+        BoolSearchOptions boolOption = new BoolSearchOptions();
+        options.setBoolOptions(List.of(boolOption));
+        when(boolSearchService.prepareCriterion(boolOption)).thenReturn(criterion("bool", Set.of("1", "2", "3", "4")));
+
+        StringSearchOptions stringOption = new StringSearchOptions();
+        when(stringSearchService.prepareCriterion(stringOption)).thenReturn(criterion("string", Set.of("1", "5")));
+        NumericSearchOptions numericOption = new NumericSearchOptions();
+        when(numericSearchService.prepareCriterion(numericOption)).thenReturn(criterion("numeric", Set.of("2", "3")));
+        NumericSearchOptions excludedOption = new NumericSearchOptions();
+        when(numericSearchService.prepareCriterion(excludedOption)).thenReturn(criterion("excluded", Set.of("3")));
+        when(recordService.count()).thenReturn(10L);
+
+        // bool AND (string OR (numeric AND NOT excluded))
+        options.setExpression(operator(SearchExpressionOperator.OR,
+                leaf(stringOption),
+                operator(SearchExpressionOperator.AND,
+                        leaf(numericOption),
+                        operator(SearchExpressionOperator.NOT, leaf(excludedOption)))));
+
+        Set<String> result = advancedSearchService.processAdvancedSearch(options);
+
+        assertEquals(Set.of("1", "2"), result);
+    }
+
+    @Test
+    void processAdvancedSearch_ShouldThrowException_WhenExpressionIsMalformed() {
+        AdvancedSearchOptions options = new AdvancedSearchOptions();
+        options.setExpression(operator(SearchExpressionOperator.NOT));
+
+        assertThrows(BadRequestException.class, () -> advancedSearchService.processAdvancedSearch(options));
+    }
+
+    private static SearchExpression operator(SearchExpressionOperator operator, SearchExpression... operands) {
+        SearchExpression expression = new SearchExpression();
+        expression.setOperator(operator);
+        expression.setOperands(List.of(operands));
+        return expression;
+    }
+
+    private static SearchExpression leaf(StringSearchOptions option) {
+        SearchExpression expression = new SearchExpression();
+        expression.setStringOption(option);
+        return expression;
+    }
+
+    private static SearchExpression leaf(NumericSearchOptions option) {
+        SearchExpression expression = new SearchExpression();
+        expression.setNumericOption(option);
+        return expression;
+    }
+
+    private static SearchCriterion criterion(String description, Set<String> recordIds) {
+        return SearchCriterion.of(description, recordIds::size, () -> new HashSet<>(recordIds), candidates -> {
+            Set<String> matches = new HashSet<>(candidates);
+            matches.retainAll(recordIds);
+            return matches;
+        });
+    }
+
+    // allocates ordinals like the Redis script, every record ID keeps the ordinal it got first
+    private static RecordOrdinalRegistry ordinalRegistry() {
+        RecordRepository recordRepository = mock(RecordRepository.class);
+        Map<String, Integer> ordinals = new ConcurrentHashMap<>();
+        AtomicInteger sequence = new AtomicInteger();
+        when(recordRepository.allocateOrdinals(anyList())).thenAnswer(invocation -> {
+            List<String> recordIds = invocation.getArgument(0);
+            return recordIds.stream().map(id -> ordinals.computeIfAbsent(id, key -> sequence.incrementAndGet())).toList();
+        });
+        return new RecordOrdinalRegistry(recordRepository);
+    }
+
+    private static SearchResultCache disabledResultCache() {
+        SearchProperties properties = new SearchProperties();
+        properties.setResultCacheSize(0);
+        return new SearchResultCache(mock(SearchVersionRegistry.class), properties);
+    }
 }
@@ -10,6 +10,7 @@ import thesis.data.model.Result;
 import thesis.data.model.Technology;
 import thesis.data.service.MarkerService;
 import thesis.data.service.query.ResultBoolQueryService;
+import thesis.data.service.query.index.ResultFilterIndex;
 import thesis.domain.search.dto.BoolSearchOptions;
 import thesis.domain.search.dto.SearchFilters;
 import thesis.domain.search.service.helpers.TechnologyResolver;
@@ -36,6 +37,9 @@ class BoolSearchServiceTest {
     @Mock
     private BoolSearchValidator validator;
 
+    @Mock
+    private ResultFilterIndex filterIndex;
+
     @InjectMocks
     private BoolSearchService boolSearchService;
 
@@ -70,6 +74,33 @@ class BoolSearchServiceTest {
         verify(validator).validateOptions(options);
     }
 
+    @Test
+    void processBoolSearch_ShouldOnlyLoadResultsPassingFilterIndexes_WhenFilterIndexesEnabled() {
+        BoolSearchOptions options = new BoolSearchOptions();
+        options.setMarkerName("markerX");
+        var filters = new SearchFilters("techA", null, "sample", null, null);
+        options.setFilters(filters);
+        options.setValue(true);
+
+        Marker marker = new Marker("markerX", "desc", null, null);
+        Result expectedResult = new Result(1, "markerX", null, null,
+                null, null, true, "sample", "techA", null, null, "unitRaw", LocalDateTime.now());
+
+        when(markerService.getEntity("markerX")).thenReturn(marker);
+        when(technologyResolver.resolveTechnologyNames("markerX", filters)).thenReturn(Set.of("techA"));
+        when(filterIndex.canFilter(filters)).thenReturn(true);
+        when(filterIndex.findRecordIds("markerX", filters)).thenReturn(Set.of("1", "2"));
+        when(resultBoolQueryService.probeBoolRecordIds("markerX", true, Set.of("techA"), Set.of("1", "2")))
+                .thenReturn(Set.of("1"));
+        when(resultBoolQueryService.streamResultsByIds(Set.of("1"), "markerX"))
+                .thenReturn(consumer -> consumer.accept(List.of(expectedResult)));
+
+        List<Result> results = boolSearchService.processBoolSearch(options);
+
+        assertEquals(List.of(expectedResult), results);
+        verify(resultBoolQueryService, never()).getAllBoolResults(any(), any(), any());
+    }
+
     @Test
     void processBoolSearch_ShouldReturnResultsFilteredBySpecificity_WhenMinSpecificityIsProvided() {
         BoolSearchOptions options = new BoolSearchOptions();
@@ -5,25 +5,59 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import thesis.config.SearchProperties;
 import thesis.data.model.Marker;
+import thesis.data.model.Result;
 import thesis.data.model.Technology;
 import thesis.data.model.Unit;
+import thesis.data.repository.ResultRepository;
+import thesis.data.repository.custom.RangeBounds;
+import thesis.data.repository.custom.RangePageRequest;
+import thesis.data.repository.custom.ScoredRange;
+import thesis.data.repository.custom.ScoredRecordId;
 import thesis.data.service.MarkerService;
+import thesis.data.service.SearchVersionRegistry;
 import thesis.data.service.UnitService;
 import thesis.data.service.query.ResultNumericQueryService;
+import thesis.data.service.query.index.AggregatedMarkerIndex;
+import thesis.data.service.query.index.MarkerStatisticsCatalog;
+import thesis.data.service.query.index.ResultIndexMirror;
+import thesis.data.service.query.index.ResultFilterIndex;
+import thesis.data.service.query.index.TechnologyPartitionIndex;
+import thesis.domain.search.cache.SearchResultCache;
+import thesis.domain.search.dto.AggregatedResult;
 import thesis.domain.search.dto.NumericSearchConfiguration;
 import thesis.domain.search.dto.NumericSearchOptions;
 import thesis.domain.search.dto.NumericSearchResult;
 import thesis.domain.search.dto.SearchFilters;
+import thesis.domain.search.dto.SearchPageRequest;
+import thesis.domain.search.dto.enums.NumericSearchType;
+import thesis.domain.search.dto.enums.SearchSortOrder;
 import thesis.domain.search.service.helpers.NumericSearchConfigurationBuilder;
 import thesis.domain.search.service.helpers.SearchConversionService;
+import thesis.domain.search.service.helpers.SearchPagination;
 import thesis.domain.search.service.helpers.TechnologyResolver;
 import thesis.domain.search.validation.NumericSearchValidator;
 import thesis.exceptions.BadRequestException;
 
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -55,6 +89,18 @@ public class NumericSearchServiceTest {
     @Mock
     private NumericSearchConfigurationBuilder configurationBuilder;
 
+    @Spy
+    private SearchResultCache resultCache = disabledResultCache();
+
+    @Mock
+    private AggregatedMarkerIndex aggregatedIndex;
+
+    @Mock
+    private ResultFilterIndex filterIndex;
+
+    @Mock
+    private TechnologyPartitionIndex partitionIndex;
+
     @Mock
     private Marker marker;
 
@@ -86,7 +132,7 @@ public class NumericSearchServiceTest {
         when(marker.getName()).thenReturn("marker");
 
         Set<String> recordIds = Set.of("record1", "record2");
-        when(resultService.searchResults("marker", 10.0, 20.0, null, false)).thenReturn(recordIds);
+        when(resultService.searchResults("marker", 10.0, 20.0, null, false, Set.of())).thenReturn(recordIds);
 
         NumericSearchResult result = numericSearchService.processNumericSearch(options);
 
@@ -94,6 +140,35 @@ public class NumericSearchServiceTest {
         verify(resultService).searchResults("marker", 10.0, 20.0, null, false);
     }
 
+    @Test
+    void processNumericSearch_ShouldOnlyLoadResultsPassingFilterIndexes_WhenFilterIndexesEnabled() {
+        NumericSearchOptions options = new NumericSearchOptions();
+        options.setMarkerName("marker");
+        var filters = new SearchFilters("tech", null, "sample", null, null);
+        options.setFilters(filters);
+
+        NumericSearchConfiguration config = new NumericSearchConfiguration("marker", null, 10.0, 20.0, null, null, null, false);
+        config.setWithTolerance(false);
+        when(configurationBuilder.getSearchConfiguration(options)).thenReturn(config);
+        when(markerService.getEntity("marker")).thenReturn(marker);
+        when(marker.getChildMarkerNames()).thenReturn(null);
+        when(marker.getName()).thenReturn("marker");
+        when(technologyResolver.resolveTechnologyNames("marker", filters)).thenReturn(Set.of("tech"));
+        when(filterIndex.canFilter(filters)).thenReturn(true);
+
+        Set<String> recordIds = new LinkedHashSet<>(List.of("r1", "r2", "r3"));
+        when(resultService.searchResults("marker", 10.0, 20.0, null, false, Set.of())).thenReturn(recordIds);
+        when(filterIndex.probeRecordIds("marker", filters, recordIds)).thenReturn(Set.of("r1", "r3"));
+        when(resultService.probeRecordIdsWithTechnologies("marker", Set.of("tech"), Set.of("r1", "r3"))).thenReturn(Set.of("r3"));
+        when(resultService.getResultsByIds(Set.of("r3"), "marker")).thenReturn(List.of(resultWithRecordId("r3")));
+
+        NumericSearchResult result = numericSearchService.processNumericSearch(options);
+
+        assertThat(result.getResults()).extracting(Result::getRecordId).containsExactly("r3");
+        verify(resultService, never()).getResultsByIds(recordIds, "marker");
+        verify(resultService, never()).streamResultsByIds(any(), any());
+    }
+
     @Test
     void processNumericSearch_ShouldThrowBadRequestException_WhenUnitSetAndMarkerHasNoUnit() {
         NumericSearchOptions options = new NumericSearchOptions();
@@ -113,5 +188,224 @@ public class NumericSearchServiceTest {
         assertThat(exception).isNotNull();
         assertThat(exception.getMessage()).isEqualTo("Unit can't be set, marker does not have a unit");
     }
-}
 
+    @Test
+    void processNumericSearchPage_ShouldReturnPageWithCursor_WhenMoreResultsExist() {
+        NumericSearchOptions options = new NumericSearchOptions();
+        options.setMarkerName("marker");
+
+        NumericSearchConfiguration config = new NumericSearchConfiguration("marker", null, 10.0, 20.0, null, null, null, false);
+        config.setWithTolerance(false);
+        when(configurationBuilder.getSearchConfiguration(options)).thenReturn(config);
+        when(markerService.getEntity("marker")).thenReturn(marker);
+        when(marker.getChildMarkerNames()).thenReturn(null);
+        when(marker.getName()).thenReturn("marker");
+
+        var indexPage = new RangePageRequest(false, false, null, 3);
+        when(resultService.searchResultsPage("marker", 10.0, 20.0, null, false, indexPage, Set.of())).thenReturn(List.of(
+                new ScoredRecordId("r1", 11.0), new ScoredRecordId("r2", 12.0), new ScoredRecordId("r3", 13.0)));
+        when(resultService.getResultsByIds(anySet(), eq("marker"))).thenReturn(List.of(
+                resultWithRecordId("r1"), resultWithRecordId("r2"), resultWithRecordId("r3")));
+
+        var result = numericSearchService.processNumericSearch(options,
+                new SearchPageRequest(2, null, SearchSortOrder.MIN_ASC));
+
+        assertThat(result.getResults()).extracting("recordId").containsExactly("r1", "r2");
+        assertThat(SearchPagination.decodeCursor(result.getNextCursor())).isEqualTo(new ScoredRecordId("r2", 12.0));
+    }
+
+    @Test
+    void processNumericSearchPage_ShouldReadNearestResultsFromIndex_WhenSortedByDistance() {
+        NumericSearchOptions options = new NumericSearchOptions();
+        options.setMarkerName("marker");
+
+        NumericSearchConfiguration config = new NumericSearchConfiguration("marker", null, 10.0, 20.0, null, null, null, false);
+        config.setWithTolerance(false);
+        when(configurationBuilder.getSearchConfiguration(options)).thenReturn(config);
+        when(markerService.getEntity("marker")).thenReturn(marker);
+        when(marker.getChildMarkerNames()).thenReturn(null);
+        when(marker.getName()).thenReturn("marker");
+
+        var indexPage = new RangePageRequest(false, false, null, 2);
+        when(resultService.searchNearestResultsPage("marker", 10.0, 20.0, null, false, 15.0, indexPage, Set.of()))
+                .thenReturn(List.of(new ScoredRecordId("r2", 0.0), new ScoredRecordId("r1", 0.5)));
+        when(resultService.getResultsByIds(anySet(), eq("marker"))).thenReturn(List.of(
+                resultWithRecordId("r2"), resultWithRecordId("r1")));
+
+        var result = numericSearchService.processNumericSearch(options,
+                new SearchPageRequest(1, null, SearchSortOrder.DISTANCE));
+
+        assertThat(result.getResults()).extracting("recordId").containsExactly("r2");
+        assertThat(SearchPagination.decodeCursor(result.getNextCursor())).isEqualTo(new ScoredRecordId("r2", 0.0));
+        verify(resultService, never()).searchResults(any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void processNumericSearchPage_ShouldRankOnlyMatchesWithinTolerance_WhenSortedByDistance() {
+        // min out of range of [10, 20] with tolerance [5, 25], ranked by the distance to 15
+        Map<String, ScoredRange> ranges = Map.of(
+                "r1", new ScoredRange(8.0, 12.0),
+                "r2", new ScoredRange(2.0, 15.0),
+                "r3", new ScoredRange(6.0, 18.0),
+                "r4", new ScoredRange(9.0, 14.0));
+        var resultRepository = mock(ResultRepository.class);
+        when(resultRepository.searchForRangeMatches(eq("marker"), anyDouble(), anyDouble(), anyDouble(), anyDouble(),
+                eq(false))).thenAnswer(invocation -> matches(ranges, invocation.getArguments()).collect(Collectors.toSet()));
+        when(resultRepository.searchForRangePage(eq("marker"), anyDouble(), anyDouble(), anyDouble(), anyDouble(),
+                eq(false), any(RangePageRequest.class))).thenAnswer(invocation -> {
+            RangePageRequest page = invocation.getArgument(6);
+            var order = Comparator.comparingDouble(ScoredRecordId::score).thenComparing(ScoredRecordId::recordId);
+            return matches(ranges, invocation.getArguments())
+                    .map(recordId -> new ScoredRecordId(recordId,
+                            page.sortByMax() ? ranges.get(recordId).max() : ranges.get(recordId).min()))
+                    .filter(entry -> page.isAfterStart(entry.recordId(), entry.score()))
+                    .sorted(page.descending() ? order.reversed() : order)
+                    .limit(page.limit())
+                    .toList();
+        });
+        when(resultRepository.findAllResultsByIds(any())).thenAnswer(invocation -> {
+            Collection<String> resultIds = invocation.getArgument(0);
+            return resultIds.stream().collect(Collectors.toMap(Function.identity(),
+                    resultId -> resultWithRecordId(resultId.substring(0, resultId.indexOf(':')))));
+        });
+        var queryService = new ResultNumericQueryService(resultRepository, mock(ResultIndexMirror.class),
+                partitionIndex, mock(MarkerStatisticsCatalog.class));
+        var service = new NumericSearchService(recursiveNumericSearchService, queryService, searchConversionService,
+                markerService, unitService, technologyResolver, validator, configurationBuilder, resultCache,
+                aggregatedIndex, filterIndex, partitionIndex);
+
+        NumericSearchOptions options = new NumericSearchOptions();
+        options.setMarkerName("marker");
+        NumericSearchConfiguration config = new NumericSearchConfiguration("marker", null, 10.0, 20.0, 5.0, 25.0,
+                NumericSearchType.MIN_OUT_OF_RANGE, false);
+        config.setWithTolerance(true);
+        when(configurationBuilder.getSearchConfiguration(options)).thenReturn(config);
+        when(markerService.getEntity("marker")).thenReturn(marker);
+        when(marker.getChildMarkerNames()).thenReturn(null);
+        when(marker.getName()).thenReturn("marker");
+
+        var result = service.processNumericSearch(options, new SearchPageRequest(10, null, SearchSortOrder.DISTANCE));
+
+        // r2 only matches without tolerance, its minimum is more than the tolerance below the range
+        assertThat(result.getResults()).extracting("recordId").containsExactly("r3", "r4", "r1");
+        assertThat(result.getNextCursor()).isNull();
+    }
+
+    @Test
+    void processNumericSearch_ShouldSearchAggregatedIndexes_WhenMarkerHasChildrenAndIndexIsEnabled() {
+        NumericSearchOptions options = new NumericSearchOptions();
+        options.setMarkerName("parent");
+
+        NumericSearchConfiguration config = new NumericSearchConfiguration("parent", null, 10.0, 20.0, null, null, null, false);
+        config.setWithTolerance(false);
+        when(configurationBuilder.getSearchConfiguration(options)).thenReturn(config);
+        when(markerService.getEntity("parent")).thenReturn(marker);
+        when(marker.getChildMarkerNames()).thenReturn(List.of("child1", "child2"));
+        when(marker.getName()).thenReturn("parent");
+        when(markerService.getEntity("child1")).thenReturn(new Marker("child1", null, null, null));
+        when(markerService.getEntity("child2")).thenReturn(new Marker("child2", null, null, null));
+        when(aggregatedIndex.isEnabled()).thenReturn(true);
+
+        var aggregatedResult = new AggregatedResult("r1", 12.0, 15.0, List.of("child1", "child2"), List.of("r1:child1", "r1:child2"));
+        when(resultService.searchResults("parent", 10.0, 20.0, null, false, Set.of())).thenReturn(Set.of("r1"));
+        when(recursiveNumericSearchService.getIndexedResults(marker, Set.of("r1"), false)).thenReturn(List.of(aggregatedResult));
+        when(recursiveNumericSearchService.filterResults(any(), any(), any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        NumericSearchResult result = numericSearchService.processNumericSearch(options);
+
+        assertThat(result.getAggregatedResults()).containsExactly(aggregatedResult);
+        verify(recursiveNumericSearchService, never()).getResultsForMarkerWithChildren(any(), any(), any());
+    }
+
+    @Test
+    void processNumericSearchPage_ShouldPageAggregatedResults_WhenMarkerHasChildren() {
+        NumericSearchOptions options = new NumericSearchOptions();
+        options.setMarkerName("parent");
+
+        NumericSearchConfiguration config = new NumericSearchConfiguration("parent", null, 10.0, 20.0, null, null, null, false);
+        config.setWithTolerance(false);
+        when(configurationBuilder.getSearchConfiguration(options)).thenReturn(config);
+        when(markerService.getEntity("parent")).thenReturn(marker);
+        when(marker.getChildMarkerNames()).thenReturn(List.of("child1"));
+        when(marker.getName()).thenReturn("parent");
+        when(aggregatedIndex.isEnabled()).thenReturn(true);
+
+        var first = new AggregatedResult("r1", 12.0, 15.0, List.of("child1"), List.of("r1:child1"));
+        var second = new AggregatedResult("r2", 11.0, 16.0, List.of("child1"), List.of("r2:child1"));
+        when(resultService.searchResults("parent", 10.0, 20.0, null, false, Set.of())).thenReturn(Set.of("r1", "r2"));
+        when(recursiveNumericSearchService.getIndexedResults(eq(marker), any(), eq(false))).thenReturn(List.of(first, second));
+        when(recursiveNumericSearchService.filterResults(any(), any(), any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        var page = numericSearchService.processNumericSearch(options, new SearchPageRequest(1, null, SearchSortOrder.MIN_ASC));
+
+        assertThat(page.getResults()).isNull();
+        assertThat(page.getAggregatedResults()).containsExactly(second);
+        assertThat(page.getNextCursor()).isNotNull();
+    }
+
+    @Test
+    void countNumericSearch_ShouldCountOnAggregatedIndexes_WhenMarkerHasChildrenAndIndexIsEnabled() {
+        NumericSearchOptions options = new NumericSearchOptions();
+        options.setMarkerName("parent");
+
+        NumericSearchConfiguration config = new NumericSearchConfiguration("parent", null, 10.0, 20.0, null, null, null, false);
+        config.setWithTolerance(false);
+        when(configurationBuilder.getSearchConfiguration(options)).thenReturn(config);
+        when(markerService.getEntity("parent")).thenReturn(marker);
+        when(marker.getChildMarkerNames()).thenReturn(List.of("child1", "child2"));
+        when(marker.getName()).thenReturn("parent");
+        when(markerService.getEntity("child1")).thenReturn(new Marker("child1", null, null, null));
+        when(markerService.getEntity("child2")).thenReturn(new Marker("child2", null, null, null));
+        when(aggregatedIndex.isEnabled()).thenReturn(true);
+        when(resultService.countResults("parent", 10.0, 20.0, null, false, Set.of())).thenReturn(4L);
+
+        var count = numericSearchService.countNumericSearch(options);
+
+        assertThat(count.getCount()).isEqualTo(4L);
+        verify(resultService, never()).searchResults(any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void countNumericSearch_ShouldCountOnTechnologyPartitions_WhenPartitionsAreEnabled() {
+        NumericSearchOptions options = new NumericSearchOptions();
+        options.setMarkerName("marker");
+        var filters = new SearchFilters("tech", null, null, null, null);
+        options.setFilters(filters);
+
+        NumericSearchConfiguration config = new NumericSearchConfiguration("marker", null, 10.0, 20.0, null, null, null, false);
+        config.setWithTolerance(false);
+        when(configurationBuilder.getSearchConfiguration(options)).thenReturn(config);
+        when(markerService.getEntity("marker")).thenReturn(marker);
+        when(marker.getChildMarkerNames()).thenReturn(null);
+        when(marker.getName()).thenReturn("marker");
+        when(technologyResolver.resolveTechnologyNames("marker", filters)).thenReturn(Set.of("tech", "comparable"));
+        when(partitionIndex.isEnabled()).thenReturn(true);
+        when(resultService.countResults("marker", 10.0, 20.0, null, false, Set.of("tech", "comparable"))).thenReturn(3L);
+
+        var count = numericSearchService.countNumericSearch(options);
+
+        assertThat(count.getCount()).isEqualTo(3L);
+        verify(resultService, never()).getRecordIdsWithTechnologies(any(), any());
+        verify(resultService, never()).searchResults(any(), any(), any(), any(), any(), any());
+    }
+
+    private static Result resultWithRecordId(String recordId) {
+        var result = new Result();
+        result.setRecordId(recordId);
+        return result;
+    }
+
+    private static Stream<String> matches(Map<String, ScoredRange> ranges, Object[] arguments) {
+        var bounds = new RangeBounds((Double) arguments[1], (Double) arguments[2], (Double) arguments[3],
+                (Double) arguments[4]);
+        return ranges.entrySet().stream()
+                .filter(entry -> bounds.contains(entry.getValue().min(), entry.getValue().max()))
+                .map(Map.Entry::getKey);
+    }
+
+    private static SearchResultCache disabledResultCache() {
+        SearchProperties properties = new SearchProperties();
+        properties.setResultCacheSize(0);
+        return new SearchResultCache(mock(SearchVersionRegistry.class), properties);
+    }
+}
@@ -7,17 +7,24 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import thesis.data.enums.AggregationType;
 import thesis.data.model.Marker;
+import thesis.data.model.Result;
 import thesis.data.model.Unit;
+import thesis.data.repository.custom.ScoredRange;
 import thesis.data.service.MarkerService;
 import thesis.data.service.query.ResultNumericQueryService;
+import thesis.data.service.query.index.AggregatedMarkerIndex;
+import thesis.data.service.query.index.ResultFilterIndex;
 import thesis.domain.search.dto.AggregatedResult;
 import thesis.domain.search.dto.NumericSearchConfiguration;
-import thesis.domain.search.dto.RecursiveResult;
+import thesis.domain.search.dto.SearchFilters;
 import thesis.domain.search.dto.enums.NumericSearchType;
 import thesis.domain.search.service.helpers.SearchConversionService;
 
-import java.util.Collections;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -30,6 +37,10 @@ class RecursiveNumericSearchServiceTest {
     private ResultNumericQueryService resultService;
     @Mock
     private MarkerService markerService;
+    @Mock
+    private AggregatedMarkerIndex aggregatedIndex;
+    @Mock
+    private ResultFilterIndex filterIndex;
 
     @InjectMocks
     private RecursiveNumericSearchService recursiveNumericSearchService;
@@ -49,24 +60,17 @@ class RecursiveNumericSearchServiceTest {
         config.setMinimum(2.0);
         config.setMaximum(10.0);
 
-        RecursiveResult childResult1 = new RecursiveResult("rec1", 2.0, 4.0);
-        RecursiveResult childResult2 = new RecursiveResult("rec1", 3.0, 5.0);
-
         when(markerService.getEntity("child1")).thenReturn(createMarker("child1", null, AggregationType.SUM));
         when(markerService.getEntity("child2")).thenReturn(createMarker("child2", null, AggregationType.SUM));
 
-        when(resultService.getAllResultsForMarker("child1", null)).thenReturn(List.of(childResult1));
-        when(resultService.getAllResultsForMarker("child2", null)).thenReturn(List.of(childResult2));
-
-        when(searchConversionService.convertRecursiveResults(any(), any(), any())).thenAnswer(invocation -> {
-            Marker m = invocation.getArgument(0);
-            if ("child1".equals(m.getName())) {
-                return List.of(childResult1);
-            } else if ("child2".equals(m.getName())) {
-                return List.of(childResult2);
-            }
-            return List.of();
-        });
+        when(resultService.streamRecordIdsForMarker("child1", null)).thenReturn(consumer -> consumer.accept(List.of("rec1")));
+        when(resultService.streamRecordIdsForMarker("child2", null)).thenReturn(consumer -> consumer.accept(List.of("rec1")));
+        when(resultService.getSearchIndexRanges(List.of("child1", "child2"), null, List.of("rec1"))).thenReturn(Map.of(
+                "child1", Map.of("rec1", new ScoredRange(2.0, 4.0)),
+                "child2", Map.of("rec1", new ScoredRange(3.0, 5.0))));
+
+        when(searchConversionService.convertRecursiveValues(any(), any(), any()))
+                .thenAnswer(invocation -> invocation.getArgument(2));
 
         List<AggregatedResult> aggregatedResults =
                 recursiveNumericSearchService.getResultsForMarkerWithChildren(config, parentMarker, unit);
@@ -76,6 +80,47 @@ class RecursiveNumericSearchServiceTest {
         assertEquals("rec1", result.getRecordId());
         assertEquals(5.0, result.getMin());
         assertEquals(9.0, result.getMax());
+        assertEquals(List.of("rec1:child1", "rec1:child2"), result.getResultIds());
+    }
+
+    @Test
+    void getResultsForMarkerWithChildren_ShouldDropAggregatesOutsideSearchBounds_WhileScanningChunks() {
+        Marker parentMarker = createMarker("parentMarker", List.of("child1", "child2"), AggregationType.AVERAGE);
+        Unit unit = new Unit();
+        NumericSearchConfiguration config = new NumericSearchConfiguration();
+        config.setSearchType(NumericSearchType.EXACT_MATCH);
+        config.setWithTolerance(false);
+        config.setMinimum(2.0);
+        config.setMaximum(5.0);
+        config.setUseTechnologyDeviation(false);
+
+        when(markerService.getEntity("child1")).thenReturn(createMarker("child1", null, AggregationType.SUM));
+        when(markerService.getEntity("child2")).thenReturn(createMarker("child2", null, AggregationType.SUM));
+
+        when(resultService.streamRecordIdsForMarker("child1", false)).thenReturn(consumer -> {
+            consumer.accept(List.of("rec1", "rec2"));
+            consumer.accept(List.of("rec3"));
+        });
+        when(resultService.streamRecordIdsForMarker("child2", false)).thenReturn(consumer -> consumer.accept(List.of("rec1", "rec4")));
+        when(resultService.getSearchIndexRanges(any(), eq(false), any())).thenAnswer(invocation -> {
+            Collection<String> recordIds = invocation.getArgument(2);
+            Map<String, ScoredRange> child1 = new HashMap<>(Map.of(
+                    "rec1", new ScoredRange(2.0, 4.0), "rec2", new ScoredRange(8.0, 9.0), "rec3", new ScoredRange(3.0, 3.0)));
+            Map<String, ScoredRange> child2 = new HashMap<>(Map.of(
+                    "rec1", new ScoredRange(4.0, 6.0), "rec4", new ScoredRange(1.0, 1.0)));
+            child1.keySet().retainAll(recordIds);
+            child2.keySet().retainAll(recordIds);
+            return Map.of("child1", child1, "child2", child2);
+        });
+        when(searchConversionService.convertRecursiveValues(any(), any(), any()))
+                .thenAnswer(invocation -> invocation.getArgument(2));
+
+        List<AggregatedResult> aggregatedResults =
+                recursiveNumericSearchService.getResultsForMarkerWithChildren(config, parentMarker, unit);
+
+        assertThat(aggregatedResults).extracting(AggregatedResult::getRecordId).containsExactlyInAnyOrder("rec1", "rec3");
+        assertEquals(3.0, aggregatedResults.get(0).getMin());
+        assertEquals(5.0, aggregatedResults.get(0).getMax());
     }
 
     @Test
@@ -84,13 +129,76 @@ class RecursiveNumericSearchServiceTest {
         Unit unit = new Unit();
         NumericSearchConfiguration config = new NumericSearchConfiguration();
 
-        when(resultService.getAllResultsForMarker(any(), anyBoolean())).thenReturn(Collections.emptyList());
+        when(resultService.streamRecordIdsForMarker(any(), any())).thenReturn(consumer -> {
+        });
 
         List<AggregatedResult> results = recursiveNumericSearchService.getResultsForMarkerWithChildren(config, marker, unit);
 
         assertThat(results).isEmpty(); // No results aggregated when no recursive results exist
     }
 
+    @Test
+    void getIndexedResults_ShouldReadAggregatedValuesAndContributingChildMarkers() {
+        Marker parentMarker = createMarker("parentMarker", List.of("child1", "child2"), AggregationType.SUM);
+        when(aggregatedIndex.getLeafMarkerNames("parentMarker")).thenReturn(List.of("child1", "child2"));
+        when(resultService.getSearchIndexRanges(List.of("child1", "child2", "parentMarker"), false, Set.of("rec1")))
+                .thenReturn(Map.of(
+                        "child1", Map.of("rec1", new ScoredRange(2.0, 4.0)),
+                        "child2", Map.of(),
+                        "parentMarker", Map.of("rec1", new ScoredRange(2.0, 4.0))));
+
+        List<AggregatedResult> results = recursiveNumericSearchService.getIndexedResults(parentMarker, Set.of("rec1"), false);
+
+        assertThat(results).hasSize(1);
+        assertEquals(2.0, results.get(0).getMin());
+        assertEquals(4.0, results.get(0).getMax());
+        assertEquals(List.of("child1"), results.get(0).getMarkerNames());
+        assertEquals(List.of("rec1:child1"), results.get(0).getResultIds());
+        verify(resultService, never()).getAllResultsForMarker(any(), any());
+    }
+
+    @Test
+    void filterResults_ShouldKeepAggregatedResult_OnlyWhenAllChildResultsPassFilters() {
+        var passing = new AggregatedResult("rec1", 5.0, 9.0, List.of("child1", "child2"), List.of("rec1:child1", "rec1:child2"));
+        var failing = new AggregatedResult("rec2", 5.0, 9.0, List.of("child1", "child2"), List.of("rec2:child1", "rec2:child2"));
+        when(resultService.streamResultsByIds(Set.of("rec1", "rec2"), "child1")).thenReturn(consumer -> consumer.accept(List.of(
+                createResult("rec1", "child1", "Sample1"), createResult("rec2", "child1", "Sample1"))));
+        when(resultService.streamResultsByIds(Set.of("rec1", "rec2"), "child2")).thenReturn(consumer -> consumer.accept(List.of(
+                createResult("rec1", "child2", "Sample1"), createResult("rec2", "child2", "Sample2"))));
+
+        List<AggregatedResult> results = recursiveNumericSearchService.filterResults(List.of(passing, failing),
+                new SearchFilters(null, null, "Sample1", null, null), Set.of());
+
+        assertThat(results).containsExactly(passing);
+    }
+
+    @Test
+    void filterResults_ShouldFilterChildRecordIdsOnIndexes_WhenFilterIndexesEnabled() {
+        var passing = new AggregatedResult("rec1", 5.0, 9.0, List.of("child1", "child2"), List.of("rec1:child1", "rec1:child2"));
+        var failing = new AggregatedResult("rec2", 5.0, 9.0, List.of("child1", "child2"), List.of("rec2:child1", "rec2:child2"));
+        var filters = new SearchFilters("Tech1", null, "Sample1", null, null);
+        when(filterIndex.canFilter(filters)).thenReturn(true);
+        when(filterIndex.probeRecordIds("child1", filters, Set.of("rec1", "rec2"))).thenReturn(Set.of("rec1", "rec2"));
+        when(filterIndex.probeRecordIds("child2", filters, Set.of("rec1", "rec2"))).thenReturn(Set.of("rec1"));
+        when(resultService.probeRecordIdsWithTechnologies("child1", Set.of("Tech1"), Set.of("rec1", "rec2")))
+                .thenReturn(Set.of("rec1", "rec2"));
+        when(resultService.probeRecordIdsWithTechnologies("child2", Set.of("Tech1"), Set.of("rec1"))).thenReturn(Set.of("rec1"));
+
+        List<AggregatedResult> results = recursiveNumericSearchService.filterResults(List.of(passing, failing),
+                filters, Set.of("Tech1"));
+
+        assertThat(results).containsExactly(passing);
+        verify(resultService, never()).streamResultsByIds(any(), any());
+    }
+
+    private Result createResult(String recordId, String markerName, String sample) {
+        Result result = new Result();
+        result.setRecordId(recordId);
+        result.setMarkerName(markerName);
+        result.setSample(sample);
+        return result;
+    }
+
     private Marker createMarker(String name, List<String> childNames, AggregationType aggregationType) {
         Marker marker = new Marker();
         marker.setName(name);
@@ -0,0 +1,114 @@
+package thesis.domain.search.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import thesis.data.model.Marker;
+import thesis.data.model.Unit;
+import thesis.data.repository.custom.ScoredRange;
+import thesis.data.repository.custom.ScoredRecordId;
+import thesis.data.service.MarkerService;
+import thesis.data.service.RecordService;
+import thesis.data.service.UnitService;
+import thesis.data.service.query.ResultNumericQueryService;
+import thesis.data.service.query.index.SimilarityIndex;
+import thesis.data.service.query.index.SimilarityTerm;
+import thesis.domain.search.dto.SimilaritySearchOptions;
+import thesis.domain.search.dto.SimilarityValue;
+import thesis.domain.search.service.helpers.SearchConversionService;
+import thesis.domain.search.validation.SimilaritySearchValidator;
+import thesis.exceptions.BadRequestException;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class SimilaritySearchServiceTest {
+    @InjectMocks
+    private SimilaritySearchService similaritySearchService;
+
+    @Mock
+    private SimilarityIndex similarityIndex;
+
+    @Mock
+    private ResultNumericQueryService resultService;
+
+    @Mock
+    private SearchConversionService searchConversionService;
+
+    @Mock
+    private MarkerService markerService;
+
+    @Mock
+    private UnitService unitService;
+
+    @Mock
+    private RecordService recordService;
+
+    @Mock
+    private SimilaritySearchValidator validator;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void processSimilaritySearch_ShouldCompareWithNumericResultsOfReferenceRecord() {
+        SimilaritySearchOptions options = new SimilaritySearchOptions();
+        options.setRecordId("record1");
+        when(resultService.getMarkerNamesOfRecord("record1")).thenReturn(Set.of("marker2", "marker1", "marker3"));
+        when(resultService.getSearchIndexRanges(any(), eq(false), eq(List.of("record1")))).thenReturn(Map.of(
+                "marker1", Map.of("record1", new ScoredRange(1.0, 2.0)),
+                "marker2", Map.of("record1", new ScoredRange(3.0, 3.0))));
+        var expectedTerms = List.of(
+                new SimilarityTerm("marker1", 1.0, 2.0, 1.0),
+                new SimilarityTerm("marker2", 3.0, 3.0, 1.0));
+        when(similarityIndex.findNearest(expectedTerms, false, 10, Set.of("record1")))
+                .thenReturn(List.of(new ScoredRecordId("record2", 0.25)));
+
+        var result = similaritySearchService.processSimilaritySearch(options);
+
+        assertThat(result).hasSize(1);
+        assertThat(result.get(0).getRecordId()).isEqualTo("record2");
+        assertThat(result.get(0).getDistance()).isEqualTo(0.25);
+        verify(recordService).getEntity("record1");
+    }
+
+    @Test
+    void processSimilaritySearch_ShouldConvertValuesIntoUnitOfMarker() {
+        SimilaritySearchOptions options = new SimilaritySearchOptions();
+        options.setValues(List.of(new SimilarityValue("marker1", "unit2", null, 1.0, 2.0, 2.0)));
+        options.setLimit(5);
+        var marker = new Marker("marker1", null, null, "unit1");
+        var unit = new Unit("unit2", "U2");
+        when(markerService.getEntity("marker1")).thenReturn(marker);
+        when(unitService.getEntity("unit2")).thenReturn(unit);
+        when(searchConversionService.convertValue(unit, marker, 1.0)).thenReturn(-1.0);
+        when(searchConversionService.convertValue(unit, marker, 2.0)).thenReturn(-2.0);
+
+        similaritySearchService.processSimilaritySearch(options);
+
+        verify(similarityIndex).findNearest(List.of(new SimilarityTerm("marker1", -2.0, -1.0, 2.0)), false, 5, Set.of());
+    }
+
+    @Test
+    void processSimilaritySearch_ShouldThrowException_WhenMarkerHasChildMarkers() {
+        SimilaritySearchOptions options = new SimilaritySearchOptions();
+        options.setValues(List.of(new SimilarityValue("marker1", null, 1.0, null, null, null)));
+        var marker = new Marker("marker1", null, null, null);
+        marker.setChildMarkerNames(List.of("child1", "child2"));
+        when(markerService.getEntity("marker1")).thenReturn(marker);
+
+        assertThrows(BadRequestException.class, () -> similaritySearchService.processSimilaritySearch(options));
+    }
+}
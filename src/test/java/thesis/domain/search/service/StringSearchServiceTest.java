@@ -10,6 +10,8 @@ import thesis.data.model.StringCategory;
 import thesis.data.service.MarkerService;
 import thesis.data.service.StringCategoryService;
 import thesis.data.service.query.ResultStringQueryService;
+import thesis.data.service.query.index.ResultFilterIndex;
+import thesis.data.service.query.index.StringCategoryOrdinalIndex;
 import thesis.domain.search.dto.StringSearchOptions;
 import thesis.domain.search.dto.enums.StringSearchType;
 import thesis.domain.search.validation.StringSearchValidator;
@@ -34,6 +36,12 @@ class StringSearchServiceTest {
     @Mock
     private StringSearchValidator validator;
 
+    @Mock
+    private ResultFilterIndex filterIndex;
+
+    @Mock
+    private StringCategoryOrdinalIndex ordinalIndex;
+
     @InjectMocks
     private StringSearchService stringSearchService;
 
@@ -71,7 +79,8 @@ class StringSearchServiceTest {
         StringCategory category = new StringCategory("category1", true, List.of("value1", "value2", "value3"));
 
         when(stringCategoryService.getEntity("category1")).thenReturn(category);
-        when(resultService.getAllStringResultsForMultipleValues(eq("markerX"), anyList(), eq(category)))
+        when(ordinalIndex.isEnabled()).thenReturn(true);
+        when(resultService.getAllStringResultsForOrdinalRange("markerX", category, 2, 2))
                 .thenReturn(List.of(new Result(2, "markerX", null, null,
                         "value3", "cat", null, "sample", "techA", null, null, "unitRaw", LocalDateTime.now())));
 
@@ -83,6 +92,42 @@ class StringSearchServiceTest {
         assertEquals("value3", results.get(0).getStringValue());
     }
 
+    @Test
+    void countStringSearch_ShouldCountOrdinalRange_WhenValueIsProvidedWithLessThanSearchType() {
+        StringSearchOptions options = new StringSearchOptions();
+        options.setMarkerName("markerX");
+        options.setValue("value3");
+        options.setSearchType(StringSearchType.LESS_THAN);
+        options.setCategoryName("category1");
+
+        StringCategory category = new StringCategory("category1", true, List.of("value1", "value2", "value3"));
+
+        when(stringCategoryService.getEntity("category1")).thenReturn(category);
+        when(ordinalIndex.isEnabled()).thenReturn(true);
+        when(resultService.countStringResultsForOrdinalRange("markerX", category, 0, 1)).thenReturn(4L);
+
+        assertEquals(4L, stringSearchService.countStringSearch(options).getCount());
+        verify(resultService, never()).countStringResultsForMultipleValues(any(), any(), any());
+    }
+
+    @Test
+    void countStringSearch_ShouldCountAcceptedValues_WhenOrdinalIndexIsDisabled() {
+        StringSearchOptions options = new StringSearchOptions();
+        options.setMarkerName("markerX");
+        options.setValue("value3");
+        options.setSearchType(StringSearchType.LESS_THAN);
+        options.setCategoryName("category1");
+
+        StringCategory category = new StringCategory("category1", true, List.of("value1", "value2", "value3"));
+
+        when(stringCategoryService.getEntity("category1")).thenReturn(category);
+        when(resultService.countStringResultsForMultipleValues("markerX", List.of("value1", "value2"), category))
+                .thenReturn(4L);
+
+        assertEquals(4L, stringSearchService.countStringSearch(options).getCount());
+        verify(resultService, never()).countStringResultsForOrdinalRange(any(), any(), anyInt(), anyInt());
+    }
+
     @Test
     void processStringSearch_ShouldReturnAllResults_WhenNoValueOrValuesProvided() {
         StringSearchOptions options = new StringSearchOptions();
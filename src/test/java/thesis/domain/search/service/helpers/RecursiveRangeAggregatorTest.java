@@ -0,0 +1,47 @@
+package thesis.domain.search.service.helpers;
+
+import org.junit.jupiter.api.Test;
+import thesis.data.enums.AggregationType;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RecursiveRangeAggregatorTest {
+
+    @Test
+    void add_ShouldSumValuesPerRecord_WhenAggregationTypeIsSum() {
+        var aggregator = new RecursiveRangeAggregator(3, AggregationType.SUM);
+
+        aggregator.add(new int[]{0, 2}, new double[]{2.0, 4.0, 1.0, 1.5}, 2);
+        aggregator.add(new int[]{0}, new double[]{3.0, 5.0}, 1);
+
+        assertEquals(2, aggregator.getCount(0));
+        assertEquals(5.0, aggregator.getMin(0));
+        assertEquals(9.0, aggregator.getMax(0));
+        assertEquals(0, aggregator.getCount(1));
+        assertEquals(1.0, aggregator.getMin(2));
+        assertEquals(1.5, aggregator.getMax(2));
+    }
+
+    @Test
+    void add_ShouldAverageValuesPerRecord_WhenAggregationTypeIsAverage() {
+        var aggregator = new RecursiveRangeAggregator(1, AggregationType.AVERAGE);
+
+        aggregator.add(new int[]{0}, new double[]{2.0, 4.0}, 1);
+        aggregator.add(new int[]{0}, new double[]{3.0, 5.0}, 1);
+
+        assertEquals(2.5, aggregator.getMin(0));
+        assertEquals(4.5, aggregator.getMax(0));
+    }
+
+    @Test
+    void add_ShouldOnlyAddGivenLength_AndPropagateFailedConversions() {
+        var aggregator = new RecursiveRangeAggregator(2, AggregationType.SUM);
+
+        aggregator.add(new int[]{0, 1}, new double[]{Double.NaN, 4.0, 7.0, 8.0}, 1);
+
+        assertTrue(Double.isNaN(aggregator.getMin(0)));
+        assertEquals(4.0, aggregator.getMax(0));
+        assertEquals(0, aggregator.getCount(1));
+    }
+}
@@ -3,12 +3,15 @@ package thesis.domain.search.service.helpers;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
-import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import thesis.data.model.Conversion;
 import thesis.data.model.Marker;
 import thesis.data.model.Unit;
-import thesis.data.service.UnitService;
+import thesis.config.SearchProperties;
+import thesis.data.repository.UnitRepository;
+import thesis.data.service.MetadataCache;
+import thesis.data.service.UnitConversionGraph;
 import thesis.domain.search.dto.NumericSearchOptions;
 import thesis.domain.search.dto.RecursiveResult;
 import thesis.exceptions.UnitConversionException;
@@ -16,11 +19,16 @@ import thesis.exceptions.UnitConversionException;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 class SearchConversionServiceTest {
-    @Mock
-    private UnitService unitService;
+    private final UnitRepository unitRepository = mock(UnitRepository.class);
+
+    // the mocked metadata cache is disabled, so the graph reads the units stubbed by each test
+    @Spy
+    private UnitConversionGraph conversionGraph =
+            new UnitConversionGraph(unitRepository, mock(MetadataCache.class), new SearchProperties());
 
     @InjectMocks
     private SearchConversionService conversionService;
@@ -61,7 +69,7 @@ class SearchConversionServiceTest {
         childUnit.setName("mmol/L");
         childUnit.setConversions(List.of(new Conversion("mg/dL", "Glucose", "x * 18")));
 
-        when(unitService.getEntity("mmol/L")).thenReturn(childUnit);
+        when(unitRepository.findAll()).thenReturn(List.of(childUnit));
 
         RecursiveResult result = new RecursiveResult("id", 5.0, 10.0);
         List<RecursiveResult> results = List.of(result);
@@ -73,6 +81,55 @@ class SearchConversionServiceTest {
         assertEquals(180.0, convertedResults.get(0).getMax()); // 10.0 * 18 = 180.0
     }
 
+    @Test
+    void convertRecursiveResults_ShouldKeepMissingValuesAndOnlyFailFailingValues() {
+        Marker marker = new Marker();
+        marker.setName("Ratio");
+        marker.setUnitName("ratio");
+
+        Unit parentUnit = new Unit();
+        parentUnit.setName("inverse");
+
+        Unit childUnit = new Unit();
+        childUnit.setName("ratio");
+        childUnit.setConversions(List.of(new Conversion("inverse", "Ratio", "1 / x")));
+
+        when(unitRepository.findAll()).thenReturn(List.of(childUnit));
+
+        RecursiveResult result1 = new RecursiveResult("id1", 0.0, 4.0);
+        RecursiveResult result2 = new RecursiveResult("id2", null, 2.0);
+
+        conversionService.convertRecursiveResults(marker, parentUnit, List.of(result1, result2));
+
+        assertTrue(result1.getMin().isNaN()); // 1 / 0 fails
+        assertEquals(0.25, result1.getMax());
+        assertNull(result2.getMin());
+        assertEquals(0.5, result2.getMax());
+    }
+
+    @Test
+    void convertRecursiveValues_ShouldConvertValuesAndOnlyFailFailingValues() {
+        Marker marker = new Marker();
+        marker.setName("Ratio");
+        marker.setUnitName("ratio");
+
+        Unit parentUnit = new Unit();
+        parentUnit.setName("inverse");
+
+        Unit childUnit = new Unit();
+        childUnit.setName("ratio");
+        childUnit.setConversions(List.of(new Conversion("inverse", "Ratio", "1 / x")));
+
+        when(unitRepository.findAll()).thenReturn(List.of(childUnit));
+
+        double[] converted = conversionService.convertRecursiveValues(marker, parentUnit, new double[]{0.0, 4.0, 2.0, 2.0});
+
+        assertTrue(Double.isNaN(converted[0])); // 1 / 0 fails
+        assertEquals(0.25, converted[1]);
+        assertEquals(0.5, converted[2]);
+        assertEquals(0.5, converted[3]);
+    }
+
     @Test
     void convertNumericConfig_ShouldConvertValuesUsingFormula() {
         Unit sourceUnit = new Unit();
@@ -87,12 +144,38 @@ class SearchConversionServiceTest {
         options.setMinimum(4.0);
         options.setMaximum(6.0);
 
+        when(unitRepository.findAll()).thenReturn(List.of(sourceUnit));
+
         conversionService.convertNumericSearchOptions(sourceUnit, marker, options);
 
         assertEquals(72.0, options.getMinimum());  // 4.0 * 18 = 72.0
         assertEquals(108.0, options.getMaximum()); // 6.0 * 18 = 108.0
     }
 
+    @Test
+    void convertNumericConfig_ShouldComposeConversions_WhenNoDirectConversionExists() {
+        Unit sourceUnit = new Unit();
+        sourceUnit.setName("mg/kg");
+        sourceUnit.setConversions(List.of(new Conversion("g/kg", "Fat", "x / 1000")));
+
+        Unit intermediateUnit = new Unit();
+        intermediateUnit.setName("g/kg");
+        intermediateUnit.setConversions(List.of(new Conversion("%", "Fat", "x / 10")));
+
+        Marker marker = new Marker();
+        marker.setName("Fat");
+        marker.setUnitName("%");
+
+        NumericSearchOptions options = new NumericSearchOptions();
+        options.setMinimum(5000.0);
+
+        when(unitRepository.findAll()).thenReturn(List.of(sourceUnit, intermediateUnit));
+
+        conversionService.convertNumericSearchOptions(sourceUnit, marker, options);
+
+        assertEquals(0.5, options.getMinimum()); // 5000 mg/kg = 5 g/kg = 0.5 %
+    }
+
     @Test
     void convertNumericConfig_ShouldThrowException_WhenConversionFormulaIsMissing() {
         Unit sourceUnit = new Unit();
@@ -140,7 +223,7 @@ class SearchConversionServiceTest {
         sourceUnit.setName("unit1");
         sourceUnit.setConversions(List.of(new Conversion("unit2", "markerName", "x / 0")));
 
-        when(unitService.getEntity("unit1")).thenReturn(sourceUnit);
+        when(unitRepository.findAll()).thenReturn(List.of(sourceUnit));
 
         List<RecursiveResult> convertedResults = conversionService.convertRecursiveResults(marker, parentUnit, List.of(result));
 
@@ -161,7 +244,7 @@ class SearchConversionServiceTest {
         sourceUnit.setName("unit1");
         sourceUnit.setConversions(List.of(new Conversion("unit2", "markerName", "x / 0")));  // Division by zero to cause failure
 
-        when(unitService.getEntity("unit1")).thenReturn(sourceUnit);
+        when(unitRepository.findAll()).thenReturn(List.of(sourceUnit));
 
         assertThrows(UnitConversionException.class, () ->
                 conversionService.convertNumericSearchOptions(sourceUnit, marker, options));
@@ -0,0 +1,87 @@
+package thesis.domain.search.service.helpers;
+
+import org.junit.jupiter.api.Test;
+import thesis.data.repository.custom.ScoredRecordId;
+import thesis.domain.search.dto.SearchPageRequest;
+import thesis.domain.search.dto.enums.SearchSortOrder;
+import thesis.exceptions.BadRequestException;
+
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SearchPaginationTest {
+
+    @Test
+    void encodeCursor_ShouldRoundTrip() {
+        var position = new ScoredRecordId("record:1", -0.1);
+
+        assertEquals(position, SearchPagination.decodeCursor(SearchPagination.encodeCursor(position)));
+    }
+
+    @Test
+    void encodeCursor_ShouldRoundTripTier() {
+        var position = new ScoredRecordId("record:1", 0.25, 1);
+
+        assertEquals(position, SearchPagination.decodeCursor(SearchPagination.encodeCursor(position)));
+    }
+
+    @Test
+    void decodeCursor_ShouldReturnNull_WhenCursorIsNull() {
+        assertNull(SearchPagination.decodeCursor(null));
+    }
+
+    @Test
+    void decodeCursor_ShouldThrowBadRequest_WhenCursorIsMalformed() {
+        assertThrows(BadRequestException.class, () -> SearchPagination.decodeCursor("not a cursor"));
+    }
+
+    @Test
+    void decodeCursor_ShouldThrowBadRequest_WhenTierIsNegativeOrScoreIsNotFinite() {
+        var negativeTier = SearchPagination.encodeCursor(new ScoredRecordId("r1", 2.0, -1));
+        var notANumber = SearchPagination.encodeCursor(new ScoredRecordId("r1", Double.NaN));
+        var infinite = SearchPagination.encodeCursor(new ScoredRecordId("r1", Double.POSITIVE_INFINITY, 1));
+
+        assertThrows(BadRequestException.class, () -> SearchPagination.decodeCursor(negativeTier));
+        assertThrows(BadRequestException.class, () -> SearchPagination.decodeCursor(notANumber));
+        assertThrows(BadRequestException.class, () -> SearchPagination.decodeCursor(infinite));
+    }
+
+    @Test
+    void toRangePageRequest_ShouldMapSortOrder() {
+        var request = SearchPagination.toRangePageRequest(new SearchPageRequest(10, null, SearchSortOrder.MAX_DESC), 11);
+
+        assertTrue(request.sortByMax());
+        assertTrue(request.descending());
+        assertEquals(11, request.limit());
+        assertNull(request.after());
+    }
+
+    @Test
+    void pageByRecordId_ShouldReturnAllPages() {
+        var items = List.of("c", "a", "d", "b", "e");
+
+        var first = SearchPagination.pageByRecordId(items, Function.identity(), new SearchPageRequest(2, null, null));
+        var second = SearchPagination.pageByRecordId(items, Function.identity(), new SearchPageRequest(2, first.getNextCursor(), null));
+        var third = SearchPagination.pageByRecordId(items, Function.identity(), new SearchPageRequest(2, second.getNextCursor(), null));
+
+        assertEquals(List.of("a", "b"), first.getItems());
+        assertEquals(List.of("c", "d"), second.getItems());
+        assertEquals(List.of("e"), third.getItems());
+        assertNull(third.getNextCursor());
+    }
+
+    @Test
+    void page_ShouldOrderByDescendingScore() {
+        var items = List.of("1", "22", "333");
+
+        var page = SearchPagination.page(items, Function.identity(), String::length, true, new SearchPageRequest(3, null, null));
+
+        assertEquals(List.of("333", "22", "1"), page.getItems());
+        assertNull(page.getNextCursor());
+    }
+}
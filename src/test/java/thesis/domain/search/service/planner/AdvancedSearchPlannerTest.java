@@ -0,0 +1,200 @@
+package thesis.domain.search.service.planner;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import thesis.config.SearchProperties;
+import thesis.data.repository.RecordRepository;
+import thesis.data.service.RecordOrdinalRegistry;
+import thesis.data.service.RecordService;
+import thesis.domain.search.dto.AdvancedSearchResult;
+import thesis.domain.search.dto.SearchPlanStep;
+import thesis.domain.search.dto.enums.SearchPlanStepType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AdvancedSearchPlannerTest {
+    private final List<String> calls = Collections.synchronizedList(new ArrayList<>());
+    private final RecordService recordService = mock(RecordService.class);
+    private final RecordOrdinalRegistry ordinalRegistry = ordinalRegistry();
+    private SubQueryExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void execute_ShouldProbeLessSelectiveCriteriaWithCandidates() {
+        var planner = planner(1);
+        var large = criterion("large", 1000, Set.of("1", "2", "3"));
+        var small = criterion("small", 2, Set.of("2", "3"));
+
+        AdvancedSearchResult result = planner.execute(List.of(large, small));
+
+        assertEquals(Set.of("2", "3"), result.getRecordIds());
+        assertEquals(List.of("scan small", "probe large"), calls);
+        assertEquals(List.of(SearchPlanStepType.SCAN, SearchPlanStepType.PROBE),
+                result.getPlan().stream().map(SearchPlanStep::getType).toList());
+        assertEquals(2, result.getPlan().get(1).getCandidates());
+    }
+
+    @Test
+    void execute_ShouldSkipRemainingCriteria_WhenNoCandidateIsLeft() {
+        var planner = planner(1);
+        var first = criterion("first", 1, Set.of("1"));
+        var second = criterion("second", 2, Set.of("2", "3"));
+        var third = criterion("third", 3, Set.of("1", "2", "3"));
+
+        AdvancedSearchResult result = planner.execute(List.of(third, second, first));
+
+        assertTrue(result.getRecordIds().isEmpty());
+        assertEquals(List.of("scan first", "probe second"), calls);
+        assertEquals(SearchPlanStepType.SKIPPED, result.getPlan().get(2).getType());
+    }
+
+    @Test
+    void execute_ShouldIntersectConcurrentProbes() {
+        var planner = planner(4);
+        var first = criterion("first", 3, Set.of("1", "2", "3"));
+        var second = criterion("second", 4, Set.of("1", "2", "3", "4"));
+        var third = criterion("third", 5, Set.of("2", "3", "4", "5", "6"));
+        var fourth = criterion("fourth", 6, Set.of("3", "4", "5", "6", "7", "8"));
+
+        AdvancedSearchResult result = planner.execute(List.of(fourth, third, second, first));
+
+        assertEquals(Set.of("3"), result.getRecordIds());
+        assertEquals(4, result.getPlan().size());
+        assertEquals("first", result.getPlan().get(0).getCriterion());
+    }
+
+    @Test
+    void execute_ShouldNotEvaluate_WhenEstimateIsZero() {
+        var planner = planner(4);
+        var empty = criterion("empty", 0, Set.of());
+        var other = criterion("other", 3, Set.of("1", "2", "3"));
+
+        AdvancedSearchResult result = planner.execute(List.of(other, empty));
+
+        assertTrue(result.getRecordIds().isEmpty());
+        assertTrue(calls.isEmpty());
+        assertTrue(result.getPlan().stream().allMatch(step -> step.getType() == SearchPlanStepType.SKIPPED));
+    }
+
+    @Test
+    void execute_ShouldReturnEmptySet_WhenThereAreNoCriteria() {
+        AdvancedSearchResult result = planner(1).execute(List.of());
+
+        assertTrue(result.getRecordIds().isEmpty());
+        assertTrue(result.getPlan().isEmpty());
+    }
+
+    @Test
+    void execute_ShouldUniteOperandsOfOr() {
+        var planner = planner(4);
+        var first = criterion("first", 2, Set.of("1", "2"));
+        var second = criterion("second", 2, Set.of("2", "3"));
+        var empty = criterion("empty", 0, Set.of());
+
+        AdvancedSearchResult result = planner.execute(PlanNode.or(List.of(
+                PlanNode.criterion(first), PlanNode.criterion(second), PlanNode.criterion(empty))));
+
+        assertEquals(Set.of("1", "2", "3"), result.getRecordIds());
+        assertTrue(calls.containsAll(List.of("scan first", "scan second")));
+        assertEquals(2, calls.size());
+    }
+
+    @Test
+    void execute_ShouldProbeOrOnlyForUnmatchedCandidates() {
+        var planner = planner(1);
+        var small = criterion("small", 2, Set.of("2", "3"));
+        var large = criterion("large", 10, Set.of("2", "3", "4"));
+        var other = criterion("other", 5, Set.of("3", "9"));
+
+        AdvancedSearchResult result = planner.execute(PlanNode.and(List.of(
+                PlanNode.criterion(small),
+                PlanNode.or(List.of(PlanNode.criterion(other), PlanNode.criterion(large))))));
+
+        assertEquals(Set.of("2", "3"), result.getRecordIds());
+        // the operand with more matches is probed first and leaves no candidate for the other one
+        assertEquals(List.of("scan small", "probe large"), calls);
+        assertEquals(1, result.getPlan().stream().filter(step -> step.getDepth() == 1
+                && step.getType() == SearchPlanStepType.SKIPPED).count());
+    }
+
+    @Test
+    void execute_ShouldSubtractNegatedOperandFromCandidates() {
+        var planner = planner(4);
+        var included = criterion("included", 3, Set.of("1", "2", "3"));
+        var excluded = criterion("excluded", 2, Set.of("2", "4"));
+        when(recordService.count()).thenReturn(5L);
+
+        AdvancedSearchResult result = planner.execute(PlanNode.and(List.of(
+                PlanNode.criterion(included), PlanNode.not(PlanNode.criterion(excluded)))));
+
+        assertEquals(Set.of("1", "3"), result.getRecordIds());
+        assertEquals(List.of("scan included", "probe excluded"), calls);
+        verify(recordService, never()).streamAllIds();
+    }
+
+    @Test
+    void execute_ShouldComplementWithAllRecords_WhenNegationIsScanned() {
+        var planner = planner(1);
+        var excluded = criterion("excluded", 2, Set.of("2", "4"));
+        when(recordService.count()).thenReturn(5L);
+        when(recordService.streamAllIds()).thenReturn(consumer -> consumer.accept(List.of("1", "2", "3", "4", "5")));
+
+        AdvancedSearchResult result = planner.execute(PlanNode.and(List.of(PlanNode.not(PlanNode.criterion(excluded)))));
+
+        assertEquals(Set.of("1", "3", "5"), result.getRecordIds());
+        assertEquals(List.of("scan excluded"), calls);
+    }
+
+    private AdvancedSearchPlanner planner(int concurrency) {
+        var properties = new SearchProperties();
+        properties.setSubQueryConcurrency(concurrency);
+        properties.setSubQueryThreads(2);
+        executor = new SubQueryExecutor(properties);
+        return new AdvancedSearchPlanner(executor, recordService, ordinalRegistry);
+    }
+
+    private SearchCriterion criterion(String name, long estimate, Set<String> recordIds) {
+        return SearchCriterion.of(name, () -> estimate,
+                () -> {
+                    calls.add("scan " + name);
+                    return new HashSet<>(recordIds);
+                },
+                candidates -> {
+                    calls.add("probe " + name);
+                    Set<String> matches = new HashSet<>(candidates);
+                    matches.retainAll(recordIds);
+                    return matches;
+                });
+    }
+
+    // allocates ordinals like the Redis script, every record ID keeps the ordinal it got first
+    private static RecordOrdinalRegistry ordinalRegistry() {
+        RecordRepository recordRepository = mock(RecordRepository.class);
+        Map<String, Integer> ordinals = new ConcurrentHashMap<>();
+        AtomicInteger sequence = new AtomicInteger();
+        when(recordRepository.allocateOrdinals(anyList())).thenAnswer(invocation -> {
+            List<String> recordIds = invocation.getArgument(0);
+            return recordIds.stream().map(id -> ordinals.computeIfAbsent(id, key -> sequence.incrementAndGet())).toList();
+        });
+        return new RecordOrdinalRegistry(recordRepository);
+    }
+}
@@ -0,0 +1,120 @@
+package thesis.domain.search.service.planner;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import thesis.config.SearchProperties;
+import thesis.exceptions.BadRequestException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SubQueryExecutorTest {
+    private SubQueryExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        var properties = new SearchProperties();
+        properties.setSubQueryConcurrency(2);
+        properties.setSubQueryThreads(4);
+        executor = new SubQueryExecutor(properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void invokeAll_ShouldReturnResultsInTaskOrder() {
+        List<Callable<Integer>> tasks = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            var value = i;
+            tasks.add(() -> {
+                Thread.sleep(10L * (5 - value));
+                return value;
+            });
+        }
+
+        assertEquals(List.of(0, 1, 2, 3, 4), executor.invokeAll(tasks));
+    }
+
+    @Test
+    void forEachCompleted_ShouldLimitTasksInFlight() {
+        var running = new AtomicInteger();
+        var maxRunning = new AtomicInteger();
+        List<Callable<Integer>> tasks = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            tasks.add(() -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                Thread.sleep(20);
+                running.decrementAndGet();
+                return 1;
+            });
+        }
+
+        executor.invokeAll(tasks);
+
+        assertTrue(maxRunning.get() <= 2);
+    }
+
+    @Test
+    void forEachCompleted_ShouldCancelRemainingTasks_WhenHandlerStops() throws InterruptedException {
+        var blocked = new CountDownLatch(1);
+        var interrupted = new CountDownLatch(1);
+        List<Callable<String>> tasks = List.of(
+                () -> "fast",
+                () -> {
+                    try {
+                        blocked.await();
+                    } catch (InterruptedException e) {
+                        interrupted.countDown();
+                    }
+                    return "slow";
+                });
+
+        List<String> received = new ArrayList<>();
+        executor.forEachCompleted(tasks, (index, result) -> {
+            received.add(result);
+            return false;
+        });
+
+        assertEquals(List.of("fast"), received);
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void forEachCompleted_ShouldRethrowTaskException() {
+        List<Callable<String>> tasks = List.of(
+                () -> "ok",
+                () -> {
+                    throw new BadRequestException("invalid options");
+                });
+
+        assertThrows(BadRequestException.class, () -> executor.invokeAll(tasks));
+    }
+
+    @Test
+    void invokeAll_ShouldRunNestedTasksOnCallingThread() {
+        List<Callable<List<String>>> tasks = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            tasks.add(() -> {
+                var outer = Thread.currentThread().getName();
+                List<Callable<String>> nested = List.of(() -> Thread.currentThread().getName(), () -> outer);
+                return executor.invokeAll(nested);
+            });
+        }
+
+        var results = executor.invokeAll(tasks);
+
+        results.forEach(names -> assertEquals(names.get(1), names.get(0)));
+    }
+}
@@ -0,0 +1,93 @@
+package thesis.domain.search.validation;
+
+import org.junit.jupiter.api.Test;
+import thesis.domain.search.dto.BoolSearchOptions;
+import thesis.domain.search.dto.SearchExpression;
+import thesis.domain.search.dto.StringSearchOptions;
+import thesis.domain.search.dto.enums.SearchExpressionOperator;
+import thesis.exceptions.BadRequestException;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchExpressionValidatorTest {
+    private final SearchExpressionValidator validator = new SearchExpressionValidator();
+
+    @Test
+    void validate_ShouldNotThrowException_WhenExpressionIsNull() {
+        assertDoesNotThrow(() -> validator.validate(null));
+    }
+
+    @Test
+    void validate_ShouldNotThrowException_WhenExpressionIsWellFormed() {
+        SearchExpression expression = operator(SearchExpressionOperator.AND,
+                boolLeaf(),
+                operator(SearchExpressionOperator.NOT, operator(SearchExpressionOperator.OR, boolLeaf(), stringLeaf())));
+
+        assertDoesNotThrow(() -> validator.validate(expression));
+    }
+
+    @Test
+    void validate_ShouldThrowException_WhenLeafHasNoOption() {
+        assertThrows(BadRequestException.class, () -> validator.validate(new SearchExpression()));
+    }
+
+    @Test
+    void validate_ShouldThrowException_WhenLeafHasSeveralOptions() {
+        SearchExpression expression = boolLeaf();
+        expression.setStringOption(new StringSearchOptions());
+
+        assertThrows(BadRequestException.class, () -> validator.validate(expression));
+    }
+
+    @Test
+    void validate_ShouldThrowException_WhenOperatorHasOption() {
+        SearchExpression expression = operator(SearchExpressionOperator.AND, boolLeaf());
+        expression.setBoolOption(new BoolSearchOptions());
+
+        assertThrows(BadRequestException.class, () -> validator.validate(expression));
+    }
+
+    @Test
+    void validate_ShouldThrowException_WhenOperatorHasNoOperands() {
+        assertThrows(BadRequestException.class, () -> validator.validate(operator(SearchExpressionOperator.OR)));
+    }
+
+    @Test
+    void validate_ShouldThrowException_WhenNotHasSeveralOperands() {
+        SearchExpression expression = operator(SearchExpressionOperator.NOT, boolLeaf(), stringLeaf());
+
+        assertThrows(BadRequestException.class, () -> validator.validate(expression));
+    }
+
+    @Test
+    void validate_ShouldThrowException_WhenExpressionIsNestedTooDeep() {
+        SearchExpression expression = boolLeaf();
+        for (int i = 0; i < SearchExpressionValidator.MAX_DEPTH; i++) {
+            expression = operator(SearchExpressionOperator.NOT, expression);
+        }
+        SearchExpression nested = expression;
+
+        assertThrows(BadRequestException.class, () -> validator.validate(nested));
+    }
+
+    private static SearchExpression operator(SearchExpressionOperator operator, SearchExpression... operands) {
+        SearchExpression expression = new SearchExpression();
+        expression.setOperator(operator);
+        expression.setOperands(List.of(operands));
+        return expression;
+    }
+
+    private static SearchExpression boolLeaf() {
+        SearchExpression expression = new SearchExpression();
+        expression.setBoolOption(new BoolSearchOptions());
+        return expression;
+    }
+
+    private static SearchExpression stringLeaf() {
+        SearchExpression expression = new SearchExpression();
+        expression.setStringOption(new StringSearchOptions());
+        return expression;
+    }
+}
@@ -0,0 +1,74 @@
+package thesis.domain.search.validation;
+
+import org.junit.jupiter.api.Test;
+import thesis.domain.search.dto.SimilaritySearchOptions;
+import thesis.domain.search.dto.SimilarityValue;
+import thesis.exceptions.BadRequestException;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SimilaritySearchValidatorTest {
+    private final SimilaritySearchValidator validator = new SimilaritySearchValidator();
+
+    @Test
+    void validateOptions_ShouldThrowException_WhenNeitherRecordIdNorValuesProvided() {
+        SimilaritySearchOptions options = new SimilaritySearchOptions();
+        options.setValues(List.of());
+        assertThrows(BadRequestException.class, () -> validator.validateOptions(options));
+    }
+
+    @Test
+    void validateOptions_ShouldThrowException_WhenMarkerProvidedTwice() {
+        SimilaritySearchOptions options = new SimilaritySearchOptions();
+        options.setValues(List.of(
+                new SimilarityValue("marker1", null, 1.0, null, null, null),
+                new SimilarityValue("marker1", null, 2.0, null, null, null)));
+        assertThrows(BadRequestException.class, () -> validator.validateOptions(options));
+    }
+
+    @Test
+    void validateOptions_ShouldThrowException_WhenValueProvidedWithRecordId() {
+        SimilaritySearchOptions options = new SimilaritySearchOptions();
+        options.setRecordId("record1");
+        options.setValues(List.of(new SimilarityValue("marker1", null, 1.0, null, null, 2.0)));
+        assertThrows(BadRequestException.class, () -> validator.validateOptions(options));
+    }
+
+    @Test
+    void validateOptions_ShouldThrowException_WhenValueMissingWithoutRecordId() {
+        SimilaritySearchOptions options = new SimilaritySearchOptions();
+        options.setValues(List.of(new SimilarityValue("marker1", null, null, null, null, 2.0)));
+        assertThrows(BadRequestException.class, () -> validator.validateOptions(options));
+    }
+
+    @Test
+    void validateOptions_ShouldThrowException_WhenValueAndMinOrMaxAreProvided() {
+        SimilaritySearchOptions options = new SimilaritySearchOptions();
+        options.setValues(List.of(new SimilarityValue("marker1", null, 1.0, 0.0, null, null)));
+        assertThrows(BadRequestException.class, () -> validator.validateOptions(options));
+    }
+
+    @Test
+    void validateOptions_ShouldThrowException_WhenMinimumGreaterThanMaximum() {
+        SimilaritySearchOptions options = new SimilaritySearchOptions();
+        options.setValues(List.of(new SimilarityValue("marker1", null, null, 5.0, 1.0, null)));
+        assertThrows(BadRequestException.class, () -> validator.validateOptions(options));
+    }
+
+    @Test
+    void validateOptions_ShouldNotThrowException_WhenValidOptionsProvided() {
+        SimilaritySearchOptions withRecord = new SimilaritySearchOptions();
+        withRecord.setRecordId("record1");
+        withRecord.setValues(List.of(new SimilarityValue("marker1", null, null, null, null, 2.0)));
+        assertDoesNotThrow(() -> validator.validateOptions(withRecord));
+
+        SimilaritySearchOptions withValues = new SimilaritySearchOptions();
+        withValues.setValues(List.of(
+                new SimilarityValue("marker1", "unit1", 1.0, null, null, null),
+                new SimilarityValue("marker2", null, null, 1.0, 5.0, 0.5)));
+        assertDoesNotThrow(() -> validator.validateOptions(withValues));
+    }
+}
@@ -18,6 +18,7 @@ import thesis.domain.search.dto.BoolSearchOptions;
 import thesis.domain.search.dto.SearchFilters;
 import thesis.domain.search.service.BoolSearchService;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -77,6 +78,33 @@ public class BoolSearchIntegrationTest extends RedisContainerTestBase {
         assertThat(results).extracting(Result::getRecordIdRaw).containsExactlyInAnyOrder(1, 3);
     }
 
+    @Test
+    void streamBoolSearch_ShouldStreamResults_WhenSearchingValue() {
+        BoolSearchOptions options = new BoolSearchOptions();
+        options.setMarkerName("Marker1");
+        options.setValue(true);
+
+        List<Result> results = new ArrayList<>();
+        boolSearchService.streamBoolSearch(options).forEachChunk(results::addAll);
+
+        assertThat(results).extracting(Result::getRecordIdRaw).containsExactlyInAnyOrder(1, 3);
+    }
+
+    @Test
+    void countBoolSearch_ShouldCountResults_WhenSearchingValueAndTechnology() {
+        BoolSearchOptions options = new BoolSearchOptions();
+        options.setMarkerName("Marker1");
+        options.setValue(true);
+
+        assertThat(boolSearchService.countBoolSearch(options).getCount()).isEqualTo(2);
+
+        options.setFilters(new SearchFilters("Tech3", null, null, null, null));
+        assertThat(boolSearchService.countBoolSearch(options).getCount()).isEqualTo(1);
+
+        options.setFilters(new SearchFilters("Tech3", null, "sample", null, null));
+        assertThat(boolSearchService.countBoolSearch(options).isExists()).isFalse();
+    }
+
     @Test
     void processBoolSearch_ShouldReturnResults_WhenSearchingValueAndTechnology() {
         BoolSearchOptions options = new BoolSearchOptions();
@@ -0,0 +1,10 @@
+package thesis.integration.search;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * Runs the recursive numeric searches on the materialized indexes of the aggregated markers.
+ */
+@SpringBootTest(properties = "search.aggregated-index-enabled=true")
+public class IndexedRecursiveNumericSearchIntegrationTest extends RecursiveNumericSearchIntegrationTest {
+}
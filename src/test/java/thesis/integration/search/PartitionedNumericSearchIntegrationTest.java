@@ -0,0 +1,10 @@
+package thesis.integration.search;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * Runs the numeric searches with technology filters on the technology partitions of the min and max indexes.
+ */
+@SpringBootTest(properties = "search.technology-partition-enabled=true")
+public class PartitionedNumericSearchIntegrationTest extends NumericSearchIntegrationTest {
+}
@@ -21,12 +21,10 @@ import thesis.domain.search.dto.NumericSearchOptions;
 import thesis.domain.search.dto.SearchFilters;
 import thesis.domain.search.dto.enums.NumericSearchType;
 import thesis.domain.search.service.NumericSearchService;
-import thesis.exceptions.BadRequestException;
 
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @SpringBootTest
 @ActiveProfiles("soil")
@@ -103,16 +101,34 @@ public class RecursiveNumericSearchIntegrationTest extends RedisContainerTestBas
     }
 
     @Test
-    void processNumericSearch_ShouldThrow_WhenSearchingWithFilters() {
-        var parentMarker = createParentMarker(AggregationType.SUM);
+    void processNumericSearch_ShouldReturnResults_WhenAllChildResultsPassFilters() {
+        var parentMarker = createParentMarker(AggregationType.AVERAGE);
         markerService.save(parentMarker);
         NumericSearchOptions options = new NumericSearchOptions();
         options.setMarkerName("ParentMarker");
         options.setFilters(new SearchFilters(null, null, "Sample1", null, null));
-        options.setMinimum(0.5);
-        options.setMaximum(0.7);
+        options.setMinimum(5.0);
+        options.setMaximum(6.0);
+
+        var result = numericSearchService.processNumericSearch(options);
 
-        assertThrows(BadRequestException.class, () -> numericSearchService.processNumericSearch(options));
+        assertThat(result.getAggregatedResults()).extracting(AggregatedResult::getRecordId).containsExactlyInAnyOrder("5");
+    }
+
+    @Test
+    void processNumericSearch_ShouldReflectChildResultChanges_WhenResultIsDeleted() {
+        var parentMarker = createParentMarker(AggregationType.SUM);
+        markerService.save(parentMarker);
+        resultService.delete("1:Marker3");
+
+        NumericSearchOptions options = new NumericSearchOptions();
+        options.setMarkerName("ParentMarker");
+        options.setMinimum(5.0);
+        options.setMaximum(6.0);
+
+        var result = numericSearchService.processNumericSearch(options);
+
+        assertThat(result.getAggregatedResults()).extracting(AggregatedResult::getRecordId).containsExactlyInAnyOrder("1", "5");
     }
 
     @Test
@@ -19,6 +19,7 @@ import thesis.domain.search.dto.enums.StringSearchType;
 import thesis.domain.search.service.StringSearchService;
 import thesis.exceptions.BadRequestException;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -87,6 +88,27 @@ public class StringSearchIntegrationTest extends RedisContainerTestBase {
         assertThat(results).extracting(Result::getRecordIdRaw).containsExactlyInAnyOrder(1, 2, 3, 4);
     }
 
+    @Test
+    void streamStringSearch_ShouldStreamResults_WhenSearchingValues() {
+        StringSearchOptions options = new StringSearchOptions();
+        options.setMarkerName("Marker1");
+        options.setValues(List.of("value1", "value2"));
+
+        List<Result> results = new ArrayList<>();
+        stringSearchService.streamStringSearch(options).forEachChunk(results::addAll);
+
+        assertThat(results).extracting(Result::getRecordIdRaw).containsExactlyInAnyOrder(1, 2, 3, 4);
+    }
+
+    @Test
+    void countStringSearch_ShouldCountResults_WhenSearchingValues() {
+        StringSearchOptions options = new StringSearchOptions();
+        options.setMarkerName("Marker1");
+        options.setValues(List.of("value1", "value2", "value1"));
+
+        assertThat(stringSearchService.countStringSearch(options).getCount()).isEqualTo(4);
+    }
+
     @Test
     void processStringSearch_ShouldReturnResults_WhenSearchingCategory() {
         StringSearchOptions options = new StringSearchOptions();
@@ -0,0 +1,48 @@
+package thesis.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FormulaEvaluatorTest {
+
+    @Test
+    void evaluateFormula_ShouldMatchInterpreter_ForSimpleArithmeticFormulas() {
+        assertEquals(90.0, FormulaEvaluator.evaluateFormula("x * 18", 5.0));
+        assertEquals(90.0, FormulaEvaluator.evaluateFormula("18*x", 5.0));
+        assertEquals(10.0 / 2.54, FormulaEvaluator.evaluateFormula("x / 2.54", 10.0));
+        assertEquals(7.5, FormulaEvaluator.evaluateFormula("x+2.5", 5.0));
+        assertEquals(4.5, FormulaEvaluator.evaluateFormula("x - .5", 5.0));
+    }
+
+    @Test
+    void evaluateFormula_ShouldEvaluateOtherFormulasWithInterpreter() {
+        assertEquals(25.0, FormulaEvaluator.evaluateFormula("x^2", 5.0));
+        assertEquals(45.0, FormulaEvaluator.evaluateFormula("x * 18 / 2", 5.0));
+    }
+
+    @Test
+    void evaluateFormula_ShouldThrowArithmeticException_WhenDividingByZero() {
+        assertThrows(ArithmeticException.class, () -> FormulaEvaluator.evaluateFormula("x / 0", 5.0));
+    }
+
+    @Test
+    void compile_ShouldReturnCachedFormula_WhenCalledTwice() {
+        assertSame(FormulaEvaluator.compile("x * 2.2046"), FormulaEvaluator.compile("x * 2.2046"));
+    }
+
+    @Test
+    void evaluateAll_ShouldConvertAllValues() {
+        double[] values = {1.0, 2.0, 3.0};
+
+        assertArrayEquals(new double[]{18.0, 36.0, 54.0}, FormulaEvaluator.compile("x * 18").evaluateAll(values));
+        assertArrayEquals(new double[]{1.0, 4.0, 9.0}, FormulaEvaluator.compile("x^2").evaluateAll(values));
+    }
+
+    @Test
+    void isValidFormula_ShouldReturnFalse_WhenFormulaIsInvalid() {
+        assertFalse(FormulaEvaluator.isValidFormula("x *"));
+        assertFalse(FormulaEvaluator.isValidFormula("y * 2"));
+        assertTrue(FormulaEvaluator.isValidFormula("x * 2"));
+    }
+}